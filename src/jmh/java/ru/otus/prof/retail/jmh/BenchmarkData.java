@@ -0,0 +1,125 @@
+package ru.otus.prof.retail.jmh;
+
+import ru.otus.prof.retail.dto.purchases.InputPositionDTO;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.entities.product.Barcode;
+import ru.otus.prof.retail.entities.product.Item;
+import ru.otus.prof.retail.entities.product.Price;
+import ru.otus.prof.retail.entities.purchases.Position;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.entities.purchases.Shift;
+
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+//Данные замеров реалистичного размера: смена кассы за день, товар со всеми штрих-кодами упаковок
+final class BenchmarkData {
+
+    static final LocalDateTime OPEN_TIME = LocalDateTime.of(2025, 6, 2, 8, 0);
+
+    private BenchmarkData() {
+    }
+
+    static Shift shift(int receipts, int positions) {
+        Shift shift = new Shift();
+        shift.setId(1L);
+        shift.setShiftNumber(42L);
+        shift.setShopNumber(101L);
+        shift.setCashNumber(3L);
+        shift.setOpenTime(OPEN_TIME);
+        shift.setCloseTime(OPEN_TIME.plusHours(14));
+
+        Set<Purchase> purchases = new HashSet<>(receipts * 2);
+        long positionId = 1;
+        long shiftTotal = 0;
+        for (int receipt = 1; receipt <= receipts; receipt++) {
+            Purchase purchase = new Purchase();
+            purchase.setId((long) receipt);
+            purchase.setShift(shift);
+            purchase.setReceiptNumber((long) receipt);
+            purchase.setPurchaseDate(OPEN_TIME.plusSeconds(receipt * 25L));
+            List<Position> items = new ArrayList<>(positions);
+            long total = 0;
+            for (int line = 0; line < positions; line++) {
+                long article = 1000 + (receipt * 7L + line) % 5000;
+                Position position = new Position();
+                position.setId(positionId++);
+                position.setPurchase(purchase);
+                position.setBarcode(barcode(article, 0));
+                position.setArticle(article);
+                position.setPositionName("Товар " + article);
+                position.setPrice(price(article));
+                position.setPurchaseDate(purchase.getPurchaseDate());
+                items.add(position);
+                total += position.getPrice();
+            }
+            purchase.setPositions(items);
+            purchase.setTotal(total);
+            purchases.add(purchase);
+            shiftTotal += total;
+        }
+        shift.setPurchases(purchases);
+        shift.setTotal(shiftTotal);
+        return shift;
+    }
+
+    static List<InputPurchaseDTO> inputPurchases(int receipts, int positions) {
+        List<InputPurchaseDTO> purchases = new ArrayList<>(receipts);
+        for (int receipt = 1; receipt <= receipts; receipt++) {
+            List<InputPositionDTO> items = new ArrayList<>(positions);
+            long total = 0;
+            for (int line = 0; line < positions; line++) {
+                long article = 1000 + (receipt * 7L + line) % 5000;
+                items.add(new InputPositionDTO(barcode(article, 0), article, "Товар " + article, price(article)));
+                total += price(article);
+            }
+            purchases.add(new InputPurchaseDTO(1L, OPEN_TIME.plusSeconds(receipt * 25L), total, items, (long) receipt));
+        }
+        return purchases;
+    }
+
+    static Item item(int barcodes, int prices) {
+        Item item = new Item();
+        item.setArticle(1001L);
+        item.setName("Вода питьевая 0,5 л");
+        item.setCreateDate(OPEN_TIME.minusYears(1));
+        item.setUpdateDate(OPEN_TIME);
+        Set<Barcode> itemBarcodes = new HashSet<>();
+        for (int i = 0; i < barcodes; i++) {
+            itemBarcodes.add(new Barcode(barcode(item.getArticle(), i), item));
+        }
+        item.setBarcodes(itemBarcodes);
+        Set<Price> itemPrices = new HashSet<>();
+        for (int i = 0; i < prices; i++) {
+            itemPrices.add(new Price((long) i + 1, 5990L + i * 100, item,
+                    OPEN_TIME.minusWeeks(prices - i), OPEN_TIME.minusWeeks(prices - i - 1)));
+        }
+        item.setPrices(itemPrices);
+        return item;
+    }
+
+    //репозиторий, который отвечает только на findById: преобразование DTO в сущность ищет по нему связанную сущность
+    @SuppressWarnings("unchecked")
+    static <T> T findByIdOnly(Class<T> repository, Function<Object, Object> entities) {
+        return (T) Proxy.newProxyInstance(repository.getClassLoader(), new Class<?>[]{repository}, (proxy, method, args) -> {
+            if (method.getName().equals("findById")) {
+                return Optional.ofNullable(entities.apply(args[0]));
+            }
+            throw new UnsupportedOperationException("Метод репозитория не используется в замере: " + method.getName());
+        });
+    }
+
+    private static String barcode(long article, int pack) {
+        return String.format("46%05d%06d", pack, article);
+    }
+
+    private static long price(long article) {
+        return 1990 + article % 400 * 10;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,59 @@
+package ru.otus.prof.retail.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.otus.prof.retail.dto.product.ItemDTO;
+import ru.otus.prof.retail.entities.product.Item;
+import ru.otus.prof.retail.mappers.product.BarcodeMapper;
+import ru.otus.prof.retail.mappers.product.ItemMapper;
+import ru.otus.prof.retail.mappers.product.PriceMapper;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+
+import java.util.concurrent.TimeUnit;
+
+//Преобразование товара со штрих-кодами всех упаковок (по умолчанию 50) и историей цен между сущностью и DTO
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ItemMappingBenchmark {
+
+    @Param("50")
+    private int barcodes;
+
+    @Param("10")
+    private int prices;
+
+    private ItemMapper itemMapper;
+    private Item item;
+    private ItemDTO itemDTO;
+
+    @Setup
+    public void setUp() {
+        item = BenchmarkData.item(barcodes, prices);
+        ItemRepository itemRepository = BenchmarkData.findByIdOnly(ItemRepository.class, article -> item);
+        itemMapper = new ItemMapper(new BarcodeMapper(itemRepository), new PriceMapper(itemRepository));
+        itemDTO = itemMapper.toDTO(item);
+    }
+
+    @Benchmark
+    public ItemDTO itemToDto() {
+        return itemMapper.toDTO(item);
+    }
+
+    @Benchmark
+    public Item itemDtoToEntity() {
+        return itemMapper.toEntity(itemDTO);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,112 @@
+package ru.otus.prof.retail.jmh;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+//Сравнение результатов JMH (-rf json) с базовыми. Регрессия - замер хуже базового больше чем на порог
+//и интервалы погрешности не пересекаются: разброс между запусками регрессией не считается.
+//Аргументы: базовые результаты, текущие результаты, порог в процентах, разрешен ли запуск без базовых (true/false).
+//Без базовых результатов сравнение падает: пропуск сравнения - только явным флагом
+public final class JmhRegressionReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private JmhRegressionReport() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        Path baselineFile = Path.of(args[0]);
+        Path resultsFile = Path.of(args[1]);
+        double threshold = Double.parseDouble(args[2]);
+        boolean allowMissingBaseline = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        if (!Files.exists(resultsFile)) {
+            System.err.println("Нет результатов " + resultsFile + ": сначала выполните ./gradlew jmh");
+            System.exit(1);
+        }
+        if (!Files.exists(baselineFile)) {
+            if (allowMissingBaseline) {
+                System.out.println("Нет базовых результатов " + baselineFile + ", сравнение пропущено (-Pjmh.allowMissingBaseline)");
+                return;
+            }
+            System.err.println("Нет базовых результатов " + baselineFile + ": сохраните замер на эталонной машине " +
+                    "командой ./gradlew jmh jmhBaseline или пропустите сравнение явно: -Pjmh.allowMissingBaseline");
+            System.exit(1);
+        }
+
+        Map<String, Score> baseline = read(baselineFile);
+        Map<String, Score> results = read(resultsFile);
+        int regressions = 0;
+        System.out.printf("%-75s %14s %14s %-8s %8s%n", "Замер", "Базовый", "Текущий", "Ед.", "Изм.");
+        for (Map.Entry<String, Score> entry : results.entrySet()) {
+            Score current = entry.getValue();
+            Score base = baseline.get(entry.getKey());
+            if (base == null) {
+                System.out.printf("%-75s %14s %14.3f %-8s %8s%n", entry.getKey(), "-", current.score(), current.unit(), "новый");
+                continue;
+            }
+            if (!base.unit().equals(current.unit())) {
+                System.out.printf("%-75s единицы изменились: %s -> %s, не сравнивается%n", entry.getKey(), base.unit(), current.unit());
+                continue;
+            }
+            //для пропускной способности лучше больше, для остальных режимов (время) - меньше
+            double change = 100.0 * (current.score() - base.score()) / base.score();
+            double worse = current.higherIsBetter() ? -change : change;
+            boolean separated = current.higherIsBetter()
+                    ? current.score() + current.error() < base.score() - base.error()
+                    : current.score() - current.error() > base.score() + base.error();
+            String mark = "";
+            if (worse > threshold && separated) {
+                mark = "  РЕГРЕССИЯ";
+                regressions++;
+            } else if (worse < -threshold) {
+                mark = "  улучшение";
+            }
+            System.out.printf("%-75s %14.3f %14.3f %-8s %+7.1f%%%s%n", entry.getKey(), base.score(), current.score(),
+                    current.unit(), change, mark);
+        }
+        baseline.keySet().stream()
+                .filter(key -> !results.containsKey(key))
+                .forEach(key -> System.out.printf("%-75s не запускался%n", key));
+
+        if (regressions > 0) {
+            System.err.printf("Регрессий: %d (порог %.1f%%)%n", regressions, threshold);
+            System.exit(1);
+        }
+    }
+
+    private static Map<String, Score> read(Path file) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : MAPPER.readTree(file.toFile())) {
+            JsonNode metric = run.path("primaryMetric");
+            //при одной итерации погрешность не считается и пишется как "NaN"
+            double error = metric.path("scoreError").asDouble(0);
+            scores.put(key(run), new Score(metric.path("score").asDouble(), Double.isNaN(error) ? 0 : error,
+                    metric.path("scoreUnit").asText(), "thrpt".equals(run.path("mode").asText())));
+        }
+        return scores;
+    }
+
+    private static String key(JsonNode run) {
+        String benchmark = run.path("benchmark").asText().replace("ru.otus.prof.retail.jmh.", "");
+        Map<String, String> params = new TreeMap<>();
+        Iterator<Map.Entry<String, JsonNode>> fields = run.path("params").fields();
+        while (fields.hasNext()) {
+            Map.Entry<String, JsonNode> field = fields.next();
+            params.put(field.getKey(), field.getValue().asText());
+        }
+        String mode = run.path("mode").asText();
+        return params.isEmpty() ? benchmark + " " + mode : benchmark + params + " " + mode;
+    }
+
+    private record Score(double score, double error, String unit, boolean higherIsBetter) {
+    }
+}
\ No newline at end of file
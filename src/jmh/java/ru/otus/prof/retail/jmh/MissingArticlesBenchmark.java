@@ -0,0 +1,106 @@
+package ru.otus.prof.retail.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.otus.prof.retail.PostgresTestSupport;
+import ru.otus.prof.retail.RetailApplication;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+//Поиск отсутствующих в каталоге артикулов при пакетной загрузке цен и штрих-кодов: в каталоге articles товаров,
+//запрашивается столько же артикулов, половина из которых отсутствует.
+//Контекст приложения с тестовым профилем (H2); при заданном RETAIL_PG_URL - PostgreSQL, как в Pg*-тестах
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MissingArticlesBenchmark {
+
+    private static final long BASE_ARTICLE = 60_000_000L;
+
+    @Param({"10000", "100000"})
+    private int articles;
+
+    private ConfigurableApplicationContext context;
+    private ItemRepository itemRepository;
+    private JdbcTemplate jdbcTemplate;
+    private Set<Long> requested;
+    private long[] requestedSorted;
+
+    @Setup
+    public void setUp() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("spring.jpa.show-sql", false);
+        properties.put("logging.level.root", "WARN");
+        properties.put("retail.catalog-export.enabled", false);
+        properties.put("retail.catalog-snapshot.enabled", false);
+        properties.put("retail.price-index.enabled", false);
+        if (System.getenv(PostgresTestSupport.URL_VARIABLE) != null) {
+            PostgresTestSupport.register((name, value) -> properties.put(name, value.get()));
+        }
+        context = new SpringApplicationBuilder(RetailApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(properties)
+                .run();
+        itemRepository = context.getBean(ItemRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> rows = LongStream.range(0, articles).map(i -> BASE_ARTICLE + i * 2).boxed().toList();
+        jdbcTemplate.batchUpdate("INSERT INTO items (article, name, create_date, update_time) VALUES (?, ?, ?, ?)",
+                rows, 1000, (statement, article) -> {
+                    statement.setLong(1, article);
+                    statement.setString(2, "Item " + article);
+                    statement.setTimestamp(3, now);
+                    statement.setTimestamp(4, now);
+                });
+
+        //каждый второй запрошенный артикул отсутствует
+        requested = new HashSet<>();
+        LongStream.range(0, articles).map(i -> BASE_ARTICLE + i).forEach(requested::add);
+        requestedSorted = requested.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    @TearDown
+    public void tearDown() {
+        jdbcTemplate.update("DELETE FROM items WHERE article >= ?", BASE_ARTICLE);
+        context.close();
+    }
+
+    @Benchmark
+    public List<Long> findMissingArticles() {
+        return itemRepository.findMissingArticles(requested);
+    }
+
+    //только запросы существующих артикулов, без сортировки набора и поиска отсутствующих
+    @Benchmark
+    public long[] findExistingArticlesSorted() {
+        return itemRepository.findExistingArticlesSorted(requestedSorted);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,66 @@
+package ru.otus.prof.retail.jmh;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.mappers.purchases.PositionMapper;
+import ru.otus.prof.retail.mappers.purchases.PurchaseMapper;
+import ru.otus.prof.retail.mappers.purchases.ShiftMapper;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+//JSON смены с чеками в том виде, в каком ее отдают эндпоинты выдачи смен.
+//ObjectMapper настроен так же, как в приложении (Jackson2ObjectMapperBuilder Spring Boot по умолчанию)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ShiftJsonBenchmark {
+
+    @Param("2000")
+    private int receipts;
+
+    @Param("5")
+    private int positions;
+
+    private ObjectMapper objectMapper;
+    private ObjectWriter shiftWriter;
+    private ShiftDTO shiftDTO;
+    private byte[] json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        shiftWriter = objectMapper.writerFor(ShiftDTO.class);
+        //репозитории не нужны: toDTO к ним не обращается
+        ShiftMapper shiftMapper = new ShiftMapper(new PurchaseMapper(new PositionMapper(null), null));
+        shiftDTO = shiftMapper.toDTO(BenchmarkData.shift(receipts, positions), true);
+        json = shiftWriter.writeValueAsBytes(shiftDTO);
+    }
+
+    @Benchmark
+    public byte[] serialize() throws JsonProcessingException {
+        return shiftWriter.writeValueAsBytes(shiftDTO);
+    }
+
+    @Benchmark
+    public ShiftDTO deserialize() throws IOException {
+        return objectMapper.readValue(json, ShiftDTO.class);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,85 @@
+package ru.otus.prof.retail.jmh;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.entities.purchases.Shift;
+import ru.otus.prof.retail.mappers.purchases.PositionMapper;
+import ru.otus.prof.retail.mappers.purchases.PurchaseMapper;
+import ru.otus.prof.retail.mappers.purchases.ShiftMapper;
+import ru.otus.prof.retail.repositories.purchases.PurchaseRepository;
+import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Преобразование смены кассы за день (по умолчанию 2000 чеков по 5 позиций) между сущностями и DTO:
+//выдача смены с чеками, сохранение смены из DTO и пакетная загрузка чеков с кассы
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = {"-Xms2g", "-Xmx2g"})
+public class ShiftMappingBenchmark {
+
+    @Param("2000")
+    private int receipts;
+
+    @Param("5")
+    private int positions;
+
+    private ShiftMapper shiftMapper;
+    private PurchaseMapper purchaseMapper;
+    private Shift shift;
+    private ShiftDTO shiftDTO;
+    private List<InputPurchaseDTO> inputPurchases;
+
+    @Setup
+    public void setUp() {
+        shift = BenchmarkData.shift(receipts, positions);
+        Map<Object, Purchase> purchasesById = shift.getPurchases().stream()
+                .collect(Collectors.toMap(Purchase::getId, Function.identity()));
+
+        PositionMapper positionMapper = new PositionMapper(
+                BenchmarkData.findByIdOnly(PurchaseRepository.class, purchasesById::get));
+        purchaseMapper = new PurchaseMapper(positionMapper,
+                BenchmarkData.findByIdOnly(ShiftRepository.class, id -> shift));
+        shiftMapper = new ShiftMapper(purchaseMapper);
+
+        shiftDTO = shiftMapper.toDTO(shift, true);
+        inputPurchases = BenchmarkData.inputPurchases(receipts, positions);
+    }
+
+    @Benchmark
+    public ShiftDTO shiftToDto() {
+        return shiftMapper.toDTO(shift, true);
+    }
+
+    @Benchmark
+    public Shift shiftDtoToEntity() {
+        return shiftMapper.toEntity(shiftDTO);
+    }
+
+    @Benchmark
+    public void inputPurchasesToEntities(Blackhole blackhole) {
+        for (InputPurchaseDTO purchase : inputPurchases) {
+            blackhole.consume(purchaseMapper.toEntity(purchase, shift));
+        }
+    }
+}
\ No newline at end of file
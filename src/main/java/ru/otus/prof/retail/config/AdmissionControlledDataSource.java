@@ -0,0 +1,148 @@
+package ru.otus.prof.retail.config;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+//Допуск к пулу соединений через честный семафор: соединение выдается не более чем permits потокам одновременно,
+//остальные ждут в очереди FIFO. При тысячах виртуальных потоков очередь ограничена maxWaiting:
+//сверх нее запрос сразу получает отказ (503), а не копится в пуле до connectionTimeout.
+//Разрешение возвращается при закрытии соединения
+public class AdmissionControlledDataSource extends DelegatingDataSource {
+
+    private final Semaphore semaphore;
+    private final int permits;
+    private final int maxWaiting;
+    private final long acquireTimeoutMs;
+
+    private final AtomicLong admitted = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+
+    public AdmissionControlledDataSource(DataSource target, int permits, int maxWaiting, long acquireTimeoutMs) {
+        super(target);
+        if (permits <= 0) {
+            throw new IllegalArgumentException("Число разрешений должно быть положительным: " + permits);
+        }
+        this.semaphore = new Semaphore(permits, true);
+        this.permits = permits;
+        this.maxWaiting = maxWaiting;
+        this.acquireTimeoutMs = acquireTimeoutMs;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        admit();
+        try {
+            return admitted(super.getConnection());
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        admit();
+        try {
+            return admitted(super.getConnection(username, password));
+        } catch (SQLException | RuntimeException e) {
+            semaphore.release();
+            throw e;
+        }
+    }
+
+    private void admit() throws SQLException {
+        //длина очереди приблизительная, поэтому граница мягкая: важно не пускать в ожидание тысячи потоков
+        if (semaphore.availablePermits() == 0 && semaphore.getQueueLength() >= maxWaiting) {
+            rejected.incrementAndGet();
+            throw new SQLTransientConnectionException("Очередь ожидания соединения с БД заполнена: " + maxWaiting);
+        }
+        try {
+            if (!semaphore.tryAcquire(acquireTimeoutMs, TimeUnit.MILLISECONDS)) {
+                timedOut.incrementAndGet();
+                throw new SQLTransientConnectionException("Соединение с БД не выдано за " + acquireTimeoutMs + " мс");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLTransientConnectionException("Ожидание соединения с БД прервано", e);
+        }
+        admitted.incrementAndGet();
+    }
+
+    private Connection admitted(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[]{Connection.class}, new PermitReleasingHandler(connection));
+    }
+
+    public int getPermits() {
+        return permits;
+    }
+
+    public int getInUse() {
+        return permits - semaphore.availablePermits();
+    }
+
+    public int getWaiting() {
+        return semaphore.getQueueLength();
+    }
+
+    public long getAdmitted() {
+        return admitted.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getTimedOut() {
+        return timedOut.get();
+    }
+
+    private final class PermitReleasingHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private PermitReleasingHandler(Connection target) {
+            this.target = target;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    //повторное закрытие не возвращает разрешение второй раз
+                    try {
+                        target.close();
+                    } finally {
+                        if (released.compareAndSet(false, true)) {
+                            semaphore.release();
+                        }
+                    }
+                    return null;
+                default:
+                    try {
+                        return method.invoke(target, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+            }
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,44 @@
+package ru.otus.prof.retail.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+import javax.sql.DataSource;
+
+//Оборачивает пул соединений в AdmissionControlledDataSource. По умолчанию разрешений столько же,
+//сколько соединений в пуле Hikari: в самом пуле ожидающих не бывает
+@Configuration
+@ConditionalOnProperty(name = "retail.db-admission.enabled", havingValue = "true")
+public class DatabaseAdmissionConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(DatabaseAdmissionConfig.class);
+
+    @Bean
+    public static BeanPostProcessor databaseAdmissionPostProcessor(Environment environment) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (!(bean instanceof DataSource dataSource) || bean instanceof AdmissionControlledDataSource) {
+                    return bean;
+                }
+                int poolSize = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+                int permits = environment.getProperty("retail.db-admission.permits", Integer.class, poolSize);
+                int maxWaiting = environment.getProperty("retail.db-admission.max-waiting", Integer.class, 1000);
+                long acquireTimeoutMs = environment.getProperty("retail.db-admission.acquire-timeout-ms", Long.class, 10000L);
+                if (permits > poolSize) {
+                    logger.warn("Разрешений допуска к БД ({}) больше, чем соединений в пуле ({}): потоки будут ждать в пуле",
+                            permits, poolSize);
+                }
+                logger.info("Допуск к БД для {}: {} разрешений, очередь до {}, ожидание до {} мс",
+                        beanName, permits, maxWaiting, acquireTimeoutMs);
+                return new AdmissionControlledDataSource(dataSource, permits, maxWaiting, acquireTimeoutMs);
+            }
+        };
+    }
+}
\ No newline at end of file
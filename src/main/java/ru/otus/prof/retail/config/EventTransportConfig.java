@@ -0,0 +1,28 @@
+package ru.otus.prof.retail.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import ru.otus.prof.retail.services.events.EventTransport;
+import ru.otus.prof.retail.services.events.InMemoryEventTransport;
+import ru.otus.prof.retail.services.events.KafkaEventTransport;
+
+//retail.events.transport: memory - встроенный брокер в памяти, kafka - кластер Kafka
+@Configuration
+public class EventTransportConfig {
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "retail.events.transport", havingValue = "memory", matchIfMissing = true)
+    public EventTransport inMemoryEventTransport(@Value("${retail.events.partitions:12}") int partitions,
+                                                 @Value("${retail.events.memory.retention-records:100000}") int retentionRecords) {
+        return new InMemoryEventTransport(partitions, retentionRecords);
+    }
+
+    @Bean(destroyMethod = "close")
+    @ConditionalOnProperty(name = "retail.events.transport", havingValue = "kafka")
+    public EventTransport kafkaEventTransport(@Value("${retail.events.kafka.bootstrap-servers}") String bootstrapServers,
+                                              @Value("${retail.events.kafka.client-id:retail-server}") String clientId) {
+        return new KafkaEventTransport(bootstrapServers, clientId);
+    }
+}
\ No newline at end of file
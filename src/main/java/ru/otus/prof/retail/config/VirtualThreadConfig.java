@@ -0,0 +1,46 @@
+package ru.otus.prof.retail.config;
+
+import org.apache.coyote.ProtocolHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.web.servlet.config.annotation.AsyncSupportConfigurer;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.concurrent.ExecutorService;
+
+//Обработка запросов на виртуальных потоках: медленная выгрузка кассы не занимает поток платформы из пула Tomcat.
+//Число одновременных обращений к БД ограничивает retail.db-admission (AdmissionControlledDataSource)
+@Configuration
+@ConditionalOnProperty(name = "retail.virtual-threads.enabled", havingValue = "true")
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    private static final Logger logger = LoggerFactory.getLogger(VirtualThreadConfig.class);
+
+    private final ExecutorService requestExecutor;
+
+    public VirtualThreadConfig() {
+        this.requestExecutor = VirtualThreads.newExecutor("http-vt-");
+        logger.info("Запросы обрабатываются на виртуальных потоках");
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService virtualThreadRequestExecutor() {
+        return requestExecutor;
+    }
+
+    @Bean
+    public TomcatProtocolHandlerCustomizer<ProtocolHandler> virtualThreadProtocolHandlerCustomizer() {
+        return protocolHandler -> protocolHandler.setExecutor(requestExecutor);
+    }
+
+    //потоковые ответы (StreamingResponseBody) тоже пишутся из виртуальных потоков
+    @Override
+    public void configureAsyncSupport(AsyncSupportConfigurer configurer) {
+        configurer.setTaskExecutor(new TaskExecutorAdapter(requestExecutor));
+    }
+}
\ No newline at end of file
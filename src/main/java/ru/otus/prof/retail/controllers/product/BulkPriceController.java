@@ -0,0 +1,81 @@
+package ru.otus.prof.retail.controllers.product;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.otus.prof.retail.dto.error.ErrorResponse;
+import ru.otus.prof.retail.dto.product.BulkPriceUpdateResultDTO;
+import ru.otus.prof.retail.services.product.BulkPriceUpdateService;
+import ru.otus.prof.retail.services.product.pricing.PriceListFormat;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/product/price/bulk")
+@Validated
+@Tag(name = "Цены", description = "API для работы с ценами товаров")
+public class BulkPriceController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkPriceController.class);
+
+    private static final String TEXT_CSV_VALUE = "text/csv";
+
+    private final BulkPriceUpdateService bulkPriceUpdateService;
+
+    @Autowired
+    public BulkPriceController(BulkPriceUpdateService bulkPriceUpdateService) {
+        this.bulkPriceUpdateService = bulkPriceUpdateService;
+    }
+
+    @Operation(summary = "Массовое обновление цен из CSV",
+            description = "Принимает строки article,price (заголовок допускается). Цены, совпадающие с текущими, пропускаются")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Цены обновлены",
+                    content = @Content(schema = @Schema(implementation = BulkPriceUpdateResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверная строка или повторяющиеся артикулы",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Товары из прайс-листа не найдены",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping(consumes = TEXT_CSV_VALUE)
+    public ResponseEntity<BulkPriceUpdateResultDTO> updateFromCsv(
+            InputStream body,
+            @Parameter(description = "Удалить прежние цены измененных товаров", example = "false")
+            @RequestParam(defaultValue = "false") boolean replace) {
+        logger.info("Получен прайс-лист CSV, замена прежних цен: {}", replace);
+        return ResponseEntity.ok(bulkPriceUpdateService.update(body, PriceListFormat.CSV, replace));
+    }
+
+    @Operation(summary = "Массовое обновление цен из NDJSON",
+            description = "Принимает по одному объекту {\"article\":..,\"price\":..} на строку. Цены, совпадающие с текущими, пропускаются")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Цены обновлены",
+                    content = @Content(schema = @Schema(implementation = BulkPriceUpdateResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверная строка или повторяющиеся артикулы",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Товары из прайс-листа не найдены",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BulkPriceUpdateResultDTO> updateFromNdjson(
+            InputStream body,
+            @Parameter(description = "Удалить прежние цены измененных товаров", example = "false")
+            @RequestParam(defaultValue = "false") boolean replace) {
+        logger.info("Получен прайс-лист NDJSON, замена прежних цен: {}", replace);
+        return ResponseEntity.ok(bulkPriceUpdateService.update(body, PriceListFormat.NDJSON, replace));
+    }
+}
\ No newline at end of file
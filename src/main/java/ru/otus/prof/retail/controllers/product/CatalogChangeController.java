@@ -0,0 +1,61 @@
+package ru.otus.prof.retail.controllers.product;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.otus.prof.retail.dto.product.CatalogChangesDTO;
+import ru.otus.prof.retail.services.product.CatalogChangeService;
+
+@RestController
+@RequestMapping("/api/v1/product/changes")
+@Validated
+@Tag(name = "Изменения каталога", description = "API для инкрементальной синхронизации каталога на кассах")
+public class CatalogChangeController {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeController.class);
+
+    private final CatalogChangeService catalogChangeService;
+
+    @Autowired
+    public CatalogChangeController(CatalogChangeService catalogChangeService) {
+        this.catalogChangeService = catalogChangeService;
+    }
+
+    @Operation(summary = "Изменения каталога после версии",
+            description = "Возвращает текущее состояние товаров, измененных после указанной версии, по одной записи на товар")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Изменения получены", content = @Content(schema = @Schema(implementation = CatalogChangesDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверные параметры запроса")
+    })
+    @GetMapping
+    public ResponseEntity<CatalogChangesDTO> getChanges(
+            @RequestParam(defaultValue = "0")
+            @Min(value = 0, message = "Версия не может быть отрицательной")
+            @Parameter(description = "Последняя полученная версия каталога", example = "1042")
+            long since,
+            @RequestParam(required = false)
+            @Parameter(description = "Курсор по артикулу внутри версии since (nextAfter предыдущей страницы)", example = "12345")
+            Long after,
+            @RequestParam(defaultValue = "1000")
+            @Min(value = 1, message = "Размер страницы должен быть не меньше 1")
+            @Max(value = 10000, message = "Размер страницы должен быть не больше 10000")
+            @Parameter(description = "Максимальное количество товаров на странице", example = "1000")
+            int limit) {
+        logger.debug("Запрос изменений каталога после версии {} (артикул {}), лимит {}", since, after, limit);
+        return ResponseEntity.ok(catalogChangeService.getChanges(since, after, limit));
+    }
+}
\ No newline at end of file
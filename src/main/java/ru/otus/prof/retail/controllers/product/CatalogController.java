@@ -0,0 +1,83 @@
+package ru.otus.prof.retail.controllers.product;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.otus.prof.retail.dto.product.CatalogItemDTO;
+import ru.otus.prof.retail.dto.product.CatalogSnapshotDTO;
+import ru.otus.prof.retail.dto.product.ScanItemDTO;
+import ru.otus.prof.retail.services.product.CatalogSnapshotService;
+
+@RestController
+@RequestMapping("/api/v1/product/catalog")
+@Validated
+@Tag(name = "Снимок каталога", description = "API для поиска по снимку каталога без обращения к БД")
+public class CatalogController {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogController.class);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    public CatalogController(CatalogSnapshotService catalogSnapshotService) {
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    @Operation(summary = "Состояние снимка", description = "Возвращает размер снимка каталога и время его сборки")
+    @ApiResponse(responseCode = "200", description = "Состояние получено", content = @Content(schema = @Schema(implementation = CatalogSnapshotDTO.class)))
+    @GetMapping
+    public ResponseEntity<CatalogSnapshotDTO> getInfo() {
+        return ResponseEntity.ok(catalogSnapshotService.getInfo());
+    }
+
+    @Operation(summary = "Пересборка снимка", description = "Собирает снимок каталога заново и атомарно подменяет текущий")
+    @ApiResponse(responseCode = "200", description = "Снимок собран", content = @Content(schema = @Schema(implementation = CatalogSnapshotDTO.class)))
+    @PostMapping("/rebuild")
+    public ResponseEntity<CatalogSnapshotDTO> rebuild() {
+        logger.info("Запрос на пересборку снимка каталога");
+        return ResponseEntity.ok(catalogSnapshotService.rebuild());
+    }
+
+    @Operation(summary = "Поиск по штрих-коду", description = "Возвращает товар и цену из снимка каталога по штрих-коду")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Товар найден", content = @Content(schema = @Schema(implementation = ScanItemDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверный формат штрих-кода"),
+            @ApiResponse(responseCode = "404", description = "Штрих-код не найден")
+    })
+    @GetMapping("/barcode/{barcode}")
+    public ResponseEntity<ScanItemDTO> findByBarcode(
+            @PathVariable
+            @NotBlank(message = "Штрих-код не может быть пустым")
+            @Size(min = 8, max = 50, message = "Длина штрих-кода должна быть от 8 до 50 символов")
+            @Parameter(description = "Значение штрих-кода", required = true, example = "123456789012")
+            String barcode) {
+        return ResponseEntity.ok(catalogSnapshotService.findByBarcode(barcode));
+    }
+
+    @Operation(summary = "Поиск по артикулу", description = "Возвращает товар и цену из снимка каталога по артикулу")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Товар найден", content = @Content(schema = @Schema(implementation = CatalogItemDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверный артикул"),
+            @ApiResponse(responseCode = "404", description = "Товар не найден")
+    })
+    @GetMapping("/article/{article}")
+    public ResponseEntity<CatalogItemDTO> findByArticle(
+            @PathVariable
+            @Min(value = 1, message = "Артикул должен быть положительным числом")
+            @Parameter(description = "Артикул товара", required = true, example = "12345")
+            Long article) {
+        return ResponseEntity.ok(catalogSnapshotService.findByArticle(article));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,140 @@
+package ru.otus.prof.retail.controllers.product;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import ru.otus.prof.retail.dto.product.CatalogExportDTO;
+import ru.otus.prof.retail.services.product.CatalogExportService;
+import ru.otus.prof.retail.services.product.export.CatalogExportFile;
+
+import java.io.EOFException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/product/catalog/export")
+@Tag(name = "Выгрузка каталога", description = "API для начальной загрузки каталога на кассу")
+public class CatalogExportController {
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportController.class);
+
+    private static final MediaType GZIP = MediaType.parseMediaType("application/gzip");
+
+    private final CatalogExportService catalogExportService;
+
+    @Autowired
+    public CatalogExportController(CatalogExportService catalogExportService) {
+        this.catalogExportService = catalogExportService;
+    }
+
+    //Range и If-Range разбираются здесь, а не Spring: при несовпадении If-Range нужно отдать файл целиком.
+    //Тело - копия готового файла через FileChannel.transferTo, без сериализации на запрос
+    @Operation(summary = "Скачивание каталога", description = "Отдает сжатый бинарный каталог; поддерживаются ETag, If-None-Match, Range и If-Range для докачки")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Файл каталога"),
+            @ApiResponse(responseCode = "206", description = "Часть файла каталога"),
+            @ApiResponse(responseCode = "304", description = "Каталог не изменился"),
+            @ApiResponse(responseCode = "416", description = "Запрошенный диапазон вне файла"),
+            @ApiResponse(responseCode = "503", description = "Выгрузка еще не готова")
+    })
+    @GetMapping
+    public ResponseEntity<StreamingResponseBody> download(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String range,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange) {
+        CatalogExportFile export = catalogExportService.getCurrent();
+        HttpHeaders headers = new HttpHeaders();
+        headers.setETag(export.etag());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.set("X-Catalog-Version", Long.toString(export.catalogVersion()));
+
+        if (ifNoneMatch != null && ifNoneMatch.equals(export.etag())) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+        }
+
+        List<HttpRange> ranges = parseRanges(range, ifRange, export);
+        if (ranges.size() != 1) {
+            logger.info("Скачивание каталога версии {} целиком", export.catalogVersion());
+            headers.setContentType(GZIP);
+            headers.setContentLength(export.size());
+            return ResponseEntity.ok().headers(headers).body(copy(export, 0, export.size()));
+        }
+
+        long start;
+        long end;
+        try {
+            start = ranges.get(0).getRangeStart(export.size());
+            end = ranges.get(0).getRangeEnd(export.size());
+        } catch (IllegalArgumentException e) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + export.size());
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+        }
+        logger.info("Докачка каталога версии {} с байта {}", export.catalogVersion(), start);
+        headers.setContentType(GZIP);
+        headers.setContentLength(end - start + 1);
+        headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + export.size());
+        return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).body(copy(export, start, end - start + 1));
+    }
+
+    @Operation(summary = "Сведения о выгрузке", description = "Возвращает версию каталога, размер и ETag текущей выгрузки")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Сведения получены", content = @Content(schema = @Schema(implementation = CatalogExportDTO.class))),
+            @ApiResponse(responseCode = "503", description = "Выгрузка еще не готова")
+    })
+    @GetMapping("/info")
+    public ResponseEntity<CatalogExportDTO> getInfo() {
+        return ResponseEntity.ok(catalogExportService.getInfo());
+    }
+
+    @Operation(summary = "Пересборка выгрузки", description = "Выгружает каталог заново, не дожидаясь фоновой проверки")
+    @ApiResponse(responseCode = "200", description = "Каталог выгружен", content = @Content(schema = @Schema(implementation = CatalogExportDTO.class)))
+    @PostMapping("/rebuild")
+    public ResponseEntity<CatalogExportDTO> rebuild() {
+        logger.info("Запрос на пересборку выгрузки каталога");
+        return ResponseEntity.ok(catalogExportService.regenerate());
+    }
+
+    //Range без If-Range или с совпадающим If-Range; несколько диапазонов и неверный заголовок - файл целиком
+    private List<HttpRange> parseRanges(String range, String ifRange, CatalogExportFile export) {
+        if (range == null || (ifRange != null && !ifRange.equals(export.etag()))) {
+            return List.of();
+        }
+        try {
+            return HttpRange.parseRanges(range);
+        } catch (IllegalArgumentException e) {
+            logger.warn("Неверный заголовок Range: {}", range);
+            return List.of();
+        }
+    }
+
+    private StreamingResponseBody copy(CatalogExportFile export, long position, long count) {
+        return outputStream -> {
+            try (FileChannel channel = FileChannel.open(export.path(), StandardOpenOption.READ)) {
+                WritableByteChannel target = Channels.newChannel(outputStream);
+                long written = 0;
+                while (written < count) {
+                    long transferred = channel.transferTo(position + written, count - written, target);
+                    if (transferred <= 0) {
+                        throw new EOFException("Файл выгрузки каталога короче ожидаемого: " + export.path());
+                    }
+                    written += transferred;
+                }
+            }
+        };
+    }
+}
\ No newline at end of file
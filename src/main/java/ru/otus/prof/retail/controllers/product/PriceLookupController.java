@@ -0,0 +1,73 @@
+package ru.otus.prof.retail.controllers.product;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.otus.prof.retail.dto.product.ArticlePriceDTO;
+import ru.otus.prof.retail.dto.product.PriceIndexDTO;
+import ru.otus.prof.retail.services.product.PriceLookupService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/product/price")
+@Validated
+@Tag(name = "Цены", description = "API для работы с ценами товаров")
+public class PriceLookupController {
+    private static final Logger logger = LoggerFactory.getLogger(PriceLookupController.class);
+
+    private final PriceLookupService priceLookupService;
+
+    @Autowired
+    public PriceLookupController(PriceLookupService priceLookupService) {
+        this.priceLookupService = priceLookupService;
+    }
+
+    @Operation(summary = "Цены на момент", description = "Возвращает цены, действующие на указанный момент, " +
+            "по набору артикулов. Товары без цены на этот момент в ответ не попадают")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Цены получены",
+                    content = @Content(array = @ArraySchema(schema = @Schema(implementation = ArticlePriceDTO.class)))),
+            @ApiResponse(responseCode = "400", description = "Неверный набор артикулов или момент")
+    })
+    @GetMapping("/at")
+    public ResponseEntity<List<ArticlePriceDTO>> findPricesAt(
+            @Parameter(description = "Артикулы товаров", required = true, example = "1001,1002")
+            @RequestParam @NotEmpty @Size(max = 10000, message = "Не более 10000 артикулов в запросе") List<Long> articles,
+            @Parameter(description = "Момент, по умолчанию - текущий", example = "2025-06-09T12:00:00")
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        LocalDateTime moment = at == null ? LocalDateTime.now() : at;
+        logger.info("Запрос цен на {} для {} артикулов", moment, articles.size());
+        return ResponseEntity.ok(priceLookupService.findPricesAt(articles, moment));
+    }
+
+    @Operation(summary = "Состояние индекса цен", description = "Возвращает размер индекса цен на текущие сутки и время его сборки")
+    @ApiResponse(responseCode = "200", description = "Состояние получено", content = @Content(schema = @Schema(implementation = PriceIndexDTO.class)))
+    @GetMapping("/index")
+    public ResponseEntity<PriceIndexDTO> getIndexInfo() {
+        return ResponseEntity.ok(priceLookupService.getInfo());
+    }
+
+    @Operation(summary = "Пересборка индекса цен", description = "Собирает индекс цен на текущие сутки заново")
+    @ApiResponse(responseCode = "200", description = "Индекс собран", content = @Content(schema = @Schema(implementation = PriceIndexDTO.class)))
+    @PostMapping("/index/rebuild")
+    public ResponseEntity<PriceIndexDTO> rebuildIndex() {
+        logger.info("Запрос на пересборку индекса цен");
+        return ResponseEntity.ok(priceLookupService.rebuild());
+    }
+}
\ No newline at end of file
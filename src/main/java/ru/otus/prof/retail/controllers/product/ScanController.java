@@ -0,0 +1,59 @@
+package ru.otus.prof.retail.controllers.product;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+import ru.otus.prof.retail.dto.product.ScanCacheStatsDTO;
+import ru.otus.prof.retail.dto.product.ScanItemDTO;
+import ru.otus.prof.retail.services.product.BarcodeLookupService;
+
+@RestController
+@RequestMapping("/api/v1/product/scan")
+@Validated
+@Tag(name = "Сканирование", description = "API для кассового сканирования штрих-кодов")
+public class ScanController {
+    private static final Logger logger = LoggerFactory.getLogger(ScanController.class);
+
+    private final BarcodeLookupService barcodeLookupService;
+
+    @Autowired
+    public ScanController(BarcodeLookupService barcodeLookupService) {
+        this.barcodeLookupService = barcodeLookupService;
+    }
+
+    @Operation(summary = "Сканирование штрих-кода", description = "Возвращает артикул, название и текущую цену товара по штрих-коду")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Товар найден", content = @Content(schema = @Schema(implementation = ScanItemDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверный формат штрих-кода"),
+            @ApiResponse(responseCode = "404", description = "Штрих-код не найден")
+    })
+    @GetMapping("/{barcode}")
+    public ResponseEntity<ScanItemDTO> scan(
+            @PathVariable
+            @NotBlank(message = "Штрих-код не может быть пустым")
+            @Size(min = 8, max = 50, message = "Длина штрих-кода должна быть от 8 до 50 символов")
+            @Parameter(description = "Значение штрих-кода", required = true, example = "123456789012")
+            String barcode) {
+        logger.debug("Сканирование штрих-кода: {}", barcode);
+        return ResponseEntity.ok(barcodeLookupService.lookup(barcode));
+    }
+
+    @Operation(summary = "Статистика кэша сканирования", description = "Возвращает число обращений, попаданий, промахов и размер кэша")
+    @ApiResponse(responseCode = "200", description = "Статистика получена", content = @Content(schema = @Schema(implementation = ScanCacheStatsDTO.class)))
+    @GetMapping("/stats")
+    public ResponseEntity<ScanCacheStatsDTO> getStats() {
+        return ResponseEntity.ok(barcodeLookupService.getStats());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,56 @@
+package ru.otus.prof.retail.controllers.purchases;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.otus.prof.retail.dto.error.ErrorResponse;
+import ru.otus.prof.retail.dto.purchases.BackfillResultDTO;
+import ru.otus.prof.retail.services.purchases.backfill.SalesBackfillService;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/purchases/backfill")
+@Validated
+@Tag(name = "Загрузка истории", description = "API для загрузки исторических продаж при подключении сети")
+public class BackfillController {
+
+    private static final Logger logger = LoggerFactory.getLogger(BackfillController.class);
+    private final SalesBackfillService salesBackfillService;
+
+    @Autowired
+    public BackfillController(SalesBackfillService salesBackfillService) {
+        this.salesBackfillService = salesBackfillService;
+    }
+
+    @Operation(summary = "Загрузить исторические продажи",
+            description = "Принимает NDJSON, по одной смене (ShiftDTO с чеками и позициями) на строку. " +
+                    "ID из запроса игнорируются и выделяются из последовательностей")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Продажи загружены",
+                    content = @Content(schema = @Schema(implementation = BackfillResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверный формат или содержимое записи",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Ошибка записи в базу данных",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<BackfillResultDTO> backfill(InputStream body) {
+        logger.info("Получен запрос загрузки исторических продаж");
+        BackfillResultDTO result = salesBackfillService.backfill(body);
+        logger.debug("Загрузка истории завершена: {} смен, режим {}", result.shifts(), result.mode());
+        return ResponseEntity.ok(result);
+    }
+}
\ No newline at end of file
@@ -18,6 +18,8 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.otus.prof.retail.dto.error.ErrorResponse;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.PurchaseBatchResultDTO;
 import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
 import ru.otus.prof.retail.services.purchases.PurchaseService;
 
@@ -141,4 +143,28 @@ public class PurchaseController {
                 result.size(), shopNumber, cashNumber, date);
         return result;
     }
+
+    @Operation(summary = "Пакетная загрузка чеков с касс",
+            description = "Сохраняет чеки вместе с позициями пачками (JDBC batching), возвращает количество сохраненных записей. " +
+                    "Каждый чек должен иметь номер (receiptNumber): по нему отсеиваются повторно переданные чеки")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Чеки сохранены",
+                    content = @Content(schema = @Schema(implementation = PurchaseBatchResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Невалидные параметры",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "404", description = "Одна или несколько смен не найдены",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class))),
+            @ApiResponse(responseCode = "500", description = "Внутренняя ошибка сервера",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))})
+    @PostMapping("/batch")
+    public PurchaseBatchResultDTO createPurchases(
+            @Parameter(description = "Список чеков с позициями", required = true)
+            @RequestBody @Valid @NotEmpty List<@Valid InputPurchaseDTO> purchases) {
+
+        logger.info("Запрос на пакетную загрузку {} чеков", purchases.size());
+        PurchaseBatchResultDTO result = purchaseService.createPurchases(purchases);
+        logger.info("Загружено {} чеков и {} позиций за {} мс",
+                result.purchases(), result.positions(), result.elapsedMs());
+        return result;
+    }
 }
\ No newline at end of file
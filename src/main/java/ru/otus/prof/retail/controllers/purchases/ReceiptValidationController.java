@@ -0,0 +1,54 @@
+package ru.otus.prof.retail.controllers.purchases;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.ArraySchema;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.otus.prof.retail.dto.purchases.QuarantinedPositionDTO;
+import ru.otus.prof.retail.dto.purchases.ReceiptValidationStatsDTO;
+import ru.otus.prof.retail.services.purchases.ReceiptValidationService;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/purchases/validation")
+@Tag(name = "Проверка чеков", description = "API для расхождений позиций чеков с каталогом")
+public class ReceiptValidationController {
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptValidationController.class);
+
+    private final ReceiptValidationService receiptValidationService;
+
+    @Autowired
+    public ReceiptValidationController(ReceiptValidationService receiptValidationService) {
+        this.receiptValidationService = receiptValidationService;
+    }
+
+    @Operation(summary = "Статистика проверки", description = "Возвращает счетчики проверенных чеков и расхождений по причинам")
+    @ApiResponse(responseCode = "200", description = "Статистика получена",
+            content = @Content(schema = @Schema(implementation = ReceiptValidationStatsDTO.class)))
+    @GetMapping("/stats")
+    public ResponseEntity<ReceiptValidationStatsDTO> getStats() {
+        return ResponseEntity.ok(receiptValidationService.getStats());
+    }
+
+    @Operation(summary = "Карантин смены", description = "Возвращает позиции смены, не совпавшие с каталогом при загрузке")
+    @ApiResponse(responseCode = "200", description = "Позиции получены",
+            content = @Content(array = @ArraySchema(schema = @Schema(implementation = QuarantinedPositionDTO.class))))
+    @GetMapping("/quarantine")
+    public ResponseEntity<List<QuarantinedPositionDTO>> getQuarantine(
+            @Parameter(description = "ID смены", required = true, example = "1") @RequestParam Long shiftId) {
+        logger.info("Запрос карантина позиций смены {}", shiftId);
+        return ResponseEntity.ok(receiptValidationService.findQuarantine(shiftId));
+    }
+}
\ No newline at end of file
@@ -8,19 +8,27 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftIngestResultDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftPageDTO;
 import ru.otus.prof.retail.dto.purchases.ShiftSearchRequest;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
 import ru.otus.prof.retail.services.purchases.ShiftService;
 
+import java.io.InputStream;
 import java.time.LocalDate;
 import java.util.List;
 
@@ -34,6 +42,9 @@ public class ShiftController {
     @Autowired
     private ShiftService shiftService;
 
+    @Autowired
+    private ShiftIngestService shiftIngestService;
+
     //все смены
     @Operation(summary = "Получить смены по дате закрытия", description = "Возвращает список смен, закрытых в указанную дату")
     @ApiResponses(value = {
@@ -220,4 +231,62 @@ public class ShiftController {
         logger.debug("Пакетный поиск завершен. Возвращаем {} уникальных смен", result.size());
         return ResponseEntity.ok(result);
     }
+
+    @Operation(summary = "Постраничный поиск смен",
+            description = "Возвращает страницу смен в порядке времени закрытия и ID. " +
+                    "Следующая страница запрашивается с курсором nextCursor из предыдущего ответа")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Страница смен",
+                    content = @Content(schema = @Schema(implementation = ShiftPageDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверные параметры запроса или курсор")
+    })
+    @PostMapping("/search/page")
+    public ResponseEntity<ShiftPageDTO> searchShiftsPage(
+            @Parameter(description = "Параметры поиска смен", required = true)
+            @RequestBody @Valid ShiftSearchRequest request,
+            @Parameter(description = "Курсор следующей страницы, для первой страницы не указывается")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Размер страницы", example = "100")
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        logger.info("Получен запрос страницы смен по параметрам: {}, курсор: {}, размер: {}", request, cursor, limit);
+        ShiftPageDTO result = shiftService.searchShiftsPage(request, cursor, limit);
+        logger.debug("Возвращаем {} смен на странице", result.shifts().size());
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Потоковая выгрузка смен",
+            description = "Возвращает смены в формате NDJSON, по одной смене на строку, по мере чтения из базы. " +
+                    "Память сервера не зависит от объема выборки")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Смены выгружаются"),
+            @ApiResponse(responseCode = "400", description = "Неверные параметры запроса")
+    })
+    @PostMapping(value = "/search/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamShifts(
+            @Parameter(description = "Параметры поиска смен", required = true)
+            @RequestBody @Valid ShiftSearchRequest request) {
+        logger.info("Получен запрос потоковой выгрузки смен по параметрам: {}", request);
+        shiftService.validateSearch(request);
+        StreamingResponseBody body = out -> shiftService.streamShifts(request, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    @Operation(summary = "Потоковая загрузка закрытой смены",
+            description = "Принимает NDJSON: первая строка - заголовок смены, далее по одному чеку на строку. " +
+                    "Чеки сохраняются порциями, итог смены сверяется с суммой чеков. " +
+                    "При повторной загрузке уже загруженной смены каждый чек должен иметь номер (receiptNumber)")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Смена загружена",
+                    content = @Content(schema = @Schema(implementation = ShiftIngestResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверный формат или содержимое записи")
+    })
+    @PostMapping(value = "/ingest", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<ShiftIngestResultDTO> ingestShift(InputStream body) {
+        logger.info("Получен запрос потоковой загрузки смены");
+        ShiftIngestResultDTO result = shiftIngestService.ingestShift(body);
+        logger.debug("Смена {} загружена: {} чеков, итог сверен: {}", result.shiftId(), result.purchases(), result.reconciled());
+        return ResponseEntity.ok(result);
+    }
 }
\ No newline at end of file
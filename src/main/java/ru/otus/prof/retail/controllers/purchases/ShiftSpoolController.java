@@ -0,0 +1,62 @@
+package ru.otus.prof.retail.controllers.purchases;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.otus.prof.retail.dto.purchases.SpoolAcceptedDTO;
+import ru.otus.prof.retail.dto.purchases.SpoolStatsDTO;
+import ru.otus.prof.retail.services.purchases.spool.ShiftSpoolService;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/v1/purchases/shift/ingest/spool")
+@Tag(name = "Спул загрузки смен", description = "API для отложенной загрузки смен через локальный спул")
+public class ShiftSpoolController {
+    private static final Logger logger = LoggerFactory.getLogger(ShiftSpoolController.class);
+
+    private final ShiftSpoolService shiftSpoolService;
+
+    @Autowired
+    public ShiftSpoolController(ShiftSpoolService shiftSpoolService) {
+        this.shiftSpoolService = shiftSpoolService;
+    }
+
+    @Operation(summary = "Отложенная загрузка закрытой смены",
+            description = "Принимает тот же NDJSON, что и /api/v1/purchases/shift/ingest, номер чека обязателен. Смена проверяется, " +
+                    "сохраняется на диск и подтверждается сразу; в БД передается в фоне")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "202", description = "Смена принята",
+                    content = @Content(schema = @Schema(implementation = SpoolAcceptedDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверный формат или содержимое записи"),
+            @ApiResponse(responseCode = "503", description = "Спул выключен или переполнен, повторите позже")
+    })
+    @PostMapping(consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<SpoolAcceptedDTO> acceptShift(InputStream body) {
+        logger.info("Получен запрос отложенной загрузки смены");
+        SpoolAcceptedDTO result = shiftSpoolService.accept(body);
+        logger.debug("Смена принята в спул: сегмент {}, смещение {}", result.segment(), result.offset());
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(result);
+    }
+
+    @Operation(summary = "Состояние спула", description = "Возвращает объем непереданных смен и счетчики передачи в БД")
+    @ApiResponse(responseCode = "200", description = "Состояние получено",
+            content = @Content(schema = @Schema(implementation = SpoolStatsDTO.class)))
+    @GetMapping("/stats")
+    public ResponseEntity<SpoolStatsDTO> getStats() {
+        return ResponseEntity.ok(shiftSpoolService.getStats());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,89 @@
+package ru.otus.prof.retail.controllers.reports;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import ru.otus.prof.retail.dto.error.ErrorResponse;
+import ru.otus.prof.retail.dto.reports.DailySalesDTO;
+import ru.otus.prof.retail.dto.reports.RollupRebuildResultDTO;
+import ru.otus.prof.retail.services.reports.DailySalesRollupService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/reports")
+@Validated
+@Tag(name = "Отчеты", description = "API отчетов по продажам")
+public class ReportController {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReportController.class);
+    private final DailySalesRollupService rollupService;
+
+    @Autowired
+    public ReportController(DailySalesRollupService rollupService) {
+        this.rollupService = rollupService;
+    }
+
+    @Operation(summary = "Получить продажи по дням",
+            description = "Возвращает количество чеков, выручку и количество позиций по кассам за каждый день периода. " +
+                    "Данные берутся из дневной свертки, без суммирования чеков")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Продажи найдены",
+                    content = @Content(schema = @Schema(implementation = DailySalesDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверный диапазон дат",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @GetMapping("/daily")
+    public ResponseEntity<List<DailySalesDTO>> getDailySales(
+            @Parameter(description = "Номер магазина", required = true, example = "1")
+            @RequestParam @NotNull Long shopNumber,
+            @Parameter(description = "Номер кассы, без него возвращаются все кассы магазина", example = "1")
+            @RequestParam(required = false) Long cashNumber,
+            @Parameter(description = "Начальная дата в формате YYYY-MM-DD", required = true, example = "2024-01-01")
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Конечная дата (включительно) в формате YYYY-MM-DD", required = true, example = "2024-01-31")
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        logger.info("Получен запрос дневных продаж: магазин {}, касса {}, период {} - {}", shopNumber, cashNumber, from, to);
+        List<DailySalesDTO> result = rollupService.getDailySales(shopNumber, cashNumber, from, to);
+        logger.debug("Возвращаем {} строк дневных продаж", result.size());
+        return ResponseEntity.ok(result);
+    }
+
+    @Operation(summary = "Пересчитать дневную свертку",
+            description = "Пересчитывает свертку за период по чекам. Нужен после загрузки истории через backfill")
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Свертка пересчитана",
+                    content = @Content(schema = @Schema(implementation = RollupRebuildResultDTO.class))),
+            @ApiResponse(responseCode = "400", description = "Неверный диапазон дат",
+                    content = @Content(schema = @Schema(implementation = ErrorResponse.class)))
+    })
+    @PostMapping("/daily/rebuild")
+    public ResponseEntity<RollupRebuildResultDTO> rebuildDailySales(
+            @Parameter(description = "Начальная дата в формате YYYY-MM-DD", required = true, example = "2024-01-01")
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @Parameter(description = "Конечная дата (включительно) в формате YYYY-MM-DD", required = true, example = "2024-01-31")
+            @RequestParam @NotNull @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        logger.info("Получен запрос пересчета дневной свертки за период {} - {}", from, to);
+        RollupRebuildResultDTO result = rollupService.rebuild(from, to);
+        return ResponseEntity.ok(result);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Цена товара, действующая на запрошенный момент")
+public record ArticlePriceDTO(
+        @Schema(description = "Артикул товара", example = "123456")
+        Long article,
+
+        @Schema(description = "Значение цены в копейках", example = "99990")
+        Long price,
+
+        @Schema(description = "Начало действия цены", example = "2025-06-09T00:00:00")
+        LocalDateTime effectiveFrom,
+
+        @Schema(description = "Окончание действия цены (не включительно), пусто - бессрочно", example = "2025-06-16T00:00:00")
+        LocalDateTime effectiveTo
+) {
+}
\ No newline at end of file
@@ -0,0 +1,25 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Результат массового обновления цен")
+public record BulkPriceUpdateResultDTO(
+        @Schema(description = "Количество цен в прайс-листе", example = "1000000")
+        long received,
+
+        @Schema(description = "Количество цен, совпавших с текущими", example = "820000")
+        long unchanged,
+
+        @Schema(description = "Количество добавленных цен", example = "180000")
+        long inserted,
+
+        @Schema(description = "Количество удаленных прежних цен", example = "0")
+        long deleted,
+
+        @Schema(description = "Способ загрузки во временную таблицу: copy или jdbc-batch", example = "copy")
+        String mode,
+
+        @Schema(description = "Время обновления в миллисекундах", example = "42000")
+        long elapsedMs
+) {
+}
\ No newline at end of file
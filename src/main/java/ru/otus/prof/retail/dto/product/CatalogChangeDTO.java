@@ -0,0 +1,27 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Текущее состояние измененного товара")
+public record CatalogChangeDTO(
+        @Schema(description = "Артикул товара", example = "12345")
+        Long article,
+
+        @Schema(description = "Версия каталога последнего изменения товара", example = "1042")
+        Long version,
+
+        @Schema(description = "Товар удален - кассе нужно удалить его и все его штрих-коды", example = "false")
+        boolean deleted,
+
+        @Schema(description = "Название товара", example = "Молоко 3,2%")
+        String name,
+
+        @Schema(description = "Текущая цена в копейках, null если цена не задана", example = "8990")
+        Long price,
+
+        @Schema(description = "Полный список штрих-кодов товара", example = "[\"4600000000012\"]")
+        List<String> barcodes
+) {
+}
\ No newline at end of file
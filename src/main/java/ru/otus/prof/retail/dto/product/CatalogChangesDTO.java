@@ -0,0 +1,25 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Страница изменений каталога. Следующий запрос - с since=nextSince и after=nextAfter, " +
+        "пока hasMore = true; затем nextSince сохраняется до следующей синхронизации")
+public record CatalogChangesDTO(
+        @Schema(description = "Текущая версия каталога", example = "1050")
+        long currentVersion,
+
+        @Schema(description = "Версия для следующего запроса", example = "1042")
+        long nextSince,
+
+        @Schema(description = "Артикул для следующего запроса, null если версия nextSince получена целиком", example = "12345")
+        Long nextAfter,
+
+        @Schema(description = "Есть ли еще изменения", example = "true")
+        boolean hasMore,
+
+        @Schema(description = "Изменения по одному на товар")
+        List<CatalogChangeDTO> changes
+) {
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Текущая выгрузка каталога")
+public record CatalogExportDTO(
+        @Schema(description = "Версия каталога в выгрузке - с нее касса запрашивает журнал изменений", example = "1042")
+        long catalogVersion,
+
+        @Schema(description = "Количество товаров", example = "3000000")
+        int items,
+
+        @Schema(description = "Размер файла в байтах", example = "120000000")
+        long sizeBytes,
+
+        @Schema(description = "ETag файла", example = "\"1042-5f3a9c1e\"")
+        String etag,
+
+        @Schema(description = "Время выгрузки", example = "2024-01-01T02:30:00")
+        LocalDateTime createdAt,
+
+        @Schema(description = "Длительность выгрузки в миллисекундах", example = "60000")
+        long buildMs
+) {
+}
\ No newline at end of file
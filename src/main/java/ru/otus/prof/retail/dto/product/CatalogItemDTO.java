@@ -0,0 +1,16 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Товар из снимка каталога")
+public record CatalogItemDTO(
+        @Schema(description = "Артикул товара", example = "12345")
+        Long article,
+
+        @Schema(description = "Название товара", example = "Молоко 3,2%")
+        String name,
+
+        @Schema(description = "Текущая цена в копейках на момент сборки снимка, null если цена не задана", example = "8990")
+        Long price
+) {
+}
\ No newline at end of file
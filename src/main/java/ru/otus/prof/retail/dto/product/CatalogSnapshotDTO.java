@@ -0,0 +1,24 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Состояние снимка каталога")
+public record CatalogSnapshotDTO(
+        @Schema(description = "Количество товаров", example = "3000000")
+        int items,
+
+        @Schema(description = "Количество штрих-кодов", example = "10000000")
+        int barcodes,
+
+        @Schema(description = "Объем памяти вне кучи в байтах", example = "350000000")
+        long offHeapBytes,
+
+        @Schema(description = "Время сборки, null если снимок еще не собран", example = "2024-01-01T02:30:00")
+        LocalDateTime builtAt,
+
+        @Schema(description = "Длительность последней сборки в миллисекундах", example = "45000")
+        long buildMs
+) {
+}
\ No newline at end of file
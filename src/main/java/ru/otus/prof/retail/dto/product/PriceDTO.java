@@ -4,6 +4,8 @@ import io.swagger.v3.oas.annotations.media.Schema;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 
+import java.time.LocalDateTime;
+
 @Schema(description = "DTO для работы с ценами товаров")
 public record PriceDTO(
         @Schema(description = "Идентификатор цены", example = "1")
@@ -15,5 +17,15 @@ public record PriceDTO(
 
         @Schema(description = "Артикул товара, к которому относится цена", example = "123456", requiredMode = Schema.RequiredMode.REQUIRED)
         @NotNull @Positive
-        Long article) {
+        Long article,
+
+        @Schema(description = "Начало действия цены, по умолчанию - момент создания", example = "2025-06-09T00:00:00")
+        LocalDateTime effectiveFrom,
+
+        @Schema(description = "Окончание действия цены (не включительно), пусто - бессрочно", example = "2025-06-16T00:00:00")
+        LocalDateTime effectiveTo) {
+
+    public PriceDTO(Long id, Long price, Long article) {
+        this(id, price, article, null, null);
+    }
 }
\ No newline at end of file
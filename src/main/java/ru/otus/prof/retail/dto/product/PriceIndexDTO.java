@@ -0,0 +1,30 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Состояние индекса цен на текущие сутки")
+public record PriceIndexDTO(
+        @Schema(description = "Количество товаров с ценой в окне индекса", example = "3000000")
+        int articles,
+
+        @Schema(description = "Количество интервалов цен", example = "3200000")
+        int intervals,
+
+        @Schema(description = "Начало окна индекса", example = "2025-06-09T00:00:00")
+        LocalDateTime windowFrom,
+
+        @Schema(description = "Конец окна индекса (не включительно)", example = "2025-06-10T00:00:00")
+        LocalDateTime windowTo,
+
+        @Schema(description = "Товаров с изменением цены после сборки, они читаются из БД", example = "120")
+        int changedArticles,
+
+        @Schema(description = "Время сборки", example = "2025-06-09T00:00:05")
+        LocalDateTime builtAt,
+
+        @Schema(description = "Длительность последней сборки в миллисекундах", example = "8000")
+        long buildMs
+) {
+}
\ No newline at end of file
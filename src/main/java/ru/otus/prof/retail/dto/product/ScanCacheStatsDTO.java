@@ -0,0 +1,28 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Статистика кэша штрих-кодов")
+public record ScanCacheStatsDTO(
+        @Schema(description = "Количество запросов", example = "1000000")
+        long lookups,
+
+        @Schema(description = "Запросы, обслуженные из памяти", example = "998000")
+        long hits,
+
+        @Schema(description = "Запросы, потребовавшие обращения к базе данных", example = "2000")
+        long misses,
+
+        @Schema(description = "Доля попаданий", example = "0.998")
+        double hitRate,
+
+        @Schema(description = "Штрих-кодов в кэше", example = "150000")
+        long barcodes,
+
+        @Schema(description = "Товаров в кэше", example = "40000")
+        long articles,
+
+        @Schema(description = "Вытеснено записей по размеру или сроку", example = "0")
+        long evictions
+) {
+}
\ No newline at end of file
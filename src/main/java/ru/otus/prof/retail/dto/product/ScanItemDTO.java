@@ -0,0 +1,19 @@
+package ru.otus.prof.retail.dto.product;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Товар по отсканированному штрих-коду")
+public record ScanItemDTO(
+        @Schema(description = "Штрих-код", example = "4600000000012")
+        String barcode,
+
+        @Schema(description = "Артикул товара", example = "12345")
+        Long article,
+
+        @Schema(description = "Название товара", example = "Молоко 3,2%")
+        String name,
+
+        @Schema(description = "Текущая цена в копейках, null если цена не задана", example = "8990")
+        Long price
+) {
+}
\ No newline at end of file
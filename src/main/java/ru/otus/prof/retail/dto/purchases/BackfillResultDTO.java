@@ -0,0 +1,25 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Результат загрузки исторических продаж")
+public record BackfillResultDTO(
+        @Schema(description = "Количество загруженных смен", example = "3650")
+        long shifts,
+
+        @Schema(description = "Количество загруженных чеков", example = "4380000")
+        long purchases,
+
+        @Schema(description = "Количество загруженных позиций", example = "21900000")
+        long positions,
+
+        @Schema(description = "Количество зафиксированных порций", example = "530")
+        int batches,
+
+        @Schema(description = "Способ записи: copy или jdbc-batch", example = "copy")
+        String mode,
+
+        @Schema(description = "Время загрузки в миллисекундах", example = "95000")
+        long elapsedMs
+) {
+}
\ No newline at end of file
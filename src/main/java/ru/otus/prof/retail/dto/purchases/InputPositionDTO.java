@@ -0,0 +1,27 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.PositiveOrZero;
+
+@Schema(description = "DTO для загрузки позиции чека с кассы")
+public record InputPositionDTO(
+        @Schema(description = "Штрих-код товара", example = "123456789012", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotBlank(message = "Штрих-код не может быть пустым")
+        String barcode,
+
+        @Schema(description = "Артикул товара", example = "789012", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Артикул не может быть null")
+        Long article,
+
+        @Schema(description = "Название позиции", example = "Молоко 1л", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotBlank(message = "Название позиции не может быть пустым")
+        String positionName,
+
+        @Schema(description = "Цена позиции в копейках", example = "8999", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Цена не может быть null")
+        @PositiveOrZero(message = "Цена должна быть положительной или нулем")
+        Long price
+) {
+}
@@ -0,0 +1,42 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Schema(description = "DTO для загрузки чека с кассы")
+public record InputPurchaseDTO(
+        @Schema(description = "ID смены", example = "5", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "ID смены не может быть null")
+        @Positive(message = "ID смены должен быть положительным числом")
+        Long shiftId,
+
+        @Schema(description = "Дата и время покупки", example = "2023-05-15T14:30:00", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Дата покупки не может быть null")
+        LocalDateTime purchaseDate,
+
+        @Schema(description = "Общая сумма чека в копейках", example = "12000", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Общая сумма не может быть null")
+        @PositiveOrZero(message = "Общая сумма должна быть положительной или нулем")
+        Long total,
+
+        @Schema(description = "Список позиций в чеке", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotEmpty(message = "Чек должен содержать хотя бы одну позицию")
+        List<@Valid InputPositionDTO> positions,
+
+        @Schema(description = "Номер чека в смене по данным кассы; повторно переданный чек с тем же номером не сохраняется",
+                example = "42")
+        @Positive(message = "Номер чека должен быть положительным числом")
+        Long receiptNumber
+) {
+    //чек без номера загружается без проверки на повтор
+    public InputPurchaseDTO(Long shiftId, LocalDateTime purchaseDate, Long total, List<InputPositionDTO> positions) {
+        this(shiftId, purchaseDate, total, positions, null);
+    }
+}
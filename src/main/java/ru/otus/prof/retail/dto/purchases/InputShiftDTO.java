@@ -0,0 +1,39 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.PositiveOrZero;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Заголовок закрытой смены для потоковой загрузки")
+public record InputShiftDTO(
+        @Schema(description = "Номер смены", example = "123", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Номер смены не может быть null")
+        @Positive(message = "Номер смены должен быть положительным числом")
+        Long shiftNumber,
+
+        @Schema(description = "Номер магазина", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Номер магазина не может быть null")
+        @Positive(message = "Номер магазина должен быть положительным числом")
+        Long shopNumber,
+
+        @Schema(description = "Номер кассы", example = "1", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Номер кассы не может быть null")
+        @Positive(message = "Номер кассы должен быть положительным числом")
+        Long cashNumber,
+
+        @Schema(description = "Время открытия смены", example = "2023-01-01T08:00:00", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Время открытия смены не может быть null")
+        LocalDateTime openTime,
+
+        @Schema(description = "Время закрытия смены", example = "2023-01-01T20:00:00", requiredMode = Schema.RequiredMode.REQUIRED)
+        @NotNull(message = "Время закрытия смены не может быть null")
+        LocalDateTime closeTime,
+
+        @Schema(description = "Итог смены по данным кассы (в копейках), сверяется с суммой чеков", example = "150000")
+        @PositiveOrZero(message = "Общая сумма должна быть положительной или нулем")
+        Long total
+) {
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Результат пакетной загрузки чеков")
+public record PurchaseBatchResultDTO(
+        @Schema(description = "Количество сохраненных чеков", example = "5000")
+        int purchases,
+
+        @Schema(description = "Количество сохраненных позиций", example = "25000")
+        int positions,
+
+        @Schema(description = "Время загрузки в миллисекундах", example = "850")
+        long elapsedMs,
+
+        @Schema(description = "Количество пропущенных повторно переданных чеков", example = "0")
+        int duplicates
+) {
+}
@@ -0,0 +1,46 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import ru.otus.prof.retail.services.purchases.validation.MismatchReason;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Позиция чека, не совпавшая с каталогом")
+public record QuarantinedPositionDTO(
+        @Schema(description = "ID позиции", example = "1")
+        Long positionId,
+
+        @Schema(description = "ID чека", example = "1")
+        Long purchaseId,
+
+        @Schema(description = "ID смены", example = "1")
+        Long shiftId,
+
+        @Schema(description = "Дата и время покупки", example = "2023-10-01T12:00:00")
+        LocalDateTime purchaseDate,
+
+        @Schema(description = "Штрих-код товара", example = "1234567890123")
+        String barcode,
+
+        @Schema(description = "Артикул товара в позиции", example = "123456")
+        Long article,
+
+        @Schema(description = "Название товара в позиции", example = "Молоко")
+        String positionName,
+
+        @Schema(description = "Цена товара в позиции", example = "100")
+        Long price,
+
+        @Schema(description = "Причина расхождения", example = "PRICE_MISMATCH")
+        MismatchReason reason,
+
+        @Schema(description = "Артикул штрих-кода по каталогу", example = "123456")
+        Long expectedArticle,
+
+        @Schema(description = "Цена по каталогу на момент чека", example = "110")
+        Long expectedPrice,
+
+        @Schema(description = "Время обнаружения", example = "2023-10-01T12:05:00")
+        LocalDateTime detectedAt
+) {
+}
\ No newline at end of file
@@ -0,0 +1,52 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Статистика проверки чеков по каталогу при загрузке")
+public record ReceiptValidationStatsDTO(
+        @Schema(description = "Проверка включена", example = "true")
+        boolean enabled,
+
+        @Schema(description = "Проверено чеков", example = "100000")
+        long receipts,
+
+        @Schema(description = "Чеков, пропущенных до сборки снимка каталога", example = "0")
+        long skippedReceipts,
+
+        @Schema(description = "Проверено позиций", example = "1200000")
+        long positions,
+
+        @Schema(description = "Позиций, не совпавших со снимком каталога", example = "130")
+        long suspects,
+
+        @Schema(description = "Позиций в карантине после сверки с базой данных", example = "120")
+        long quarantined,
+
+        @Schema(description = "Неизвестный штрих-код", example = "20")
+        long unknownBarcode,
+
+        @Schema(description = "Штрих-код другого товара", example = "5")
+        long barcodeArticleMismatch,
+
+        @Schema(description = "Неизвестный артикул", example = "0")
+        long unknownArticle,
+
+        @Schema(description = "Цена не совпадает с ценой на момент чека", example = "90")
+        long priceMismatch,
+
+        @Schema(description = "Название не совпадает с каталогом", example = "5")
+        long nameMismatch,
+
+        @Schema(description = "Позиций без проверки цены: момент вне индекса цен или цена изменена после сборки", example = "3000")
+        long priceUnchecked,
+
+        @Schema(description = "Время проверки при загрузке в процентах от времени записи чеков", example = "4.2")
+        double overheadPercent,
+
+        @Schema(description = "Подозрительных позиций в очереди отложенной сверки с базой данных", example = "0")
+        int deferredSuspects,
+
+        @Schema(description = "Порций, проверка которых по снимку вышла за бюджет", example = "0")
+        long overBudgetChunks
+) {
+}
\ No newline at end of file
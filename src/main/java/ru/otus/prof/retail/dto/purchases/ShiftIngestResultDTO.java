@@ -0,0 +1,34 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Результат потоковой загрузки смены")
+public record ShiftIngestResultDTO(
+        @Schema(description = "ID сохраненной смены", example = "1001")
+        Long shiftId,
+
+        @Schema(description = "Количество сохраненных чеков", example = "12000")
+        long purchases,
+
+        @Schema(description = "Количество сохраненных позиций", example = "64000")
+        long positions,
+
+        @Schema(description = "Количество записанных порций", example = "12")
+        int chunks,
+
+        @Schema(description = "Итог смены по данным кассы (в копейках)", example = "150000")
+        Long declaredTotal,
+
+        @Schema(description = "Сумма загруженных чеков (в копейках)", example = "150000")
+        long actualTotal,
+
+        @Schema(description = "Итог смены совпал с суммой чеков", example = "true")
+        boolean reconciled,
+
+        @Schema(description = "Время загрузки в миллисекундах", example = "4200")
+        long elapsedMs,
+
+        @Schema(description = "Количество пропущенных повторно переданных чеков", example = "0")
+        long duplicates
+) {
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+@Schema(description = "Страница смен")
+public record ShiftPageDTO(
+        @Schema(description = "Смены в порядке времени закрытия и ID")
+        List<ShiftDTO> shifts,
+
+        @Schema(description = "Курсор следующей страницы, null на последней странице",
+                example = "MjAyNC0wMS0wMVQyMDowMHwy")
+        String nextCursor
+) {
+}
\ No newline at end of file
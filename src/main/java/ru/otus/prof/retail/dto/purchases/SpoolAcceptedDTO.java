@@ -0,0 +1,19 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+@Schema(description = "Смена принята в спул загрузки и будет передана в БД в фоне")
+public record SpoolAcceptedDTO(
+        @Schema(description = "Номер сегмента спула", example = "3")
+        long segment,
+
+        @Schema(description = "Смещение записи в сегменте", example = "1048576")
+        long offset,
+
+        @Schema(description = "Размер принятой смены в байтах", example = "524288")
+        int bytes,
+
+        @Schema(description = "Объем спула, еще не переданный в БД (в байтах)", example = "2097152")
+        long backlogBytes
+) {
+}
\ No newline at end of file
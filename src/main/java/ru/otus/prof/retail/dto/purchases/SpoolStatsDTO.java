@@ -0,0 +1,45 @@
+package ru.otus.prof.retail.dto.purchases;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+
+@Schema(description = "Состояние спула загрузки смен")
+public record SpoolStatsDTO(
+        @Schema(description = "Спул включен", example = "true")
+        boolean enabled,
+
+        @Schema(description = "Объем спула, еще не переданный в БД (в байтах)", example = "2097152")
+        long backlogBytes,
+
+        @Schema(description = "Предел объема спула, при превышении смены не принимаются (в байтах)", example = "1073741824")
+        long maxBacklogBytes,
+
+        @Schema(description = "Количество файлов-сегментов спула", example = "2")
+        int segments,
+
+        @Schema(description = "Принято смен с запуска", example = "1200")
+        long accepted,
+
+        @Schema(description = "Передано смен в БД с запуска", example = "1180")
+        long drained,
+
+        @Schema(description = "Отклонено смен при передаче (сохранены в каталог rejected)", example = "1")
+        long rejected,
+
+        @Schema(description = "Отказано в приеме из-за переполнения спула", example = "0")
+        long refused,
+
+        @Schema(description = "Количество fsync спула", example = "300")
+        long syncs,
+
+        @Schema(description = "Количество неудачных попыток передачи в БД", example = "3")
+        long failures,
+
+        @Schema(description = "Последняя ошибка передачи в БД")
+        String lastError,
+
+        @Schema(description = "Время последней успешной передачи в БД")
+        LocalDateTime lastDrainTime
+) {
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ru.otus.prof.retail.dto.reports;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "Продажи кассы за день")
+public record DailySalesDTO(
+        @Schema(description = "Номер магазина", example = "1")
+        Long shopNumber,
+
+        @Schema(description = "Номер кассы", example = "1")
+        Long cashNumber,
+
+        @Schema(description = "День продаж", example = "2024-01-01")
+        LocalDate day,
+
+        @Schema(description = "Количество чеков", example = "1250")
+        Long receipts,
+
+        @Schema(description = "Выручка в копейках", example = "18500000")
+        Long revenue,
+
+        @Schema(description = "Количество проданных позиций", example = "6400")
+        Long itemsSold
+) {
+}
\ No newline at end of file
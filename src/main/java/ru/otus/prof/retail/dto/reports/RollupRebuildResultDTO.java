@@ -0,0 +1,21 @@
+package ru.otus.prof.retail.dto.reports;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+
+@Schema(description = "Результат пересчета дневной свертки продаж")
+public record RollupRebuildResultDTO(
+        @Schema(description = "Начальный день", example = "2024-01-01")
+        LocalDate from,
+
+        @Schema(description = "Конечный день (включительно)", example = "2024-01-31")
+        LocalDate to,
+
+        @Schema(description = "Количество строк свертки", example = "930")
+        int rows,
+
+        @Schema(description = "Время пересчета в миллисекундах", example = "1200")
+        long elapsedMs
+) {
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package ru.otus.prof.retail.entities.product;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Запись журнала изменений каталога: товар изменен в транзакции с данной версией.
+//Пишется только через CatalogChangeRepository.append, через JPA таблица только читается
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "catalog_change")
+public class CatalogChange {
+
+    @EmbeddedId
+    private CatalogChangeId id;
+
+    @Column(name = "change_time", nullable = false)
+    private LocalDateTime changeTime;
+}
\ No newline at end of file
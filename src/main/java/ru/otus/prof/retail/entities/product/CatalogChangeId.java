@@ -0,0 +1,22 @@
+package ru.otus.prof.retail.entities.product;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CatalogChangeId implements Serializable {
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "article", nullable = false)
+    private Long article;
+}
\ No newline at end of file
@@ -0,0 +1,27 @@
+package ru.otus.prof.retail.entities.product;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+//Исходящее событие об изменении товара.
+//Пишется и забирается только через CatalogOutboxRepository (JDBC), сущность нужна для репозитория
+@Entity
+@Data
+@Table(name = "catalog_outbox")
+public class CatalogOutbox {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "article", nullable = false)
+    private Long article;
+
+    @Column(name = "version", nullable = false)
+    private Long version;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
\ No newline at end of file
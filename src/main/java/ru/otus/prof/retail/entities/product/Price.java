@@ -5,6 +5,8 @@ import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.time.LocalDateTime;
+
 
 @Entity
 @Data
@@ -24,4 +26,23 @@ public class Price {
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "article", nullable = false)
     private Item item;
-}
+
+    //интервал действия [effectiveFrom, effectiveTo), effectiveTo = null - бессрочно
+    @Column(name = "effective_from", nullable = false)
+    private LocalDateTime effectiveFrom;
+
+    @Column(name = "effective_to")
+    private LocalDateTime effectiveTo;
+
+    public Price(Long id, Long price, Item item) {
+        this(id, price, item, null, null);
+    }
+
+    //цена без даты начала действует с момента сохранения
+    @PrePersist
+    void defaultEffectiveFrom() {
+        if (effectiveFrom == null) {
+            effectiveFrom = LocalDateTime.now();
+        }
+    }
+}
\ No newline at end of file
@@ -4,17 +4,20 @@ package ru.otus.prof.retail.entities.purchases;
 import jakarta.persistence.*;
 import lombok.Data;
 
+import java.time.LocalDateTime;
+
 
 @Entity
 @Data
 @Table(name = "position")
 public class Position {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "position_seq")
+    @SequenceGenerator(name = "position_seq", sequenceName = "position_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "purchase_id", nullable = false)
     private Purchase purchase;
 
@@ -29,4 +32,15 @@ public class Position {
 
     @Column(name = "price", nullable = false)
     private Long price;
+
+    //копия даты чека: ключ партиционирования таблицы position, позволяет отсекать партиции без join с purchase
+    @Column(name = "purchase_date", nullable = false)
+    private LocalDateTime purchaseDate;
+
+    @PrePersist
+    void fillPurchaseDate() {
+        if (purchaseDate == null && purchase != null) {
+            purchaseDate = purchase.getPurchaseDate();
+        }
+    }
 }
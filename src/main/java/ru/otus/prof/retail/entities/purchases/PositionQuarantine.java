@@ -0,0 +1,56 @@
+package ru.otus.prof.retail.entities.purchases;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import ru.otus.prof.retail.services.purchases.validation.MismatchReason;
+
+import java.time.LocalDateTime;
+
+//Позиция чека, не совпавшая с каталогом при загрузке.
+//Пишется только через PositionQuarantineRepository.appendAll, через JPA таблица только читается
+@Entity
+@Data
+@Table(name = "position_quarantine")
+public class PositionQuarantine {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "position_id", nullable = false)
+    private Long positionId;
+
+    @Column(name = "purchase_id", nullable = false)
+    private Long purchaseId;
+
+    @Column(name = "shift_id", nullable = false)
+    private Long shiftId;
+
+    @Column(name = "purchase_date", nullable = false)
+    private LocalDateTime purchaseDate;
+
+    @Column(name = "barcode", nullable = false)
+    private String barcode;
+
+    @Column(name = "article", nullable = false)
+    private Long article;
+
+    @Column(name = "position_name", nullable = false)
+    private String positionName;
+
+    @Column(name = "price", nullable = false)
+    private Long price;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "reason", nullable = false)
+    private MismatchReason reason;
+
+    @Column(name = "expected_article")
+    private Long expectedArticle;
+
+    @Column(name = "expected_price")
+    private Long expectedPrice;
+
+    @Column(name = "detected_at", nullable = false)
+    private LocalDateTime detectedAt;
+}
\ No newline at end of file
@@ -12,11 +12,12 @@ import java.util.Objects;
 @Table(name = "purchase")
 public class Purchase {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "purchase_seq")
+    @SequenceGenerator(name = "purchase_seq", sequenceName = "purchase_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "shift_id", nullable = false)
     private Shift shift;
 
@@ -26,6 +27,10 @@ public class Purchase {
     @Column(name = "total", nullable = false)
     private Long total;
 
+    //номер чека в смене по данным кассы; вместе с магазином, кассой и номером смены - ключ повторной загрузки
+    @Column(name = "receipt_number")
+    private Long receiptNumber;
+
     @OneToMany(mappedBy = "purchase", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<Position> positions;
 
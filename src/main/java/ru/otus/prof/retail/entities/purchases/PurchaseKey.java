@@ -0,0 +1,24 @@
+package ru.otus.prof.retail.entities.purchases;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+//Естественный ключ загруженного чека. Дата чека указывает партицию purchase, в которой он лежит.
+//Пишется только через PurchaseKeyRepository.claim, через JPA таблица только читается
+@Entity
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "purchase_key")
+public class PurchaseKey {
+
+    @EmbeddedId
+    private PurchaseKeyId id;
+
+    @Column(name = "purchase_date", nullable = false)
+    private LocalDateTime purchaseDate;
+}
\ No newline at end of file
@@ -0,0 +1,38 @@
+package ru.otus.prof.retail.entities.purchases;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PurchaseKeyId implements Serializable {
+
+    @Column(name = "shop_number", nullable = false)
+    private Long shopNumber;
+
+    @Column(name = "cash_number", nullable = false)
+    private Long cashNumber;
+
+    @Column(name = "shift_number", nullable = false)
+    private Long shiftNumber;
+
+    @Column(name = "receipt_number", nullable = false)
+    private Long receiptNumber;
+
+    //ключ чека с номером; чек без номера ключа не имеет
+    public static PurchaseKeyId of(Purchase purchase) {
+        if (purchase.getReceiptNumber() == null) {
+            return null;
+        }
+        Shift shift = purchase.getShift();
+        return new PurchaseKeyId(shift.getShopNumber(), shift.getCashNumber(), shift.getShiftNumber(),
+                purchase.getReceiptNumber());
+    }
+}
\ No newline at end of file
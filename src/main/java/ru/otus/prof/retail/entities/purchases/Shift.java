@@ -13,7 +13,8 @@ import java.util.Set;
 @Table(name = "shift")
 public class Shift {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "shift_seq")
+    @SequenceGenerator(name = "shift_seq", sequenceName = "shift_seq", allocationSize = 50)
     @Column(name = "id")
     private Long id;
 
@@ -0,0 +1,24 @@
+package ru.otus.prof.retail.entities.reports;
+
+import jakarta.persistence.*;
+import lombok.Data;
+
+//Продажи за день по кассе. Пишется только через DailySalesRollupRepository.addDeltas и rebuild,
+//через JPA таблица только читается
+@Entity
+@Data
+@Table(name = "daily_sales_rollup")
+public class DailySalesRollup {
+
+    @EmbeddedId
+    private DailySalesRollupId id;
+
+    @Column(name = "receipts", nullable = false)
+    private Long receipts;
+
+    @Column(name = "revenue", nullable = false)
+    private Long revenue;
+
+    @Column(name = "items_sold", nullable = false)
+    private Long itemsSold;
+}
\ No newline at end of file
@@ -0,0 +1,26 @@
+package ru.otus.prof.retail.entities.reports;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+@Embeddable
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DailySalesRollupId implements Serializable {
+
+    @Column(name = "shop_number", nullable = false)
+    private Long shopNumber;
+
+    @Column(name = "cash_number", nullable = false)
+    private Long cashNumber;
+
+    @Column(name = "sale_date", nullable = false)
+    private LocalDate day;
+}
\ No newline at end of file
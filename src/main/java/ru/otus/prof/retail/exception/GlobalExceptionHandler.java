@@ -9,16 +9,20 @@ import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.orm.jpa.JpaSystemException;
+import org.springframework.transaction.CannotCreateTransactionException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import ru.otus.prof.retail.dto.error.ErrorResponse;
 import ru.otus.prof.retail.exception.product.*;
+import ru.otus.prof.retail.exception.purchases.IngestSpoolUnavailableException;
 import ru.otus.prof.retail.exception.purchases.PurchaseNotFoundException;
 import ru.otus.prof.retail.exception.purchases.ShiftNotFoundException;
 import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.exception.reports.ReportValidationException;
 import ru.otus.prof.retail.exception.shop.*;
 
 import java.time.LocalDateTime;
@@ -40,7 +44,8 @@ public class GlobalExceptionHandler {
 
     @ExceptionHandler({
             ShopValidationException.class, CashValidationException.class, ItemValidationException.class,
-            BarcodeValidationException.class, PriceValidationException.class, ShiftValidationException.class
+            BarcodeValidationException.class, PriceValidationException.class, ShiftValidationException.class,
+            ReportValidationException.class
     })
     public ResponseEntity<ErrorResponse> handleValidationException(Exception ex, HttpServletRequest request) {
         return buildErrorResponse(ex, request, HttpStatus.BAD_REQUEST, false);
@@ -51,6 +56,18 @@ public class GlobalExceptionHandler {
         return buildErrorResponse(ex, request, HttpStatus.CONFLICT, false);
     }
 
+    @ExceptionHandler({CatalogExportNotReadyException.class, IngestSpoolUnavailableException.class})
+    public ResponseEntity<ErrorResponse> handleServiceUnavailableException(Exception ex, HttpServletRequest request) {
+        return buildErrorResponse(ex, request, HttpStatus.SERVICE_UNAVAILABLE, false);
+    }
+
+    //соединение с БД не выдано: пул или очередь допуска (retail.db-admission) заняты, клиент повторит позже
+    @ExceptionHandler({CannotGetJdbcConnectionException.class, CannotCreateTransactionException.class})
+    public ResponseEntity<ErrorResponse> handleDatabaseUnavailableException(Exception ex, HttpServletRequest request) {
+        String message = "База данных перегружена: " + extractRootCauseMessage(ex);
+        return buildErrorResponse(ex, request, HttpStatus.SERVICE_UNAVAILABLE, false, message);
+    }
+
     @ExceptionHandler({DataIntegrityViolationException.class, JpaSystemException.class, DataAccessException.class})
     public ResponseEntity<ErrorResponse> handleDataException(Exception ex, HttpServletRequest request) {
         String message = "Ошибка данных: " + extractRootCauseMessage(ex);
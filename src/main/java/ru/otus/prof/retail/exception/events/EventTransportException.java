@@ -0,0 +1,7 @@
+package ru.otus.prof.retail.exception.events;
+
+public class EventTransportException extends RuntimeException {
+    public EventTransportException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
\ No newline at end of file
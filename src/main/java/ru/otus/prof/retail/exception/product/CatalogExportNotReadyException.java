@@ -0,0 +1,7 @@
+package ru.otus.prof.retail.exception.product;
+
+public class CatalogExportNotReadyException extends RuntimeException {
+    public CatalogExportNotReadyException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ru.otus.prof.retail.exception.purchases;
+
+public class IngestSpoolUnavailableException extends RuntimeException {
+    public IngestSpoolUnavailableException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,7 @@
+package ru.otus.prof.retail.exception.reports;
+
+public class ReportValidationException extends RuntimeException {
+    public ReportValidationException(String message) {
+        super(message);
+    }
+}
\ No newline at end of file
@@ -199,18 +199,7 @@ public class ItemMapper {
                         });
             }
 
-            if (updateItemDTO.prices() != null) {
-                if (existingItem.getPrices() == null) {
-                    existingItem.setPrices(new HashSet<>());
-                }
-                updateItemDTO.prices().stream()
-                        .filter(dto -> existingItem.getPrices().stream()
-                                .noneMatch(p -> p.getPrice().equals(dto.price())))
-                        .forEach(dto -> {
-                            Price price = new Price(null, dto.price(), existingItem);
-                            existingItem.getPrices().add(price);
-                        });
-            }
+            //цены с интервалами действия меняет ItemService через PriceService, маппер их не трогает
 
             logger.trace("Успешное обновление Item: {}", existingItem);
             return existingItem;
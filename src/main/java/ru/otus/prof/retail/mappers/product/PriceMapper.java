@@ -35,7 +35,9 @@ public class PriceMapper {
             PriceDTO dto = new PriceDTO(
                     price.getId(),
                     price.getPrice(),
-                    price.getItem().getArticle()
+                    price.getItem().getArticle(),
+                    price.getEffectiveFrom(),
+                    price.getEffectiveTo()
             );
 
             logger.trace("Успешное преобразование Price в DTO: {}", dto);
@@ -68,7 +70,9 @@ public class PriceMapper {
             Price price = new Price(
                     priceDTO.id(),
                     priceDTO.price(),
-                    item
+                    item,
+                    priceDTO.effectiveFrom(),
+                    priceDTO.effectiveTo()
             );
 
             logger.trace("Успешное преобразование PriceDTO в сущность: {}", price);
@@ -3,6 +3,7 @@ package ru.otus.prof.retail.mappers.purchases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import ru.otus.prof.retail.dto.purchases.InputPositionDTO;
 import ru.otus.prof.retail.dto.purchases.PositionDTO;
 import ru.otus.prof.retail.entities.purchases.Position;
 import ru.otus.prof.retail.entities.purchases.Purchase;
@@ -81,4 +82,26 @@ public class PositionMapper {
             throw new MappingException(errorMsg, e);
         }
     }
+
+    //без обращения к репозиторию: чек уже создан вызывающей стороной (пакетная загрузка)
+    public Position toEntity(InputPositionDTO positionDTO, Purchase purchase) {
+        if (positionDTO == null) {
+            logger.warn("Попытка преобразования null InputPositionDTO в сущность");
+            return null;
+        }
+
+        if (purchase == null) {
+            String errorMsg = "Position must be linked to a Purchase. Barcode: " + positionDTO.barcode();
+            logger.error(errorMsg);
+            throw new MappingException(errorMsg);
+        }
+
+        Position position = new Position();
+        position.setBarcode(positionDTO.barcode());
+        position.setArticle(positionDTO.article());
+        position.setPositionName(positionDTO.positionName());
+        position.setPrice(positionDTO.price());
+        position.setPurchase(purchase);
+        return position;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,8 @@ package ru.otus.prof.retail.mappers.purchases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import ru.otus.prof.retail.dto.purchases.InputPositionDTO;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
 import ru.otus.prof.retail.dto.purchases.PositionDTO;
 import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
 import ru.otus.prof.retail.entities.purchases.Position;
@@ -11,6 +13,7 @@ import ru.otus.prof.retail.entities.purchases.Shift;
 import ru.otus.prof.retail.exception.MappingException;
 import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -30,10 +33,19 @@ public class PurchaseMapper {
             logger.warn("Попытка преобразования null Purchase в DTO");
             return null;
         }
+        return toDTO(purchase, purchase.getPositions());
+    }
+
+    //позиции загружены отдельным запросом, коллекция чека не инициализируется
+    public PurchaseDTO toDTO(Purchase purchase, List<Position> positions) {
+        if (purchase == null) {
+            logger.warn("Попытка преобразования null Purchase в DTO");
+            return null;
+        }
 
         logger.debug("Преобразование Purchase в DTO (ID: {})", purchase.getId());
 
-        if (purchase.getPositions() == null || purchase.getPositions().isEmpty()) {
+        if (positions == null || positions.isEmpty()) {
             String errorMsg = "Purchase must have at least one position. Purchase ID: " + purchase.getId();
             logger.error(errorMsg);
             throw new MappingException(errorMsg);
@@ -46,7 +58,7 @@ public class PurchaseMapper {
         }
 
         try {
-            List<PositionDTO> positionDTOs = purchase.getPositions().stream()
+            List<PositionDTO> positionDTOs = positions.stream()
                     .map(positionMapper::toDTO)
                     .collect(Collectors.toList());
 
@@ -106,4 +118,38 @@ public class PurchaseMapper {
             throw new MappingException(errorMsg, e);
         }
     }
+
+    //смена передается уже загруженной, чтобы при пакетной загрузке не искать ее для каждого чека
+    public Purchase toEntity(InputPurchaseDTO purchaseDTO, Shift shift) {
+        if (purchaseDTO == null) {
+            logger.warn("Попытка преобразования null InputPurchaseDTO в сущность");
+            return null;
+        }
+
+        if (shift == null) {
+            String errorMsg = "Purchase must be linked to a Shift. Shift ID: " + purchaseDTO.shiftId();
+            logger.error(errorMsg);
+            throw new MappingException(errorMsg);
+        }
+
+        if (purchaseDTO.positions() == null || purchaseDTO.positions().isEmpty()) {
+            String errorMsg = "InputPurchaseDTO must have at least one position. Shift ID: " + purchaseDTO.shiftId();
+            logger.error(errorMsg);
+            throw new MappingException(errorMsg);
+        }
+
+        Purchase purchase = new Purchase();
+        purchase.setPurchaseDate(purchaseDTO.purchaseDate());
+        purchase.setTotal(purchaseDTO.total());
+        purchase.setReceiptNumber(purchaseDTO.receiptNumber());
+        purchase.setShift(shift);
+
+        List<Position> positions = new ArrayList<>(purchaseDTO.positions().size());
+        for (InputPositionDTO positionDTO : purchaseDTO.positions()) {
+            positions.add(positionMapper.toEntity(positionDTO, purchase));
+        }
+        purchase.setPositions(positions);
+
+        return purchase;
+    }
 }
\ No newline at end of file
@@ -3,6 +3,7 @@ package ru.otus.prof.retail.mappers.purchases;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
+import ru.otus.prof.retail.dto.purchases.InputShiftDTO;
 import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
 import ru.otus.prof.retail.dto.purchases.ShiftDTO;
 import ru.otus.prof.retail.entities.purchases.Purchase;
@@ -28,15 +29,31 @@ public class ShiftMapper {
             return null;
         }
 
-        logger.debug("Преобразование Shift в DTO (ID: {})", shift.getId());
-
         try {
             Set<PurchaseDTO> purchaseDTOs = withPurchases && shift.getPurchases() != null
                     ? shift.getPurchases().stream()
                     .map(purchaseMapper::toDTO)
                     .collect(Collectors.toSet())
                     : Collections.emptySet();
+            return toDTO(shift, purchaseDTOs);
+        } catch (Exception e) {
+            String errorMsg = String.format("Ошибка преобразования Shift в DTO (ID: %s). Причина: %s",
+                    shift.getId(), e.getMessage());
+            logger.error(errorMsg, e);
+            throw new MappingException(errorMsg, e);
+        }
+    }
 
+    //чеки уже преобразованы: загружены отдельными запросами, коллекция смены не инициализируется
+    public ShiftDTO toDTO(Shift shift, Set<PurchaseDTO> purchaseDTOs) {
+        if (shift == null) {
+            logger.warn("Попытка преобразования null Shift в DTO");
+            return null;
+        }
+
+        logger.debug("Преобразование Shift в DTO (ID: {})", shift.getId());
+
+        try {
             return new ShiftDTO(
                     shift.getId(),
                     shift.getShiftNumber(),
@@ -90,4 +107,30 @@ public class ShiftMapper {
             throw new MappingException(errorMsg, e);
         }
     }
+    //заголовок смены из потоковой загрузки: чеки приходят отдельными записями и пишутся порциями
+    public Shift toEntity(InputShiftDTO shiftDTO) {
+        if (shiftDTO == null) {
+            logger.warn("Попытка преобразования null InputShiftDTO в сущность");
+            return null;
+        }
+
+        logger.debug("Преобразование InputShiftDTO в сущность (магазин: {}, касса: {}, смена: {})",
+                shiftDTO.shopNumber(), shiftDTO.cashNumber(), shiftDTO.shiftNumber());
+
+        try {
+            Shift shift = new Shift();
+            shift.setShiftNumber(shiftDTO.shiftNumber());
+            shift.setShopNumber(shiftDTO.shopNumber());
+            shift.setCashNumber(shiftDTO.cashNumber());
+            shift.setOpenTime(shiftDTO.openTime());
+            shift.setCloseTime(shiftDTO.closeTime());
+            shift.setTotal(shiftDTO.total());
+            return shift;
+        } catch (Exception e) {
+            String errorMsg = String.format("Ошибка преобразования InputShiftDTO в сущность (смена: %s). Причина: %s",
+                    shiftDTO.shiftNumber(), e.getMessage());
+            logger.error(errorMsg, e);
+            throw new MappingException(errorMsg, e);
+        }
+    }
 }
\ No newline at end of file
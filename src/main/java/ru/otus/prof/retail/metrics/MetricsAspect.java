@@ -0,0 +1,131 @@
+package ru.otus.prof.retail.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.AfterReturning;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
+
+//Время методов сервисов и преобразования смен и чеков, число строк, возвращенных запросами репозиториев.
+//Время самих запросов репозиториев пишет Spring Data (spring.data.repository.invocations).
+//Для методов, возвращающих поток или пишущих ответ в OutputStream, время включает только то, что сделано до возврата.
+//Аспект снаружи транзакции: во время метода сервиса входит фиксация
+@Aspect
+@Component
+@Order(Ordered.HIGHEST_PRECEDENCE)
+@ConditionalOnProperty(name = "retail.metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class MetricsAspect {
+
+    static final String SERVICE_TIMER = "retail.service";
+    static final String MAPPER_TIMER = "retail.mapper";
+    static final String REPOSITORY_ROWS = "retail.repository.rows";
+
+    private final MeterRegistry registry;
+
+    //метры без исключений создаются один раз на метод: поиск в реестре на каждом вызове дороже самого замера
+    private final Map<Method, Timer> serviceTimers = new ConcurrentHashMap<>();
+    private final Map<Method, Timer> mapperTimers = new ConcurrentHashMap<>();
+    private final Map<Method, DistributionSummary> rowSummaries = new ConcurrentHashMap<>();
+
+    public MetricsAspect(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    @Around("within(ru.otus.prof.retail.services..*) && @within(org.springframework.stereotype.Service)")
+    public Object timeService(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, SERVICE_TIMER, "Время метода сервиса", serviceTimers);
+    }
+
+    @Around("within(ru.otus.prof.retail.mappers.purchases.ShiftMapper) || within(ru.otus.prof.retail.mappers.purchases.PurchaseMapper)")
+    public Object timeMapper(ProceedingJoinPoint joinPoint) throws Throwable {
+        return time(joinPoint, MAPPER_TIMER, "Время преобразования сущности и DTO", mapperTimers);
+    }
+
+    //реализации фрагментов (*Impl) вызываются через прокси репозитория и уже учтены на нем
+    @AfterReturning(pointcut = "execution(* ru.otus.prof.retail.repositories..*(..)) && !within(ru.otus.prof.retail.repositories..*Impl)",
+            returning = "result")
+    public void countRows(JoinPoint joinPoint, Object result) {
+        Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+        long rows = method.getReturnType() == void.class ? -1 : rows(result);
+        if (rows < 0) {
+            return;
+        }
+        rowSummaries.computeIfAbsent(method, key -> DistributionSummary.builder(REPOSITORY_ROWS)
+                        .description("Строк, возвращенных запросом репозитория")
+                        .baseUnit("rows")
+                        .tag("repository", key.getDeclaringClass().getSimpleName())
+                        .tag("method", key.getName())
+                        .register(registry))
+                .record(rows);
+    }
+
+    private Object time(ProceedingJoinPoint joinPoint, String name, String description, Map<Method, Timer> timers) throws Throwable {
+        long started = System.nanoTime();
+        try {
+            Object result = joinPoint.proceed();
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            timers.computeIfAbsent(method, key -> timer(name, description, key, "none"))
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            return result;
+        } catch (Throwable e) {
+            Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+            timer(name, description, method, e.getClass().getSimpleName())
+                    .record(System.nanoTime() - started, TimeUnit.NANOSECONDS);
+            throw e;
+        }
+    }
+
+    private Timer timer(String name, String description, Method method, String exception) {
+        return Timer.builder(name)
+                .description(description)
+                .tag("class", method.getDeclaringClass().getSimpleName())
+                .tag("method", method.getName())
+                .tag("exception", exception)
+                .register(registry);
+    }
+
+    //-1: результат не набор строк (счетчик, признак, поток)
+    static long rows(Object result) {
+        if (result == null) {
+            return 0;
+        }
+        if (result instanceof Collection<?> collection) {
+            return collection.size();
+        }
+        if (result instanceof Slice<?> slice) {
+            return slice.getNumberOfElements();
+        }
+        if (result instanceof Map<?, ?> map) {
+            return map.size();
+        }
+        if (result instanceof Optional<?> optional) {
+            return optional.isPresent() ? 1 : 0;
+        }
+        if (result.getClass().isArray()) {
+            return Array.getLength(result);
+        }
+        if (result instanceof Number || result instanceof Boolean || result instanceof Iterable<?>
+                || result instanceof BaseStream<?, ?>) {
+            return -1;
+        }
+        return 1;
+    }
+}
\ No newline at end of file
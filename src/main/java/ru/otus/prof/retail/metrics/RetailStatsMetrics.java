@@ -0,0 +1,108 @@
+package ru.otus.prof.retail.metrics;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.stereotype.Component;
+import ru.otus.prof.retail.config.AdmissionControlledDataSource;
+import ru.otus.prof.retail.services.events.TillEventConsumer;
+import ru.otus.prof.retail.services.product.BarcodeLookupService;
+import ru.otus.prof.retail.services.purchases.ReceiptValidationService;
+import ru.otus.prof.retail.services.purchases.spool.ShiftSpoolService;
+
+import javax.sql.DataSource;
+import java.util.function.ToDoubleFunction;
+
+//Счетчики, которые сервисы уже ведут для своих эндпоинтов статистики, в виде метрик для Prometheus.
+//Значения читаются при каждом снятии метрик, сервисы не знают о реестре
+@Component
+public class RetailStatsMetrics implements MeterBinder {
+
+    private final BarcodeLookupService barcodeLookupService;
+    private final ReceiptValidationService receiptValidationService;
+    private final ShiftSpoolService shiftSpoolService;
+    private final ObjectProvider<TillEventConsumer> tillEventConsumer;
+    private final ObjectProvider<DataSource> dataSources;
+
+    public RetailStatsMetrics(BarcodeLookupService barcodeLookupService,
+                              ReceiptValidationService receiptValidationService,
+                              ShiftSpoolService shiftSpoolService,
+                              ObjectProvider<TillEventConsumer> tillEventConsumer,
+                              ObjectProvider<DataSource> dataSources) {
+        this.barcodeLookupService = barcodeLookupService;
+        this.receiptValidationService = receiptValidationService;
+        this.shiftSpoolService = shiftSpoolService;
+        this.tillEventConsumer = tillEventConsumer;
+        this.dataSources = dataSources;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("retail.scan.cache.lookups", barcodeLookupService, service -> service.getStats().hits())
+                .description("Обращения к кэшу штрих-кодов").tag("result", "hit").register(registry);
+        FunctionCounter.builder("retail.scan.cache.lookups", barcodeLookupService, service -> service.getStats().misses())
+                .description("Обращения к кэшу штрих-кодов").tag("result", "miss").register(registry);
+        Gauge.builder("retail.scan.cache.size", barcodeLookupService, service -> service.getStats().barcodes())
+                .description("Штрих-кодов в кэше").tag("cache", "barcode").register(registry);
+        Gauge.builder("retail.scan.cache.size", barcodeLookupService, service -> service.getStats().articles())
+                .description("Артикулов в кэше").tag("cache", "article").register(registry);
+
+        FunctionCounter.builder("retail.receipt.validation.receipts", receiptValidationService,
+                        service -> service.getStats().receipts())
+                .description("Проверенных чеков").register(registry);
+        FunctionCounter.builder("retail.receipt.validation.positions", receiptValidationService,
+                        service -> service.getStats().positions())
+                .description("Проверенных позиций").register(registry);
+        FunctionCounter.builder("retail.receipt.validation.quarantined", receiptValidationService,
+                        service -> service.getStats().quarantined())
+                .description("Позиций, отправленных в карантин").register(registry);
+        Gauge.builder("retail.receipt.validation.overhead", receiptValidationService,
+                        service -> service.getStats().overheadPercent())
+                .description("Доля времени проверки от времени записи чеков").baseUnit("percent").register(registry);
+        FunctionCounter.builder("retail.receipt.validation.over.budget", receiptValidationService,
+                        service -> service.getStats().overBudgetChunks())
+                .description("Порций, проверка которых по снимку вышла за бюджет").register(registry);
+        Gauge.builder("retail.receipt.validation.deferred", receiptValidationService,
+                        ReceiptValidationService::getDeferredSuspects)
+                .description("Подозрительных позиций в очереди отложенной сверки").register(registry);
+
+        spool(registry, "accepted", service -> service.getStats().accepted());
+        spool(registry, "drained", service -> service.getStats().drained());
+        spool(registry, "rejected", service -> service.getStats().rejected());
+        spool(registry, "refused", service -> service.getStats().refused());
+        Gauge.builder("retail.spool.backlog", shiftSpoolService, service -> service.getStats().backlogBytes())
+                .description("Принятых, но не переданных в БД смен").baseUnit("bytes").register(registry);
+
+        tillEventConsumer.ifAvailable(consumer -> {
+            FunctionCounter.builder("retail.till.events", consumer, TillEventConsumer::getShifts)
+                    .description("Событий касс, записанных в БД").tag("type", "shift").register(registry);
+            FunctionCounter.builder("retail.till.events", consumer, TillEventConsumer::getReceipts)
+                    .description("Событий касс, записанных в БД").tag("type", "receipt").register(registry);
+            FunctionCounter.builder("retail.till.events.rejected", consumer, TillEventConsumer::getRejected)
+                    .description("Событий касс, отправленных в топик отклоненных").register(registry);
+            FunctionCounter.builder("retail.till.events.failures", consumer, TillEventConsumer::getFailures)
+                    .description("Ошибок записи событий касс").register(registry);
+        });
+
+        dataSources.orderedStream()
+                .filter(AdmissionControlledDataSource.class::isInstance)
+                .map(AdmissionControlledDataSource.class::cast)
+                .forEach(admission -> {
+                    Gauge.builder("retail.db.admission.in-use", admission, AdmissionControlledDataSource::getInUse)
+                            .description("Выданных разрешений на соединение с БД").register(registry);
+                    Gauge.builder("retail.db.admission.waiting", admission, AdmissionControlledDataSource::getWaiting)
+                            .description("Потоков в очереди допуска к БД").register(registry);
+                    FunctionCounter.builder("retail.db.admission.rejected", admission, AdmissionControlledDataSource::getRejected)
+                            .description("Отказов при заполненной очереди допуска").register(registry);
+                    FunctionCounter.builder("retail.db.admission.timeouts", admission, AdmissionControlledDataSource::getTimedOut)
+                            .description("Истекших ожиданий допуска к БД").register(registry);
+                });
+    }
+
+    private void spool(MeterRegistry registry, String outcome, ToDoubleFunction<ShiftSpoolService> value) {
+        FunctionCounter.builder("retail.spool.shifts", shiftSpoolService, value)
+                .description("Смен, прошедших через спул загрузки").tag("outcome", outcome).register(registry);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package ru.otus.prof.retail.repositories.product;
+
+//Штрих-код и артикул без загрузки сущности Barcode и ее товара
+public record BarcodeArticle(String barcode, Long article) {
+}
\ No newline at end of file
@@ -1,13 +1,19 @@
 package ru.otus.prof.retail.repositories.product;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.otus.prof.retail.entities.product.Barcode;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface BarcodeRepository extends JpaRepository<Barcode, String> {
@@ -19,4 +25,29 @@ public interface BarcodeRepository extends JpaRepository<Barcode, String> {
     void deleteAllByItemArticle(@Param("article") Long article);
 
     boolean existsByBarcodeIn(List<String> barcodes);
+
+    @Query("SELECT b.item.article FROM Barcode b WHERE b.barcode = :barcode")
+    Optional<Long> findArticleByBarcode(@Param("barcode") String barcode);
+
+    @Query("SELECT b.barcode FROM Barcode b WHERE b.item.article = :article")
+    List<String> findBarcodesByArticle(@Param("article") Long article);
+
+    @Query("SELECT new ru.otus.prof.retail.repositories.product.BarcodeArticle(b.barcode, b.item.article) FROM Barcode b " +
+            "WHERE b.item.article IN :articles")
+    List<BarcodeArticle> findBarcodeArticles(@Param("articles") Collection<Long> articles);
+
+    @Query("SELECT new ru.otus.prof.retail.repositories.product.BarcodeArticle(b.barcode, b.item.article) FROM Barcode b " +
+            "WHERE b.barcode IN :barcodes")
+    List<BarcodeArticle> findBarcodeArticlesByBarcodes(@Param("barcodes") Collection<String> barcodes);
+
+    //все штрих-коды без порядка - снимок каталога сортирует их сам по байтам
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new ru.otus.prof.retail.repositories.product.BarcodeArticle(b.barcode, b.item.article) FROM Barcode b")
+    Stream<BarcodeArticle> streamBarcodeArticles();
+
+    //штрих-коды по возрастанию артикула - для слияния с потоком товаров
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new ru.otus.prof.retail.repositories.product.BarcodeArticle(b.barcode, b.item.article) FROM Barcode b " +
+            "ORDER BY b.item.article, b.barcode")
+    Stream<BarcodeArticle> streamBarcodeArticlesByArticle();
 }
\ No newline at end of file
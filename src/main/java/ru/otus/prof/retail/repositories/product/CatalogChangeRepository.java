@@ -0,0 +1,11 @@
+package ru.otus.prof.retail.repositories.product;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.otus.prof.retail.entities.product.CatalogChange;
+import ru.otus.prof.retail.entities.product.CatalogChangeId;
+
+@Repository
+public interface CatalogChangeRepository extends JpaRepository<CatalogChange, CatalogChangeId>,
+        CatalogChangeRepositoryCustom {
+}
\ No newline at end of file
@@ -0,0 +1,21 @@
+package ru.otus.prof.retail.repositories.product;
+
+import ru.otus.prof.retail.entities.product.CatalogChangeId;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CatalogChangeRepositoryCustom {
+
+    //последняя зафиксированная версия каталога
+    long currentVersion();
+
+    //увеличивает версию каталога; строка версии остается заблокированной до конца транзакции
+    long nextVersion();
+
+    void append(long version, Collection<Long> articles);
+
+    //по одной записи на товар с его последней версией, после курсора (since, afterArticle) в порядке (версия, артикул).
+    //afterArticle = null - все товары с версией больше since
+    List<CatalogChangeId> findLatestAfter(long since, Long afterArticle, int limit);
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package ru.otus.prof.retail.repositories.product;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import ru.otus.prof.retail.entities.product.CatalogChangeId;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+//Версия увеличивается и читается одним запросом: UPDATE ... RETURNING в PostgreSQL,
+//в H2 RETURNING нет - используется FINAL TABLE. JdbcTemplate работает на соединении текущей JPA-транзакции
+public class CatalogChangeRepositoryImpl implements CatalogChangeRepositoryCustom {
+
+    private static final String NEXT_VERSION_POSTGRES =
+            "UPDATE catalog_version SET version = version + 1 WHERE id = 1 RETURNING version";
+
+    private static final String NEXT_VERSION_H2 =
+            "SELECT version FROM FINAL TABLE (UPDATE catalog_version SET version = version + 1 WHERE id = 1)";
+
+    private static final String CURRENT_VERSION =
+            "SELECT version FROM catalog_version WHERE id = 1";
+
+    private static final String APPEND =
+            "INSERT INTO catalog_change (version, article, change_time) VALUES (?, ?, ?)";
+
+    //группировка сворачивает историю товара до последней версии; условие version >= since
+    //отсекает по первичному ключу всю историю до курсора
+    private static final String FIND_LATEST_AFTER =
+            "SELECT version, article FROM (" +
+            "SELECT article, MAX(version) AS version FROM catalog_change WHERE version >= ? GROUP BY article) c " +
+            "WHERE version > ? OR (version = ? AND article > ?) " +
+            "ORDER BY version, article " +
+            "LIMIT ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String nextVersionSql;
+
+    public CatalogChangeRepositoryImpl(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.nextVersionSql = "PostgreSQL".equals(product) ? NEXT_VERSION_POSTGRES : NEXT_VERSION_H2;
+    }
+
+    @Override
+    public long currentVersion() {
+        Long version = jdbcTemplate.queryForObject(CURRENT_VERSION, Long.class);
+        return version == null ? 0 : version;
+    }
+
+    @Override
+    public long nextVersion() {
+        Long version = jdbcTemplate.queryForObject(nextVersionSql, Long.class);
+        if (version == null) {
+            throw new IllegalStateException("Не найдена строка версии каталога в catalog_version");
+        }
+        return version;
+    }
+
+    @Override
+    public void append(long version, Collection<Long> articles) {
+        if (articles.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ordered = articles.stream().sorted().toList();
+        jdbcTemplate.batchUpdate(APPEND, ordered, ordered.size(), (statement, article) -> {
+            statement.setLong(1, version);
+            statement.setLong(2, article);
+            statement.setTimestamp(3, now);
+        });
+    }
+
+    @Override
+    public List<CatalogChangeId> findLatestAfter(long since, Long afterArticle, int limit) {
+        //без курсора по артикулу версия since целиком уже получена
+        long after = afterArticle == null ? Long.MAX_VALUE : afterArticle;
+        return jdbcTemplate.query(FIND_LATEST_AFTER,
+                (rs, rowNum) -> new CatalogChangeId(rs.getLong("version"), rs.getLong("article")),
+                since, since, since, after, limit);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package ru.otus.prof.retail.repositories.product;
+
+//Товар с текущей ценой без загрузки сущности Item и ее коллекций
+public record CatalogEntry(Long article, String name, Long price) {
+}
\ No newline at end of file
@@ -0,0 +1,5 @@
+package ru.otus.prof.retail.repositories.product;
+
+//Строка исходящих событий каталога без лишних колонок
+public record CatalogOutboxEntry(long id, long article, long version) {
+}
\ No newline at end of file
@@ -0,0 +1,9 @@
+package ru.otus.prof.retail.repositories.product;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.otus.prof.retail.entities.product.CatalogOutbox;
+
+@Repository
+public interface CatalogOutboxRepository extends JpaRepository<CatalogOutbox, Long>, CatalogOutboxRepositoryCustom {
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ru.otus.prof.retail.repositories.product;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface CatalogOutboxRepositoryCustom {
+
+    void append(long version, Collection<Long> articles);
+
+    //первые limit строк по id с блокировкой до конца транзакции; строки, заблокированные другим
+    //ретранслятором, пропускаются (в PostgreSQL)
+    List<CatalogOutboxEntry> lockBatch(int limit);
+
+    void deleteByIds(List<Long> ids);
+}
\ No newline at end of file
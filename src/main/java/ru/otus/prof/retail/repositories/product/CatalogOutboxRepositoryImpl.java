@@ -0,0 +1,78 @@
+package ru.otus.prof.retail.repositories.product;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+//Пачка забирается с FOR UPDATE SKIP LOCKED: несколько экземпляров ретранслятора разбирают разные строки,
+//не ожидая друг друга. В H2 (тесты, один ретранслятор) - обычный FOR UPDATE.
+//Удаление в PostgreSQL - одним запросом по массиву id, в H2 - пакетом.
+//JdbcTemplate работает на соединении текущей JPA-транзакции
+public class CatalogOutboxRepositoryImpl implements CatalogOutboxRepositoryCustom {
+
+    private static final String APPEND =
+            "INSERT INTO catalog_outbox (article, version, created_at) VALUES (?, ?, ?)";
+
+    private static final String LOCK_BATCH =
+            "SELECT id, article, version FROM catalog_outbox ORDER BY id LIMIT ? FOR UPDATE";
+
+    private static final String SKIP_LOCKED = " SKIP LOCKED";
+
+    private static final String DELETE_POSTGRES = "DELETE FROM catalog_outbox WHERE id = ANY (?)";
+
+    private static final String DELETE_H2 = "DELETE FROM catalog_outbox WHERE id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public CatalogOutboxRepositoryImpl(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(product);
+    }
+
+    @Override
+    public void append(long version, Collection<Long> articles) {
+        if (articles.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> ordered = articles.stream().sorted().toList();
+        jdbcTemplate.batchUpdate(APPEND, ordered, ordered.size(), (statement, article) -> {
+            statement.setLong(1, article);
+            statement.setLong(2, version);
+            statement.setTimestamp(3, now);
+        });
+    }
+
+    @Override
+    public List<CatalogOutboxEntry> lockBatch(int limit) {
+        return jdbcTemplate.query(postgres ? LOCK_BATCH + SKIP_LOCKED : LOCK_BATCH,
+                (rs, rowNum) -> new CatalogOutboxEntry(rs.getLong("id"), rs.getLong("article"), rs.getLong("version")),
+                limit);
+    }
+
+    @Override
+    public void deleteByIds(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (postgres) {
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(DELETE_POSTGRES);
+                statement.setArray(1, connection.createArrayOf("bigint", ids.toArray()));
+                return statement;
+            });
+            return;
+        }
+        jdbcTemplate.batchUpdate(DELETE_H2, ids, ids.size(), (statement, id) -> statement.setLong(1, id));
+    }
+}
\ No newline at end of file
@@ -1,15 +1,25 @@
 package ru.otus.prof.retail.repositories.product;
 
+import jakarta.persistence.QueryHint;
+import jakarta.transaction.Transactional;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.otus.prof.retail.entities.product.Item;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 
 @Repository
@@ -19,16 +29,92 @@ public interface ItemRepository extends JpaRepository<Item, Long> {
     @Query("DELETE FROM Item i WHERE i.article = :article")
     void deleteByArticle(@Param("article") Long article);
 
+    //товар с ценами и штрих-кодами - для чтения и изменения товара целиком. Обе коллекции в одном запросе
+    //дали бы декартово произведение (цены x штрих-коды строк), поэтому штрих-коды догружаются вторым запросом
+    //в тот же контекст персистентности: вызывать внутри транзакции
+    @Transactional
+    default Optional<Item> findFullByArticle(Long article) {
+        Optional<Item> item = findWithPricesByArticle(article);
+        item.ifPresent(found -> findWithBarcodesByArticle(article));
+        return item;
+    }
+
+    @EntityGraph(attributePaths = "prices")
+    Optional<Item> findWithPricesByArticle(Long article);
+
+    @EntityGraph(attributePaths = "barcodes")
+    Optional<Item> findWithBarcodesByArticle(Long article);
+
+    //порция артикулов в одном запросе: ниже лимита параметров PostgreSQL (32767) с учетом in_clause_parameter_padding
+    int ARTICLE_CHUNK_SIZE = 10_000;
+
+    //отсутствующие в каталоге артикулы по возрастанию; существующие проверяются двоичным поиском по long[]
     default List<Long> findMissingArticles(Set<Long> articles) {
-        List<Long> existingArticles = findByArticleIn(articles)
-                .stream()
-                .map(Item::getArticle)
-                .collect(Collectors.toList());
-
-        return articles.stream()
-                .filter(art -> !existingArticles.contains(art))
-                .collect(Collectors.toList());
+        long[] requested = articles.stream().mapToLong(Long::longValue).sorted().toArray();
+        long[] existing = findExistingArticlesSorted(requested);
+
+        List<Long> missing = new ArrayList<>();
+        for (long article : requested) {
+            if (Arrays.binarySearch(existing, article) < 0) {
+                missing.add(article);
+            }
+        }
+        return missing;
+    }
+
+    //существующие артикулы из набора, отсортированные; выбираются только id, порциями по ARTICLE_CHUNK_SIZE
+    default long[] findExistingArticlesSorted(long[] articles) {
+        long[] existing = new long[articles.length];
+        int count = 0;
+        for (int from = 0; from < articles.length; from += ARTICLE_CHUNK_SIZE) {
+            List<Long> chunk = Arrays.stream(articles, from, Math.min(from + ARTICLE_CHUNK_SIZE, articles.length))
+                    .boxed()
+                    .toList();
+            for (Long article : findExistingArticles(chunk)) {
+                existing[count++] = article;
+            }
+        }
+        Arrays.sort(existing, 0, count);
+        return Arrays.copyOf(existing, count);
+    }
+
+    //только артикулы, без загрузки товаров
+    @Query("SELECT i.article FROM Item i WHERE i.article IN :articles")
+    List<Long> findExistingArticles(@Param("articles") Collection<Long> articles);
+
+    //текущая цена - действующая на момент :at; из нескольких действующих выбирается начавшая действовать позже,
+    //при равенстве - добавленная последней. Подзапросы идут по индексу price(article, effective_from, id)
+    String PRICE_AT_JOIN = "LEFT JOIN i.prices p ON p.id = (SELECT MAX(p2.id) FROM Price p2 " +
+            "WHERE p2.item.article = i.article AND (p2.effectiveTo IS NULL OR p2.effectiveTo > :at) " +
+            "AND p2.effectiveFrom = (SELECT MAX(p3.effectiveFrom) FROM Price p3 WHERE p3.item.article = i.article " +
+            "AND p3.effectiveFrom <= :at AND (p3.effectiveTo IS NULL OR p3.effectiveTo > :at))) ";
+
+    @Query("SELECT new ru.otus.prof.retail.repositories.product.CatalogEntry(i.article, i.name, p.price) FROM Item i " +
+            PRICE_AT_JOIN +
+            "WHERE i.article = :article")
+    Optional<CatalogEntry> findCatalogEntryAt(@Param("article") Long article, @Param("at") LocalDateTime at);
+
+    @Query("SELECT new ru.otus.prof.retail.repositories.product.CatalogEntry(i.article, i.name, p.price) FROM Item i " +
+            PRICE_AT_JOIN +
+            "WHERE i.article IN :articles")
+    List<CatalogEntry> findCatalogEntriesAt(@Param("articles") Collection<Long> articles, @Param("at") LocalDateTime at);
+
+    //весь каталог по возрастанию артикула для сборки снимка; читается курсором, требует транзакции
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new ru.otus.prof.retail.repositories.product.CatalogEntry(i.article, i.name, p.price) FROM Item i " +
+            PRICE_AT_JOIN +
+            "ORDER BY i.article")
+    Stream<CatalogEntry> streamCatalogEntriesAt(@Param("at") LocalDateTime at);
+
+    default Optional<CatalogEntry> findCatalogEntry(Long article) {
+        return findCatalogEntryAt(article, LocalDateTime.now());
+    }
+
+    default List<CatalogEntry> findCatalogEntries(Collection<Long> articles) {
+        return findCatalogEntriesAt(articles, LocalDateTime.now());
     }
 
-    List<Item> findByArticleIn(Set<Long> articles);
-}
+    default Stream<CatalogEntry> streamCatalogEntries() {
+        return streamCatalogEntriesAt(LocalDateTime.now());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.otus.prof.retail.repositories.product;
+
+import java.time.LocalDateTime;
+
+//Интервал действия цены [effectiveFrom, effectiveTo) без загрузки сущности Price; effectiveTo = null - бессрочно
+public record PriceInterval(Long article, Long id, Long price, LocalDateTime effectiveFrom, LocalDateTime effectiveTo) {
+
+    public boolean covers(LocalDateTime at) {
+        return !effectiveFrom.isAfter(at) && (effectiveTo == null || effectiveTo.isAfter(at));
+    }
+
+    //из двух действующих цен выбирается начавшая действовать позже, при равенстве - добавленная последней
+    public boolean supersedes(PriceInterval other) {
+        int byFrom = effectiveFrom.compareTo(other.effectiveFrom);
+        return byFrom > 0 || (byFrom == 0 && id > other.id);
+    }
+}
\ No newline at end of file
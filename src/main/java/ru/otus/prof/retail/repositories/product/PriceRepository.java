@@ -1,13 +1,19 @@
 package ru.otus.prof.retail.repositories.product;
 
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.otus.prof.retail.entities.product.Price;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface PriceRepository extends JpaRepository<Price, Long> {
@@ -18,4 +24,35 @@ public interface PriceRepository extends JpaRepository<Price, Long> {
     @Query("DELETE FROM Price p WHERE p.item.article = :article")
     void deleteAllByItemArticle(@Param("article") Long article);
 
-}
+    //новая бессрочная цена закрывает прежние бессрочные цены товара, начавшиеся раньше нее;
+    //акции (с датой окончания) не затрагиваются
+    @Modifying
+    @Query("UPDATE Price p SET p.effectiveTo = :from " +
+            "WHERE p.item.article = :article AND p.effectiveTo IS NULL AND p.effectiveFrom < :from")
+    int closeOpenIntervals(@Param("article") Long article, @Param("from") LocalDateTime from);
+
+    //цены, действующие на момент :at, по набору артикулов - диапазон по индексу price(article, effective_from, id);
+    //закрытая история в выборку не попадает, на товар обычно одна-две строки (базовая цена и акция)
+    @Query("SELECT new ru.otus.prof.retail.repositories.product.PriceInterval(" +
+            "p.item.article, p.id, p.price, p.effectiveFrom, p.effectiveTo) FROM Price p " +
+            "WHERE p.item.article IN :articles AND p.effectiveFrom <= :at " +
+            "AND (p.effectiveTo IS NULL OR p.effectiveTo > :at)")
+    List<PriceInterval> findEffectiveAt(@Param("articles") Collection<Long> articles, @Param("at") LocalDateTime at);
+
+    //товары, у которых цена начала или закончила действовать в интервале (from, to]:
+    //текущая цена сменилась без записи в БД
+    @Query("SELECT DISTINCT p.item.article FROM Price p " +
+            "WHERE (p.effectiveFrom > :from AND p.effectiveFrom <= :to) " +
+            "OR (p.effectiveTo > :from AND p.effectiveTo <= :to)")
+    List<Long> findArticlesWithBoundaryBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+    //все цены, действующие хотя бы часть интервала [from, to), в порядке индекса интервалов цен;
+    //читается курсором, требует транзакции
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "10000"))
+    @Query("SELECT new ru.otus.prof.retail.repositories.product.PriceInterval(" +
+            "p.item.article, p.id, p.price, p.effectiveFrom, p.effectiveTo) FROM Price p " +
+            "WHERE p.effectiveFrom < :to AND (p.effectiveTo IS NULL OR p.effectiveTo > :from) " +
+            "ORDER BY p.item.article, p.effectiveFrom DESC, p.id DESC")
+    Stream<PriceInterval> streamEffectiveBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
+
+}
\ No newline at end of file
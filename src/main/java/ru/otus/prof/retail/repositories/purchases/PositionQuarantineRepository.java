@@ -0,0 +1,14 @@
+package ru.otus.prof.retail.repositories.purchases;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.otus.prof.retail.entities.purchases.PositionQuarantine;
+
+import java.util.List;
+
+@Repository
+public interface PositionQuarantineRepository extends JpaRepository<PositionQuarantine, Long>,
+        PositionQuarantineRepositoryCustom {
+
+    List<PositionQuarantine> findByShiftIdOrderById(Long shiftId);
+}
\ No newline at end of file
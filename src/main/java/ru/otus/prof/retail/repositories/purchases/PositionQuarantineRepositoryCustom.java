@@ -0,0 +1,10 @@
+package ru.otus.prof.retail.repositories.purchases;
+
+import ru.otus.prof.retail.services.purchases.validation.PositionMismatch;
+
+import java.util.Collection;
+
+public interface PositionQuarantineRepositoryCustom {
+
+    void appendAll(Collection<PositionMismatch> mismatches);
+}
\ No newline at end of file
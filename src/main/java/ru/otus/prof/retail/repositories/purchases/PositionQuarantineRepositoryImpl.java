@@ -0,0 +1,48 @@
+package ru.otus.prof.retail.repositories.purchases;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import ru.otus.prof.retail.services.purchases.validation.PositionMismatch;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+//Вставка пачкой JDBC мимо контекста персистентности: загрузка чеков чистит его после каждой порции,
+//а IDENTITY-ключ не дал бы Hibernate объединить вставки. JdbcTemplate работает на соединении текущей JPA-транзакции
+public class PositionQuarantineRepositoryImpl implements PositionQuarantineRepositoryCustom {
+
+    private static final String APPEND =
+            "INSERT INTO position_quarantine (position_id, purchase_id, shift_id, purchase_date, barcode, article, " +
+            "position_name, price, reason, expected_article, expected_price, detected_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public PositionQuarantineRepositoryImpl(DataSource dataSource) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+    }
+
+    @Override
+    public void appendAll(Collection<PositionMismatch> mismatches) {
+        if (mismatches.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(APPEND, mismatches, mismatches.size(), (statement, mismatch) -> {
+            statement.setLong(1, mismatch.positionId());
+            statement.setLong(2, mismatch.purchaseId());
+            statement.setLong(3, mismatch.shiftId());
+            statement.setTimestamp(4, Timestamp.valueOf(mismatch.purchaseDate()));
+            statement.setString(5, mismatch.barcode());
+            statement.setLong(6, mismatch.article());
+            statement.setString(7, mismatch.positionName());
+            statement.setLong(8, mismatch.price());
+            statement.setString(9, mismatch.reason().name());
+            statement.setObject(10, mismatch.expectedArticle(), Types.BIGINT);
+            statement.setObject(11, mismatch.expectedPrice(), Types.BIGINT);
+            statement.setTimestamp(12, now);
+        });
+    }
+}
\ No newline at end of file
@@ -4,6 +4,7 @@ import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 import ru.otus.prof.retail.entities.purchases.Position;
 
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -11,4 +12,6 @@ public interface PositionRepository extends JpaRepository<Position, Long> {
 
 
     List<Position> findByPurchase_Id(Long purchaseId);
+
+    List<Position> findByPurchase_IdIn(Collection<Long> purchaseIds);
 }
@@ -0,0 +1,11 @@
+package ru.otus.prof.retail.repositories.purchases;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+import ru.otus.prof.retail.entities.purchases.PurchaseKey;
+import ru.otus.prof.retail.entities.purchases.PurchaseKeyId;
+
+@Repository
+public interface PurchaseKeyRepository extends JpaRepository<PurchaseKey, PurchaseKeyId>,
+        PurchaseKeyRepositoryCustom {
+}
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.otus.prof.retail.repositories.purchases;
+
+import ru.otus.prof.retail.entities.purchases.PurchaseKey;
+import ru.otus.prof.retail.entities.purchases.PurchaseKeyId;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+
+public interface PurchaseKeyRepositoryCustom {
+
+    //уже сохраненные ключи из набора
+    Set<PurchaseKeyId> findExisting(Collection<PurchaseKeyId> ids);
+
+    //вставляет ключи, пропуская существующие; возвращает вставленные. Ключи в наборе не должны повторяться
+    Set<PurchaseKeyId> claim(List<PurchaseKey> keys);
+}
\ No newline at end of file
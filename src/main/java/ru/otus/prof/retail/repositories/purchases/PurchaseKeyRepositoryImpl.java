@@ -0,0 +1,114 @@
+package ru.otus.prof.retail.repositories.purchases;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import ru.otus.prof.retail.entities.purchases.PurchaseKey;
+import ru.otus.prof.retail.entities.purchases.PurchaseKeyId;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.util.*;
+
+//Ключи вставляются одним запросом на порцию: в PostgreSQL - массивы через unnest с ON CONFLICT DO NOTHING
+//и RETURNING вставленных ключей (при reWriteBatchedInserts пакет не возвращает счетчики по строкам).
+//В H2 RETURNING нет - пакет INSERT ... ON CONFLICT DO NOTHING, вставленные ключи определяются по счетчикам строк.
+//Конкурентная загрузка того же чека ждет фиксации первой транзакции на уникальном индексе и пропускает ключ.
+//JdbcTemplate работает на соединении текущей JPA-транзакции
+public class PurchaseKeyRepositoryImpl implements PurchaseKeyRepositoryCustom {
+
+    private static final String CLAIM_POSTGRES =
+            "INSERT INTO purchase_key (shop_number, cash_number, shift_number, receipt_number, purchase_date) " +
+            "SELECT * FROM unnest(?::bigint[], ?::bigint[], ?::bigint[], ?::bigint[], ?::timestamp[]) " +
+            "ON CONFLICT DO NOTHING " +
+            "RETURNING shop_number, cash_number, shift_number, receipt_number";
+
+    private static final String CLAIM_H2 =
+            "INSERT INTO purchase_key (shop_number, cash_number, shift_number, receipt_number, purchase_date) " +
+            "VALUES (?, ?, ?, ?, ?) ON CONFLICT DO NOTHING";
+
+    private static final String FIND_EXISTING =
+            "SELECT shop_number, cash_number, shift_number, receipt_number FROM purchase_key " +
+            "WHERE (shop_number, cash_number, shift_number, receipt_number) IN (%s)";
+
+    private static final RowMapper<PurchaseKeyId> KEY_MAPPER = (rs, rowNum) -> new PurchaseKeyId(
+            rs.getLong("shop_number"), rs.getLong("cash_number"), rs.getLong("shift_number"), rs.getLong("receipt_number"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean postgres;
+
+    public PurchaseKeyRepositoryImpl(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(product);
+    }
+
+    @Override
+    public Set<PurchaseKeyId> findExisting(Collection<PurchaseKeyId> ids) {
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        String sql = String.format(FIND_EXISTING, String.join(", ", Collections.nCopies(ids.size(), "(?, ?, ?, ?)")));
+        Object[] args = new Object[ids.size() * 4];
+        int i = 0;
+        for (PurchaseKeyId id : ids) {
+            args[i++] = id.getShopNumber();
+            args[i++] = id.getCashNumber();
+            args[i++] = id.getShiftNumber();
+            args[i++] = id.getReceiptNumber();
+        }
+        return new HashSet<>(jdbcTemplate.query(sql, KEY_MAPPER, args));
+    }
+
+    @Override
+    public Set<PurchaseKeyId> claim(List<PurchaseKey> keys) {
+        if (keys.isEmpty()) {
+            return Set.of();
+        }
+        return postgres ? claimPostgres(keys) : claimBatch(keys);
+    }
+
+    private Set<PurchaseKeyId> claimPostgres(List<PurchaseKey> keys) {
+        int size = keys.size();
+        Long[] shops = new Long[size];
+        Long[] cashes = new Long[size];
+        Long[] shifts = new Long[size];
+        Long[] receipts = new Long[size];
+        Timestamp[] dates = new Timestamp[size];
+        for (int i = 0; i < size; i++) {
+            PurchaseKeyId id = keys.get(i).getId();
+            shops[i] = id.getShopNumber();
+            cashes[i] = id.getCashNumber();
+            shifts[i] = id.getShiftNumber();
+            receipts[i] = id.getReceiptNumber();
+            dates[i] = Timestamp.valueOf(keys.get(i).getPurchaseDate());
+        }
+        return new HashSet<>(jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(CLAIM_POSTGRES);
+            statement.setArray(1, connection.createArrayOf("bigint", shops));
+            statement.setArray(2, connection.createArrayOf("bigint", cashes));
+            statement.setArray(3, connection.createArrayOf("bigint", shifts));
+            statement.setArray(4, connection.createArrayOf("bigint", receipts));
+            statement.setArray(5, connection.createArrayOf("timestamp", dates));
+            return statement;
+        }, KEY_MAPPER));
+    }
+
+    private Set<PurchaseKeyId> claimBatch(List<PurchaseKey> keys) {
+        int[] counts = jdbcTemplate.batchUpdate(CLAIM_H2, keys.stream()
+                .map(key -> new Object[]{key.getId().getShopNumber(), key.getId().getCashNumber(),
+                        key.getId().getShiftNumber(), key.getId().getReceiptNumber(),
+                        Timestamp.valueOf(key.getPurchaseDate())})
+                .toList());
+        Set<PurchaseKeyId> claimed = new HashSet<>();
+        for (int i = 0; i < counts.length; i++) {
+            if (counts[i] > 0) {
+                claimed.add(keys.get(i).getId());
+            }
+        }
+        return claimed;
+    }
+}
\ No newline at end of file
@@ -7,6 +7,8 @@ import org.springframework.stereotype.Repository;
 import ru.otus.prof.retail.entities.purchases.Purchase;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -17,21 +19,53 @@ public interface PurchaseRepository extends JpaRepository<Purchase, Long> {
     @Query("SELECT p FROM Purchase p LEFT JOIN FETCH p.positions WHERE p.shift.id = :shiftId")
     List<Purchase> findPurchaseByShiftId(@Param("shiftId") Long shiftId);
 
-    // Запрос всех чеков по магазину и дате
-    @Query("SELECT p FROM Purchase p " +
+    // Запрос чеков сразу по набору смен (пакетный эндпоинт), позиции подтягиваются тем же запросом
+    @Query("SELECT DISTINCT p FROM Purchase p LEFT JOIN FETCH p.positions WHERE p.shift.id IN :shiftIds")
+    List<Purchase> findPurchasesByShiftIds(@Param("shiftIds") Collection<Long> shiftIds);
+
+    // Чеки без позиций: позиции дозагружаются отдельным запросом по ID чеков
+    List<Purchase> findByShift_IdIn(Collection<Long> shiftIds);
+
+    // Запрос всех чеков по магазину и дате.
+    // Дата задается полуоткрытым диапазоном, чтобы работал индекс purchase(shift_id, purchase_date);
+    // условия на смену отсекают смены, закрытые до начала дня, и лишние партиции shift (по create_date)
+    @Query("SELECT DISTINCT p FROM Purchase p " +
             "JOIN p.shift s " +
+            "LEFT JOIN FETCH p.positions " +
             "WHERE s.shopNumber = :shopNumber " +
-            "AND CAST(p.purchaseDate AS date) = :date")
-    List<Purchase> findPurchaseByShopNumberAndDate(@Param("shopNumber") Long shopNumber, @Param("date") LocalDate date);
+            "AND (s.closeTime IS NULL OR s.closeTime >= :from) " +
+            "AND s.openTime >= :shiftOpenFrom AND s.openTime < :to " +
+            "AND p.purchaseDate >= :from AND p.purchaseDate < :to")
+    List<Purchase> findPurchaseByShopNumberAndDateRange(@Param("shopNumber") Long shopNumber,
+                                                        @Param("shiftOpenFrom") LocalDateTime shiftOpenFrom,
+                                                        @Param("from") LocalDateTime from,
+                                                        @Param("to") LocalDateTime to);
 
     // Запрос всех чеков по магазину, кассе и дате
-    @Query("SELECT p FROM Purchase p " +
+    @Query("SELECT DISTINCT p FROM Purchase p " +
             "JOIN p.shift s " +
+            "LEFT JOIN FETCH p.positions " +
             "WHERE s.shopNumber = :shopNumber " +
             "AND s.cashNumber = :cashNumber " +
-            "AND CAST(p.purchaseDate AS date) = :date")
-    List<Purchase> findPurchasesByShopNumberAndCashNumberAndDate(@Param("shopNumber") Long shopNumber,
-                                                                 @Param("cashNumber") Long cashNumber,
-                                                                 @Param("date") LocalDate date);
+            "AND (s.closeTime IS NULL OR s.closeTime >= :from) " +
+            "AND s.openTime >= :shiftOpenFrom AND s.openTime < :to " +
+            "AND p.purchaseDate >= :from AND p.purchaseDate < :to")
+    List<Purchase> findPurchasesByShopNumberAndCashNumberAndDateRange(@Param("shopNumber") Long shopNumber,
+                                                                      @Param("cashNumber") Long cashNumber,
+                                                                      @Param("shiftOpenFrom") LocalDateTime shiftOpenFrom,
+                                                                      @Param("from") LocalDateTime from,
+                                                                      @Param("to") LocalDateTime to);
+
+    default List<Purchase> findPurchaseByShopNumberAndDate(Long shopNumber, LocalDate date) {
+        return findPurchaseByShopNumberAndDateRange(shopNumber,
+                date.minusDays(ShiftSpecification.MAX_SHIFT_DAYS).atStartOfDay(),
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
+
+    default List<Purchase> findPurchasesByShopNumberAndCashNumberAndDate(Long shopNumber, Long cashNumber, LocalDate date) {
+        return findPurchasesByShopNumberAndCashNumberAndDateRange(shopNumber, cashNumber,
+                date.minusDays(ShiftSpecification.MAX_SHIFT_DAYS).atStartOfDay(),
+                date.atStartOfDay(), date.plusDays(1).atStartOfDay());
+    }
 
 }
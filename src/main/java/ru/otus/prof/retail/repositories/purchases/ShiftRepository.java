@@ -1,67 +1,66 @@
 package ru.otus.prof.retail.repositories.purchases;
 
-import jakarta.persistence.criteria.JoinType;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import ru.otus.prof.retail.entities.purchases.Shift;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
-public interface ShiftRepository extends JpaRepository<Shift, Long>, JpaSpecificationExecutor<Shift> {
+public interface ShiftRepository extends JpaRepository<Shift, Long>, JpaSpecificationExecutor<Shift>,
+        ShiftRepositoryCustom {
 
-    private List<Shift> findAllWithPurchases(Specification<Shift> spec) {
-        return findAll((root, query, cb) -> {
-            root.fetch("purchases", JoinType.LEFT).fetch("positions", JoinType.LEFT);
-            return spec.toPredicate(root, query, cb);
-        });
+    //Запросы возвращают только смены: чеки и позиции дозагружает ShiftFetchPlan.
+    //fetch join коллекций здесь давал бы по строке на каждую позицию каждого чека
+    default List<Shift> findShiftByCloseDate(LocalDate closeDate) {
+        return findAll(ShiftSpecification.byCloseDate(closeDate));
     }
 
-    private List<Shift> findAllWithoutPurchases(Specification<Shift> spec) {
-        return findAll((root, query, cb) -> {
-            query.distinct(true);
-            return spec.toPredicate(root, query, cb);
-        });
+    default List<Shift> findShiftsByShopNumberAndCloseDate(Long shopNumber, LocalDate closeDate) {
+        return findAll(ShiftSpecification.byCloseDate(closeDate)
+                .and(ShiftSpecification.byShopNumber(shopNumber)));
     }
 
-    default List<Shift> findShiftByCloseDate(LocalDate closeDate, boolean withPositions) {
-        Specification<Shift> spec = ShiftSpecification.byCloseDate(closeDate);
-        return withPositions ? findAllWithPurchases(spec) : findAllWithoutPurchases(spec);
-    }
-
-    default List<Shift> findShiftsByShopNumberAndCloseDate(Long shopNumber, LocalDate closeDate, boolean withPositions) {
-        Specification<Shift> spec = ShiftSpecification.byCloseDate(closeDate)
-                .and(ShiftSpecification.byShopNumber(shopNumber));
-        return withPositions ? findAllWithPurchases(spec) : findAllWithoutPurchases(spec);
-    }
-
-    default List<Shift> findShiftsByShopNumberAndCashNumberAndCloseDate(Long shopNumber, Long cashNumber, LocalDate closeDate, boolean withPositions) {
-        Specification<Shift> spec = ShiftSpecification.byShopNumber(shopNumber)
+    default List<Shift> findShiftsByShopNumberAndCashNumberAndCloseDate(Long shopNumber, Long cashNumber, LocalDate closeDate) {
+        return findAll(ShiftSpecification.byShopNumber(shopNumber)
                 .and(ShiftSpecification.byCashNumber(cashNumber))
-                .and(ShiftSpecification.byCloseDate(closeDate));
-        return withPositions ? findAllWithPurchases(spec) : findAllWithoutPurchases(spec);
+                .and(ShiftSpecification.byCloseDate(closeDate)));
     }
 
-    default List<Shift> findShiftByCloseDateRange(LocalDate startDate, LocalDate endDate, boolean withPositions) {
-        Specification<Shift> spec = ShiftSpecification.byCloseDateRange(startDate, endDate);
-        return withPositions ? findAllWithPurchases(spec) : findAllWithoutPurchases(spec);
+    default List<Shift> findShiftByCloseDateRange(LocalDate startDate, LocalDate endDate) {
+        return findAll(ShiftSpecification.byCloseDateRange(startDate, endDate));
     }
 
-    default List<Shift> findShiftsByShopNumberAndCloseDateRange(Long shopNumber, LocalDate startDate, LocalDate endDate, boolean withPositions) {
-        Specification<Shift> spec = ShiftSpecification.byShopNumber(shopNumber)
-                .and(ShiftSpecification.byCloseDateRange(startDate, endDate));
-        return withPositions ? findAllWithPurchases(spec) : findAllWithoutPurchases(spec);
+    default List<Shift> findShiftsByShopNumberAndCloseDateRange(Long shopNumber, LocalDate startDate, LocalDate endDate) {
+        return findAll(ShiftSpecification.byShopNumber(shopNumber)
+                .and(ShiftSpecification.byCloseDateRange(startDate, endDate)));
     }
 
-    default List<Shift> findShiftsByShopNumberAndCashNumberAndCloseDateRange(Long shopNumber, Long cashNumber, LocalDate startDate, LocalDate endDate, boolean withPositions) {
-        Specification<Shift> spec = ShiftSpecification.byShopNumber(shopNumber)
+    default List<Shift> findShiftsByShopNumberAndCashNumberAndCloseDateRange(Long shopNumber, Long cashNumber, LocalDate startDate, LocalDate endDate) {
+        return findAll(ShiftSpecification.byShopNumber(shopNumber)
                 .and(ShiftSpecification.byCashNumber(cashNumber))
-                .and(ShiftSpecification.byCloseDateRange(startDate, endDate));
-        return withPositions ? findAllWithPurchases(spec) : findAllWithoutPurchases(spec);
+                .and(ShiftSpecification.byCloseDateRange(startDate, endDate)));
     }
 
+    //план загрузки join: смены вместе с чеками и позициями одним запросом
+    @Query("SELECT DISTINCT s FROM Shift s LEFT JOIN FETCH s.purchases p LEFT JOIN FETCH p.positions WHERE s.id IN :ids")
+    List<Shift> findWithPurchasesByIds(@Param("ids") Collection<Long> ids);
+
+    //смена по данным кассы: повторная загрузка той же смены; условие на время открытия отсекает партиции
+    Optional<Shift> findFirstByShopNumberAndCashNumberAndShiftNumberAndOpenTimeOrderById(Long shopNumber, Long cashNumber,
+                                                                                         Long shiftNumber, LocalDateTime openTime);
+
+    @Modifying
+    @Query("UPDATE Shift s SET s.total = :total WHERE s.id = :id")
+    int updateTotal(@Param("id") Long id, @Param("total") Long total);
+
 }
@@ -0,0 +1,16 @@
+package ru.otus.prof.retail.repositories.purchases;
+
+import org.springframework.data.jpa.domain.Specification;
+import ru.otus.prof.retail.entities.purchases.Shift;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+//Выборки смен в порядке (close_date, id) - ключ постраничной навигации и потоковой выгрузки
+public interface ShiftRepositoryCustom {
+
+    List<Shift> findPage(Specification<Shift> spec, int limit);
+
+    //поток читается курсором по fetchSize строк, закрывать после использования
+    Stream<Shift> streamAll(Specification<Shift> spec, int fetchSize);
+}
\ No newline at end of file
@@ -0,0 +1,46 @@
+package ru.otus.prof.retail.repositories.purchases;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Root;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.domain.Specification;
+import ru.otus.prof.retail.entities.purchases.Shift;
+
+import java.util.List;
+import java.util.stream.Stream;
+
+//JpaSpecificationExecutor не умеет ни лимит без count-запроса, ни потоковое чтение, поэтому Criteria вручную
+public class ShiftRepositoryImpl implements ShiftRepositoryCustom {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Shift> findPage(Specification<Shift> spec, int limit) {
+        return orderedQuery(spec)
+                .setMaxResults(limit)
+                .getResultList();
+    }
+
+    @Override
+    public Stream<Shift> streamAll(Specification<Shift> spec, int fetchSize) {
+        //PostgreSQL отдает строки порциями только при явном fetchSize и внутри транзакции
+        return orderedQuery(spec)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
+    private TypedQuery<Shift> orderedQuery(Specification<Shift> spec) {
+        CriteriaBuilder criteriaBuilder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Shift> query = criteriaBuilder.createQuery(Shift.class);
+        Root<Shift> root = query.from(Shift.class);
+        query.where(spec.toPredicate(root, query, criteriaBuilder));
+        query.orderBy(criteriaBuilder.asc(root.get("closeTime")), criteriaBuilder.asc(root.get("id")));
+        return entityManager.createQuery(query);
+    }
+}
\ No newline at end of file
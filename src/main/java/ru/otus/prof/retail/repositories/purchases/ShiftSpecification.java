@@ -4,23 +4,40 @@ import org.springframework.data.jpa.domain.Specification;
 import ru.otus.prof.retail.entities.purchases.Shift;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 
 public class ShiftSpecification {
 
-    //Функции CAST и DATE не используем. В h2 и postgres не совместимы, ищем всегда по диапазону
+    //фискальная смена не может длиться дольше 24 часов; загрузка отклоняет более длинные (ShiftPeriods)
+    public static final int MAX_SHIFT_DAYS = 1;
+
+    //Функции CAST и DATE не используем. В h2 и postgres не совместимы, ищем всегда по диапазону.
+    //Диапазон полуоткрытый [начало дня, начало следующего дня): between захватывал бы смены, закрытые ровно в полночь
     public static Specification<Shift> byCloseDate(LocalDate closeDate) {
-        return (root, query, criteriaBuilder) -> criteriaBuilder.between(
-                root.get("closeTime"),
-                closeDate.atStartOfDay(),
-                closeDate.plusDays(1).atStartOfDay()
-        );
+        return byCloseDateRange(closeDate, closeDate);
     }
 
+    //Ограничение по времени открытия избыточно логически, но нужно для отсечения партиций:
+    //shift секционирована по create_date, а ищем по close_date
     public static Specification<Shift> byCloseDateRange(LocalDate startDate, LocalDate endDate) {
-        return (root, query, criteriaBuilder) -> criteriaBuilder.between(
-                root.get("closeTime"),
-                startDate.atStartOfDay(),
-                endDate.plusDays(1).atStartOfDay()
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.greaterThanOrEqualTo(root.get("closeTime"), startDate.atStartOfDay()),
+                criteriaBuilder.lessThan(root.get("closeTime"), endDate.plusDays(1).atStartOfDay()),
+                criteriaBuilder.greaterThanOrEqualTo(root.get("openTime"), startDate.minusDays(MAX_SHIFT_DAYS).atStartOfDay()),
+                criteriaBuilder.lessThan(root.get("openTime"), endDate.plusDays(1).atStartOfDay())
+        );
+    }
+
+    //Позиция после последней выданной смены в порядке (close_date, id).
+    //Первое условие дублирует OR, но дает границу диапазона для индекса (close_date, id)
+    public static Specification<Shift> after(LocalDateTime closeTime, Long id) {
+        return (root, query, criteriaBuilder) -> criteriaBuilder.and(
+                criteriaBuilder.greaterThanOrEqualTo(root.get("closeTime"), closeTime),
+                criteriaBuilder.or(
+                        criteriaBuilder.greaterThan(root.get("closeTime"), closeTime),
+                        criteriaBuilder.and(
+                                criteriaBuilder.equal(root.get("closeTime"), closeTime),
+                                criteriaBuilder.greaterThan(root.get("id"), id)))
         );
     }
 
@@ -0,0 +1,34 @@
+package ru.otus.prof.retail.repositories.reports;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import ru.otus.prof.retail.entities.reports.DailySalesRollup;
+import ru.otus.prof.retail.entities.reports.DailySalesRollupId;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, DailySalesRollupId>,
+        DailySalesRollupRepositoryCustom {
+
+    @Query("SELECT r FROM DailySalesRollup r " +
+            "WHERE r.id.shopNumber = :shopNumber " +
+            "AND r.id.day >= :from AND r.id.day <= :to " +
+            "ORDER BY r.id.day, r.id.cashNumber")
+    List<DailySalesRollup> findByShop(@Param("shopNumber") Long shopNumber,
+                                      @Param("from") LocalDate from,
+                                      @Param("to") LocalDate to);
+
+    @Query("SELECT r FROM DailySalesRollup r " +
+            "WHERE r.id.shopNumber = :shopNumber " +
+            "AND r.id.cashNumber = :cashNumber " +
+            "AND r.id.day >= :from AND r.id.day <= :to " +
+            "ORDER BY r.id.day")
+    List<DailySalesRollup> findByShopAndCash(@Param("shopNumber") Long shopNumber,
+                                             @Param("cashNumber") Long cashNumber,
+                                             @Param("from") LocalDate from,
+                                             @Param("to") LocalDate to);
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ru.otus.prof.retail.repositories.reports;
+
+import ru.otus.prof.retail.entities.reports.DailySalesRollup;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+public interface DailySalesRollupRepositoryCustom {
+
+    //прибавляет значения к строкам свертки, отсутствующие строки создаются
+    void addDeltas(Collection<DailySalesRollup> deltas);
+
+    //пересчитывает свертку за дни [from, to] по сырым чекам, возвращает количество строк
+    int rebuild(LocalDate from, LocalDate to);
+}
\ No newline at end of file
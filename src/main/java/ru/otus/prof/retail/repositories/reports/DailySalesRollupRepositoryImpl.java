@@ -0,0 +1,88 @@
+package ru.otus.prof.retail.repositories.reports;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import ru.otus.prof.retail.entities.reports.DailySalesRollup;
+
+import javax.sql.DataSource;
+import java.sql.Date;
+import java.sql.DatabaseMetaData;
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+//Upsert свертки: в PostgreSQL - INSERT ... ON CONFLICT DO UPDATE (безопасен при параллельной загрузке),
+//в H2 ON CONFLICT DO UPDATE не поддерживается, используется MERGE.
+//JdbcTemplate работает на соединении текущей JPA-транзакции
+public class DailySalesRollupRepositoryImpl implements DailySalesRollupRepositoryCustom {
+
+    private static final String UPSERT_POSTGRES =
+            "INSERT INTO daily_sales_rollup (shop_number, cash_number, sale_date, receipts, revenue, items_sold) " +
+            "VALUES (?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (shop_number, cash_number, sale_date) DO UPDATE SET " +
+            "receipts = daily_sales_rollup.receipts + EXCLUDED.receipts, " +
+            "revenue = daily_sales_rollup.revenue + EXCLUDED.revenue, " +
+            "items_sold = daily_sales_rollup.items_sold + EXCLUDED.items_sold";
+
+    private static final String UPSERT_MERGE =
+            "MERGE INTO daily_sales_rollup r " +
+            "USING (SELECT CAST(? AS BIGINT) AS shop_number, CAST(? AS BIGINT) AS cash_number, CAST(? AS DATE) AS sale_date, " +
+            "CAST(? AS BIGINT) AS receipts, CAST(? AS BIGINT) AS revenue, CAST(? AS BIGINT) AS items_sold) d " +
+            "ON r.shop_number = d.shop_number AND r.cash_number = d.cash_number AND r.sale_date = d.sale_date " +
+            "WHEN MATCHED THEN UPDATE SET receipts = r.receipts + d.receipts, revenue = r.revenue + d.revenue, " +
+            "items_sold = r.items_sold + d.items_sold " +
+            "WHEN NOT MATCHED THEN INSERT (shop_number, cash_number, sale_date, receipts, revenue, items_sold) " +
+            "VALUES (d.shop_number, d.cash_number, d.sale_date, d.receipts, d.revenue, d.items_sold)";
+
+    private static final String DELETE_RANGE =
+            "DELETE FROM daily_sales_rollup WHERE sale_date >= ? AND sale_date <= ?";
+
+    //количество позиций считается по чеку, поэтому не зависит от заполненности position.purchase_date
+    private static final String REBUILD_RANGE =
+            "INSERT INTO daily_sales_rollup (shop_number, cash_number, sale_date, receipts, revenue, items_sold) " +
+            "SELECT s.shop_number, s.cash_number, CAST(p.purchase_date AS DATE), COUNT(*), SUM(p.total), SUM(p.items) " +
+            "FROM (SELECT pu.shift_id, pu.purchase_date, pu.total, " +
+            "(SELECT COUNT(*) FROM position ps WHERE ps.purchase_id = pu.id) AS items " +
+            "FROM purchase pu WHERE pu.purchase_date >= ? AND pu.purchase_date < ?) p " +
+            "JOIN shift s ON s.id = p.shift_id " +
+            "GROUP BY s.shop_number, s.cash_number, CAST(p.purchase_date AS DATE)";
+
+    //одинаковый порядок строк во всех транзакциях исключает взаимоблокировки при параллельной загрузке
+    private static final Comparator<DailySalesRollup> KEY_ORDER = Comparator
+            .comparing((DailySalesRollup r) -> r.getId().getShopNumber())
+            .thenComparing(r -> r.getId().getCashNumber())
+            .thenComparing(r -> r.getId().getDay());
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String upsertSql;
+
+    public DailySalesRollupRepositoryImpl(DataSource dataSource) throws MetaDataAccessException {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.upsertSql = "PostgreSQL".equals(product) ? UPSERT_POSTGRES : UPSERT_MERGE;
+    }
+
+    @Override
+    public void addDeltas(Collection<DailySalesRollup> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        List<DailySalesRollup> ordered = deltas.stream().sorted(KEY_ORDER).toList();
+        jdbcTemplate.batchUpdate(upsertSql, ordered, ordered.size(), (statement, delta) -> {
+            statement.setLong(1, delta.getId().getShopNumber());
+            statement.setLong(2, delta.getId().getCashNumber());
+            statement.setDate(3, Date.valueOf(delta.getId().getDay()));
+            statement.setLong(4, delta.getReceipts());
+            statement.setLong(5, delta.getRevenue());
+            statement.setLong(6, delta.getItemsSold());
+        });
+    }
+
+    @Override
+    public int rebuild(LocalDate from, LocalDate to) {
+        jdbcTemplate.update(DELETE_RANGE, Date.valueOf(from), Date.valueOf(to));
+        return jdbcTemplate.update(REBUILD_RANGE, from.atStartOfDay(), to.plusDays(1).atStartOfDay());
+    }
+}
\ No newline at end of file
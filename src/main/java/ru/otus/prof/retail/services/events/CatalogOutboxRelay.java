@@ -0,0 +1,98 @@
+package ru.otus.prof.retail.services.events;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.otus.prof.retail.dto.product.CatalogChangeDTO;
+import ru.otus.prof.retail.entities.product.CatalogChangeId;
+import ru.otus.prof.retail.repositories.product.CatalogOutboxEntry;
+import ru.otus.prof.retail.repositories.product.CatalogOutboxRepository;
+import ru.otus.prof.retail.services.product.CatalogChangeService;
+
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+//Рассылка изменений каталога кассам из catalog_outbox: на каждый измененный артикул - событие с текущим
+//состоянием товара (CatalogChangeDTO), ключ - артикул, поэтому события одного товара идут по порядку.
+//Пачка строк забирается с блокировкой, несколько изменений одного товара сворачиваются в одно событие
+//с последней версией, строки удаляются в той же транзакции после подтверждения брокера.
+//Сбой между отправкой и фиксацией приводит к повторной отправке - касса пропускает событие с версией
+//не выше уже примененной
+@Service
+public class CatalogOutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogOutboxRelay.class);
+
+    //артикулов на один запрос состояния товаров
+    private static final int DESCRIBE_CHUNK = 1000;
+
+    private final CatalogOutboxRepository catalogOutboxRepository;
+    private final CatalogChangeService catalogChangeService;
+    private final EventTransport eventTransport;
+    private final ObjectMapper objectMapper;
+    private final String topic;
+    private final int batchSize;
+
+    public CatalogOutboxRelay(CatalogOutboxRepository catalogOutboxRepository, CatalogChangeService catalogChangeService,
+                              EventTransport eventTransport, ObjectMapper objectMapper,
+                              @Value("${retail.events.topics.catalog:retail.catalog-changes}") String topic,
+                              @Value("${retail.events.outbox.batch-size:5000}") int batchSize) {
+        this.catalogOutboxRepository = catalogOutboxRepository;
+        this.catalogChangeService = catalogChangeService;
+        this.eventTransport = eventTransport;
+        this.objectMapper = objectMapper;
+        this.topic = topic;
+        this.batchSize = batchSize;
+    }
+
+    //одна пачка - одна транзакция: блокировки строк держатся только на время отправки пачки
+    @Transactional
+    public RelayBatch relayBatch() {
+        List<CatalogOutboxEntry> rows = catalogOutboxRepository.lockBatch(batchSize);
+        if (rows.isEmpty()) {
+            return new RelayBatch(0, 0, false);
+        }
+
+        Map<Long, Long> latest = new LinkedHashMap<>();
+        List<Long> ids = new ArrayList<>(rows.size());
+        for (CatalogOutboxEntry row : rows) {
+            latest.merge(row.article(), row.version(), Math::max);
+            ids.add(row.id());
+        }
+        List<CatalogChangeId> changes = new ArrayList<>(latest.size());
+        latest.forEach((article, version) -> changes.add(new CatalogChangeId(version, article)));
+
+        for (int from = 0; from < changes.size(); from += DESCRIBE_CHUNK) {
+            List<CatalogChangeDTO> states = catalogChangeService.describe(
+                    changes.subList(from, Math.min(from + DESCRIBE_CHUNK, changes.size())));
+            List<EventRecord> records = new ArrayList<>(states.size());
+            for (CatalogChangeDTO state : states) {
+                records.add(new EventRecord(String.valueOf(state.article()), toJson(state)));
+            }
+            eventTransport.send(topic, records);
+        }
+        catalogOutboxRepository.deleteByIds(ids);
+
+        logger.debug("Из outbox каталога отправлено {} событий по {} строкам", changes.size(), rows.size());
+        return new RelayBatch(rows.size(), changes.size(), rows.size() == batchSize);
+    }
+
+    private byte[] toJson(CatalogChangeDTO state) {
+        try {
+            return objectMapper.writeValueAsBytes(state);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException("Ошибка сериализации изменения товара " + state.article(), e);
+        }
+    }
+
+    //строк outbox забрано и событий отправлено после свертки; full - в outbox, вероятно, есть еще строки
+    public record RelayBatch(int rows, int published, boolean full) {
+    }
+}
\ No newline at end of file
@@ -0,0 +1,40 @@
+package ru.otus.prof.retail.services.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//Разбор catalog_outbox каждые retail.events.outbox.poll-interval-ms: пачки подряд, пока они полные;
+//пока outbox пуст, это один запрос
+@Component
+@ConditionalOnProperty(name = "retail.events.outbox.enabled", havingValue = "true")
+public class CatalogOutboxRelayJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogOutboxRelayJob.class);
+
+    private final CatalogOutboxRelay catalogOutboxRelay;
+
+    public CatalogOutboxRelayJob(CatalogOutboxRelay catalogOutboxRelay) {
+        this.catalogOutboxRelay = catalogOutboxRelay;
+    }
+
+    @Scheduled(fixedDelayString = "${retail.events.outbox.poll-interval-ms:200}")
+    public void relay() {
+        try {
+            int published = 0;
+            CatalogOutboxRelay.RelayBatch batch;
+            do {
+                batch = catalogOutboxRelay.relayBatch();
+                published += batch.published();
+            } while (batch.full());
+            if (published > 0) {
+                logger.info("Разослано изменений каталога: {}", published);
+            }
+        } catch (Exception e) {
+            //строки остаются в outbox и будут отправлены следующим запуском
+            logger.error("Ошибка рассылки изменений каталога: {}", e.getMessage(), e);
+        }
+    }
+}
\ No newline at end of file
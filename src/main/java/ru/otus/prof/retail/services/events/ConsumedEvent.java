@@ -0,0 +1,5 @@
+package ru.otus.prof.retail.services.events;
+
+//Прочитанное событие с его местом в топике
+public record ConsumedEvent(String topic, int partition, long offset, String key, byte[] payload) {
+}
\ No newline at end of file
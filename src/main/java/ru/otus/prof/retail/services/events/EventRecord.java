@@ -0,0 +1,5 @@
+package ru.otus.prof.retail.services.events;
+
+//Отправляемое событие: записи с одним ключом попадают в одну партицию и читаются в порядке отправки
+public record EventRecord(String key, byte[] payload) {
+}
\ No newline at end of file
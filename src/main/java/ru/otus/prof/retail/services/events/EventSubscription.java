@@ -0,0 +1,21 @@
+package ru.otus.prof.retail.services.events;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.util.List;
+
+//Подписка группы на топик; используется одним потоком
+public interface EventSubscription extends Closeable {
+
+    //следующие события после прочитанных; пустой список, если за timeout ничего не пришло
+    List<ConsumedEvent> poll(Duration timeout);
+
+    //фиксирует все события, возвращенные poll: после перезапуска чтение продолжится за ними
+    void commit();
+
+    //возврат к зафиксированной позиции: незафиксированные события будут прочитаны снова
+    void rewind();
+
+    @Override
+    void close();
+}
\ No newline at end of file
@@ -0,0 +1,19 @@
+package ru.otus.prof.retail.services.events;
+
+import java.io.Closeable;
+import java.util.List;
+
+//Транспорт событий в модели Kafka: топики из партиций, партиция выбирается по ключу,
+//подписчики объединены в группы и сами фиксируют прочитанное.
+//Реализации: InMemoryEventTransport (встроенный брокер для тестов и локальных замеров) и KafkaEventTransport
+public interface EventTransport extends Closeable {
+
+    //возвращает управление, когда брокер принял все записи
+    void send(String topic, List<EventRecord> records);
+
+    //одна подписка на группу: ей назначаются все партиции топика
+    EventSubscription subscribe(String topic, String group, int maxPollRecords);
+
+    @Override
+    void close();
+}
\ No newline at end of file
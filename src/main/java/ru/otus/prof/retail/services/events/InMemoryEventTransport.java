@@ -0,0 +1,198 @@
+package ru.otus.prof.retail.services.events;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+//Встроенный брокер в памяти процесса с семантикой Kafka: партиция по хэшу ключа, порядок внутри партиции,
+//позиции групп фиксируются явно, rewind возвращает к зафиксированной позиции.
+//Хранит не меньше retentionRecords последних событий партиции; отставший подписчик пропускает удаленные,
+//как при auto.offset.reset=earliest. Данные теряются при остановке - для тестов и локальных замеров
+public class InMemoryEventTransport implements EventTransport {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemoryEventTransport.class);
+
+    private final int partitions;
+    private final int retentionRecords;
+    private final Map<String, Topic> topics = new ConcurrentHashMap<>();
+    private final Map<String, long[]> committedOffsets = new ConcurrentHashMap<>();
+
+    public InMemoryEventTransport(int partitions, int retentionRecords) {
+        if (partitions < 1 || retentionRecords < 1) {
+            throw new IllegalArgumentException("Число партиций и хранимых событий должно быть положительным");
+        }
+        this.partitions = partitions;
+        this.retentionRecords = retentionRecords;
+    }
+
+    @Override
+    public void send(String topic, List<EventRecord> records) {
+        if (records.isEmpty()) {
+            return;
+        }
+        Topic target = topic(topic);
+        target.lock.lock();
+        try {
+            for (EventRecord record : records) {
+                target.partitions[partitionFor(record.key())].append(record);
+            }
+            target.appended.signalAll();
+        } finally {
+            target.lock.unlock();
+        }
+    }
+
+    @Override
+    public EventSubscription subscribe(String topic, String group, int maxPollRecords) {
+        return new Subscription(topic(topic), group + "/" + topic, maxPollRecords);
+    }
+
+    //последняя позиция каждой партиции, для замеров отставания
+    public long[] endOffsets(String topic) {
+        Topic target = topic(topic);
+        target.lock.lock();
+        try {
+            long[] offsets = new long[partitions];
+            for (int i = 0; i < partitions; i++) {
+                offsets[i] = target.partitions[i].endOffset();
+            }
+            return offsets;
+        } finally {
+            target.lock.unlock();
+        }
+    }
+
+    public int partitionFor(String key) {
+        return key == null ? 0 : Math.floorMod(key.hashCode(), partitions);
+    }
+
+    @Override
+    public void close() {
+        topics.clear();
+        committedOffsets.clear();
+    }
+
+    private Topic topic(String name) {
+        return topics.computeIfAbsent(name, ignored -> new Topic(partitions, retentionRecords));
+    }
+
+    private static final class Topic {
+        private final Partition[] partitions;
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Condition appended = lock.newCondition();
+
+        private Topic(int partitions, int retentionRecords) {
+            this.partitions = new Partition[partitions];
+            for (int i = 0; i < partitions; i++) {
+                this.partitions[i] = new Partition(retentionRecords);
+            }
+        }
+    }
+
+    //старые события удаляются пачкой, когда их вдвое больше предела: без сдвига массива на каждую запись
+    private static final class Partition {
+        private final int retentionRecords;
+        private final ArrayList<EventRecord> records = new ArrayList<>();
+        private long startOffset;
+
+        private Partition(int retentionRecords) {
+            this.retentionRecords = retentionRecords;
+        }
+
+        private void append(EventRecord record) {
+            records.add(record);
+            if (records.size() >= retentionRecords * 2) {
+                int removed = records.size() - retentionRecords;
+                records.subList(0, removed).clear();
+                startOffset += removed;
+            }
+        }
+
+        private long endOffset() {
+            return startOffset + records.size();
+        }
+
+        private EventRecord get(long offset) {
+            return records.get((int) (offset - startOffset));
+        }
+    }
+
+    private final class Subscription implements EventSubscription {
+        private final Topic topic;
+        private final String name;
+        private final String groupKey;
+        private final int maxPollRecords;
+        private long[] positions;
+        private int nextPartition;
+
+        private Subscription(Topic topic, String groupKey, int maxPollRecords) {
+            this.topic = topic;
+            this.name = groupKey.substring(groupKey.indexOf('/') + 1);
+            this.groupKey = groupKey;
+            this.maxPollRecords = maxPollRecords;
+            this.positions = committedOffsets.computeIfAbsent(groupKey, ignored -> new long[partitions]).clone();
+        }
+
+        @Override
+        public List<ConsumedEvent> poll(Duration timeout) {
+            List<ConsumedEvent> events = new ArrayList<>();
+            long nanos = timeout.toNanos();
+            topic.lock.lock();
+            try {
+                while (true) {
+                    collect(events);
+                    if (!events.isEmpty() || nanos <= 0) {
+                        return events;
+                    }
+                    nanos = topic.appended.awaitNanos(nanos);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return events;
+            } finally {
+                topic.lock.unlock();
+            }
+        }
+
+        //партиции обходятся по кругу с разных начальных: занятая партиция не задерживает остальные
+        private void collect(List<ConsumedEvent> events) {
+            for (int i = 0; i < partitions && events.size() < maxPollRecords; i++) {
+                int partition = (nextPartition + i) % partitions;
+                Partition source = topic.partitions[partition];
+                if (positions[partition] < source.startOffset) {
+                    logger.warn("Группа {}: пропущено {} удаленных событий партиции {}", groupKey,
+                            source.startOffset - positions[partition], partition);
+                    positions[partition] = source.startOffset;
+                }
+                while (positions[partition] < source.endOffset() && events.size() < maxPollRecords) {
+                    long offset = positions[partition]++;
+                    EventRecord record = source.get(offset);
+                    events.add(new ConsumedEvent(name, partition, offset, record.key(), record.payload()));
+                }
+            }
+            nextPartition = (nextPartition + 1) % partitions;
+        }
+
+        @Override
+        public void commit() {
+            committedOffsets.put(groupKey, positions.clone());
+        }
+
+        @Override
+        public void rewind() {
+            positions = committedOffsets.getOrDefault(groupKey, new long[partitions]).clone();
+        }
+
+        @Override
+        public void close() {
+            //позиция группы хранится в брокере и переживает подписку
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,124 @@
+package ru.otus.prof.retail.services.events;
+
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.consumer.KafkaConsumer;
+import org.apache.kafka.clients.consumer.OffsetAndMetadata;
+import org.apache.kafka.clients.producer.KafkaProducer;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.clients.producer.RecordMetadata;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import ru.otus.prof.retail.exception.events.EventTransportException;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+//Транспорт через Kafka. Отправка ждет подтверждения всех реплик (acks=all, идемпотентный продюсер),
+//записи пачки уходят общими запросами (linger.ms). Автофиксация позиций выключена: позиция фиксируется
+//только после записи событий в БД
+public class KafkaEventTransport implements EventTransport {
+
+    private final Map<String, Object> consumerConfig;
+    private final KafkaProducer<String, byte[]> producer;
+
+    public KafkaEventTransport(String bootstrapServers, String clientId) {
+        Map<String, Object> producerConfig = new HashMap<>();
+        producerConfig.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        producerConfig.put(ProducerConfig.CLIENT_ID_CONFIG, clientId);
+        producerConfig.put(ProducerConfig.ACKS_CONFIG, "all");
+        producerConfig.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        producerConfig.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+        producerConfig.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+        producerConfig.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        producerConfig.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class);
+        this.producer = new KafkaProducer<>(producerConfig);
+
+        this.consumerConfig = new HashMap<>();
+        consumerConfig.put(ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, bootstrapServers);
+        consumerConfig.put(ConsumerConfig.CLIENT_ID_CONFIG, clientId);
+        consumerConfig.put(ConsumerConfig.ENABLE_AUTO_COMMIT_CONFIG, false);
+        consumerConfig.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        consumerConfig.put(ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class);
+        consumerConfig.put(ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, ByteArrayDeserializer.class);
+    }
+
+    @Override
+    public void send(String topic, List<EventRecord> records) {
+        List<Future<RecordMetadata>> acks = new ArrayList<>(records.size());
+        for (EventRecord record : records) {
+            acks.add(producer.send(new ProducerRecord<>(topic, record.key(), record.payload())));
+        }
+        try {
+            for (Future<RecordMetadata> ack : acks) {
+                ack.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new EventTransportException("Отправка в топик " + topic + " прервана", e);
+        } catch (ExecutionException e) {
+            throw new EventTransportException("Ошибка отправки в топик " + topic + ": " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    @Override
+    public EventSubscription subscribe(String topic, String group, int maxPollRecords) {
+        Map<String, Object> config = new HashMap<>(consumerConfig);
+        config.put(ConsumerConfig.GROUP_ID_CONFIG, group);
+        config.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        KafkaConsumer<String, byte[]> consumer = new KafkaConsumer<>(config);
+        consumer.subscribe(List.of(topic));
+        return new Subscription(consumer);
+    }
+
+    @Override
+    public void close() {
+        producer.close();
+    }
+
+    private record Subscription(KafkaConsumer<String, byte[]> consumer) implements EventSubscription {
+
+        @Override
+        public List<ConsumedEvent> poll(Duration timeout) {
+            List<ConsumedEvent> events = new ArrayList<>();
+            for (ConsumerRecord<String, byte[]> record : consumer.poll(timeout)) {
+                events.add(new ConsumedEvent(record.topic(), record.partition(), record.offset(), record.key(), record.value()));
+            }
+            return events;
+        }
+
+        @Override
+        public void commit() {
+            consumer.commitSync();
+        }
+
+        @Override
+        public void rewind() {
+            Set<TopicPartition> assignment = consumer.assignment();
+            Map<TopicPartition, OffsetAndMetadata> committed = consumer.committed(assignment);
+            for (TopicPartition partition : assignment) {
+                OffsetAndMetadata offset = committed.get(partition);
+                if (offset != null) {
+                    consumer.seek(partition, offset.offset());
+                } else {
+                    consumer.seekToBeginning(List.of(partition));
+                }
+            }
+        }
+
+        @Override
+        public void close() {
+            consumer.close();
+        }
+    }
+}
\ No newline at end of file
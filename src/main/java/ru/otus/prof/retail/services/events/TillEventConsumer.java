@@ -0,0 +1,238 @@
+package ru.otus.prof.retail.services.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.InputShiftDTO;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.services.purchases.IngestErrors;
+import ru.otus.prof.retail.services.purchases.NdjsonReader;
+import ru.otus.prof.retail.services.purchases.PurchaseService;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+//Прием событий касс: закрытые смены (тот же NDJSON, что у /api/v1/purchases/shift/ingest) и отдельные чеки
+//(InputPurchaseDTO в JSON). Кассы отправляют события с ключом - номером магазина, поэтому события магазина
+//лежат в одной партиции и записываются в порядке отправки.
+//Каждый топик читает свой поток; прочитанная пачка пишется одной транзакцией и только после этого фиксируется.
+//Событие с ошибкой данных уходит в топик <топик>.rejected, при ошибке БД пачка перечитывается с растущей паузой.
+//Доставка как минимум однократная, повтор чека отсеивается только по номеру чека кассы: чек без receiptNumber
+//(отдельный или в строке смены) отклоняется
+@Component
+@ConditionalOnProperty(name = "retail.events.consumer.enabled", havingValue = "true")
+public class TillEventConsumer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TillEventConsumer.class);
+
+    private static final long RETRY_MIN_MS = 200;
+    private static final String REJECTED_SUFFIX = ".rejected";
+
+    private final EventTransport eventTransport;
+    private final ShiftIngestService shiftIngestService;
+    private final PurchaseService purchaseService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final String group;
+    private final String shiftsTopic;
+    private final String receiptsTopic;
+    private final int batchRecords;
+    private final Duration pollTimeout;
+    private final long retryMaxMs;
+
+    private final AtomicLong shifts = new AtomicLong();
+    private final AtomicLong receipts = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+
+    public TillEventConsumer(EventTransport eventTransport, ShiftIngestService shiftIngestService,
+                             PurchaseService purchaseService, ObjectMapper objectMapper, Validator validator,
+                             @Value("${retail.events.consumer.group:retail-server}") String group,
+                             @Value("${retail.events.topics.shifts:retail.till-shifts}") String shiftsTopic,
+                             @Value("${retail.events.topics.receipts:retail.till-receipts}") String receiptsTopic,
+                             @Value("${retail.events.consumer.batch-records:100}") int batchRecords,
+                             @Value("${retail.events.consumer.poll-timeout-ms:500}") long pollTimeoutMs,
+                             @Value("${retail.events.consumer.retry-max-ms:30000}") long retryMaxMs) {
+        this.eventTransport = eventTransport;
+        this.shiftIngestService = shiftIngestService;
+        this.purchaseService = purchaseService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.group = group;
+        this.shiftsTopic = shiftsTopic;
+        this.receiptsTopic = receiptsTopic;
+        this.batchRecords = batchRecords;
+        this.pollTimeout = Duration.ofMillis(pollTimeoutMs);
+        this.retryMaxMs = retryMaxMs;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        workers.add(startWorker(shiftsTopic, this::storeShifts));
+        workers.add(startWorker(receiptsTopic, this::storeReceipts));
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws InterruptedException {
+        running = false;
+        for (Thread worker : workers) {
+            worker.join(retryMaxMs + pollTimeout.toMillis());
+        }
+        workers.clear();
+    }
+
+    public long getShifts() {
+        return shifts.get();
+    }
+
+    public long getReceipts() {
+        return receipts.get();
+    }
+
+    public long getRejected() {
+        return rejected.get();
+    }
+
+    public long getFailures() {
+        return failures.get();
+    }
+
+    private Thread startWorker(String topic, Consumer<List<ConsumedEvent>> store) {
+        Thread worker = new Thread(() -> consume(topic, store), "till-events-" + topic);
+        worker.setDaemon(true);
+        worker.start();
+        return worker;
+    }
+
+    private void consume(String topic, Consumer<List<ConsumedEvent>> store) {
+        logger.info("Чтение событий касс из топика {} группой {}", topic, group);
+        try (EventSubscription subscription = eventTransport.subscribe(topic, group, batchRecords)) {
+            long backoff = RETRY_MIN_MS;
+            while (running) {
+                try {
+                    List<ConsumedEvent> events = subscription.poll(pollTimeout);
+                    if (events.isEmpty()) {
+                        continue;
+                    }
+                    storeOrSplit(topic, events, store);
+                    subscription.commit();
+                    backoff = RETRY_MIN_MS;
+                } catch (RuntimeException e) {
+                    failures.incrementAndGet();
+                    logger.error("Ошибка записи событий топика {}, повтор через {} мс: {}", topic, backoff, e.getMessage());
+                    pause(backoff);
+                    backoff = Math.min(backoff * 2, retryMaxMs);
+                    subscription.rewind();
+                }
+            }
+        }
+        logger.info("Чтение событий касс из топика {} остановлено", topic);
+    }
+
+    //при ошибке данных пачка пишется по одному событию, отклоняются только ошибочные.
+    //Если после этого пачку придется перечитать, чеки не задвоятся - номер чека кассы обязателен
+    private void storeOrSplit(String topic, List<ConsumedEvent> events, Consumer<List<ConsumedEvent>> store) {
+        try {
+            store.accept(events);
+        } catch (RuntimeException e) {
+            if (!IngestErrors.isDataError(e)) {
+                throw e;
+            }
+            for (ConsumedEvent event : events) {
+                try {
+                    store.accept(List.of(event));
+                } catch (RuntimeException eventError) {
+                    if (!IngestErrors.isDataError(eventError)) {
+                        throw eventError;
+                    }
+                    reject(topic, event, eventError);
+                }
+            }
+        }
+    }
+
+    private void storeShifts(List<ConsumedEvent> events) {
+        events.forEach(this::requireReceiptNumbers);
+        shiftIngestService.ingestShifts(events.stream()
+                .<InputStream>map(event -> new ByteArrayInputStream(event.payload()))
+                .toList());
+        shifts.addAndGet(events.size());
+    }
+
+    private void storeReceipts(List<ConsumedEvent> events) {
+        List<InputPurchaseDTO> purchases = new ArrayList<>(events.size());
+        for (ConsumedEvent event : events) {
+            InputPurchaseDTO purchase;
+            try {
+                purchase = objectMapper.readValue(event.payload(), InputPurchaseDTO.class);
+            } catch (IOException e) {
+                throw new ShiftValidationException(String.format("Неверный формат чека в событии %d партиции %d: %s",
+                        event.offset(), event.partition(), e.getMessage()));
+            }
+            Set<ConstraintViolation<InputPurchaseDTO>> violations = validator.validate(purchase);
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            if (purchase.receiptNumber() == null) {
+                throw new ShiftValidationException(String.format("Чек без номера в событии %d партиции %d",
+                        event.offset(), event.partition()));
+            }
+            purchases.add(purchase);
+        }
+        purchaseService.createPurchases(purchases);
+        receipts.addAndGet(events.size());
+    }
+
+    //заголовок и чеки смены проверяет загрузка, здесь - только номера чеков до записи
+    private void requireReceiptNumbers(ConsumedEvent event) {
+        NdjsonReader reader = new NdjsonReader(new ByteArrayInputStream(event.payload()), objectMapper);
+        if (reader.hasNext()) {
+            reader.read(InputShiftDTO.class);
+        }
+        while (reader.hasNext()) {
+            if (reader.read(InputPurchaseDTO.class).receiptNumber() == null) {
+                throw new ShiftValidationException(String.format("Чек без номера в смене события %d партиции %d",
+                        event.offset(), event.partition()));
+            }
+        }
+    }
+
+    private void reject(String topic, ConsumedEvent event, RuntimeException e) {
+        eventTransport.send(topic + REJECTED_SUFFIX, List.of(new EventRecord(event.key(), event.payload())));
+        rejected.incrementAndGet();
+        logger.error("Событие {} партиции {} топика {} отклонено: {}", event.offset(), event.partition(), topic, e.getMessage());
+    }
+
+    private void pause(long ms) {
+        try {
+            Thread.sleep(ms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
\ No newline at end of file
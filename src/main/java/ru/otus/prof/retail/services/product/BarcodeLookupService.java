@@ -0,0 +1,129 @@
+package ru.otus.prof.retail.services.product;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.prof.retail.dto.product.ScanCacheStatsDTO;
+import ru.otus.prof.retail.dto.product.ScanItemDTO;
+import ru.otus.prof.retail.exception.product.BarcodeNotFoundException;
+import ru.otus.prof.retail.repositories.product.BarcodeRepository;
+import ru.otus.prof.retail.repositories.product.CatalogEntry;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.LongAdder;
+
+//Разрешение отсканированного штрих-кода для касс из памяти.
+//Два уровня: штрих-код -> артикул и артикул -> название и текущая цена. Изменение цены или названия
+//сбрасывает одну запись товара, а не все его штрих-коды. Отсутствующие штрих-коды не кэшируются.
+//Кэш локален для экземпляра приложения: изменения в обход сервисов видны не позже expire-after-write
+@Service
+public class BarcodeLookupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BarcodeLookupService.class);
+
+    private final BarcodeRepository barcodeRepository;
+    private final ItemRepository itemRepository;
+    private final Cache<String, Long> articleByBarcode;
+    private final Cache<Long, CatalogEntry> entryByArticle;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public BarcodeLookupService(BarcodeRepository barcodeRepository, ItemRepository itemRepository,
+                                @Value("${retail.scan-cache.max-barcodes:2000000}") long maxBarcodes,
+                                @Value("${retail.scan-cache.max-articles:500000}") long maxArticles,
+                                @Value("${retail.scan-cache.expire-after-write:30m}") Duration expireAfterWrite) {
+        this.barcodeRepository = barcodeRepository;
+        this.itemRepository = itemRepository;
+        this.articleByBarcode = Caffeine.newBuilder()
+                .maximumSize(maxBarcodes)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        this.entryByArticle = Caffeine.newBuilder()
+                .maximumSize(maxArticles)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+    }
+
+    public ScanItemDTO lookup(String barcode) {
+        //загрузка идет под блокировкой ключа: сброс записи во время загрузки дождется ее и удалит результат
+        boolean[] loaded = new boolean[1];
+        Long article = articleByBarcode.get(barcode, key -> {
+            loaded[0] = true;
+            return barcodeRepository.findArticleByBarcode(key).orElse(null);
+        });
+        CatalogEntry entry = article == null ? null : entryByArticle.get(article, key -> {
+            loaded[0] = true;
+            return itemRepository.findCatalogEntry(key).orElse(null);
+        });
+
+        if (loaded[0]) {
+            misses.increment();
+        } else {
+            hits.increment();
+        }
+
+        if (entry == null) {
+            //товар удален в обход сервиса - ссылка на него больше не нужна
+            articleByBarcode.invalidate(barcode);
+            logger.warn("Штрих-код не найден при сканировании: {}", barcode);
+            throw new BarcodeNotFoundException("Штрих-код " + barcode + " не найден");
+        }
+        return new ScanItemDTO(barcode, entry.article(), entry.name(), entry.price());
+    }
+
+    public void invalidateBarcode(String barcode) {
+        invalidateNowAndAfterCommit(() -> articleByBarcode.invalidate(barcode));
+    }
+
+    public void invalidateBarcodes(Collection<String> barcodes) {
+        invalidateNowAndAfterCommit(() -> articleByBarcode.invalidateAll(barcodes));
+    }
+
+    public void invalidateArticle(Long article) {
+        invalidateNowAndAfterCommit(() -> entryByArticle.invalidate(article));
+    }
+
+    public void invalidateAll() {
+        invalidateNowAndAfterCommit(() -> {
+            articleByBarcode.invalidateAll();
+            entryByArticle.invalidateAll();
+        });
+        logger.info("Кэш штрих-кодов очищен");
+    }
+
+    public ScanCacheStatsDTO getStats() {
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        long lookups = hitCount + missCount;
+        return new ScanCacheStatsDTO(
+                lookups,
+                hitCount,
+                missCount,
+                lookups == 0 ? 0.0 : (double) hitCount / lookups,
+                articleByBarcode.estimatedSize(),
+                entryByArticle.estimatedSize(),
+                articleByBarcode.stats().evictionCount() + entryByArticle.stats().evictionCount());
+    }
+
+    //Сброс сразу и повторно после фиксации: параллельное чтение до фиксации могло снова загрузить старое значение
+    private void invalidateNowAndAfterCommit(Runnable invalidation) {
+        invalidation.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidation.run();
+                }
+            });
+        }
+    }
+}
\ No newline at end of file
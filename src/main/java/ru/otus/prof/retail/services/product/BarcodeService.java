@@ -25,12 +25,17 @@ public class BarcodeService {
     private final BarcodeRepository barcodeRepository;
     private final BarcodeMapper barcodeMapper;
     private final ItemRepository itemRepository;
+    private final BarcodeLookupService barcodeLookupService;
+    private final CatalogChangeService catalogChangeService;
 
     @Autowired
-    public BarcodeService(BarcodeRepository barcodeRepository, BarcodeMapper barcodeMapper, ItemRepository itemRepository) {
+    public BarcodeService(BarcodeRepository barcodeRepository, BarcodeMapper barcodeMapper, ItemRepository itemRepository,
+                          BarcodeLookupService barcodeLookupService, CatalogChangeService catalogChangeService) {
         this.barcodeRepository = barcodeRepository;
         this.barcodeMapper = barcodeMapper;
         this.itemRepository = itemRepository;
+        this.barcodeLookupService = barcodeLookupService;
+        this.catalogChangeService = catalogChangeService;
     }
 
     private void validateItemExists(Long article) {
@@ -60,6 +65,8 @@ public class BarcodeService {
 
         Barcode barcode = barcodeMapper.toEntity(barcodeDTO);
         Barcode saved = barcodeRepository.save(barcode);
+        barcodeLookupService.invalidateBarcode(saved.getBarcode());
+        catalogChangeService.recordChange(barcodeDTO.article());
         logger.info("Штрих-код успешно создан: {}", saved.getBarcode());
         return barcodeMapper.toDTO(saved);
     }
@@ -96,6 +103,8 @@ public class BarcodeService {
         List<BarcodeDTO> result = barcodeRepository.saveAll(barcodesToSave).stream()
                 .map(barcodeMapper::toDTO)
                 .collect(Collectors.toList());
+        barcodeLookupService.invalidateBarcodes(barcodes);
+        catalogChangeService.recordChanges(articles);
 
         logger.info("Успешно создано {} штрих-кодов", result.size());
         return result;
@@ -105,11 +114,12 @@ public class BarcodeService {
     public void deleteBarcode(String barcode) {
         logger.info("Удаление штрих-кода: {}", barcode);
 
-        if (!barcodeRepository.existsById(barcode)) {
-            throw new BarcodeNotFoundException("Штрих-код " + barcode + " не найден");
-        }
+        Long article = barcodeRepository.findArticleByBarcode(barcode)
+                .orElseThrow(() -> new BarcodeNotFoundException("Штрих-код " + barcode + " не найден"));
 
         barcodeRepository.deleteById(barcode);
+        barcodeLookupService.invalidateBarcode(barcode);
+        catalogChangeService.recordChange(article);
         logger.info("Штрих-код успешно удален: {}", barcode);
     }
 
@@ -117,7 +127,10 @@ public class BarcodeService {
     public void deleteAllBarcodesByItemArticle(Long article) {
         logger.info("Удаление всех штрих-кодов для товара с артикулом: {}", article);
         validateItemExists(article);
+        List<String> barcodes = barcodeRepository.findBarcodesByArticle(article);
         barcodeRepository.deleteAllByItemArticle(article);
+        barcodeLookupService.invalidateBarcodes(barcodes);
+        catalogChangeService.recordChange(article);
         logger.info("Все штрих-коды для товара с артикулом {} успешно удалены", article);
     }
 
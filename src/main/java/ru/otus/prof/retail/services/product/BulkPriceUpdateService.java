@@ -0,0 +1,210 @@
+package ru.otus.prof.retail.services.product;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceUtils;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.stereotype.Service;
+import ru.otus.prof.retail.dto.product.BulkPriceUpdateResultDTO;
+import ru.otus.prof.retail.exception.product.ItemNotFoundException;
+import ru.otus.prof.retail.exception.product.PriceValidationException;
+import ru.otus.prof.retail.services.product.pricing.CopyPriceStagingWriter;
+import ru.otus.prof.retail.services.product.pricing.JdbcBatchPriceStagingWriter;
+import ru.otus.prof.retail.services.product.pricing.PriceListFormat;
+import ru.otus.prof.retail.services.product.pricing.PriceListReader;
+import ru.otus.prof.retail.services.product.pricing.PriceStagingWriter;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+//Массовое обновление цен по сети (акции, переоценка): прайс-лист читается потоком и порциями
+//загружается во временную таблицу price_stage (COPY в PostgreSQL, пакетные INSERT в остальных базах).
+//Разница с текущими ценами считается в SQL, новые цены вставляются и старые удаляются
+//несколькими запросами над множествами в одной транзакции - без JPA и без INSERT на каждую строку
+@Service
+public class BulkPriceUpdateService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BulkPriceUpdateService.class);
+
+    //сколько артикулов показывать в сообщении об ошибке
+    private static final int REPORT_LIMIT = 20;
+
+    //временная таблица видна только своему соединению и удаляется при фиксации;
+    //TRANSACTIONAL не дает H2 зафиксировать открытую транзакцию на DDL
+    private static final String CREATE_STAGE_POSTGRES =
+            "CREATE TEMP TABLE IF NOT EXISTS price_stage (article BIGINT NOT NULL, price BIGINT NOT NULL, " +
+            "changed BOOLEAN NOT NULL DEFAULT FALSE) ON COMMIT DROP";
+    private static final String CREATE_STAGE_H2 =
+            "CREATE LOCAL TEMPORARY TABLE IF NOT EXISTS price_stage (article BIGINT NOT NULL, price BIGINT NOT NULL, " +
+            "changed BOOLEAN NOT NULL DEFAULT FALSE) ON COMMIT DROP TRANSACTIONAL";
+    //в H2 таблица переживает откат транзакции, в которой создана
+    private static final String CLEAR_STAGE = "DELETE FROM price_stage";
+
+    private static final String FIND_DUPLICATES =
+            "SELECT article FROM price_stage GROUP BY article HAVING COUNT(*) > 1 ORDER BY article LIMIT " + REPORT_LIMIT;
+    private static final String FIND_MISSING_ITEMS =
+            "SELECT s.article FROM price_stage s WHERE NOT EXISTS (SELECT 1 FROM items i WHERE i.article = s.article) " +
+            "ORDER BY s.article LIMIT " + REPORT_LIMIT;
+
+    //текущая цена - действующая на момент обновления: из действующих начавшаяся позже, при равенстве последняя по id
+    //(индекс price(article, effective_from, id)); строка прайс-листа с той же ценой ничего не меняет
+    private static final String MARK_CHANGED =
+            "UPDATE price_stage s SET changed = TRUE WHERE s.price IS DISTINCT FROM (" +
+            "SELECT p.price FROM price p WHERE p.article = s.article AND p.effective_from <= ? " +
+            "AND (p.effective_to IS NULL OR p.effective_to > ?) " +
+            "ORDER BY p.effective_from DESC, p.id DESC LIMIT 1)";
+    private static final String DELETE_REPLACED =
+            "DELETE FROM price WHERE article IN (SELECT article FROM price_stage WHERE changed = TRUE)";
+    //новая бессрочная цена закрывает прежние бессрочные; акции остаются в силе до своего окончания
+    private static final String CLOSE_REPLACED =
+            "UPDATE price SET effective_to = ? WHERE effective_to IS NULL AND effective_from < ? " +
+            "AND article IN (SELECT article FROM price_stage WHERE changed = TRUE)";
+    private static final String INSERT_CHANGED =
+            "INSERT INTO price (article, price, effective_from) " +
+            "SELECT article, price, ? FROM price_stage WHERE changed = TRUE ORDER BY article";
+    private static final String FIND_CHANGED =
+            "SELECT article FROM price_stage WHERE changed = TRUE ORDER BY article";
+
+    private final DataSource dataSource;
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final BarcodeLookupService barcodeLookupService;
+    private final CatalogChangeService catalogChangeService;
+    private final PriceLookupService priceLookupService;
+    private final int batchRows;
+    private final int jdbcBatchSize;
+    private final int invalidateAllThreshold;
+    private final String mode;
+    private final boolean postgres;
+
+    public BulkPriceUpdateService(DataSource dataSource, ObjectMapper objectMapper,
+                                  BarcodeLookupService barcodeLookupService, CatalogChangeService catalogChangeService,
+                                  PriceLookupService priceLookupService,
+                                  @Value("${retail.price-bulk.batch-rows:50000}") int batchRows,
+                                  @Value("${retail.price-bulk.jdbc-batch-size:1000}") int jdbcBatchSize,
+                                  @Value("${retail.price-bulk.invalidate-all-threshold:10000}") int invalidateAllThreshold,
+                                  @Value("${retail.price-bulk.mode:auto}") String mode) throws MetaDataAccessException {
+        this.dataSource = dataSource;
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.objectMapper = objectMapper;
+        this.barcodeLookupService = barcodeLookupService;
+        this.catalogChangeService = catalogChangeService;
+        this.priceLookupService = priceLookupService;
+        this.batchRows = batchRows;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.invalidateAllThreshold = invalidateAllThreshold;
+        this.mode = mode;
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        this.postgres = "PostgreSQL".equals(product);
+    }
+
+    //replace = true - прежние цены измененных товаров удаляются, иначе новая цена добавляется к истории,
+    //а прежняя бессрочная закрывается моментом обновления
+    @Transactional
+    public BulkPriceUpdateResultDTO update(InputStream body, PriceListFormat format, boolean replace) {
+        long start = System.nanoTime();
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        PriceListReader reader = new PriceListReader(body, format, objectMapper);
+
+        //соединение текущей транзакции: COPY, DDL и запросы JdbcTemplate идут в одной транзакции
+        Connection connection = DataSourceUtils.getConnection(dataSource);
+        PriceStagingWriter writer;
+        try {
+            writer = resolveWriter(connection);
+            jdbcTemplate.execute(postgres ? CREATE_STAGE_POSTGRES : CREATE_STAGE_H2);
+            jdbcTemplate.update(CLEAR_STAGE);
+
+            long[] articles = new long[batchRows];
+            long[] prices = new long[batchRows];
+            int count;
+            while ((count = reader.read(articles, prices)) > 0) {
+                writer.write(connection, articles, prices, count);
+            }
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("Загрузка прайс-листа во временную таблицу", null, e);
+        }
+
+        long received = reader.getRows();
+        if (received == 0) {
+            throw new PriceValidationException("Прайс-лист не содержит цен");
+        }
+        if (postgres) {
+            //статистика по временной таблице нужна планировщику для соединений с price
+            jdbcTemplate.execute("ANALYZE price_stage");
+        }
+        long loadedMs = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Прайс-лист загружен во временную таблицу ({}): {} строк за {} мс", writer.getMode(), received, loadedMs);
+
+        validateStage();
+
+        int changed = jdbcTemplate.update(MARK_CHANGED, now, now);
+        int deleted = 0;
+        int inserted = 0;
+        if (changed > 0) {
+            if (replace) {
+                deleted = jdbcTemplate.update(DELETE_REPLACED);
+            } else {
+                jdbcTemplate.update(CLOSE_REPLACED, now, now);
+            }
+            inserted = jdbcTemplate.update(INSERT_CHANGED, now);
+        }
+
+        if (changed > 0) {
+            List<Long> changedArticles = jdbcTemplate.queryForList(FIND_CHANGED, Long.class);
+            //поштучная очистка кэша на сотнях тысяч артикулов дороже, чем его повторное заполнение
+            if (changedArticles.size() > invalidateAllThreshold) {
+                barcodeLookupService.invalidateAll();
+                priceLookupService.invalidateAll();
+            } else {
+                changedArticles.forEach(barcodeLookupService::invalidateArticle);
+                priceLookupService.invalidateArticles(changedArticles);
+            }
+            catalogChangeService.recordChanges(changedArticles);
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Массовое обновление цен завершено: получено {}, без изменений {}, добавлено {}, удалено {} за {} мс",
+                received, received - changed, inserted, deleted, elapsedMs);
+        return new BulkPriceUpdateResultDTO(received, received - changed, inserted, deleted, writer.getMode(), elapsedMs);
+    }
+
+    private void validateStage() {
+        List<Long> duplicates = jdbcTemplate.queryForList(FIND_DUPLICATES, Long.class);
+        if (!duplicates.isEmpty()) {
+            logger.error("Прайс-лист содержит повторяющиеся артикулы: {}", duplicates);
+            throw new PriceValidationException("Прайс-лист содержит повторяющиеся артикулы: " + duplicates);
+        }
+        List<Long> missing = jdbcTemplate.queryForList(FIND_MISSING_ITEMS, Long.class);
+        if (!missing.isEmpty()) {
+            logger.error("Не найдены товары с артикулами: {}", missing);
+            throw new ItemNotFoundException("Товары с артикулами " + missing + " не найдены");
+        }
+    }
+
+    private PriceStagingWriter resolveWriter(Connection connection) throws SQLException {
+        boolean copySupported = CopyPriceStagingWriter.supports(connection);
+        switch (mode) {
+            case "copy":
+                if (!copySupported) {
+                    throw new IllegalStateException("COPY недоступен для текущего источника данных");
+                }
+                return new CopyPriceStagingWriter();
+            case "jdbc":
+                return new JdbcBatchPriceStagingWriter(jdbcBatchSize);
+            default:
+                return copySupported ? new CopyPriceStagingWriter() : new JdbcBatchPriceStagingWriter(jdbcBatchSize);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,147 @@
+package ru.otus.prof.retail.services.product;
+
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.prof.retail.dto.product.CatalogChangeDTO;
+import ru.otus.prof.retail.dto.product.CatalogChangesDTO;
+import ru.otus.prof.retail.entities.product.CatalogChangeId;
+import ru.otus.prof.retail.repositories.product.BarcodeArticle;
+import ru.otus.prof.retail.repositories.product.BarcodeRepository;
+import ru.otus.prof.retail.repositories.product.CatalogChangeRepository;
+import ru.otus.prof.retail.repositories.product.CatalogEntry;
+import ru.otus.prof.retail.repositories.product.CatalogOutboxRepository;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+
+import java.util.*;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Журнал изменений каталога для синхронизации касс.
+//Сервисы товаров, цен и штрих-кодов отмечают измененные артикулы; перед фиксацией транзакции
+//все они записываются в журнал одной новой версией. Касса забирает изменения после своей версии
+//и получает текущее состояние каждого товара один раз, сколько бы раз он ни менялся.
+//Той же транзакцией артикулы версии записываются в catalog_outbox для рассылки кассам (CatalogOutboxRelay)
+@Service
+public class CatalogChangeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogChangeService.class);
+
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final ItemRepository itemRepository;
+    private final BarcodeRepository barcodeRepository;
+    private final CatalogOutboxRepository catalogOutboxRepository;
+    private final boolean outboxEnabled;
+
+    public CatalogChangeService(CatalogChangeRepository catalogChangeRepository, ItemRepository itemRepository,
+                                BarcodeRepository barcodeRepository, CatalogOutboxRepository catalogOutboxRepository,
+                                @Value("${retail.events.catalog.enabled:true}") boolean outboxEnabled) {
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.itemRepository = itemRepository;
+        this.barcodeRepository = barcodeRepository;
+        this.catalogOutboxRepository = catalogOutboxRepository;
+        this.outboxEnabled = outboxEnabled;
+    }
+
+    public void recordChange(Long article) {
+        recordChanges(List.of(article));
+    }
+
+    public void recordChanges(Collection<Long> articles) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            append(catalogChangeRepository.nextVersion(), new TreeSet<>(articles));
+            return;
+        }
+        pendingArticles().addAll(articles);
+    }
+
+    @Transactional
+    public CatalogChangesDTO getChanges(long since, Long afterArticle, int limit) {
+        //текущая версия читается до журнала: все версии до нее уже зафиксированы
+        long currentVersion = catalogChangeRepository.currentVersion();
+        List<CatalogChangeId> page = catalogChangeRepository.findLatestAfter(since, afterArticle, limit + 1);
+        boolean hasMore = page.size() > limit;
+        if (hasMore) {
+            page = page.subList(0, limit);
+        }
+
+        List<CatalogChangeDTO> changes = describe(page);
+
+        long nextSince;
+        Long nextAfter;
+        if (hasMore) {
+            CatalogChangeId last = page.get(page.size() - 1);
+            nextSince = last.getVersion();
+            nextAfter = last.getArticle();
+        } else {
+            nextSince = page.isEmpty() ? Math.max(since, currentVersion)
+                    : Math.max(currentVersion, page.get(page.size() - 1).getVersion());
+            nextAfter = null;
+        }
+        logger.debug("Изменения каталога после версии {}: {} товаров, следующая версия {}", since, changes.size(), nextSince);
+        return new CatalogChangesDTO(currentVersion, nextSince, nextAfter, hasMore, changes);
+    }
+
+    //текущее состояние товаров; версия каждого товара берется из переданной записи
+    @Transactional
+    public List<CatalogChangeDTO> describe(List<CatalogChangeId> page) {
+        List<Long> articles = page.stream().map(CatalogChangeId::getArticle).toList();
+        Map<Long, CatalogEntry> entries = articles.isEmpty() ? Map.of() : itemRepository.findCatalogEntries(articles).stream()
+                .collect(Collectors.toMap(CatalogEntry::article, Function.identity()));
+        Map<Long, List<String>> barcodes = articles.isEmpty() ? Map.of() : barcodeRepository.findBarcodeArticles(articles).stream()
+                .collect(Collectors.groupingBy(BarcodeArticle::article,
+                        Collectors.mapping(BarcodeArticle::barcode, Collectors.toList())));
+
+        return page.stream()
+                .map(change -> toDTO(change, entries.get(change.getArticle()), barcodes.get(change.getArticle())))
+                .toList();
+    }
+
+    private CatalogChangeDTO toDTO(CatalogChangeId change, CatalogEntry entry, List<String> barcodes) {
+        if (entry == null) {
+            return new CatalogChangeDTO(change.getArticle(), change.getVersion(), true, null, null, List.of());
+        }
+        List<String> sorted = barcodes == null ? List.of() : barcodes.stream().sorted().toList();
+        return new CatalogChangeDTO(change.getArticle(), change.getVersion(), false, entry.name(), entry.price(), sorted);
+    }
+
+    //журнал и исходящие события пишутся в одной транзакции с изменением: после отката нет ни того, ни другого
+    private void append(long version, Set<Long> articles) {
+        catalogChangeRepository.append(version, articles);
+        if (outboxEnabled) {
+            catalogOutboxRepository.append(version, articles);
+        }
+    }
+
+    //артикулы текущей транзакции; запись в журнал - перед фиксацией, чтобы версия бралась как можно позже
+    //и строка catalog_version была заблокирована только на время фиксации
+    @SuppressWarnings("unchecked")
+    private Set<Long> pendingArticles() {
+        Set<Long> pending = (Set<Long>) TransactionSynchronizationManager.getResource(this);
+        if (pending != null) {
+            return pending;
+        }
+        Set<Long> articles = new TreeSet<>();
+        TransactionSynchronizationManager.bindResource(this, articles);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                if (!articles.isEmpty()) {
+                    long version = catalogChangeRepository.nextVersion();
+                    append(version, articles);
+                    logger.debug("Версия каталога {}: изменено товаров {}", version, articles.size());
+                }
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(CatalogChangeService.this);
+            }
+        });
+        return articles;
+    }
+}
\ No newline at end of file
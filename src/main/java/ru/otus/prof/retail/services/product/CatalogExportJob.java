@@ -0,0 +1,36 @@
+package ru.otus.prof.retail.services.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//Выгрузка каталога при старте и проверка версии каталога каждые retail.catalog-export.check-interval-ms:
+//пока каталог не меняется, файл не пересобирается
+@Component
+@ConditionalOnProperty(name = "retail.catalog-export.enabled", havingValue = "true")
+public class CatalogExportJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportJob.class);
+
+    private final CatalogExportService catalogExportService;
+
+    public CatalogExportJob(CatalogExportService catalogExportService) {
+        this.catalogExportService = catalogExportService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${retail.catalog-export.check-interval-ms:60000}",
+            initialDelayString = "${retail.catalog-export.check-interval-ms:60000}")
+    public void regenerateIfChanged() {
+        try {
+            catalogExportService.regenerateIfChanged();
+        } catch (Exception e) {
+            //остается предыдущая выгрузка
+            logger.error("Ошибка выгрузки каталога: {}", e.getMessage(), e);
+        }
+    }
+}
\ No newline at end of file
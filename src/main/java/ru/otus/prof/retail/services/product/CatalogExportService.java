@@ -0,0 +1,174 @@
+package ru.otus.prof.retail.services.product;
+
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import ru.otus.prof.retail.dto.product.CatalogExportDTO;
+import ru.otus.prof.retail.exception.product.CatalogExportNotReadyException;
+import ru.otus.prof.retail.repositories.product.BarcodeArticle;
+import ru.otus.prof.retail.repositories.product.BarcodeRepository;
+import ru.otus.prof.retail.repositories.product.CatalogChangeRepository;
+import ru.otus.prof.retail.repositories.product.CatalogEntry;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+import ru.otus.prof.retail.services.product.export.CatalogExportFile;
+import ru.otus.prof.retail.services.product.export.CatalogExportWriter;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+//Полная выгрузка каталога для начальной загрузки касс: сжатый бинарный файл (формат - CatalogExportWriter).
+//Файл пересобирается в фоне, когда меняется версия каталога, и отдается как есть - без сериализации на запрос.
+//После загрузки касса переходит на журнал изменений с версии из заголовка файла
+@Service
+public class CatalogExportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogExportService.class);
+
+    private final ItemRepository itemRepository;
+    private final BarcodeRepository barcodeRepository;
+    private final CatalogChangeRepository catalogChangeRepository;
+    private final Path directory;
+    private final AtomicReference<CatalogExportFile> current = new AtomicReference<>();
+    //предыдущая выгрузка хранится до следующей: скачивания, начатые до подмены, успевают ее дочитать
+    private CatalogExportFile retired;
+    private final ReentrantLock exportLock = new ReentrantLock();
+
+    public CatalogExportService(ItemRepository itemRepository, BarcodeRepository barcodeRepository,
+                                CatalogChangeRepository catalogChangeRepository,
+                                @Value("${retail.catalog-export.dir:${java.io.tmpdir}/retail-catalog}") Path directory) {
+        this.itemRepository = itemRepository;
+        this.barcodeRepository = barcodeRepository;
+        this.catalogChangeRepository = catalogChangeRepository;
+        this.directory = directory;
+    }
+
+    //пересборка, только если каталог изменился с прошлой выгрузки
+    @Transactional
+    public boolean regenerateIfChanged() {
+        CatalogExportFile export = current.get();
+        if (export != null && export.catalogVersion() == catalogChangeRepository.currentVersion()) {
+            return false;
+        }
+        regenerate();
+        return true;
+    }
+
+    @Transactional
+    public CatalogExportDTO regenerate() {
+        exportLock.lock();
+        Path exportFile = null;
+        try {
+            long started = System.nanoTime();
+            //версия читается до каталога: изменения после нее касса получит из журнала, повтор безопасен
+            long catalogVersion = catalogChangeRepository.currentVersion();
+            logger.info("Выгрузка каталога версии {}", catalogVersion);
+
+            Files.createDirectories(directory);
+            Path recordsFile = Files.createTempFile(directory, "records-", ".tmp");
+            exportFile = Files.createTempFile(directory, "catalog-", ".tmp");
+            CRC32 crc = new CRC32();
+            int items;
+            try (CatalogExportWriter writer = new CatalogExportWriter(recordsFile)) {
+                writeItems(writer);
+                try (OutputStream out = new GZIPOutputStream(new CheckedOutputStream(
+                        new BufferedOutputStream(Files.newOutputStream(exportFile), 1 << 16), crc), 1 << 16)) {
+                    writer.finish(out, catalogVersion);
+                }
+                items = writer.getItemCount();
+                logger.debug("Словарь названий: {} слов", writer.getDictionarySize());
+            } finally {
+                Files.deleteIfExists(recordsFile);
+            }
+
+            Path target = directory.resolve("catalog-" + catalogVersion + "-" + Long.toHexString(crc.getValue()) + ".bin.gz");
+            Files.move(exportFile, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            CatalogExportFile export = new CatalogExportFile(target, catalogVersion, items, Files.size(target),
+                    "\"" + catalogVersion + "-" + Long.toHexString(crc.getValue()) + "\"", LocalDateTime.now(),
+                    (System.nanoTime() - started) / 1_000_000);
+            CatalogExportFile previous = current.getAndSet(export);
+            if (retired != null && !retired.path().equals(target)) {
+                deleteQuietly(retired.path());
+            }
+            retired = previous != null && !previous.path().equals(target) ? previous : null;
+
+            logger.info("Каталог версии {} выгружен: товаров {}, {} байт за {} мс",
+                    catalogVersion, items, export.size(), export.buildMs());
+            return toDTO(export);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи выгрузки каталога: " + e.getMessage(), e);
+        } finally {
+            //после успешного переноса временного файла уже нет
+            deleteQuietly(exportFile);
+            exportLock.unlock();
+        }
+    }
+
+    public CatalogExportFile getCurrent() {
+        CatalogExportFile export = current.get();
+        if (export == null) {
+            throw new CatalogExportNotReadyException("Выгрузка каталога еще не готова, повторите позже");
+        }
+        return export;
+    }
+
+    public CatalogExportDTO getInfo() {
+        return toDTO(getCurrent());
+    }
+
+    //слияние потоков товаров и штрих-кодов, оба упорядочены по артикулу
+    private void writeItems(CatalogExportWriter writer) throws IOException {
+        try (Stream<CatalogEntry> entries = itemRepository.streamCatalogEntries();
+             Stream<BarcodeArticle> barcodeStream = barcodeRepository.streamBarcodeArticlesByArticle()) {
+            Iterator<BarcodeArticle> barcodes = barcodeStream.iterator();
+            BarcodeArticle barcode = barcodes.hasNext() ? barcodes.next() : null;
+            Iterator<CatalogEntry> items = entries.iterator();
+            List<String> itemBarcodes = new ArrayList<>();
+            while (items.hasNext()) {
+                CatalogEntry entry = items.next();
+                //штрих-коды товаров, которых нет в потоке товаров (удалены во время выгрузки), пропускаются
+                while (barcode != null && barcode.article() < entry.article()) {
+                    barcode = barcodes.hasNext() ? barcodes.next() : null;
+                }
+                itemBarcodes.clear();
+                while (barcode != null && barcode.article().equals(entry.article())) {
+                    itemBarcodes.add(barcode.barcode());
+                    barcode = barcodes.hasNext() ? barcodes.next() : null;
+                }
+                writer.writeItem(entry.article(), entry.name(), entry.price(), itemBarcodes);
+            }
+        }
+    }
+
+    private void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.warn("Не удалось удалить временный файл выгрузки {}: {}", file, e.getMessage());
+        }
+    }
+
+    private CatalogExportDTO toDTO(CatalogExportFile export) {
+        return new CatalogExportDTO(export.catalogVersion(), export.items(), export.size(), export.etag(),
+                export.createdAt(), export.buildMs());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package ru.otus.prof.retail.services.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//Сборка снимка каталога при старте и по расписанию retail.catalog-snapshot.cron
+@Component
+@ConditionalOnProperty(name = "retail.catalog-snapshot.enabled", havingValue = "true")
+public class CatalogSnapshotJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotJob.class);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+
+    public CatalogSnapshotJob(CatalogSnapshotService catalogSnapshotService) {
+        this.catalogSnapshotService = catalogSnapshotService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${retail.catalog-snapshot.cron:0 30 2 * * *}")
+    public void rebuild() {
+        try {
+            catalogSnapshotService.rebuild();
+        } catch (Exception e) {
+            //остается предыдущий снимок
+            logger.error("Ошибка сборки снимка каталога: {}", e.getMessage(), e);
+        }
+    }
+}
\ No newline at end of file
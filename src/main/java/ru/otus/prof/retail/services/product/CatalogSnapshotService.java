@@ -0,0 +1,94 @@
+package ru.otus.prof.retail.services.product;
+
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import ru.otus.prof.retail.dto.product.CatalogItemDTO;
+import ru.otus.prof.retail.dto.product.CatalogSnapshotDTO;
+import ru.otus.prof.retail.dto.product.ScanItemDTO;
+import ru.otus.prof.retail.exception.product.BarcodeNotFoundException;
+import ru.otus.prof.retail.exception.product.ItemNotFoundException;
+import ru.otus.prof.retail.repositories.product.BarcodeArticle;
+import ru.otus.prof.retail.repositories.product.BarcodeRepository;
+import ru.otus.prof.retail.repositories.product.CatalogEntry;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+import ru.otus.prof.retail.services.product.catalog.CatalogSnapshot;
+import ru.otus.prof.retail.services.product.catalog.CatalogSnapshotBuilder;
+
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+//Разрешение штрих-кодов и артикулов всей сети по снимку каталога вне кучи, без обращения к БД.
+//Снимок пересобирается целиком и подменяется атомарно: читатели видят либо старый, либо новый снимок.
+//Данные снимка отстают от БД до следующей сборки; для кассы с актуальной ценой есть BarcodeLookupService
+@Service
+public class CatalogSnapshotService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CatalogSnapshotService.class);
+
+    private final ItemRepository itemRepository;
+    private final BarcodeRepository barcodeRepository;
+    private final AtomicReference<CatalogSnapshot> current = new AtomicReference<>(CatalogSnapshot.empty());
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    private volatile long lastBuildMs;
+
+    public CatalogSnapshotService(ItemRepository itemRepository, BarcodeRepository barcodeRepository) {
+        this.itemRepository = itemRepository;
+        this.barcodeRepository = barcodeRepository;
+    }
+
+    //одновременные сборки не нужны: вторая дожидается первой и собирает заново
+    @Transactional
+    public CatalogSnapshotDTO rebuild() {
+        rebuildLock.lock();
+        try {
+            logger.info("Сборка снимка каталога");
+            long started = System.nanoTime();
+            CatalogSnapshotBuilder builder = new CatalogSnapshotBuilder();
+            try (Stream<CatalogEntry> entries = itemRepository.streamCatalogEntries()) {
+                entries.forEach(entry -> builder.addItem(entry.article(), entry.name(), entry.price()));
+            }
+            try (Stream<BarcodeArticle> barcodes = barcodeRepository.streamBarcodeArticles()) {
+                barcodes.forEach(barcode -> builder.addBarcode(barcode.barcode(), barcode.article()));
+            }
+            CatalogSnapshot snapshot = builder.build();
+            //память старого снимка освобождается сборщиком мусора вместе с его буферами
+            current.set(snapshot);
+            lastBuildMs = (System.nanoTime() - started) / 1_000_000;
+
+            logger.info("Снимок каталога собран: товаров {}, штрих-кодов {}, {} байт вне кучи за {} мс",
+                    snapshot.getItemCount(), snapshot.getBarcodeCount(), snapshot.getOffHeapBytes(), lastBuildMs);
+            return toDTO(snapshot);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    public ScanItemDTO findByBarcode(String barcode) {
+        CatalogEntry entry = current.get().findByBarcode(barcode)
+                .orElseThrow(() -> new BarcodeNotFoundException("Штрих-код " + barcode + " не найден"));
+        return new ScanItemDTO(barcode, entry.article(), entry.name(), entry.price());
+    }
+
+    public CatalogItemDTO findByArticle(Long article) {
+        CatalogEntry entry = current.get().findEntry(article)
+                .orElseThrow(() -> new ItemNotFoundException("Товар не найден с артикулом: " + article));
+        return new CatalogItemDTO(entry.article(), entry.name(), entry.price());
+    }
+
+    //текущий снимок для проверок по массивам без объектов на запись (проверка чеков при загрузке)
+    public CatalogSnapshot getSnapshot() {
+        return current.get();
+    }
+
+    public CatalogSnapshotDTO getInfo() {
+        return toDTO(current.get());
+    }
+
+    private CatalogSnapshotDTO toDTO(CatalogSnapshot snapshot) {
+        return new CatalogSnapshotDTO(snapshot.getItemCount(), snapshot.getBarcodeCount(), snapshot.getOffHeapBytes(),
+                snapshot.getBuiltAt(), lastBuildMs);
+    }
+}
\ No newline at end of file
@@ -6,15 +6,20 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import ru.otus.prof.retail.dto.product.CreateItemDTO;
+import ru.otus.prof.retail.dto.product.InputPriceDTO;
 import ru.otus.prof.retail.dto.product.ItemDTO;
 import ru.otus.prof.retail.dto.product.UpdateItemDTO;
+import ru.otus.prof.retail.entities.product.Barcode;
 import ru.otus.prof.retail.entities.product.Item;
 import ru.otus.prof.retail.exception.product.ItemNotFoundException;
 import ru.otus.prof.retail.exception.product.ItemValidationException;
 import ru.otus.prof.retail.mappers.product.ItemMapper;
 import ru.otus.prof.retail.repositories.product.ItemRepository;
 
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemService {
@@ -26,6 +31,18 @@ public class ItemService {
     @Autowired
     private ItemMapper itemMapper;
 
+    @Autowired
+    private BarcodeLookupService barcodeLookupService;
+
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+
+    @Autowired
+    private PriceLookupService priceLookupService;
+
+    @Autowired
+    private PriceService priceService;
+
     @Transactional
     public ItemDTO createItem(CreateItemDTO createItemDTO) {
         try {
@@ -36,7 +53,11 @@ public class ItemService {
             }
 
             Item item = itemMapper.toEntity(createItemDTO);
-            return itemMapper.toDTO(itemRepository.save(item));
+            ItemDTO result = itemMapper.toDTO(itemRepository.save(item));
+            catalogChangeService.recordChange(createItemDTO.article());
+            //цены нового товара в индекс на сутки не попали
+            priceLookupService.invalidateArticle(createItemDTO.article());
+            return result;
         } catch (Exception e) {
             logger.error("Ошибка при создании товара: {}", e.getMessage(), e);
             throw new ItemValidationException("Ошибка при создании товара: " + e.getMessage());
@@ -46,18 +67,24 @@ public class ItemService {
     @Transactional
     public Optional<ItemDTO> getItem(Long article) {
         logger.info("Получение товара с артикулом: {}", article);
-        return itemRepository.findById(article).map(itemMapper::toDTO);
+        return itemRepository.findFullByArticle(article).map(itemMapper::toDTO);
     }
 
     @Transactional
     public ItemDTO updateItem(UpdateItemDTO updateItemDTO) {
         try {
             logger.info("Обновление товара с артикулом: {}", updateItemDTO.article());
-            Item existingItem = itemRepository.findById(updateItemDTO.article())
+            //цена пишется до загрузки товара: закрытие прежней цены идет UPDATE мимо загруженной коллекции prices
+            updateCurrentPrice(updateItemDTO);
+            Item existingItem = itemRepository.findFullByArticle(updateItemDTO.article())
                     .orElseThrow(() -> new ItemNotFoundException("Товар не найден с артикулом: " + updateItemDTO.article()));
 
             Item updatedItem = itemMapper.toEntity(updateItemDTO, existingItem);
-            return itemMapper.toDTO(itemRepository.save(updatedItem));
+            ItemDTO result = itemMapper.toDTO(itemRepository.save(updatedItem));
+            barcodeLookupService.invalidateArticle(updateItemDTO.article());
+            priceLookupService.invalidateArticle(updateItemDTO.article());
+            catalogChangeService.recordChange(updateItemDTO.article());
+            return result;
         } catch (ItemNotFoundException e) {
             logger.warn("Товар не найден: {}", e.getMessage());
             throw e;
@@ -67,13 +94,36 @@ public class ItemService {
         }
     }
 
+    //цены карточки товара без дат действия: новая бессрочная цена с текущего момента через PriceService
+    private void updateCurrentPrice(UpdateItemDTO updateItemDTO) {
+        if (updateItemDTO.prices() == null || updateItemDTO.prices().isEmpty()) {
+            return;
+        }
+        Set<Long> prices = updateItemDTO.prices().stream()
+                .map(InputPriceDTO::price)
+                .collect(Collectors.toSet());
+        if (prices.size() > 1) {
+            throw new ItemValidationException("Для товара с артикулом " + updateItemDTO.article() +
+                    " передано несколько цен без дат действия: " + prices);
+        }
+        priceService.changeCurrentPrice(updateItemDTO.article(), prices.iterator().next());
+    }
+
     @Transactional
     public void deleteItem(Long article) {
         try {
             logger.info("Удаление товара с артикулом: {}", article);
-            Optional<Item> itemOptional = itemRepository.findById(article);
+            Optional<Item> itemOptional = itemRepository.findFullByArticle(article);
             if (itemOptional.isPresent()) {
-                itemRepository.delete(itemOptional.get());
+                Item item = itemOptional.get();
+                List<String> barcodes = item.getBarcodes() == null ? List.of() : item.getBarcodes().stream()
+                        .map(Barcode::getBarcode)
+                        .toList();
+                itemRepository.delete(item);
+                barcodeLookupService.invalidateArticle(article);
+                barcodeLookupService.invalidateBarcodes(barcodes);
+                priceLookupService.invalidateArticle(article);
+                catalogChangeService.recordChange(article);
                 logger.info("Товар с артикулом {} успешно удален", article);
             } else {
                 logger.warn("Товар с артикулом {} не найден", article);
@@ -0,0 +1,43 @@
+package ru.otus.prof.retail.services.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+//Обход границ интервалов цен каждые retail.price-boundary.check-interval-ms: акции и отложенные цены
+//начинают и заканчивают действовать без записи в БД. Первый обход после старта захватывает
+//retail.price-boundary.startup-lookback - границы, пройденные, пока приложение не работало
+@Component
+@ConditionalOnProperty(name = "retail.price-boundary.enabled", havingValue = "true")
+public class PriceBoundaryJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceBoundaryJob.class);
+
+    private final PriceService priceService;
+
+    private LocalDateTime lastRun;
+
+    public PriceBoundaryJob(PriceService priceService,
+                            @Value("${retail.price-boundary.startup-lookback:24h}") Duration startupLookback) {
+        this.priceService = priceService;
+        this.lastRun = LocalDateTime.now().minus(startupLookback);
+    }
+
+    @Scheduled(fixedDelayString = "${retail.price-boundary.check-interval-ms:60000}")
+    public void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        try {
+            priceService.publishPriceBoundaries(lastRun, now);
+            lastRun = now;
+        } catch (Exception e) {
+            //интервал не сдвигается: следующий обход захватит и пропущенные границы
+            logger.error("Ошибка обхода границ интервалов цен: {}", e.getMessage(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,34 @@
+package ru.otus.prof.retail.services.product;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//Сборка индекса цен на текущие сутки при старте и в начале суток по расписанию retail.price-index.cron
+@Component
+@ConditionalOnProperty(name = "retail.price-index.enabled", havingValue = "true")
+public class PriceIndexJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceIndexJob.class);
+
+    private final PriceLookupService priceLookupService;
+
+    public PriceIndexJob(PriceLookupService priceLookupService) {
+        this.priceLookupService = priceLookupService;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${retail.price-index.cron:5 0 0 * * *}")
+    public void rebuild() {
+        try {
+            priceLookupService.rebuild();
+        } catch (Exception e) {
+            //цены читаются из БД до следующей успешной сборки
+            logger.error("Ошибка сборки индекса цен: {}", e.getMessage(), e);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,179 @@
+package ru.otus.prof.retail.services.product;
+
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.prof.retail.dto.product.ArticlePriceDTO;
+import ru.otus.prof.retail.dto.product.PriceIndexDTO;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+import ru.otus.prof.retail.repositories.product.PriceInterval;
+import ru.otus.prof.retail.repositories.product.PriceRepository;
+import ru.otus.prof.retail.services.product.pricing.PriceIntervalIndex;
+import ru.otus.prof.retail.services.product.pricing.PriceIntervalIndexBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+//Цены товаров на произвольный момент для проверки чеков и отчетов о переоценке.
+//Моменты текущих и предыдущих суток (retail.price-index.days-back) разрешаются по индексу интервалов цен
+//в памяти, собранному на начало суток.
+//Товары, цены которых менялись после сборки, и моменты вне суток читаются из БД запросом
+//по индексу price(article, effective_from, id) без просмотра закрытой истории
+@Service
+public class PriceLookupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(PriceLookupService.class);
+
+    private final PriceRepository priceRepository;
+    private final AtomicReference<PriceIntervalIndex> current = new AtomicReference<>(PriceIntervalIndex.empty());
+    private final ReentrantLock rebuildLock = new ReentrantLock();
+    //артикул -> номер последней отметки; сборка снимает только отметки, сделанные до ее начала
+    private final Map<Long, Long> changedArticles = new ConcurrentHashMap<>();
+    private final AtomicLong changeSequence = new AtomicLong();
+    private final int daysBack;
+    private volatile long lastBuildMs;
+
+    public PriceLookupService(PriceRepository priceRepository,
+                              @Value("${retail.price-index.days-back:1}") int daysBack) {
+        this.priceRepository = priceRepository;
+        this.daysBack = daysBack;
+    }
+
+    @Transactional
+    public PriceIndexDTO rebuild() {
+        return rebuild(LocalDate.now());
+    }
+
+    @Transactional
+    public PriceIndexDTO rebuild(LocalDate day) {
+        rebuildLock.lock();
+        try {
+            //смены, закрытые ночью, выгружаются уже на следующие сутки
+            LocalDateTime from = day.minusDays(daysBack).atStartOfDay();
+            LocalDateTime to = day.plusDays(1).atStartOfDay();
+            logger.info("Сборка индекса цен на {}", day);
+            long started = System.nanoTime();
+            long buildSequence = changeSequence.get();
+
+            PriceIntervalIndexBuilder builder = new PriceIntervalIndexBuilder(from, to);
+            try (Stream<PriceInterval> intervals = priceRepository.streamEffectiveBetween(from, to)) {
+                intervals.forEach(builder::add);
+            }
+            PriceIntervalIndex index = builder.build();
+            current.set(index);
+            //изменения, отмеченные во время сборки, могли в нее не попасть - остаются в БД
+            changedArticles.values().removeIf(sequence -> sequence <= buildSequence);
+            lastBuildMs = (System.nanoTime() - started) / 1_000_000;
+
+            logger.info("Индекс цен собран: товаров {}, интервалов {} за {} мс",
+                    index.getArticleCount(), index.getIntervalCount(), lastBuildMs);
+            return toDTO(index);
+        } finally {
+            rebuildLock.unlock();
+        }
+    }
+
+    //цены по возрастанию артикула; товары без цены на момент в ответ не попадают
+    public List<ArticlePriceDTO> findPricesAt(Collection<Long> articles, LocalDateTime at) {
+        PriceIntervalIndex index = current.get();
+        boolean indexed = index.covers(at);
+
+        List<ArticlePriceDTO> prices = new ArrayList<>(articles.size());
+        List<Long> fromDatabase = new ArrayList<>();
+        for (Long article : new TreeSet<>(articles)) {
+            int position = indexed && !changedArticles.containsKey(article) ? index.find(article, at) : -1;
+            if (position >= 0) {
+                prices.add(new ArticlePriceDTO(article, index.getPrice(position),
+                        index.getEffectiveFrom(position), index.getEffectiveTo(position)));
+            } else {
+                //товара нет в индексе: нет цены в эти сутки или он добавлен после сборки
+                fromDatabase.add(article);
+            }
+        }
+
+        int fromIndex = prices.size();
+        if (!fromDatabase.isEmpty()) {
+            prices.addAll(loadPricesAt(fromDatabase, at));
+            prices.sort(Comparator.comparing(ArticlePriceDTO::article));
+        }
+        logger.debug("Цены на {}: запрошено {}, из индекса {}, из БД {}",
+                at, articles.size(), fromIndex, fromDatabase.size());
+        return prices;
+    }
+
+    public Optional<ArticlePriceDTO> findPriceAt(Long article, LocalDateTime at) {
+        return findPricesAt(List.of(article), at).stream().findFirst();
+    }
+
+    public void invalidateArticle(Long article) {
+        invalidateArticles(List.of(article));
+    }
+
+    public void invalidateArticles(Collection<Long> articles) {
+        markNowAndAfterCommit(() -> {
+            long sequence = changeSequence.incrementAndGet();
+            articles.forEach(article -> changedArticles.put(article, sequence));
+        });
+    }
+
+    //при массовой переоценке индекс сбрасывается целиком: до следующей сборки цены читаются из БД
+    public void invalidateAll() {
+        markNowAndAfterCommit(() -> current.set(PriceIntervalIndex.empty()));
+    }
+
+    //индекс и признак изменения после сборки - для проверок без обращения к БД (проверка чеков при загрузке)
+    public PriceIntervalIndex getIndex() {
+        return current.get();
+    }
+
+    public boolean isChanged(long article) {
+        return changedArticles.containsKey(article);
+    }
+
+    public PriceIndexDTO getInfo() {
+        return toDTO(current.get());
+    }
+
+    private List<ArticlePriceDTO> loadPricesAt(List<Long> articles, LocalDateTime at) {
+        Map<Long, PriceInterval> effective = new HashMap<>();
+        for (int from = 0; from < articles.size(); from += ItemRepository.ARTICLE_CHUNK_SIZE) {
+            List<Long> chunk = articles.subList(from, Math.min(from + ItemRepository.ARTICLE_CHUNK_SIZE, articles.size()));
+            for (PriceInterval interval : priceRepository.findEffectiveAt(chunk, at)) {
+                effective.merge(interval.article(), interval,
+                        (existing, candidate) -> candidate.supersedes(existing) ? candidate : existing);
+            }
+        }
+        return effective.values().stream()
+                .map(interval -> new ArticlePriceDTO(interval.article(), interval.price(),
+                        interval.effectiveFrom(), interval.effectiveTo()))
+                .toList();
+    }
+
+    private PriceIndexDTO toDTO(PriceIntervalIndex index) {
+        return new PriceIndexDTO(index.getArticleCount(), index.getIntervalCount(), index.getWindowFrom(),
+                index.getWindowTo(), changedArticles.size(), index.getBuiltAt(), lastBuildMs);
+    }
+
+    //отметка сразу и повторно после фиксации: сборка, прошедшая между ними, не увидела изменения
+    private void markNowAndAfterCommit(Runnable mark) {
+        mark.run();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark.run();
+                }
+            });
+        }
+    }
+}
\ No newline at end of file
@@ -9,11 +9,19 @@ import ru.otus.prof.retail.dto.product.PriceDTO;
 import ru.otus.prof.retail.entities.product.Price;
 import ru.otus.prof.retail.exception.product.ItemNotFoundException;
 import ru.otus.prof.retail.exception.product.PriceNotFoundException;
+import ru.otus.prof.retail.exception.product.PriceValidationException;
 import ru.otus.prof.retail.mappers.product.PriceMapper;
 import ru.otus.prof.retail.repositories.product.ItemRepository;
+import ru.otus.prof.retail.repositories.product.PriceInterval;
 import ru.otus.prof.retail.repositories.product.PriceRepository;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
 import java.util.stream.Collectors;
 
@@ -30,12 +38,66 @@ public class PriceService {
     @Autowired
     private ItemRepository itemRepository;
 
+    @Autowired
+    private BarcodeLookupService barcodeLookupService;
+
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+
+    @Autowired
+    private PriceLookupService priceLookupService;
+
     private void validateItemExists(Long article) {
         if (!itemRepository.existsById(article)) {
             throw new ItemNotFoundException("Товар с артикулом " + article + " не найден");
         }
     }
 
+    private void validateInterval(Price price) {
+        if (price.getEffectiveTo() != null && !price.getEffectiveTo().isAfter(price.getEffectiveFrom())) {
+            throw new PriceValidationException("Окончание действия цены должно быть позже начала: "
+                    + price.getEffectiveFrom() + " - " + price.getEffectiveTo());
+        }
+    }
+
+    //цена без даты начала действует с текущего момента; бессрочная цена закрывает прежнюю бессрочную,
+    //цена с датой окончания (акция) действует поверх нее
+    private Price toNewPrice(PriceDTO priceDTO, LocalDateTime now) {
+        Price price = prepareNewPrice(priceDTO, now);
+        if (price.getEffectiveTo() == null) {
+            priceRepository.closeOpenIntervals(priceDTO.article(), price.getEffectiveFrom());
+        }
+        return price;
+    }
+
+    private Price prepareNewPrice(PriceDTO priceDTO, LocalDateTime now) {
+        Price price = priceMapper.toEntity(priceDTO);
+        if (price.getEffectiveFrom() == null) {
+            price.setEffectiveFrom(now);
+        }
+        validateInterval(price);
+        return price;
+    }
+
+    private void onPricesChanged(Collection<Long> articles) {
+        articles.forEach(barcodeLookupService::invalidateArticle);
+        priceLookupService.invalidateArticles(articles);
+        catalogChangeService.recordChanges(articles);
+    }
+
+    //цены с датой начала в будущем или с датой окончания меняют текущую цену без записи в БД:
+    //по товарам, у которых граница интервала пришлась на (from, to], сбрасываются кэши
+    //и записывается изменение каталога для касс
+    @Transactional
+    public List<Long> publishPriceBoundaries(LocalDateTime from, LocalDateTime to) {
+        List<Long> articles = priceRepository.findArticlesWithBoundaryBetween(from, to);
+        if (!articles.isEmpty()) {
+            onPricesChanged(articles);
+            logger.info("Сменилась текущая цена {} товаров по датам действия ({} - {})", articles.size(), from, to);
+        }
+        return articles;
+    }
+
     public PriceDTO getPrice(Long id) {
         logger.info("Запрос цены id: {}", id);
         return priceRepository.findById(id)
@@ -48,12 +110,35 @@ public class PriceService {
         logger.info("Создание новой цены для товара с артикулом: {}", priceDTO.article());
         validateItemExists(priceDTO.article());
 
-        Price price = priceMapper.toEntity(priceDTO);
-        Price saved = priceRepository.save(price);
+        Price saved = priceRepository.save(toNewPrice(priceDTO, LocalDateTime.now()));
+        onPricesChanged(List.of(priceDTO.article()));
         logger.info("Создана новая цена с ID: {} для товара с артикулом: {}", saved.getId(), priceDTO.article());
         return priceMapper.toDTO(saved);
     }
 
+    //цена из карточки товара действует бессрочно с текущего момента. Сравнивается только с бессрочной ценой,
+    //действующей сейчас: возврат к прежнему значению (A -> B -> A) записывается, повтор действующей - нет
+    @Transactional
+    public Optional<PriceDTO> changeCurrentPrice(Long article, Long price) {
+        validateItemExists(article);
+        LocalDateTime now = LocalDateTime.now();
+        boolean unchanged = priceRepository.findEffectiveAt(List.of(article), now).stream()
+                .filter(interval -> interval.effectiveTo() == null)
+                .reduce((first, second) -> second.supersedes(first) ? second : first)
+                .map(PriceInterval::price)
+                .filter(price::equals)
+                .isPresent();
+        if (unchanged) {
+            logger.debug("Цена {} товара с артикулом {} уже действует", price, article);
+            return Optional.empty();
+        }
+
+        Price saved = priceRepository.save(toNewPrice(new PriceDTO(null, price, article), now));
+        onPricesChanged(List.of(article));
+        logger.info("Текущая цена товара с артикулом {} изменена на {}", article, price);
+        return Optional.of(priceMapper.toDTO(saved));
+    }
+
     @Transactional
     public List<PriceDTO> createPrices(List<PriceDTO> priceDTOs) {
         logger.info("Начало пакетного создания цен. Количество: {}", priceDTOs.size());
@@ -73,11 +158,25 @@ public class PriceService {
             throw new ItemNotFoundException("Товары с артикулами " + missingArticles + " не найдены");
         }
 
-        List<Price> pricesToSave = priceDTOs.stream()
-                .map(priceMapper::toEntity)
-                .collect(Collectors.toList());
+        //сначала проверяется весь пакет, затем прежние бессрочные цены закрываются одним UPDATE на товар.
+        //Две бессрочные цены одного товара в пакете остались бы открытыми обе - такой пакет отклоняется
+        LocalDateTime now = LocalDateTime.now();
+        List<Price> pricesToSave = new ArrayList<>(priceDTOs.size());
+        Map<Long, LocalDateTime> openEndedFrom = new HashMap<>();
+        for (PriceDTO priceDTO : priceDTOs) {
+            Price price = prepareNewPrice(priceDTO, now);
+            if (price.getEffectiveTo() == null
+                    && openEndedFrom.putIfAbsent(priceDTO.article(), price.getEffectiveFrom()) != null) {
+                logger.error("В пакете несколько бессрочных цен для товара с артикулом {}", priceDTO.article());
+                throw new PriceValidationException("В пакете несколько бессрочных цен для товара с артикулом "
+                        + priceDTO.article());
+            }
+            pricesToSave.add(price);
+        }
+        openEndedFrom.forEach(priceRepository::closeOpenIntervals);
 
         List<Price> savedPrices = priceRepository.saveAll(pricesToSave);
+        onPricesChanged(articles);
         logger.info("Успешно создано {} новых цен", savedPrices.size());
 
         return savedPrices.stream()
@@ -87,18 +186,31 @@ public class PriceService {
 
     @Transactional
     public PriceDTO updatePrice(PriceDTO priceDTO) {
-        return priceMapper.toDTO(priceRepository.save(priceMapper.toEntity(priceDTO)));
+        //цена могла быть перенесена на другой товар - сбрасываем оба
+        Optional<Price> existing = priceRepository.findById(priceDTO.id());
+        existing.ifPresent(previous -> onPricesChanged(List.of(previous.getItem().getArticle())));
+
+        Price price = priceMapper.toEntity(priceDTO);
+        //без новых дат интервал действия цены не меняется
+        if (price.getEffectiveFrom() == null) {
+            price.setEffectiveFrom(existing.map(Price::getEffectiveFrom).orElseGet(LocalDateTime::now));
+            price.setEffectiveTo(existing.map(Price::getEffectiveTo).orElse(null));
+        }
+        validateInterval(price);
+        PriceDTO result = priceMapper.toDTO(priceRepository.save(price));
+        onPricesChanged(List.of(result.article()));
+        return result;
     }
 
     @Transactional
     public void deletePrice(Long id) {
         logger.info("Попытка удаления цены id: {}", id);
 
-        if (!priceRepository.existsById(id)) {
-            throw new PriceNotFoundException("Цена с id " + id + " не найдена");
-        }
+        Price price = priceRepository.findById(id)
+                .orElseThrow(() -> new PriceNotFoundException("Цена с id " + id + " не найдена"));
 
         priceRepository.deleteById(id);
+        onPricesChanged(List.of(price.getItem().getArticle()));
         logger.info("Цена id: {} успешно удалена", id);
     }
 
@@ -106,6 +218,7 @@ public class PriceService {
     public void deleteAllPricesByItemArticle(Long article) {
         validateItemExists(article);
         priceRepository.deleteAllByItemArticle(article);
+        onPricesChanged(List.of(article));
         logger.info("Удалены все цены для товара с артикулом {}", article);
     }
 
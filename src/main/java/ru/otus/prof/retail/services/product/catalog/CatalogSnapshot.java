@@ -0,0 +1,173 @@
+package ru.otus.prof.retail.services.product.catalog;
+
+import ru.otus.prof.retail.repositories.product.CatalogEntry;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.OptionalLong;
+
+//Неизменяемый снимок каталога вне кучи (direct-буферы, лимит -XX:MaxDirectMemorySize).
+//Штрих-коды лежат подряд в байтовой арене по возрастанию байтов, рядом смещения и артикулы;
+//товары - отсортированные массивы артикулов и цен и арена названий. Поиск - двоичный, без объектов на запись,
+//поэтому миллионы штрих-кодов не нагружают GC. Чтение только абсолютными get, снимок безопасен для потоков
+public final class CatalogSnapshot {
+
+    //цена товара не задана
+    public static final long NO_PRICE = Long.MIN_VALUE;
+
+    //штрих-кода нет в снимке
+    public static final long NO_ARTICLE = Long.MIN_VALUE;
+
+    private final ByteBuffer barcodeArena;
+    private final IntBuffer barcodeOffsets;
+    private final LongBuffer barcodeArticles;
+    private final int barcodeCount;
+
+    private final LongBuffer articles;
+    private final LongBuffer prices;
+    private final ByteBuffer nameArena;
+    private final IntBuffer nameOffsets;
+    private final int itemCount;
+
+    private final LocalDateTime builtAt;
+
+    CatalogSnapshot(ByteBuffer barcodeArena, IntBuffer barcodeOffsets, LongBuffer barcodeArticles, int barcodeCount,
+                    LongBuffer articles, LongBuffer prices, ByteBuffer nameArena, IntBuffer nameOffsets, int itemCount,
+                    LocalDateTime builtAt) {
+        this.barcodeArena = barcodeArena;
+        this.barcodeOffsets = barcodeOffsets;
+        this.barcodeArticles = barcodeArticles;
+        this.barcodeCount = barcodeCount;
+        this.articles = articles;
+        this.prices = prices;
+        this.nameArena = nameArena;
+        this.nameOffsets = nameOffsets;
+        this.itemCount = itemCount;
+        this.builtAt = builtAt;
+    }
+
+    //снимок до первой сборки: ничего не находит, builtAt = null
+    public static CatalogSnapshot empty() {
+        return new CatalogSnapshotBuilder().build(null);
+    }
+
+    public OptionalLong findArticle(String barcode) {
+        long article = articleOf(barcode);
+        return article == NO_ARTICLE ? OptionalLong.empty() : OptionalLong.of(article);
+    }
+
+    //методы без объектов на результат - для проверки позиций чеков по массивам
+    public long articleOf(String barcode) {
+        byte[] key = barcode.getBytes(StandardCharsets.UTF_8);
+        int low = 0;
+        int high = barcodeCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compareBarcode(mid, key);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return barcodeArticles.get(mid);
+            }
+        }
+        return NO_ARTICLE;
+    }
+
+    public int indexOfArticle(long article) {
+        int low = 0;
+        int high = itemCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            long value = articles.get(mid);
+            if (value < article) {
+                low = mid + 1;
+            } else if (value > article) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    public long priceAt(int index) {
+        return prices.get(index);
+    }
+
+    //сравнение с названием в арене без декодирования строки
+    public boolean nameEquals(int index, String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int start = nameOffsets.get(index);
+        if (nameOffsets.get(index + 1) - start != bytes.length) {
+            return false;
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            if (nameArena.get(start + i) != bytes[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public Optional<CatalogEntry> findEntry(long article) {
+        int index = indexOfArticle(article);
+        if (index < 0) {
+            return Optional.empty();
+        }
+        long price = prices.get(index);
+        return Optional.of(new CatalogEntry(article, name(index), price == NO_PRICE ? null : price));
+    }
+
+    public Optional<CatalogEntry> findByBarcode(String barcode) {
+        OptionalLong article = findArticle(barcode);
+        return article.isPresent() ? findEntry(article.getAsLong()) : Optional.empty();
+    }
+
+    public int getBarcodeCount() {
+        return barcodeCount;
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    public long getOffHeapBytes() {
+        return barcodeArena.capacity()
+                + (long) barcodeOffsets.capacity() * Integer.BYTES
+                + (long) barcodeArticles.capacity() * Long.BYTES
+                + (long) articles.capacity() * Long.BYTES
+                + (long) prices.capacity() * Long.BYTES
+                + nameArena.capacity()
+                + (long) nameOffsets.capacity() * Integer.BYTES;
+    }
+
+    private int compareBarcode(int index, byte[] key) {
+        int start = barcodeOffsets.get(index);
+        int length = barcodeOffsets.get(index + 1) - start;
+        int common = Math.min(length, key.length);
+        for (int i = 0; i < common; i++) {
+            int cmp = Byte.compareUnsigned(barcodeArena.get(start + i), key[i]);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return Integer.compare(length, key.length);
+    }
+
+    private String name(int index) {
+        int start = nameOffsets.get(index);
+        byte[] bytes = new byte[nameOffsets.get(index + 1) - start];
+        nameArena.get(start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,193 @@
+package ru.otus.prof.retail.services.product.catalog;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+//Сборка снимка каталога за один проход по потокам товаров и штрих-кодов.
+//Пока идет чтение, данные копятся во временных примитивных массивах в куче; build() сортирует
+//штрих-коды по байтам и переносит все в direct-буферы, после чего временные массивы уходят в мусор
+public final class CatalogSnapshotBuilder {
+
+    private static final int INSERTION_SORT_THRESHOLD = 16;
+
+    private byte[] barcodeBytes = new byte[1024];
+    private int barcodeBytesSize;
+    private int[] barcodeStarts = new int[64];
+    private long[] barcodeArticles = new long[64];
+    private int barcodeCount;
+
+    private byte[] nameBytes = new byte[1024];
+    private int nameBytesSize;
+    private int[] nameStarts = new int[64];
+    private long[] articles = new long[64];
+    private long[] prices = new long[64];
+    private int itemCount;
+
+    //товары должны идти строго по возрастанию артикула (ORDER BY в запросе)
+    public CatalogSnapshotBuilder addItem(long article, String name, Long price) {
+        if (itemCount > 0 && articles[itemCount - 1] >= article) {
+            throw new IllegalArgumentException("Артикулы снимка каталога должны идти по возрастанию: "
+                    + articles[itemCount - 1] + " -> " + article);
+        }
+        if (itemCount == articles.length) {
+            int capacity = grow(itemCount);
+            articles = Arrays.copyOf(articles, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+            nameStarts = Arrays.copyOf(nameStarts, capacity);
+        }
+        byte[] bytes = name == null ? new byte[0] : name.getBytes(StandardCharsets.UTF_8);
+        nameStarts[itemCount] = nameBytesSize;
+        nameBytes = append(nameBytes, nameBytesSize, bytes);
+        nameBytesSize += bytes.length;
+        articles[itemCount] = article;
+        prices[itemCount] = price == null ? CatalogSnapshot.NO_PRICE : price;
+        itemCount++;
+        return this;
+    }
+
+    //штрих-коды принимаются в любом порядке
+    public CatalogSnapshotBuilder addBarcode(String barcode, long article) {
+        if (barcodeCount == barcodeStarts.length) {
+            int capacity = grow(barcodeCount);
+            barcodeStarts = Arrays.copyOf(barcodeStarts, capacity);
+            barcodeArticles = Arrays.copyOf(barcodeArticles, capacity);
+        }
+        byte[] bytes = barcode.getBytes(StandardCharsets.UTF_8);
+        barcodeStarts[barcodeCount] = barcodeBytesSize;
+        barcodeBytes = append(barcodeBytes, barcodeBytesSize, bytes);
+        barcodeBytesSize += bytes.length;
+        barcodeArticles[barcodeCount] = article;
+        barcodeCount++;
+        return this;
+    }
+
+    public CatalogSnapshot build() {
+        return build(LocalDateTime.now());
+    }
+
+    CatalogSnapshot build(LocalDateTime builtAt) {
+        int[] order = new int[barcodeCount];
+        for (int i = 0; i < barcodeCount; i++) {
+            order[i] = i;
+        }
+        sort(order, 0, barcodeCount);
+
+        ByteBuffer barcodeArena = allocate(barcodeBytesSize);
+        IntBuffer barcodeOffsets = allocate((barcodeCount + 1) * Integer.BYTES).asIntBuffer();
+        LongBuffer sortedArticles = allocate(barcodeCount * Long.BYTES).asLongBuffer();
+        int position = 0;
+        for (int i = 0; i < barcodeCount; i++) {
+            int barcode = order[i];
+            int length = barcodeLength(barcode);
+            barcodeArena.put(position, barcodeBytes, barcodeStarts[barcode], length);
+            barcodeOffsets.put(i, position);
+            sortedArticles.put(i, barcodeArticles[barcode]);
+            position += length;
+        }
+        barcodeOffsets.put(barcodeCount, position);
+
+        LongBuffer itemArticles = allocate(itemCount * Long.BYTES).asLongBuffer().put(articles, 0, itemCount);
+        LongBuffer itemPrices = allocate(itemCount * Long.BYTES).asLongBuffer().put(prices, 0, itemCount);
+        ByteBuffer nameArena = allocate(nameBytesSize).put(nameBytes, 0, nameBytesSize);
+        IntBuffer nameOffsets = allocate((itemCount + 1) * Integer.BYTES).asIntBuffer()
+                .put(nameStarts, 0, itemCount)
+                .put(nameBytesSize);
+
+        return new CatalogSnapshot(barcodeArena, barcodeOffsets, sortedArticles, barcodeCount,
+                itemArticles, itemPrices, nameArena, nameOffsets, itemCount, builtAt);
+    }
+
+    private static ByteBuffer allocate(int bytes) {
+        return ByteBuffer.allocateDirect(bytes).order(ByteOrder.nativeOrder());
+    }
+
+    private static int grow(int size) {
+        int capacity = size + (size >> 1);
+        if (capacity < 0 || capacity > Integer.MAX_VALUE / Long.BYTES) {
+            throw new IllegalStateException("Каталог слишком велик для снимка: " + size + " записей");
+        }
+        return capacity;
+    }
+
+    private static byte[] append(byte[] target, int size, byte[] bytes) {
+        if (bytes.length > Integer.MAX_VALUE - 8 - size) {
+            throw new IllegalStateException("Каталог слишком велик для снимка: арена больше 2 ГБ");
+        }
+        if (size + bytes.length > target.length) {
+            target = Arrays.copyOf(target, Math.max(size + bytes.length, (int) Math.min(Integer.MAX_VALUE - 8, target.length * 2L)));
+        }
+        System.arraycopy(bytes, 0, target, size, bytes.length);
+        return target;
+    }
+
+    private int barcodeLength(int barcode) {
+        int end = barcode + 1 < barcodeCount ? barcodeStarts[barcode + 1] : barcodeBytesSize;
+        return end - barcodeStarts[barcode];
+    }
+
+    private int compare(int left, int right) {
+        return Arrays.compareUnsigned(
+                barcodeBytes, barcodeStarts[left], barcodeStarts[left] + barcodeLength(left),
+                barcodeBytes, barcodeStarts[right], barcodeStarts[right] + barcodeLength(right));
+    }
+
+    //быстрая сортировка номеров штрих-кодов без упаковки в Integer; рекурсия только в меньшую часть
+    private void sort(int[] order, int from, int to) {
+        while (to - from > INSERTION_SORT_THRESHOLD) {
+            int pivot = medianOfThree(order[from], order[(from + to) >>> 1], order[to - 1]);
+            int i = from;
+            int j = to - 1;
+            while (i <= j) {
+                while (compare(order[i], pivot) < 0) {
+                    i++;
+                }
+                while (compare(order[j], pivot) > 0) {
+                    j--;
+                }
+                if (i <= j) {
+                    int tmp = order[i];
+                    order[i] = order[j];
+                    order[j] = tmp;
+                    i++;
+                    j--;
+                }
+            }
+            if (j + 1 - from < to - i) {
+                sort(order, from, j + 1);
+                from = i;
+            } else {
+                sort(order, i, to);
+                to = j + 1;
+            }
+        }
+        for (int i = from + 1; i < to; i++) {
+            int current = order[i];
+            int j = i - 1;
+            while (j >= from && compare(order[j], current) > 0) {
+                order[j + 1] = order[j];
+                j--;
+            }
+            order[j + 1] = current;
+        }
+    }
+
+    private int medianOfThree(int a, int b, int c) {
+        if (compare(a, b) > 0) {
+            int tmp = a;
+            a = b;
+            b = tmp;
+        }
+        if (compare(b, c) > 0) {
+            b = c;
+            if (compare(a, b) > 0) {
+                b = a;
+            }
+        }
+        return b;
+    }
+}
\ No newline at end of file
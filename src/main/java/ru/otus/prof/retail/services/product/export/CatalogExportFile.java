@@ -0,0 +1,9 @@
+package ru.otus.prof.retail.services.product.export;
+
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+//Готовый файл выгрузки каталога; файл не меняется, новая выгрузка пишется в новый файл
+public record CatalogExportFile(Path path, long catalogVersion, int items, long size, String etag,
+                                LocalDateTime createdAt, long buildMs) {
+}
\ No newline at end of file
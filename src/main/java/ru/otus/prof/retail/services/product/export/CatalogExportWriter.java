@@ -0,0 +1,118 @@
+package ru.otus.prof.retail.services.product.export;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Запись бинарного каталога для начальной загрузки кассы. Формат (внутри gzip), числа - varint без знака:
+//  магия "RCAT", версия формата (1 байт), версия каталога, количество слов словаря,
+//  слова: длина + UTF-8, количество товаров, записи товаров: длина записи + тело.
+//Тело записи: разность артикула с предыдущим, цена + 1 (0 - цена не задана),
+//  количество слов названия + номера слов в словаре, количество штрих-кодов + (длина + UTF-8).
+//Название делится по пробелам и собирается обратно через один пробел, поэтому восстанавливается точно.
+//Длина записи позволяет старой кассе пропускать поля, добавленные в новых версиях формата.
+//Словарь известен только после всех записей, поэтому записи сначала пишутся во временный файл
+public final class CatalogExportWriter implements Closeable {
+
+    public static final byte[] MAGIC = {'R', 'C', 'A', 'T'};
+    public static final int FORMAT_VERSION = 1;
+
+    private final Path recordsFile;
+    private final OutputStream records;
+    private final ByteArrayOutputStream record = new ByteArrayOutputStream(256);
+    private final Map<String, Integer> wordIds = new HashMap<>();
+    private final List<String> words = new ArrayList<>();
+    private long previousArticle;
+    private int itemCount;
+
+    public CatalogExportWriter(Path recordsFile) throws IOException {
+        this.recordsFile = recordsFile;
+        this.records = new BufferedOutputStream(Files.newOutputStream(recordsFile), 1 << 16);
+    }
+
+    //товары должны идти по возрастанию артикула
+    public void writeItem(long article, String name, Long price, List<String> barcodes) throws IOException {
+        if (itemCount > 0 && article <= previousArticle) {
+            throw new IllegalArgumentException("Артикулы выгрузки каталога должны идти по возрастанию: "
+                    + previousArticle + " -> " + article);
+        }
+        if (price != null && price < 0) {
+            throw new IllegalArgumentException("Отрицательная цена товара " + article + ": " + price);
+        }
+        record.reset();
+        writeVarint(record, article - previousArticle);
+        writeVarint(record, price == null ? 0 : price + 1);
+
+        String[] nameWords = name == null ? new String[0] : name.split(" ", -1);
+        writeVarint(record, nameWords.length);
+        for (String word : nameWords) {
+            writeVarint(record, wordId(word));
+        }
+
+        writeVarint(record, barcodes.size());
+        for (String barcode : barcodes) {
+            writeString(record, barcode);
+        }
+
+        writeVarint(records, record.size());
+        record.writeTo(records);
+        previousArticle = article;
+        itemCount++;
+    }
+
+    //заголовок и словарь, затем записи из временного файла
+    public void finish(OutputStream target, long catalogVersion) throws IOException {
+        records.flush();
+        target.write(MAGIC);
+        target.write(FORMAT_VERSION);
+        writeVarint(target, catalogVersion);
+        writeVarint(target, words.size());
+        for (String word : words) {
+            writeString(target, word);
+        }
+        writeVarint(target, itemCount);
+        Files.copy(recordsFile, target);
+    }
+
+    public int getItemCount() {
+        return itemCount;
+    }
+
+    public int getDictionarySize() {
+        return words.size();
+    }
+
+    @Override
+    public void close() throws IOException {
+        records.close();
+    }
+
+    private int wordId(String word) {
+        Integer id = wordIds.get(word);
+        if (id == null) {
+            id = words.size();
+            wordIds.put(word, id);
+            words.add(word);
+        }
+        return id;
+    }
+
+    private static void writeString(OutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarint(out, bytes.length);
+        out.write(bytes);
+    }
+
+    static void writeVarint(OutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+}
\ No newline at end of file
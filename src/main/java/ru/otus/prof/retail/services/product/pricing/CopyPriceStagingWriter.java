@@ -0,0 +1,58 @@
+package ru.otus.prof.retail.services.product.pricing;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+
+//Быстрый путь для PostgreSQL: порция уходит в price_stage через COPY ... FROM STDIN (CSV)
+public class CopyPriceStagingWriter implements PriceStagingWriter {
+
+    private static final String COPY_STAGE = "COPY price_stage (article, price) FROM STDIN WITH (FORMAT csv)";
+
+    //размер буфера, после которого строки отправляются в поток COPY
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    public static boolean supports(Connection connection) throws SQLException {
+        return connection.isWrapperFor(PGConnection.class);
+    }
+
+    @Override
+    public String getMode() {
+        return "copy";
+    }
+
+    @Override
+    public void write(Connection connection, long[] articles, long[] prices, int count) throws SQLException {
+        if (count == 0) {
+            return;
+        }
+        CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_STAGE);
+        try {
+            StringBuilder csv = new StringBuilder(FLUSH_THRESHOLD + 64);
+            for (int i = 0; i < count; i++) {
+                csv.append(articles[i]).append(',').append(prices[i]).append('\n');
+                if (csv.length() >= FLUSH_THRESHOLD) {
+                    send(copyIn, csv);
+                }
+            }
+            send(copyIn, csv);
+            copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void send(CopyIn copyIn, StringBuilder csv) throws SQLException {
+        if (csv.length() == 0) {
+            return;
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.US_ASCII);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        csv.setLength(0);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,41 @@
+package ru.otus.prof.retail.services.product.pricing;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+
+//Запасной путь для баз без COPY (H2 в тестовом профиле): пакетные INSERT в price_stage через JDBC
+public class JdbcBatchPriceStagingWriter implements PriceStagingWriter {
+
+    private static final String INSERT_STAGE = "INSERT INTO price_stage (article, price) VALUES (?, ?)";
+
+    private final int jdbcBatchSize;
+
+    public JdbcBatchPriceStagingWriter(int jdbcBatchSize) {
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    @Override
+    public String getMode() {
+        return "jdbc-batch";
+    }
+
+    @Override
+    public void write(Connection connection, long[] articles, long[] prices, int count) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_STAGE)) {
+            int pending = 0;
+            for (int i = 0; i < count; i++) {
+                statement.setLong(1, articles[i]);
+                statement.setLong(2, prices[i]);
+                statement.addBatch();
+                if (++pending >= jdbcBatchSize) {
+                    statement.executeBatch();
+                    pending = 0;
+                }
+            }
+            if (pending > 0) {
+                statement.executeBatch();
+            }
+        }
+    }
+}
\ No newline at end of file
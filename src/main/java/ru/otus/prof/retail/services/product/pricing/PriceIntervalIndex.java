@@ -0,0 +1,105 @@
+package ru.otus.prof.retail.services.product.pricing;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+
+//Неизменяемый индекс интервалов цен, действующих в окне [windowFrom, windowTo) - обычно текущие сутки.
+//Артикулы хранятся отсортированными в long[], интервалы товара лежат подряд в порядке выбора цены:
+//начавшиеся позже - первыми, при равенстве - добавленные последними. Цена на момент - первый интервал
+//товара, покрывающий момент; границы интервалов хранятся в миллисекундах, бессрочная - Long.MAX_VALUE
+public final class PriceIntervalIndex {
+
+    static final long OPEN_END = Long.MAX_VALUE;
+
+    private final LocalDateTime windowFrom;
+    private final LocalDateTime windowTo;
+    private final long[] articles;
+    private final int[] offsets;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] prices;
+    private final LocalDateTime builtAt;
+
+    PriceIntervalIndex(LocalDateTime windowFrom, LocalDateTime windowTo, long[] articles, int[] offsets,
+                       long[] starts, long[] ends, long[] prices, LocalDateTime builtAt) {
+        this.windowFrom = windowFrom;
+        this.windowTo = windowTo;
+        this.articles = articles;
+        this.offsets = offsets;
+        this.starts = starts;
+        this.ends = ends;
+        this.prices = prices;
+        this.builtAt = builtAt;
+    }
+
+    //пустой индекс не покрывает ни одного момента
+    public static PriceIntervalIndex empty() {
+        LocalDateTime epoch = LocalDateTime.of(1970, 1, 1, 0, 0);
+        return new PriceIntervalIndex(epoch, epoch, new long[0], new int[]{0}, new long[0], new long[0], new long[0], epoch);
+    }
+
+    public boolean covers(LocalDateTime at) {
+        return !windowFrom.isAfter(at) && windowTo.isAfter(at);
+    }
+
+    //позиция интервала, действующего на момент at, или -1: товара нет или цены на момент нет
+    public int find(long article, LocalDateTime at) {
+        return find(article, toMillis(at));
+    }
+
+    //момент в миллисекундах toMillis - для проверки многих товаров на один момент
+    public int find(long article, long time) {
+        int position = Arrays.binarySearch(articles, article);
+        if (position < 0) {
+            return -1;
+        }
+        for (int i = offsets[position]; i < offsets[position + 1]; i++) {
+            if (starts[i] <= time && time < ends[i]) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    public long getPrice(int position) {
+        return prices[position];
+    }
+
+    public LocalDateTime getEffectiveFrom(int position) {
+        return fromMillis(starts[position]);
+    }
+
+    public LocalDateTime getEffectiveTo(int position) {
+        return ends[position] == OPEN_END ? null : fromMillis(ends[position]);
+    }
+
+    public int getArticleCount() {
+        return articles.length;
+    }
+
+    public int getIntervalCount() {
+        return prices.length;
+    }
+
+    public LocalDateTime getWindowFrom() {
+        return windowFrom;
+    }
+
+    public LocalDateTime getWindowTo() {
+        return windowTo;
+    }
+
+    public LocalDateTime getBuiltAt() {
+        return builtAt;
+    }
+
+    //локальное время кодируется как UTC только для сравнения, часовой пояс не учитывается
+    public static long toMillis(LocalDateTime time) {
+        return time.toInstant(ZoneOffset.UTC).toEpochMilli();
+    }
+
+    static LocalDateTime fromMillis(long millis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(millis, 1000), (int) Math.floorMod(millis, 1000) * 1_000_000, ZoneOffset.UTC);
+    }
+}
\ No newline at end of file
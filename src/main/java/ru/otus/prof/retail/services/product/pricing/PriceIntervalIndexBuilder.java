@@ -0,0 +1,84 @@
+package ru.otus.prof.retail.services.product.pricing;
+
+import ru.otus.prof.retail.repositories.product.PriceInterval;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+
+//Сборка индекса интервалов цен за один проход по потоку, упорядоченному по артикулу,
+//затем по началу действия и id по убыванию (ORDER BY в запросе) - сортировка не нужна
+public final class PriceIntervalIndexBuilder {
+
+    private final LocalDateTime windowFrom;
+    private final LocalDateTime windowTo;
+
+    private long[] articles = new long[64];
+    private int[] offsets = new int[65];
+    private int articleCount;
+
+    private long[] starts = new long[64];
+    private long[] ends = new long[64];
+    private long[] prices = new long[64];
+    private int intervalCount;
+
+    private long lastArticle;
+    private long lastStart;
+
+    public PriceIntervalIndexBuilder(LocalDateTime windowFrom, LocalDateTime windowTo) {
+        this.windowFrom = windowFrom;
+        this.windowTo = windowTo;
+    }
+
+    public PriceIntervalIndexBuilder add(PriceInterval interval) {
+        long article = interval.article();
+        long start = PriceIntervalIndex.toMillis(interval.effectiveFrom());
+        boolean newArticle = articleCount == 0 || article != lastArticle;
+        if (!newArticle && start > lastStart) {
+            throw new IllegalArgumentException("Интервалы цен товара " + article + " должны идти по убыванию начала действия");
+        }
+        if (newArticle) {
+            if (articleCount > 0 && article < lastArticle) {
+                throw new IllegalArgumentException("Артикулы индекса цен должны идти по возрастанию: "
+                        + lastArticle + " -> " + article);
+            }
+            if (articleCount == articles.length) {
+                articles = Arrays.copyOf(articles, grow(articleCount));
+                offsets = Arrays.copyOf(offsets, articles.length + 1);
+            }
+            articles[articleCount] = article;
+            offsets[articleCount] = intervalCount;
+            articleCount++;
+            lastArticle = article;
+        }
+        if (intervalCount == prices.length) {
+            int capacity = grow(intervalCount);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            prices = Arrays.copyOf(prices, capacity);
+        }
+        starts[intervalCount] = start;
+        ends[intervalCount] = interval.effectiveTo() == null
+                ? PriceIntervalIndex.OPEN_END : PriceIntervalIndex.toMillis(interval.effectiveTo());
+        prices[intervalCount] = interval.price();
+        intervalCount++;
+        lastStart = start;
+        return this;
+    }
+
+    public PriceIntervalIndex build() {
+        return build(LocalDateTime.now());
+    }
+
+    PriceIntervalIndex build(LocalDateTime builtAt) {
+        int[] builtOffsets = Arrays.copyOf(offsets, articleCount + 1);
+        builtOffsets[articleCount] = intervalCount;
+        return new PriceIntervalIndex(windowFrom, windowTo,
+                Arrays.copyOf(articles, articleCount), builtOffsets,
+                Arrays.copyOf(starts, intervalCount), Arrays.copyOf(ends, intervalCount),
+                Arrays.copyOf(prices, intervalCount), builtAt);
+    }
+
+    private static int grow(int size) {
+        return size + (size >> 1) + 16;
+    }
+}
\ No newline at end of file
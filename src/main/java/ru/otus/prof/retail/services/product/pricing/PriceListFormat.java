@@ -0,0 +1,8 @@
+package ru.otus.prof.retail.services.product.pricing;
+
+//Формат загружаемого прайс-листа: CSV "article,price" (разделитель - запятая или точка с запятой,
+//строка заголовка допускается) либо NDJSON {"article":..,"price":..} по одной цене на строку
+public enum PriceListFormat {
+    CSV,
+    NDJSON
+}
\ No newline at end of file
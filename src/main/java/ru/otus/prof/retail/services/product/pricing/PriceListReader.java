@@ -0,0 +1,131 @@
+package ru.otus.prof.retail.services.product.pricing;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.otus.prof.retail.exception.product.PriceValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Objects;
+
+//Потоковое чтение прайс-листа порциями в примитивные массивы: на миллион строк не создается
+//ни одного объекта на цену. Пустые строки пропускаются, первая строка CSV может быть заголовком
+public class PriceListReader {
+
+    private final BufferedReader reader;
+    private final PriceListFormat format;
+    private final ObjectMapper objectMapper;
+    private long lineNumber;
+    private long rows;
+
+    public PriceListReader(InputStream body, PriceListFormat format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(body), StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    //заполняет массивы с начала, возвращает количество прочитанных строк; 0 - поток закончился
+    public int read(long[] articles, long[] prices) {
+        int count = 0;
+        try {
+            while (count < articles.length) {
+                String line = reader.readLine();
+                if (line == null) {
+                    break;
+                }
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                if (format == PriceListFormat.CSV) {
+                    if (lineNumber == 1 && isHeader(line)) {
+                        continue;
+                    }
+                    parseCsv(line, articles, prices, count);
+                } else {
+                    parseJson(line, articles, prices, count);
+                }
+                count++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения прайс-листа", e);
+        }
+        rows += count;
+        return count;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    private void parseCsv(String line, long[] articles, long[] prices, int index) {
+        int separator = line.indexOf(',');
+        if (separator < 0) {
+            separator = line.indexOf(';');
+        }
+        if (separator < 0) {
+            throw invalid("ожидается article,price");
+        }
+        articles[index] = parseArticle(line.substring(0, separator).trim());
+        prices[index] = parsePrice(line.substring(separator + 1).trim());
+    }
+
+    private void parseJson(String line, long[] articles, long[] prices, int index) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(line);
+        } catch (IOException e) {
+            throw invalid("неверный JSON");
+        }
+        JsonNode article = node.get("article");
+        JsonNode price = node.get("price");
+        if (article == null || !article.canConvertToExactIntegral() || price == null || !price.canConvertToExactIntegral()) {
+            throw invalid("ожидается {\"article\":..,\"price\":..}");
+        }
+        articles[index] = checkArticle(article.asLong());
+        prices[index] = checkPrice(price.asLong());
+    }
+
+    private long parseArticle(String value) {
+        try {
+            return checkArticle(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            throw invalid("неверный артикул '" + value + "'");
+        }
+    }
+
+    private long parsePrice(String value) {
+        try {
+            return checkPrice(Long.parseLong(value));
+        } catch (NumberFormatException e) {
+            throw invalid("неверная цена '" + value + "'");
+        }
+    }
+
+    private long checkArticle(long article) {
+        if (article <= 0) {
+            throw invalid("артикул должен быть положительным");
+        }
+        return article;
+    }
+
+    private long checkPrice(long price) {
+        if (price < 0) {
+            throw invalid("цена не может быть отрицательной");
+        }
+        return price;
+    }
+
+    private PriceValidationException invalid(String reason) {
+        return new PriceValidationException(String.format("Неверная строка прайс-листа %d: %s", lineNumber, reason));
+    }
+
+    private static boolean isHeader(String line) {
+        String trimmed = line.trim();
+        return !trimmed.isEmpty() && !Character.isDigit(trimmed.charAt(0));
+    }
+}
\ No newline at end of file
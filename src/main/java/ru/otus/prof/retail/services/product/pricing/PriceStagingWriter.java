@@ -0,0 +1,12 @@
+package ru.otus.prof.retail.services.product.pricing;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+//Запись порции прайс-листа во временную таблицу price_stage в рамках транзакции переданного соединения
+public interface PriceStagingWriter {
+
+    String getMode();
+
+    void write(Connection connection, long[] articles, long[] prices, int count) throws SQLException;
+}
\ No newline at end of file
@@ -0,0 +1,24 @@
+package ru.otus.prof.retail.services.purchases;
+
+import jakarta.validation.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.otus.prof.retail.exception.purchases.ShiftNotFoundException;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+
+//Разбор ошибок фоновой загрузки (спул, события касс): ошибка данных не исправится повтором -
+//запись откладывается в сторону, остальные ошибки (БД недоступна, таймаут) повторяются
+public final class IngestErrors {
+
+    private IngestErrors() {
+    }
+
+    public static boolean isDataError(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ShiftValidationException || cause instanceof ShiftNotFoundException
+                    || cause instanceof ConstraintViolationException || cause instanceof DataIntegrityViolationException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
\ No newline at end of file
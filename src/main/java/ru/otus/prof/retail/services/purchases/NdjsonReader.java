@@ -0,0 +1,59 @@
+package ru.otus.prof.retail.services.purchases;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+//Построчное чтение NDJSON без буферизации всего тела; пустые строки пропускаются
+public class NdjsonReader {
+    private final BufferedReader reader;
+    private final ObjectMapper objectMapper;
+    private String nextLine;
+    private long lineNumber;
+
+    public NdjsonReader(InputStream body, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(Objects.requireNonNull(body), StandardCharsets.UTF_8));
+        this.objectMapper = objectMapper;
+    }
+
+    public boolean hasNext() {
+        try {
+            while (nextLine == null) {
+                String line = reader.readLine();
+                if (line == null) {
+                    return false;
+                }
+                lineNumber++;
+                if (!line.isBlank()) {
+                    nextLine = line;
+                }
+            }
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения потока", e);
+        }
+    }
+
+    public <T> T read(Class<T> type) {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        String line = nextLine;
+        nextLine = null;
+        try {
+            return objectMapper.readValue(line, type);
+        } catch (JsonProcessingException e) {
+            throw new ShiftValidationException(String.format("Неверный формат записи в строке %d: %s",
+                    lineNumber, e.getOriginalMessage()));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package ru.otus.prof.retail.services.purchases;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+//Обслуживание месячных партиций shift/purchase/position (только PostgreSQL, см. 0008-partition-sales-tables):
+//заранее создает партиции на retail.partitions.months-ahead месяцев вперед, чтобы новые продажи
+//не попадали в DEFAULT, и отсоединяет в схему archive партиции старше retail.partitions.retention-months
+@Component
+@ConditionalOnProperty(name = "retail.partitions.enabled", havingValue = "true")
+public class PartitionMaintenanceJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(PartitionMaintenanceJob.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int monthsAhead;
+    private final int retentionMonths;
+
+    public PartitionMaintenanceJob(JdbcTemplate jdbcTemplate,
+                                   @Value("${retail.partitions.months-ahead:3}") int monthsAhead,
+                                   @Value("${retail.partitions.retention-months:0}") int retentionMonths) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.monthsAhead = monthsAhead;
+        this.retentionMonths = retentionMonths;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${retail.partitions.cron:0 0 3 * * *}")
+    public void maintain() {
+        try {
+            createFuturePartitions(LocalDate.now());
+            archiveOldPartitions(LocalDate.now());
+        } catch (Exception e) {
+            logger.error("Ошибка обслуживания партиций продаж: {}", e.getMessage(), e);
+        }
+    }
+
+    public int createFuturePartitions(LocalDate today) {
+        Integer created = jdbcTemplate.queryForObject("SELECT retail_ensure_sales_partitions(?, ?)", Integer.class,
+                today, today.plusMonths(monthsAhead));
+        logger.info("Создано партиций продаж: {} (на {} мес. вперед)", created, monthsAhead);
+        return created == null ? 0 : created;
+    }
+
+    //retention-months = 0 - архивация выключена
+    public int archiveOldPartitions(LocalDate today) {
+        if (retentionMonths <= 0) {
+            return 0;
+        }
+        LocalDate before = today.withDayOfMonth(1).minusMonths(retentionMonths);
+        Integer archived = jdbcTemplate.queryForObject("SELECT retail_archive_sales_partitions(?)", Integer.class, before);
+        logger.info("Перенесено в архив партиций продаж за месяцы до {}: {}", before, archived);
+        return archived == null ? 0 : archived;
+    }
+}
\ No newline at end of file
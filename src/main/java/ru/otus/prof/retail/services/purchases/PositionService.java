@@ -11,6 +11,7 @@ import ru.otus.prof.retail.exception.purchases.PurchaseNotFoundException;
 import ru.otus.prof.retail.mappers.purchases.PositionMapper;
 import ru.otus.prof.retail.repositories.purchases.PositionRepository;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -21,6 +22,8 @@ import java.util.stream.Collectors;
 public class PositionService {
 
     private static final Logger logger = LoggerFactory.getLogger(PositionService.class);
+    //ограничение длины IN-списка: у PostgreSQL лимит 32767 параметров на запрос
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
 
     private final PositionRepository positionRepository;
     private final PositionMapper positionMapper;
@@ -71,16 +74,16 @@ public class PositionService {
             throw new IllegalArgumentException("Нет валидных ID чеков в запросе");
         }
 
+        //один запрос на порцию id вместо запроса на каждый чек
         Map<Long, List<PositionDTO>> result = new HashMap<>();
-
-        for (Long purchaseId : validIds) {
-            try {
-                List<PositionDTO> positions = getPositionsByPurchaseId(purchaseId);
-                result.put(purchaseId, positions);
-            } catch (PurchaseNotFoundException e) {
-                logger.warn("Позиции для чека {} не найдены: {}", purchaseId, e.getMessage());
+        for (int from = 0; from < validIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = validIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, validIds.size()));
+            for (Position position : positionRepository.findByPurchase_IdIn(chunk)) {
+                result.computeIfAbsent(position.getPurchase().getId(), id -> new ArrayList<>())
+                        .add(positionMapper.toDTO(position));
             }
         }
+        logger.debug("Позиции найдены для {} из {} чеков", result.size(), validIds.size());
 
         if (result.isEmpty()) {
             logger.warn("Не найдено позиций ни для одного из запрошенных чеков");
@@ -0,0 +1,74 @@
+package ru.otus.prof.retail.services.purchases;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.repositories.purchases.PurchaseRepository;
+import ru.otus.prof.retail.services.purchases.dedup.PurchaseDeduplicator;
+import ru.otus.prof.retail.services.reports.DailySalesAccumulator;
+
+import java.util.List;
+
+//Пишет чеки порциями по batch-size: после каждой порции flush + clear, чтобы Hibernate отправил
+//вставки пачками (hibernate.jdbc.batch_size) и контекст персистентности не рос вместе с объемом загрузки.
+//Повторно переданные чеки отсеиваются до записи (PurchaseDeduplicator).
+//Перед очисткой контекста позиции порции сверяются с каталогом (ReceiptValidationService).
+//Вызывается только внутри транзакции.
+@Component
+public class PurchaseBatchWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseBatchWriter.class);
+
+    private final PurchaseRepository purchaseRepository;
+    private final ReceiptValidationService receiptValidationService;
+    private final PurchaseDeduplicator purchaseDeduplicator;
+    private final int batchSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public PurchaseBatchWriter(PurchaseRepository purchaseRepository,
+                               ReceiptValidationService receiptValidationService,
+                               PurchaseDeduplicator purchaseDeduplicator,
+                               @Value("${retail.ingest.batch-size:1000}") int batchSize) {
+        this.purchaseRepository = purchaseRepository;
+        this.receiptValidationService = receiptValidationService;
+        this.purchaseDeduplicator = purchaseDeduplicator;
+        this.batchSize = batchSize;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    //повторно переданные чеки отбрасываются, сохраненные добавляются в свертку rollup
+    public PurchaseWriteResult write(List<Purchase> purchases, DailySalesAccumulator rollup) {
+        int written = 0;
+        int positions = 0;
+        for (int from = 0; from < purchases.size(); from += batchSize) {
+            List<Purchase> chunk = purchaseDeduplicator.dedupe(
+                    purchases.subList(from, Math.min(from + batchSize, purchases.size())));
+            if (chunk.isEmpty()) {
+                continue;
+            }
+            long started = System.nanoTime();
+            purchaseRepository.saveAll(chunk);
+            entityManager.flush();
+            //ID чеков и позиций уже назначены, бюджет проверки считается от времени записи порции
+            receiptValidationService.validate(chunk, System.nanoTime() - started);
+            entityManager.clear();
+
+            for (Purchase purchase : chunk) {
+                rollup.add(purchase);
+                positions += purchase.getPositions().size();
+            }
+            written += chunk.size();
+            logger.debug("Сохранена порция из {} чеков ({} из {})", chunk.size(), from + chunk.size(), purchases.size());
+        }
+        return new PurchaseWriteResult(written, positions, purchases.size() - written);
+    }
+}
\ No newline at end of file
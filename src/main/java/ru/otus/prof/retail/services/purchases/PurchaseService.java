@@ -5,30 +5,53 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.PurchaseBatchResultDTO;
 import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
 import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.entities.purchases.Shift;
 import ru.otus.prof.retail.exception.purchases.PurchaseNotFoundException;
+import ru.otus.prof.retail.exception.purchases.ShiftNotFoundException;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
 import ru.otus.prof.retail.mappers.purchases.PurchaseMapper;
 import ru.otus.prof.retail.repositories.purchases.PurchaseRepository;
+import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
+import ru.otus.prof.retail.services.reports.DailySalesAccumulator;
+import ru.otus.prof.retail.services.reports.DailySalesRollupService;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 @Service
 public class PurchaseService {
 
     private static final Logger logger = LoggerFactory.getLogger(PurchaseService.class);
+    //ограничение длины IN-списка: у PostgreSQL лимит 32767 параметров на запрос
+    private static final int IN_CLAUSE_CHUNK_SIZE = 1000;
 
     private final PurchaseRepository purchaseRepository;
     private final PurchaseMapper purchaseMapper;
+    private final ShiftRepository shiftRepository;
+    private final PurchaseBatchWriter purchaseBatchWriter;
+    private final DailySalesRollupService rollupService;
 
     @Autowired
-    public PurchaseService(PurchaseRepository purchaseRepository,PurchaseMapper purchaseMapper) {
+    public PurchaseService(PurchaseRepository purchaseRepository, PurchaseMapper purchaseMapper,
+                           ShiftRepository shiftRepository, PurchaseBatchWriter purchaseBatchWriter,
+                           DailySalesRollupService rollupService) {
         this.purchaseRepository = purchaseRepository;
         this.purchaseMapper = purchaseMapper;
+        this.shiftRepository = shiftRepository;
+        this.purchaseBatchWriter = purchaseBatchWriter;
+        this.rollupService = rollupService;
     }
 
     public List<PurchaseDTO> getPurchaseByShiftId(Long shiftId) {
@@ -85,16 +108,21 @@ public class PurchaseService {
             throw new IllegalArgumentException("Список ID смен не может быть пустым");
         }
 
-        Map<Long, List<PurchaseDTO>> result = new HashMap<>();
+        List<Long> ids = shiftIds.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
 
-        for (Long shiftId : shiftIds) {
-            try {
-                List<PurchaseDTO> purchases = getPurchaseByShiftId(shiftId);
-                result.put(shiftId, purchases);
-            } catch (PurchaseNotFoundException e) {
-                logger.warn("Чеки для смены {} не найдены: {}", shiftId, e.getMessage());
+        //один запрос на порцию id вместо запроса на каждую смену
+        Map<Long, List<PurchaseDTO>> result = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+            for (Purchase purchase : purchaseRepository.findPurchasesByShiftIds(chunk)) {
+                result.computeIfAbsent(purchase.getShift().getId(), id -> new ArrayList<>())
+                        .add(purchaseMapper.toDTO(purchase));
             }
         }
+        logger.debug("Чеки найдены для {} из {} смен", result.size(), ids.size());
 
         if (result.isEmpty()) {
             logger.warn("Не найдено чеков ни для одной из запрошенных смен");
@@ -104,4 +132,55 @@ public class PurchaseService {
         return result;
     }
 
+    @Transactional
+    public PurchaseBatchResultDTO createPurchases(List<InputPurchaseDTO> purchaseDTOs) {
+        logger.info("Пакетная загрузка чеков, количество: {}", purchaseDTOs.size());
+
+        if (purchaseDTOs.isEmpty()) {
+            logger.error("Передан пустой список чеков");
+            throw new IllegalArgumentException("Список чеков не может быть пустым");
+        }
+
+        //чеки дописываются в уже существующие смены, повтор пакета отсеивается только по номеру чека
+        List<Integer> unnumbered = IntStream.range(0, purchaseDTOs.size())
+                .filter(i -> purchaseDTOs.get(i).receiptNumber() == null)
+                .boxed()
+                .toList();
+        if (!unnumbered.isEmpty()) {
+            logger.error("Чеки без номера в пакете, позиции: {}", unnumbered);
+            throw new ShiftValidationException("Чеки без номера (receiptNumber) не принимаются в пакетной загрузке, позиции в пакете: "
+                    + unnumbered);
+        }
+
+        long start = System.nanoTime();
+
+        Set<Long> shiftIds = purchaseDTOs.stream()
+                .map(InputPurchaseDTO::shiftId)
+                .collect(Collectors.toSet());
+
+        Map<Long, Shift> shifts = shiftRepository.findAllById(shiftIds).stream()
+                .collect(Collectors.toMap(Shift::getId, Function.identity()));
+
+        List<Long> missingShifts = shiftIds.stream()
+                .filter(id -> !shifts.containsKey(id))
+                .toList();
+        if (!missingShifts.isEmpty()) {
+            logger.error("Не найдены смены с ID: {}", missingShifts);
+            throw new ShiftNotFoundException("Смены с ID " + missingShifts + " не найдены");
+        }
+
+        List<Purchase> purchases = purchaseDTOs.stream()
+                .map(dto -> purchaseMapper.toEntity(dto, shifts.get(dto.shiftId())))
+                .toList();
+
+        DailySalesAccumulator rollup = new DailySalesAccumulator();
+        PurchaseWriteResult written = purchaseBatchWriter.write(purchases, rollup);
+        rollupService.apply(rollup);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        logger.info("Загружено {} чеков и {} позиций за {} мс, пропущено повторов: {}",
+                written.purchases(), written.positions(), elapsedMs, written.duplicates());
+        return new PurchaseBatchResultDTO(written.purchases(), written.positions(), elapsedMs, written.duplicates());
+    }
+
 }
\ No newline at end of file
@@ -0,0 +1,5 @@
+package ru.otus.prof.retail.services.purchases;
+
+//Итог записи чеков: сохраненные чеки и их позиции, отброшенные повторы
+public record PurchaseWriteResult(int purchases, int positions, int duplicates) {
+}
\ No newline at end of file
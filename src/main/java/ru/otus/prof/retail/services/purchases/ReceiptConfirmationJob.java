@@ -0,0 +1,45 @@
+package ru.otus.prof.retail.services.purchases;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+//Фоновая сверка с БД подозрительных позиций, отложенных загрузкой сверх бюджета проверки:
+//каждые retail.receipt-validation.confirm-interval-ms порциями по confirm-batch позиций до опустошения очереди
+@Component
+@ConditionalOnProperty(name = "retail.receipt-validation.enabled", havingValue = "true", matchIfMissing = true)
+public class ReceiptConfirmationJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptConfirmationJob.class);
+
+    private final ReceiptValidationService receiptValidationService;
+    private final int batch;
+
+    public ReceiptConfirmationJob(ReceiptValidationService receiptValidationService,
+                                  @Value("${retail.receipt-validation.confirm-batch:1000}") int batch) {
+        this.receiptValidationService = receiptValidationService;
+        this.batch = batch;
+    }
+
+    @Scheduled(fixedDelayString = "${retail.receipt-validation.confirm-interval-ms:5000}")
+    public void confirm() {
+        try {
+            while (receiptValidationService.getDeferredSuspects() > 0) {
+                receiptValidationService.confirmDeferred(batch);
+            }
+        } catch (Exception e) {
+            //порция вернулась в очередь, сверка повторится следующим проходом
+            logger.error("Ошибка отложенной сверки чеков с каталогом: {}", e.getMessage(), e);
+        }
+    }
+
+    //очередь в памяти: перед остановкой сверяется остаток
+    @PreDestroy
+    public void drain() {
+        confirm();
+    }
+}
\ No newline at end of file
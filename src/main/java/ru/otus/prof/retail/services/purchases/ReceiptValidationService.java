@@ -0,0 +1,280 @@
+package ru.otus.prof.retail.services.purchases;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.otus.prof.retail.dto.purchases.QuarantinedPositionDTO;
+import ru.otus.prof.retail.dto.purchases.ReceiptValidationStatsDTO;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.repositories.product.BarcodeArticle;
+import ru.otus.prof.retail.repositories.product.BarcodeRepository;
+import ru.otus.prof.retail.repositories.product.CatalogEntry;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+import ru.otus.prof.retail.repositories.purchases.PositionQuarantineRepository;
+import ru.otus.prof.retail.services.product.CatalogSnapshotService;
+import ru.otus.prof.retail.services.product.PriceLookupService;
+import ru.otus.prof.retail.services.product.catalog.CatalogSnapshot;
+import ru.otus.prof.retail.services.product.pricing.PriceIntervalIndex;
+import ru.otus.prof.retail.services.purchases.validation.MismatchReason;
+import ru.otus.prof.retail.services.purchases.validation.PositionMismatch;
+import ru.otus.prof.retail.services.purchases.validation.ReceiptValidator;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Проверка позиций загружаемых чеков по каталогу. Чеки порции проверяются по снимку каталога и индексу цен
+//в памяти (ReceiptValidator), к БД обращаемся только за подтверждением подозрительных позиций - одним запросом
+//штрих-кодов и одним запросом товаров на порцию: снимок отстает от БД до следующей сборки.
+//Подтвержденные расхождения пишутся в position_quarantine, сами позиции сохраняются как есть.
+//По снимку в памяти проверяются все чеки всегда. Бюджет retail.receipt-validation.max-overhead-percent от времени
+//записи порции распространяется только на сверку с БД: если она по средней стоимости не укладывается в остаток
+//бюджета, подозрительные позиции после фиксации транзакции откладываются в очередь и сверяются фоновым проходом
+//(ReceiptConfirmationJob). Проверка в памяти сверх бюджета не сокращается, а отмечается предупреждением
+//и счетчиком overBudgetChunks; при бюджете 0 сверка всегда выполняется сразу
+@Service
+public class ReceiptValidationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReceiptValidationService.class);
+
+    private final CatalogSnapshotService catalogSnapshotService;
+    private final PriceLookupService priceLookupService;
+    private final BarcodeRepository barcodeRepository;
+    private final ItemRepository itemRepository;
+    private final PositionQuarantineRepository positionQuarantineRepository;
+    private final boolean enabled;
+    private final boolean checkNames;
+    private final int maxOverheadPercent;
+    private final int maxDeferred;
+
+    private final LongAdder receipts = new LongAdder();
+    private final LongAdder skippedReceipts = new LongAdder();
+    private final LongAdder overBudgetChunks = new LongAdder();
+    private final LongAdder positions = new LongAdder();
+    private final LongAdder suspects = new LongAdder();
+    private final LongAdder priceUnchecked = new LongAdder();
+    private final LongAdder validationNanos = new LongAdder();
+    private final LongAdder writeNanos = new LongAdder();
+    private final Map<MismatchReason, LongAdder> quarantined = new EnumMap<>(MismatchReason.class);
+    private final Queue<PositionMismatch> deferred = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger deferredSize = new AtomicInteger();
+    //средняя стоимость сверки одной подозрительной позиции с БД, для решения сверять сразу или отложить
+    private volatile long confirmNanosPerSuspect;
+
+    public ReceiptValidationService(CatalogSnapshotService catalogSnapshotService,
+                                    PriceLookupService priceLookupService,
+                                    BarcodeRepository barcodeRepository,
+                                    ItemRepository itemRepository,
+                                    PositionQuarantineRepository positionQuarantineRepository,
+                                    @Value("${retail.receipt-validation.enabled:true}") boolean enabled,
+                                    @Value("${retail.receipt-validation.check-names:true}") boolean checkNames,
+                                    @Value("${retail.receipt-validation.max-overhead-percent:10}") int maxOverheadPercent,
+                                    @Value("${retail.receipt-validation.max-deferred:100000}") int maxDeferred) {
+        this.catalogSnapshotService = catalogSnapshotService;
+        this.priceLookupService = priceLookupService;
+        this.barcodeRepository = barcodeRepository;
+        this.itemRepository = itemRepository;
+        this.positionQuarantineRepository = positionQuarantineRepository;
+        this.enabled = enabled;
+        this.checkNames = checkNames;
+        this.maxOverheadPercent = maxOverheadPercent;
+        this.maxDeferred = maxDeferred;
+        for (MismatchReason reason : MismatchReason.values()) {
+            quarantined.put(reason, new LongAdder());
+        }
+    }
+
+    //вызывается после flush порции, пока чеки и позиции имеют ID; writeNanos - время записи порции без проверки.
+    //Возвращает количество позиций, помещенных в карантин
+    public int validate(List<Purchase> purchases, long chunkWriteNanos) {
+        if (!enabled || purchases.isEmpty()) {
+            return 0;
+        }
+        writeNanos.add(chunkWriteNanos);
+        CatalogSnapshot snapshot = catalogSnapshotService.getSnapshot();
+        if (snapshot.getBuiltAt() == null) {
+            //снимок еще не собирался - сверять не с чем
+            skippedReceipts.add(purchases.size());
+            return 0;
+        }
+
+        long started = System.nanoTime();
+        PriceIntervalIndex priceIndex = priceLookupService.getIndex();
+        ReceiptValidator validator = new ReceiptValidator(snapshot, priceIndex, priceLookupService::isChanged, checkNames);
+        List<PositionMismatch> found = new ArrayList<>();
+        int checkedPositions = 0;
+        for (Purchase purchase : purchases) {
+            validator.validate(purchase, found);
+            checkedPositions += purchase.getPositions() == null ? 0 : purchase.getPositions().size();
+        }
+        long checkedNanos = System.nanoTime() - started;
+
+        receipts.add(purchases.size());
+        positions.add(checkedPositions);
+        suspects.add(found.size());
+        priceUnchecked.add(validator.getPriceUnchecked());
+        validationNanos.add(checkedNanos);
+
+        long budget = chunkWriteNanos * maxOverheadPercent / 100;
+        if (maxOverheadPercent > 0 && checkedNanos > budget) {
+            overBudgetChunks.increment();
+            logger.warn("Проверка чеков по каталогу вышла за бюджет {}%: {} из {} нс на {} чеков - " +
+                    "снимок каталога или индекс цен требуют внимания", maxOverheadPercent, checkedNanos, budget,
+                    purchases.size());
+        }
+        if (found.isEmpty()) {
+            return 0;
+        }
+        if (maxOverheadPercent > 0 && checkedNanos + found.size() * confirmNanosPerSuspect > budget && defer(found)) {
+            return 0;
+        }
+
+        long confirmStarted = System.nanoTime();
+        int confirmed = confirmAndQuarantine(found, priceIndex);
+        validationNanos.add(System.nanoTime() - confirmStarted);
+        if (confirmed > 0) {
+            logger.info("В карантин помещено позиций: {} из {} проверенных", confirmed, checkedPositions);
+        }
+        return confirmed;
+    }
+
+    //фоновая сверка отложенных подозрительных позиций, не больше limit за вызов; возвращает количество
+    //позиций, помещенных в карантин
+    public int confirmDeferred(int limit) {
+        List<PositionMismatch> batch = new ArrayList<>();
+        PositionMismatch mismatch;
+        while (batch.size() < limit && (mismatch = deferred.poll()) != null) {
+            batch.add(mismatch);
+        }
+        if (batch.isEmpty()) {
+            return 0;
+        }
+        deferredSize.addAndGet(-batch.size());
+        int confirmed;
+        try {
+            confirmed = confirmAndQuarantine(batch, priceLookupService.getIndex());
+        } catch (RuntimeException e) {
+            //БД недоступна - позиции возвращаются в очередь до следующего прохода
+            enqueue(batch);
+            throw e;
+        }
+        logger.info("Отложенная сверка: в карантин помещено позиций {} из {} подозрительных", confirmed, batch.size());
+        return confirmed;
+    }
+
+    public List<QuarantinedPositionDTO> findQuarantine(Long shiftId) {
+        return positionQuarantineRepository.findByShiftIdOrderById(shiftId).stream()
+                .map(q -> new QuarantinedPositionDTO(q.getPositionId(), q.getPurchaseId(), q.getShiftId(),
+                        q.getPurchaseDate(), q.getBarcode(), q.getArticle(), q.getPositionName(), q.getPrice(),
+                        q.getReason(), q.getExpectedArticle(), q.getExpectedPrice(), q.getDetectedAt()))
+                .toList();
+    }
+
+    public int getDeferredSuspects() {
+        return deferredSize.get();
+    }
+
+    public ReceiptValidationStatsDTO getStats() {
+        long validation = validationNanos.sum();
+        long write = writeNanos.sum();
+        double overhead = write == 0 ? 0 : 100.0 * validation / write;
+        return new ReceiptValidationStatsDTO(enabled, receipts.sum(), skippedReceipts.sum(), positions.sum(),
+                suspects.sum(), quarantined.values().stream().mapToLong(LongAdder::sum).sum(),
+                quarantined.get(MismatchReason.UNKNOWN_BARCODE).sum(),
+                quarantined.get(MismatchReason.BARCODE_ARTICLE_MISMATCH).sum(),
+                quarantined.get(MismatchReason.UNKNOWN_ARTICLE).sum(),
+                quarantined.get(MismatchReason.PRICE_MISMATCH).sum(),
+                quarantined.get(MismatchReason.NAME_MISMATCH).sum(),
+                priceUnchecked.sum(), overhead, deferredSize.get(), overBudgetChunks.sum());
+    }
+
+    //подозрительные позиции ставятся в очередь после фиксации загрузки: при откате сверять нечего.
+    //Переполненная очередь не теряет позиции - вызывающий сверяет их сразу
+    private boolean defer(List<PositionMismatch> found) {
+        if (deferredSize.get() + found.size() > maxDeferred) {
+            logger.warn("Очередь отложенной сверки заполнена ({} позиций), сверка выполняется при загрузке",
+                    deferredSize.get());
+            return false;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    enqueue(found);
+                }
+            });
+        } else {
+            enqueue(found);
+        }
+        return true;
+    }
+
+    private void enqueue(List<PositionMismatch> found) {
+        deferred.addAll(found);
+        deferredSize.addAndGet(found.size());
+    }
+
+    private int confirmAndQuarantine(List<PositionMismatch> found, PriceIntervalIndex priceIndex) {
+        long started = System.nanoTime();
+        List<PositionMismatch> confirmed = confirm(found, priceIndex);
+        positionQuarantineRepository.appendAll(confirmed);
+        confirmNanosPerSuspect = (System.nanoTime() - started) / found.size();
+        confirmed.forEach(mismatch -> quarantined.get(mismatch.reason()).increment());
+        return confirmed.size();
+    }
+
+    //повторная проверка подозрительных позиций по БД: штрих-коды и товары снимка могли измениться после сборки.
+    //Расхождение цены по индексу окончательно - товары, измененные после сборки индекса, по нему не проверяются
+    private List<PositionMismatch> confirm(List<PositionMismatch> found, PriceIntervalIndex priceIndex) {
+        Set<String> barcodes = new HashSet<>();
+        Set<Long> articles = new HashSet<>();
+        for (PositionMismatch mismatch : found) {
+            if (mismatch.reason() != MismatchReason.PRICE_MISMATCH) {
+                barcodes.add(mismatch.barcode());
+                articles.add(mismatch.article());
+            }
+        }
+        Map<String, Long> barcodeArticles = barcodes.isEmpty() ? Map.of()
+                : barcodeRepository.findBarcodeArticlesByBarcodes(barcodes).stream()
+                .collect(Collectors.toMap(BarcodeArticle::barcode, BarcodeArticle::article));
+        Map<Long, CatalogEntry> entries = articles.isEmpty() ? Map.of()
+                : itemRepository.findCatalogEntries(articles).stream()
+                .collect(Collectors.toMap(CatalogEntry::article, Function.identity()));
+
+        List<PositionMismatch> confirmed = new ArrayList<>(found.size());
+        for (PositionMismatch mismatch : found) {
+            if (mismatch.reason() == MismatchReason.PRICE_MISMATCH) {
+                confirmed.add(mismatch);
+                continue;
+            }
+            Long barcodeArticle = barcodeArticles.get(mismatch.barcode());
+            CatalogEntry entry = entries.get(mismatch.article());
+            boolean priceChecked = priceIndex.covers(mismatch.purchaseDate())
+                    && !priceLookupService.isChanged(mismatch.article());
+            int interval = priceChecked ? priceIndex.find(mismatch.article(), mismatch.purchaseDate()) : -1;
+            Long expectedPrice = interval < 0 ? null : priceIndex.getPrice(interval);
+            MismatchReason reason;
+            if (barcodeArticle == null) {
+                reason = MismatchReason.UNKNOWN_BARCODE;
+            } else if (!barcodeArticle.equals(mismatch.article())) {
+                reason = MismatchReason.BARCODE_ARTICLE_MISMATCH;
+            } else if (entry == null) {
+                reason = MismatchReason.UNKNOWN_ARTICLE;
+            } else if (priceChecked && !mismatch.price().equals(expectedPrice)) {
+                reason = MismatchReason.PRICE_MISMATCH;
+            } else if (checkNames && !entry.name().equals(mismatch.positionName())) {
+                reason = MismatchReason.NAME_MISMATCH;
+            } else {
+                continue;
+            }
+            confirmed.add(mismatch.withReason(reason, barcodeArticle, expectedPrice));
+        }
+        return confirmed;
+    }
+}
\ No newline at end of file
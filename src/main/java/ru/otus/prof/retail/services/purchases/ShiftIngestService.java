@@ -0,0 +1,186 @@
+package ru.otus.prof.retail.services.purchases;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.InputShiftDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftIngestResultDTO;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.entities.purchases.Shift;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.mappers.purchases.PurchaseMapper;
+import ru.otus.prof.retail.mappers.purchases.ShiftMapper;
+import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
+import ru.otus.prof.retail.services.reports.DailySalesAccumulator;
+import ru.otus.prof.retail.services.reports.DailySalesRollupService;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+//Потоковая загрузка закрытой смены: заголовок смены и чеки приходят отдельными записями,
+//в памяти держится только текущая порция чеков (retail.ingest.batch-size).
+@Service
+public class ShiftIngestService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShiftIngestService.class);
+
+    private final ShiftRepository shiftRepository;
+    private final ShiftMapper shiftMapper;
+    private final PurchaseMapper purchaseMapper;
+    private final PurchaseBatchWriter purchaseBatchWriter;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final DailySalesRollupService rollupService;
+
+    public ShiftIngestService(ShiftRepository shiftRepository, ShiftMapper shiftMapper, PurchaseMapper purchaseMapper,
+                              PurchaseBatchWriter purchaseBatchWriter, ObjectMapper objectMapper, Validator validator,
+                              DailySalesRollupService rollupService) {
+        this.shiftRepository = shiftRepository;
+        this.shiftMapper = shiftMapper;
+        this.purchaseMapper = purchaseMapper;
+        this.purchaseBatchWriter = purchaseBatchWriter;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.rollupService = rollupService;
+    }
+
+    //NDJSON: первая строка - заголовок смены (InputShiftDTO), далее по одному чеку (InputPurchaseDTO) на строку.
+    //shiftId в чеках не требуется - чеки привязываются к загружаемой смене.
+    @Transactional
+    public ShiftIngestResultDTO ingestShift(InputStream body) {
+        return ingest(body);
+    }
+
+    //несколько смен одной транзакцией (передача из спула): ошибка любой смены откатывает всю пачку
+    @Transactional
+    public List<ShiftIngestResultDTO> ingestShifts(List<InputStream> bodies) {
+        List<ShiftIngestResultDTO> results = new ArrayList<>(bodies.size());
+        for (InputStream body : bodies) {
+            results.add(ingest(body));
+        }
+        return results;
+    }
+
+    private ShiftIngestResultDTO ingest(InputStream body) {
+        NdjsonReader reader = new NdjsonReader(body, objectMapper);
+        if (!reader.hasNext()) {
+            logger.error("Пустое тело запроса потоковой загрузки смены");
+            throw new ShiftValidationException("Поток не содержит заголовка смены");
+        }
+        InputShiftDTO header = reader.read(InputShiftDTO.class);
+
+        Iterator<InputPurchaseDTO> purchases = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return reader.hasNext();
+            }
+
+            @Override
+            public InputPurchaseDTO next() {
+                return reader.read(InputPurchaseDTO.class);
+            }
+        };
+        return ingest(header, purchases);
+    }
+
+    @Transactional
+    public ShiftIngestResultDTO ingestShift(InputShiftDTO header, Iterator<InputPurchaseDTO> purchases) {
+        return ingest(header, purchases);
+    }
+
+    private ShiftIngestResultDTO ingest(InputShiftDTO header, Iterator<InputPurchaseDTO> purchases) {
+        validate(header);
+        ShiftPeriods.validate(header.openTime(), header.closeTime());
+
+        long start = System.nanoTime();
+        //повторная загрузка той же смены после сбоя связи дописывает в нее только новые чеки
+        Optional<Shift> existing = shiftRepository.findFirstByShopNumberAndCashNumberAndShiftNumberAndOpenTimeOrderById(
+                header.shopNumber(), header.cashNumber(), header.shiftNumber(), header.openTime());
+        boolean retried = existing.isPresent();
+        Shift shift = existing.orElseGet(() -> shiftRepository.save(shiftMapper.toEntity(header)));
+        logger.info("Потоковая загрузка смены {} (магазин {}, касса {}, номер {})",
+                shift.getId(), shift.getShopNumber(), shift.getCashNumber(), shift.getShiftNumber());
+
+        int batchSize = purchaseBatchWriter.getBatchSize();
+        List<Purchase> chunk = new ArrayList<>(batchSize);
+        long purchaseCount = 0;
+        long positionCount = 0;
+        long duplicateCount = 0;
+        long actualTotal = 0;
+        int chunks = 0;
+        //свертка копится по всем порциям и пишется одним upsert в конце загрузки
+        DailySalesAccumulator rollup = new DailySalesAccumulator();
+
+        while (purchases.hasNext()) {
+            InputPurchaseDTO record = purchases.next();
+            InputPurchaseDTO bound = new InputPurchaseDTO(shift.getId(), record.purchaseDate(), record.total(),
+                    record.positions(), record.receiptNumber());
+            validate(bound);
+            //повтор отсеивается только по номеру чека: чек без номера в уже загруженную смену записался бы дважды
+            if (retried && bound.receiptNumber() == null) {
+                throw new ShiftValidationException("Чек без номера (receiptNumber) не может быть дозагружен в уже загруженную смену "
+                        + shift.getId());
+            }
+
+            chunk.add(purchaseMapper.toEntity(bound, shift));
+            //итог сверяется по всем чекам потока, включая повторы: касса передает смену целиком
+            actualTotal += bound.total();
+
+            if (chunk.size() == batchSize) {
+                PurchaseWriteResult written = purchaseBatchWriter.write(chunk, rollup);
+                positionCount += written.positions();
+                purchaseCount += written.purchases();
+                duplicateCount += written.duplicates();
+                chunks++;
+                chunk.clear();
+                logger.info("Смена {}: записана порция {}, всего чеков: {}, позиций: {}",
+                        shift.getId(), chunks, purchaseCount, positionCount);
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            PurchaseWriteResult written = purchaseBatchWriter.write(chunk, rollup);
+            positionCount += written.positions();
+            purchaseCount += written.purchases();
+            duplicateCount += written.duplicates();
+            chunks++;
+            logger.info("Смена {}: записана порция {}, всего чеков: {}, позиций: {}",
+                    shift.getId(), chunks, purchaseCount, positionCount);
+        }
+
+        rollupService.apply(rollup);
+
+        //сверка итога смены с суммой чеков; если касса не передала итог - берем рассчитанный
+        Long declaredTotal = header.total();
+        boolean reconciled = declaredTotal == null || declaredTotal == actualTotal;
+        if (declaredTotal == null) {
+            //после flush/clear смена отсоединена, merge с пустой коллекцией чеков удалил бы их через orphanRemoval
+            shiftRepository.updateTotal(shift.getId(), actualTotal);
+        } else if (!reconciled) {
+            logger.warn("Смена {}: итог кассы {} не совпадает с суммой чеков {}", shift.getId(), declaredTotal, actualTotal);
+        }
+
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+        logger.info("Смена {} загружена: {} чеков, {} позиций, {} повторов, {} порций за {} мс",
+                shift.getId(), purchaseCount, positionCount, duplicateCount, chunks, elapsedMs);
+        return new ShiftIngestResultDTO(shift.getId(), purchaseCount, positionCount, chunks,
+                declaredTotal, actualTotal, reconciled, elapsedMs, duplicateCount);
+    }
+
+    private <T> void validate(T record) {
+        Set<ConstraintViolation<T>> violations = validator.validate(record);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+}
\ No newline at end of file
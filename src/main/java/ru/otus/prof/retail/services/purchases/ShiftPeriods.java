@@ -0,0 +1,26 @@
+package ru.otus.prof.retail.services.purchases;
+
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.repositories.purchases.ShiftSpecification;
+
+import java.time.LocalDateTime;
+
+//Проверка времени смены во всех путях загрузки (прямая, спул, события касс, перенос архива): поиск по дате
+//закрытия отсекает смены, открытые раньше чем за ShiftSpecification.MAX_SHIFT_DAYS суток, поэтому более
+//длинная смена была бы записана, но не находилась бы по дате
+public final class ShiftPeriods {
+
+    private ShiftPeriods() {
+    }
+
+    public static void validate(LocalDateTime openTime, LocalDateTime closeTime) {
+        if (closeTime.isBefore(openTime)) {
+            throw new ShiftValidationException("Время закрытия смены не может быть раньше времени открытия");
+        }
+        if (closeTime.isAfter(openTime.plusDays(ShiftSpecification.MAX_SHIFT_DAYS))) {
+            throw new ShiftValidationException(String.format(
+                    "Смена не может длиться дольше %d ч: открыта %s, закрыта %s",
+                    ShiftSpecification.MAX_SHIFT_DAYS * 24, openTime, closeTime));
+        }
+    }
+}
\ No newline at end of file
@@ -1,33 +1,66 @@
 package ru.otus.prof.retail.services.purchases;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import jakarta.transaction.Transactional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftPageDTO;
 import ru.otus.prof.retail.dto.purchases.ShiftSearchRequest;
 import ru.otus.prof.retail.entities.purchases.Shift;
 import ru.otus.prof.retail.exception.purchases.ShiftNotFoundException;
 import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
 import ru.otus.prof.retail.mappers.purchases.ShiftMapper;
 import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
+import ru.otus.prof.retail.repositories.purchases.ShiftSpecification;
+import ru.otus.prof.retail.services.purchases.fetch.ShiftFetchPlan;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class ShiftService {
     private static final Logger logger = LoggerFactory.getLogger(ShiftService.class);
 
+    //смен в порции потоковой выгрузки: столько держится в памяти и дозагружается с чеками одним запросом
+    private static final int STREAM_CHUNK_SIZE = 500;
+
     private final ShiftRepository shiftRepository;
     private final ShiftMapper shiftMapper;
+    private final ObjectMapper objectMapper;
+    private final ShiftFetchPlan fetchPlan;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public ShiftService(ShiftRepository shiftRepository, ShiftMapper shiftMapper) {
+    public ShiftService(ShiftRepository shiftRepository, ShiftMapper shiftMapper, ObjectMapper objectMapper,
+                        List<ShiftFetchPlan> fetchPlans,
+                        @Value("${retail.shifts.fetch-plan:batch}") String fetchPlan) {
         this.shiftRepository = shiftRepository;
         this.shiftMapper = shiftMapper;
+        this.objectMapper = objectMapper;
+        this.fetchPlan = fetchPlans.stream()
+                .filter(plan -> plan.getName().equals(fetchPlan))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Неизвестный план загрузки смен: " + fetchPlan));
+        logger.info("План загрузки чеков смен: {}", fetchPlan);
     }
 
     //валидация диапазона дат
@@ -44,7 +77,7 @@ public class ShiftService {
     @Transactional
     public List<ShiftDTO> getAllShiftsByCloseDate(LocalDate date, boolean withPurchases) {
         logger.debug("Получение всех смен по дате закрытия: {}, withPurchases: {}", date, withPurchases);
-        List<Shift> shifts = shiftRepository.findShiftByCloseDate(date, withPurchases);
+        List<Shift> shifts = shiftRepository.findShiftByCloseDate(date);
 
         if (shifts.isEmpty()) {
             String errorMessage = "Смены не найдены за " + date;
@@ -53,9 +86,7 @@ public class ShiftService {
         }
 
         logger.info("Найдено {} смен за дату {}", shifts.size(), date);
-        return shifts.stream()
-                .map(shift -> shiftMapper.toDTO(shift, withPurchases))
-                .collect(Collectors.toList());
+        return toDTOs(shifts, withPurchases);
     }
 
     @Transactional
@@ -63,7 +94,7 @@ public class ShiftService {
         logger.debug("Получение всех смен по диапазону дат: {} - {}, withPurchases: {}", startDate, endDate, withPurchases);
         validateDateRange(startDate, endDate);
 
-        List<Shift> shifts = shiftRepository.findShiftByCloseDateRange(startDate, endDate, withPurchases);
+        List<Shift> shifts = shiftRepository.findShiftByCloseDateRange(startDate, endDate);
 
         if (shifts.isEmpty()) {
             String errorMessage = "Смены не найдены в диапазоне " + startDate + " - " + endDate;
@@ -72,16 +103,14 @@ public class ShiftService {
         }
 
         logger.info("Найдено {} смен в диапазоне {} - {}", shifts.size(), startDate, endDate);
-        return shifts.stream()
-                .map(shift -> shiftMapper.toDTO(shift, withPurchases))
-                .collect(Collectors.toList());
+        return toDTOs(shifts, withPurchases);
     }
 
     //по магазину
     @Transactional
     public List<ShiftDTO> getShiftsByShopNumberAndCloseDate(Long shopNumber, LocalDate date, boolean withPurchases) {
         logger.debug("Получение смен для магазина {} по дате: {}, withPurchases: {}", shopNumber, date, withPurchases);
-        List<Shift> shifts = shiftRepository.findShiftsByShopNumberAndCloseDate(shopNumber, date, withPurchases);
+        List<Shift> shifts = shiftRepository.findShiftsByShopNumberAndCloseDate(shopNumber, date);
 
         if (shifts.isEmpty()) {
             String errorMessage = "Смены не найдены для магазина #" + shopNumber + " за " + date;
@@ -90,9 +119,7 @@ public class ShiftService {
         }
 
         logger.info("Найдено {} смен для магазина {} за дату {}", shifts.size(), shopNumber, date);
-        return shifts.stream()
-                .map(shift -> shiftMapper.toDTO(shift, withPurchases))
-                .collect(Collectors.toList());
+        return toDTOs(shifts, withPurchases);
     }
 
     @Transactional
@@ -100,7 +127,7 @@ public class ShiftService {
         logger.debug("Получение смен для магазина {} по диапазону дат: {} - {}, withPurchases: {}", shopNumber, startDate, endDate, withPurchases);
         validateDateRange(startDate, endDate);
 
-        List<Shift> shifts = shiftRepository.findShiftsByShopNumberAndCloseDateRange(shopNumber, startDate, endDate, withPurchases);
+        List<Shift> shifts = shiftRepository.findShiftsByShopNumberAndCloseDateRange(shopNumber, startDate, endDate);
 
         if (shifts.isEmpty()) {
             String errorMessage = "Смены не найдены для магазина #" + shopNumber + " в диапазоне " + startDate + " - " + endDate;
@@ -109,16 +136,14 @@ public class ShiftService {
         }
 
         logger.info("Найдено {} смен для магазина {} в диапазоне {} - {}", shifts.size(), shopNumber, startDate, endDate);
-        return shifts.stream()
-                .map(shift -> shiftMapper.toDTO(shift, withPurchases))
-                .collect(Collectors.toList());
+        return toDTOs(shifts, withPurchases);
     }
 
     //по кассе
     @Transactional
     public List<ShiftDTO> getShiftsByShopNumberAndCashNumberAndCloseDate(Long shopNumber, Long cashNumber, LocalDate date, boolean withPurchases) {
         logger.debug("Получение смен для магазина {} и кассы {} по дате: {}, withPurchases: {}", shopNumber, cashNumber, date, withPurchases);
-        List<Shift> shifts = shiftRepository.findShiftsByShopNumberAndCashNumberAndCloseDate(shopNumber, cashNumber, date, withPurchases);
+        List<Shift> shifts = shiftRepository.findShiftsByShopNumberAndCashNumberAndCloseDate(shopNumber, cashNumber, date);
 
         if (shifts.isEmpty()) {
             String errorMessage = "Смены не найдены для магазина #" + shopNumber + ", кассы #" + cashNumber + " за " + date;
@@ -127,9 +152,7 @@ public class ShiftService {
         }
 
         logger.info("Найдено {} смен для магазина {} и кассы {} за дату {}", shifts.size(), shopNumber, cashNumber, date);
-        return shifts.stream()
-                .map(shift -> shiftMapper.toDTO(shift, withPurchases))
-                .collect(Collectors.toList());
+        return toDTOs(shifts, withPurchases);
     }
 
     @Transactional
@@ -137,7 +160,7 @@ public class ShiftService {
         logger.debug("Получение смен для магазина {} и кассы {} по диапазону дат: {} - {}, withPurchases: {}", shopNumber, cashNumber, startDate, endDate, withPurchases);
         validateDateRange(startDate, endDate);
 
-        List<Shift> shifts = shiftRepository.findShiftsByShopNumberAndCashNumberAndCloseDateRange(shopNumber, cashNumber, startDate, endDate, withPurchases);
+        List<Shift> shifts = shiftRepository.findShiftsByShopNumberAndCashNumberAndCloseDateRange(shopNumber, cashNumber, startDate, endDate);
 
         if (shifts.isEmpty()) {
             String errorMessage = "Смены не найдены для магазина #" + shopNumber + ", кассы #" + cashNumber + " в диапазоне " + startDate + " - " + endDate;
@@ -146,9 +169,7 @@ public class ShiftService {
         }
 
         logger.info("Найдено {} смен для магазина {} и кассы {} в диапазоне {} - {}", shifts.size(), shopNumber, cashNumber, startDate, endDate);
-        return shifts.stream()
-                .map(shift -> shiftMapper.toDTO(shift, withPurchases))
-                .collect(Collectors.toList());
+        return toDTOs(shifts, withPurchases);
     }
 
     @Transactional
@@ -217,4 +238,130 @@ public class ShiftService {
                 ? getShiftsByShopNumberAndCloseDate(request.shopNumber(), request.date(), request.withPurchases())
                 : getShiftsByShopNumberAndCashNumberAndCloseDate(request.shopNumber(), request.cashNumber(), request.date(), request.withPurchases());
     }
+
+    //Постраничный поиск по ключу (close_date, id): следующая страница начинается строго после последней
+    //выданной смены, поэтому стоимость не растет с номером страницы, а вставка новых смен не сдвигает выдачу
+    @Transactional
+    public ShiftPageDTO searchShiftsPage(ShiftSearchRequest request, String cursor, int limit) {
+        logger.debug("Постраничный поиск смен по параметрам: {}, курсор: {}, размер страницы: {}", request, cursor, limit);
+        Specification<Shift> spec = toSpecification(request);
+        if (cursor != null) {
+            ShiftCursor position = decodeCursor(cursor);
+            spec = spec.and(ShiftSpecification.after(position.closeTime(), position.id()));
+        }
+
+        //лишняя смена показывает, есть ли следующая страница, без count-запроса
+        List<Shift> shifts = shiftRepository.findPage(spec, limit + 1);
+        boolean hasNext = shifts.size() > limit;
+        List<Shift> page = hasNext ? shifts.subList(0, limit) : shifts;
+        List<ShiftDTO> result = toDTOs(page, request.withPurchases());
+        String nextCursor = hasNext ? encodeCursor(page.get(page.size() - 1)) : null;
+
+        logger.info("Возвращено {} смен на странице, есть следующая: {}", result.size(), hasNext);
+        return new ShiftPageDTO(result, nextCursor);
+    }
+
+    //проверка параметров до начала потоковой выгрузки, пока еще можно вернуть 400
+    public void validateSearch(ShiftSearchRequest request) {
+        toSpecification(request);
+    }
+
+    //Потоковая выгрузка в NDJSON: смены читаются курсором и пишутся порциями,
+    //после каждой порции контекст персистентности очищается - память не зависит от объема выборки
+    @Transactional
+    public long streamShifts(ShiftSearchRequest request, OutputStream out) throws IOException {
+        logger.debug("Потоковая выгрузка смен по параметрам: {}", request);
+        Specification<Shift> spec = toSpecification(request);
+
+        long written = 0;
+        try (Stream<Shift> shifts = shiftRepository.streamAll(spec, STREAM_CHUNK_SIZE)) {
+            Iterator<Shift> iterator = shifts.iterator();
+            List<Shift> chunk = new ArrayList<>(STREAM_CHUNK_SIZE);
+            while (iterator.hasNext()) {
+                chunk.add(iterator.next());
+                if (chunk.size() == STREAM_CHUNK_SIZE) {
+                    written += writeChunk(chunk, request.withPurchases(), out);
+                    chunk.clear();
+                }
+            }
+            if (!chunk.isEmpty()) {
+                written += writeChunk(chunk, request.withPurchases(), out);
+            }
+        }
+
+        logger.info("Потоковая выгрузка завершена, выгружено {} смен", written);
+        return written;
+    }
+
+    private int writeChunk(List<Shift> chunk, boolean withPurchases, OutputStream out) throws IOException {
+        List<ShiftDTO> shifts = toDTOs(chunk, withPurchases);
+        for (ShiftDTO shift : shifts) {
+            out.write(objectMapper.writeValueAsBytes(shift));
+            out.write('\n');
+        }
+        out.flush();
+        entityManager.clear();
+        logger.debug("Выгружена порция из {} смен", shifts.size());
+        return shifts.size();
+    }
+
+    private List<ShiftDTO> toDTOs(List<Shift> shifts, boolean withPurchases) {
+        if (withPurchases) {
+            return fetchPlan.withPurchases(shifts);
+        }
+        return shifts.stream()
+                .map(shift -> shiftMapper.toDTO(shift, false))
+                .collect(Collectors.toList());
+    }
+
+    private Specification<Shift> toSpecification(ShiftSearchRequest request) {
+        if (request == null) {
+            String errorMessage = "Запрос не может быть null";
+            logger.error(errorMessage);
+            throw new ShiftValidationException(errorMessage);
+        }
+        if (!request.isDateOrRangeValid()) {
+            String errorMessage = "Должна быть указана либо одна дата (date), либо диапазон дат (startDate и endDate)";
+            logger.error(errorMessage);
+            throw new ShiftValidationException(errorMessage);
+        }
+
+        LocalDate startDate = request.isDateRangeSearch() ? request.startDate() : request.date();
+        LocalDate endDate = request.isDateRangeSearch() ? request.endDate() : request.date();
+        validateDateRange(startDate, endDate);
+
+        Specification<Shift> spec = ShiftSpecification.byCloseDateRange(startDate, endDate);
+        if (request.shopNumber() != null) {
+            spec = spec.and(ShiftSpecification.byShopNumber(request.shopNumber()));
+        }
+        if (request.cashNumber() != null) {
+            spec = spec.and(ShiftSpecification.byCashNumber(request.cashNumber()));
+        }
+        return spec;
+    }
+
+    //курсор непрозрачен для клиента: base64 от "время закрытия|id" последней смены страницы
+    private String encodeCursor(Shift shift) {
+        String value = shift.getCloseTime() + "|" + shift.getId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private ShiftCursor decodeCursor(String cursor) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = value.lastIndexOf('|');
+            if (separator < 0) {
+                throw new IllegalArgumentException("нет разделителя");
+            }
+            return new ShiftCursor(LocalDateTime.parse(value.substring(0, separator)),
+                    Long.parseLong(value.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            String errorMessage = "Неверный курсор страницы: " + cursor;
+            logger.error(errorMessage);
+            throw new ShiftValidationException(errorMessage);
+        }
+    }
+
+    private record ShiftCursor(LocalDateTime closeTime, Long id) {
+    }
 }
\ No newline at end of file
@@ -0,0 +1,157 @@
+package ru.otus.prof.retail.services.purchases.backfill;
+
+import ru.otus.prof.retail.dto.purchases.PositionDTO;
+import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.services.purchases.ShiftPeriods;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PrimitiveIterator;
+
+//Порция смен для backfill: сначала копятся DTO, id раздаются одним запросом к последовательностям перед записью,
+//после чего смены разворачиваются в плоские строки таблиц shift/purchase/position
+public class BackfillBatch {
+
+    public record ShiftRow(long id, long shiftNumber, long shopNumber, long cashNumber,
+                           LocalDateTime openTime, LocalDateTime closeTime, Long total) {
+    }
+
+    public record PurchaseRow(long id, long shiftId, LocalDateTime purchaseDate, long total) {
+    }
+
+    public record PositionRow(long id, long purchaseId, LocalDateTime purchaseDate, String barcode, long article,
+                              long price, String positionName) {
+    }
+
+    private final List<ShiftDTO> shifts = new ArrayList<>();
+    private int purchaseCount;
+    private int positionCount;
+    //диапазон ключей партиционирования порции: create_date смен и purchase_date чеков и позиций
+    private LocalDate minDate;
+    private LocalDate maxDate;
+
+    private final List<ShiftRow> shiftRows = new ArrayList<>();
+    private final List<PurchaseRow> purchaseRows = new ArrayList<>();
+    private final List<PositionRow> positionRows = new ArrayList<>();
+
+    public void add(ShiftDTO shift) {
+        ShiftPeriods.validate(shift.openTime(), shift.closeTime());
+        extendDates(shift.openTime());
+        if (shift.purchases() != null) {
+            for (PurchaseDTO purchase : shift.purchases()) {
+                validate(shift, purchase);
+                extendDates(purchase.purchaseDate());
+                purchaseCount++;
+                positionCount += purchase.positions().size();
+            }
+        }
+        shifts.add(shift);
+    }
+
+    public boolean isEmpty() {
+        return shifts.isEmpty();
+    }
+
+    public int getShiftCount() {
+        return shifts.size();
+    }
+
+    public int getPurchaseCount() {
+        return purchaseCount;
+    }
+
+    public int getPositionCount() {
+        return positionCount;
+    }
+
+    public LocalDate getMinDate() {
+        return minDate;
+    }
+
+    public LocalDate getMaxDate() {
+        return maxDate;
+    }
+
+    public int getRowCount() {
+        return shifts.size() + purchaseCount + positionCount;
+    }
+
+    //присваивает id из выделенных диапазонов; id из входных DTO игнорируются
+    public void assignIds(PrimitiveIterator.OfLong shiftIds, PrimitiveIterator.OfLong purchaseIds,
+                          PrimitiveIterator.OfLong positionIds) {
+        for (ShiftDTO shift : shifts) {
+            long shiftId = shiftIds.nextLong();
+            shiftRows.add(new ShiftRow(shiftId, shift.shiftNumber(), shift.shopNumber(), shift.cashNumber(),
+                    shift.openTime(), shift.closeTime(), shift.total()));
+            if (shift.purchases() == null) {
+                continue;
+            }
+            for (PurchaseDTO purchase : shift.purchases()) {
+                long purchaseId = purchaseIds.nextLong();
+                purchaseRows.add(new PurchaseRow(purchaseId, shiftId, purchase.purchaseDate(), purchase.total()));
+                for (PositionDTO position : purchase.positions()) {
+                    positionRows.add(new PositionRow(positionIds.nextLong(), purchaseId, purchase.purchaseDate(), position.barcode(),
+                            position.article(), position.price(), position.positionName()));
+                }
+            }
+        }
+    }
+
+    public List<ShiftRow> getShiftRows() {
+        return shiftRows;
+    }
+
+    public List<PurchaseRow> getPurchaseRows() {
+        return purchaseRows;
+    }
+
+    public List<PositionRow> getPositionRows() {
+        return positionRows;
+    }
+
+    public void clear() {
+        shifts.clear();
+        shiftRows.clear();
+        purchaseRows.clear();
+        positionRows.clear();
+        purchaseCount = 0;
+        positionCount = 0;
+        minDate = null;
+        maxDate = null;
+    }
+
+    private void extendDates(LocalDateTime time) {
+        LocalDate date = time.toLocalDate();
+        if (minDate == null || date.isBefore(minDate)) {
+            minDate = date;
+        }
+        if (maxDate == null || date.isAfter(maxDate)) {
+            maxDate = date;
+        }
+    }
+
+    private void validate(ShiftDTO shift, PurchaseDTO purchase) {
+        if (purchase.purchaseDate() == null || purchase.total() == null) {
+            throw new ShiftValidationException(String.format(
+                    "Чек смены %s (магазин %s, касса %s) должен содержать дату и сумму",
+                    shift.shiftNumber(), shift.shopNumber(), shift.cashNumber()));
+        }
+        if (purchase.positions() == null || purchase.positions().isEmpty()) {
+            throw new ShiftValidationException(String.format(
+                    "Чек смены %s (магазин %s, касса %s) от %s не содержит позиций",
+                    shift.shiftNumber(), shift.shopNumber(), shift.cashNumber(), purchase.purchaseDate()));
+        }
+        for (PositionDTO position : purchase.positions()) {
+            if (position.barcode() == null || position.article() == null
+                    || position.price() == null || position.positionName() == null) {
+                throw new ShiftValidationException(String.format(
+                        "Позиция чека смены %s (магазин %s, касса %s) от %s заполнена не полностью",
+                        shift.shiftNumber(), shift.shopNumber(), shift.cashNumber(), purchase.purchaseDate()));
+            }
+        }
+    }
+}
\ No newline at end of file
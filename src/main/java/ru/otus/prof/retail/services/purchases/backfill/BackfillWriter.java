@@ -0,0 +1,12 @@
+package ru.otus.prof.retail.services.purchases.backfill;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+
+//Запись порции строк в таблицы shift/purchase/position в рамках транзакции переданного соединения
+public interface BackfillWriter {
+
+    String getMode();
+
+    void write(Connection connection, BackfillBatch batch) throws SQLException;
+}
\ No newline at end of file
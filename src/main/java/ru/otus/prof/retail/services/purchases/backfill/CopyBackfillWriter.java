@@ -0,0 +1,118 @@
+package ru.otus.prof.retail.services.purchases.backfill;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+//Быстрый путь для PostgreSQL: строки уходят через COPY ... FROM STDIN (CSV) драйвера, минуя JPA и INSERT.
+//На одном соединении одновременно может идти только один COPY, поэтому таблицы пишутся по очереди.
+public class CopyBackfillWriter implements BackfillWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(CopyBackfillWriter.class);
+
+    private static final String COPY_SHIFT =
+            "COPY shift (id, shift_number, shop_number, cash_number, create_date, close_date, total) FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_PURCHASE =
+            "COPY purchase (id, shift_id, purchase_date, total) FROM STDIN WITH (FORMAT csv)";
+    private static final String COPY_POSITION =
+            "COPY position (id, purchase_id, purchase_date, barcode, article, price, position_name) FROM STDIN WITH (FORMAT csv)";
+
+    //размер буфера, после которого строки отправляются в поток COPY
+    private static final int FLUSH_THRESHOLD = 64 * 1024;
+
+    public static boolean supports(Connection connection) throws SQLException {
+        return connection.isWrapperFor(PGConnection.class);
+    }
+
+    @Override
+    public String getMode() {
+        return "copy";
+    }
+
+    @Override
+    public void write(Connection connection, BackfillBatch batch) throws SQLException {
+        CopyManager copyManager = connection.unwrap(PGConnection.class).getCopyAPI();
+
+        long shifts = copy(copyManager, COPY_SHIFT, batch.getShiftRows(), (row, csv) -> {
+            csv.append(row.id()).append(',')
+                    .append(row.shiftNumber()).append(',')
+                    .append(row.shopNumber()).append(',')
+                    .append(row.cashNumber()).append(',');
+            appendTimestamp(csv, row.openTime());
+            csv.append(',');
+            appendTimestamp(csv, row.closeTime());
+            csv.append(',');
+            if (row.total() != null) {
+                csv.append(row.total());
+            }
+        });
+        long purchases = copy(copyManager, COPY_PURCHASE, batch.getPurchaseRows(), (row, csv) -> {
+            csv.append(row.id()).append(',').append(row.shiftId()).append(',');
+            appendTimestamp(csv, row.purchaseDate());
+            csv.append(',').append(row.total());
+        });
+        long positions = copy(copyManager, COPY_POSITION, batch.getPositionRows(), (row, csv) -> {
+            csv.append(row.id()).append(',').append(row.purchaseId()).append(',');
+            appendTimestamp(csv, row.purchaseDate());
+            csv.append(',');
+            appendText(csv, row.barcode());
+            csv.append(',').append(row.article()).append(',').append(row.price()).append(',');
+            appendText(csv, row.positionName());
+        });
+
+        logger.debug("COPY: смен {}, чеков {}, позиций {}", shifts, purchases, positions);
+    }
+
+    private <T> long copy(CopyManager copyManager, String sql, List<T> rows,
+                          BiConsumer<T, StringBuilder> format) throws SQLException {
+        if (rows.isEmpty()) {
+            return 0;
+        }
+        CopyIn copyIn = copyManager.copyIn(sql);
+        try {
+            StringBuilder csv = new StringBuilder(FLUSH_THRESHOLD + 1024);
+            for (T row : rows) {
+                format.accept(row, csv);
+                csv.append('\n');
+                if (csv.length() >= FLUSH_THRESHOLD) {
+                    send(copyIn, csv);
+                }
+            }
+            send(copyIn, csv);
+            return copyIn.endCopy();
+        } finally {
+            if (copyIn.isActive()) {
+                copyIn.cancelCopy();
+            }
+        }
+    }
+
+    private void send(CopyIn copyIn, StringBuilder csv) throws SQLException {
+        if (csv.length() == 0) {
+            return;
+        }
+        byte[] bytes = csv.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        csv.setLength(0);
+    }
+
+    //пустое значение без кавычек в CSV-режиме COPY означает NULL
+    private static void appendTimestamp(StringBuilder csv, LocalDateTime value) {
+        if (value != null) {
+            csv.append(value);
+        }
+    }
+
+    private static void appendText(StringBuilder csv, String value) {
+        csv.append('"').append(value.replace("\"", "\"\"")).append('"');
+    }
+}
\ No newline at end of file
@@ -0,0 +1,91 @@
+package ru.otus.prof.retail.services.purchases.backfill;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+
+//Запасной путь для баз без COPY (H2 в тестовом профиле): пакетные INSERT через JDBC без участия JPA
+public class JdbcBatchBackfillWriter implements BackfillWriter {
+
+    private static final String INSERT_SHIFT =
+            "INSERT INTO shift (id, shift_number, shop_number, cash_number, create_date, close_date, total) VALUES (?, ?, ?, ?, ?, ?, ?)";
+    private static final String INSERT_PURCHASE =
+            "INSERT INTO purchase (id, shift_id, purchase_date, total) VALUES (?, ?, ?, ?)";
+    private static final String INSERT_POSITION =
+            "INSERT INTO position (id, purchase_id, purchase_date, barcode, article, price, position_name) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    private final int jdbcBatchSize;
+
+    public JdbcBatchBackfillWriter(int jdbcBatchSize) {
+        this.jdbcBatchSize = jdbcBatchSize;
+    }
+
+    @Override
+    public String getMode() {
+        return "jdbc-batch";
+    }
+
+    @Override
+    public void write(Connection connection, BackfillBatch batch) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_SHIFT)) {
+            int pending = 0;
+            for (BackfillBatch.ShiftRow row : batch.getShiftRows()) {
+                statement.setLong(1, row.id());
+                statement.setLong(2, row.shiftNumber());
+                statement.setLong(3, row.shopNumber());
+                statement.setLong(4, row.cashNumber());
+                statement.setTimestamp(5, Timestamp.valueOf(row.openTime()));
+                if (row.closeTime() != null) {
+                    statement.setTimestamp(6, Timestamp.valueOf(row.closeTime()));
+                } else {
+                    statement.setNull(6, Types.TIMESTAMP);
+                }
+                if (row.total() != null) {
+                    statement.setLong(7, row.total());
+                } else {
+                    statement.setNull(7, Types.BIGINT);
+                }
+                pending = addBatch(statement, pending);
+            }
+            statement.executeBatch();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_PURCHASE)) {
+            int pending = 0;
+            for (BackfillBatch.PurchaseRow row : batch.getPurchaseRows()) {
+                statement.setLong(1, row.id());
+                statement.setLong(2, row.shiftId());
+                statement.setTimestamp(3, Timestamp.valueOf(row.purchaseDate()));
+                statement.setLong(4, row.total());
+                pending = addBatch(statement, pending);
+            }
+            statement.executeBatch();
+        }
+
+        try (PreparedStatement statement = connection.prepareStatement(INSERT_POSITION)) {
+            int pending = 0;
+            for (BackfillBatch.PositionRow row : batch.getPositionRows()) {
+                statement.setLong(1, row.id());
+                statement.setLong(2, row.purchaseId());
+                statement.setTimestamp(3, Timestamp.valueOf(row.purchaseDate()));
+                statement.setString(4, row.barcode());
+                statement.setLong(5, row.article());
+                statement.setLong(6, row.price());
+                statement.setString(7, row.positionName());
+                pending = addBatch(statement, pending);
+            }
+            statement.executeBatch();
+        }
+    }
+
+    private int addBatch(PreparedStatement statement, int pending) throws SQLException {
+        statement.addBatch();
+        if (++pending == jdbcBatchSize) {
+            statement.executeBatch();
+            return 0;
+        }
+        return pending;
+    }
+}
\ No newline at end of file
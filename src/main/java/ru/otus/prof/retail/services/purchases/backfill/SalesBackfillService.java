@@ -0,0 +1,160 @@
+package ru.otus.prof.retail.services.purchases.backfill;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.UncategorizedSQLException;
+import org.springframework.stereotype.Service;
+import ru.otus.prof.retail.dto.purchases.BackfillResultDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.services.purchases.NdjsonReader;
+
+import javax.sql.DataSource;
+import java.io.InputStream;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Set;
+
+//Загрузка исторических продаж при подключении новой сети: смены читаются из NDJSON (по одному ShiftDTO на строку)
+//и пишутся напрямую в shift/purchase/position - в PostgreSQL через COPY, в остальных базах пакетными INSERT.
+//Каждая порция (retail.backfill.batch-rows строк) фиксируется отдельной транзакцией.
+//В PostgreSQL перед записью порции создаются месячные партиции на ее диапазон дат: история старше миграции 0008
+//и окна PartitionMaintenanceJob иначе попала бы в DEFAULT без отсечения партиций и архивации
+@Service
+public class SalesBackfillService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesBackfillService.class);
+
+    private final DataSource dataSource;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final int batchRows;
+    private final int jdbcBatchSize;
+    private final String mode;
+
+    public SalesBackfillService(DataSource dataSource, ObjectMapper objectMapper, Validator validator,
+                                @Value("${retail.backfill.batch-rows:50000}") int batchRows,
+                                @Value("${retail.backfill.jdbc-batch-size:1000}") int jdbcBatchSize,
+                                @Value("${retail.backfill.mode:auto}") String mode) {
+        this.dataSource = dataSource;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.batchRows = batchRows;
+        this.jdbcBatchSize = jdbcBatchSize;
+        this.mode = mode;
+    }
+
+    public BackfillResultDTO backfill(InputStream body) {
+        NdjsonReader reader = new NdjsonReader(body, objectMapper);
+        long start = System.nanoTime();
+
+        try (Connection connection = dataSource.getConnection()) {
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+
+            BackfillWriter writer = resolveWriter(connection);
+            boolean partitioned = isPostgres(connection);
+            SequenceIdAllocator idAllocator = new SequenceIdAllocator(partitioned);
+            BackfillBatch batch = new BackfillBatch();
+            long shifts = 0;
+            long purchases = 0;
+            long positions = 0;
+            int batches = 0;
+
+            logger.info("Загрузка исторических продаж, режим записи: {}", writer.getMode());
+            try {
+                while (reader.hasNext()) {
+                    ShiftDTO shift = reader.read(ShiftDTO.class);
+                    validate(shift);
+                    batch.add(shift);
+
+                    if (batch.getRowCount() >= batchRows) {
+                        write(connection, writer, idAllocator, batch, partitioned);
+                        shifts += batch.getShiftCount();
+                        purchases += batch.getPurchaseCount();
+                        positions += batch.getPositionCount();
+                        batches++;
+                        batch.clear();
+                        logger.info("Backfill: зафиксирована порция {}, всего смен: {}, чеков: {}, позиций: {}",
+                                batches, shifts, purchases, positions);
+                    }
+                }
+
+                if (!batch.isEmpty()) {
+                    write(connection, writer, idAllocator, batch, partitioned);
+                    shifts += batch.getShiftCount();
+                    purchases += batch.getPurchaseCount();
+                    positions += batch.getPositionCount();
+                    batches++;
+                }
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                logger.error("Backfill прерван, ранее зафиксировано порций: {}, смен: {}", batches, shifts);
+                throw e;
+            } finally {
+                connection.setAutoCommit(autoCommit);
+            }
+
+            long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+            logger.info("Backfill завершен ({}): {} смен, {} чеков, {} позиций, {} порций за {} мс",
+                    writer.getMode(), shifts, purchases, positions, batches, elapsedMs);
+            return new BackfillResultDTO(shifts, purchases, positions, batches, writer.getMode(), elapsedMs);
+        } catch (SQLException e) {
+            throw new UncategorizedSQLException("Загрузка исторических продаж", null, e);
+        }
+    }
+
+    private void write(Connection connection, BackfillWriter writer, SequenceIdAllocator idAllocator,
+                       BackfillBatch batch, boolean partitioned) throws SQLException {
+        if (partitioned) {
+            ensurePartitions(connection, batch);
+        }
+        batch.assignIds(
+                idAllocator.allocate(connection, "shift_seq", batch.getShiftCount()),
+                idAllocator.allocate(connection, "purchase_seq", batch.getPurchaseCount()),
+                idAllocator.allocate(connection, "position_seq", batch.getPositionCount())
+        );
+        writer.write(connection, batch);
+        connection.commit();
+    }
+
+    //партиции создаются в транзакции порции и откатываются вместе с ней
+    private void ensurePartitions(Connection connection, BackfillBatch batch) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT retail_ensure_sales_partitions(?, ?)")) {
+            statement.setObject(1, batch.getMinDate());
+            statement.setObject(2, batch.getMaxDate());
+            statement.executeQuery().close();
+        }
+    }
+
+    private BackfillWriter resolveWriter(Connection connection) throws SQLException {
+        boolean copySupported = CopyBackfillWriter.supports(connection);
+        switch (mode) {
+            case "copy":
+                if (!copySupported) {
+                    throw new IllegalStateException("COPY недоступен для текущего источника данных");
+                }
+                return new CopyBackfillWriter();
+            case "jdbc":
+                return new JdbcBatchBackfillWriter(jdbcBatchSize);
+            default:
+                return copySupported ? new CopyBackfillWriter() : new JdbcBatchBackfillWriter(jdbcBatchSize);
+        }
+    }
+
+    private boolean isPostgres(Connection connection) throws SQLException {
+        return "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName());
+    }
+
+    private void validate(ShiftDTO shift) {
+        Set<ConstraintViolation<ShiftDTO>> violations = validator.validate(shift);
+        if (!violations.isEmpty()) {
+            throw new ConstraintViolationException(violations);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,78 @@
+package ru.otus.prof.retail.services.purchases.backfill;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+//Выделяет id из тех же последовательностей, что и Hibernate (pooled, allocationSize = 50):
+//каждое значение v последовательности закрепляет за вызывающим диапазон [v - 49, v],
+//поэтому id backfill не пересекаются с id, которые параллельно раздает JPA.
+//Все блоки берутся одним запросом на таблицу.
+public class SequenceIdAllocator {
+
+    //совпадает с INCREMENT BY в 2025-04-20--0006-create-purchase-sequences.sql и allocationSize сущностей
+    public static final int SEQUENCE_INCREMENT = 50;
+
+    private final String blocksQuery;
+
+    public SequenceIdAllocator(boolean postgres) {
+        this.blocksQuery = postgres
+                ? "SELECT nextval('%s') FROM generate_series(1, ?)"
+                : "SELECT NEXT VALUE FOR %s FROM SYSTEM_RANGE(1, ?)";
+    }
+
+    public PrimitiveIterator.OfLong allocate(Connection connection, String sequence, int count) throws SQLException {
+        //+1 блок: первое значение свежей последовательности (1) дает неполный диапазон
+        int blocks = count == 0 ? 0 : (count + SEQUENCE_INCREMENT - 1) / SEQUENCE_INCREMENT + 1;
+        long[] upperBounds = new long[blocks];
+        if (blocks > 0) {
+            try (PreparedStatement statement = connection.prepareStatement(String.format(blocksQuery, sequence))) {
+                statement.setInt(1, blocks);
+                try (ResultSet resultSet = statement.executeQuery()) {
+                    int block = 0;
+                    while (resultSet.next()) {
+                        upperBounds[block++] = resultSet.getLong(1);
+                    }
+                    if (block != blocks) {
+                        throw new SQLException("Последовательность " + sequence + " вернула " + block + " значений из " + blocks);
+                    }
+                }
+            }
+        }
+        return new BlockIterator(upperBounds, count);
+    }
+
+    private static final class BlockIterator implements PrimitiveIterator.OfLong {
+        private final long[] upperBounds;
+        private int remaining;
+        private int block = -1;
+        private long next;
+        private long upper;
+
+        BlockIterator(long[] upperBounds, int count) {
+            this.upperBounds = upperBounds;
+            this.remaining = count;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return remaining > 0;
+        }
+
+        @Override
+        public long nextLong() {
+            if (remaining == 0) {
+                throw new NoSuchElementException();
+            }
+            if (block < 0 || next > upper) {
+                upper = upperBounds[++block];
+                next = Math.max(1, upper - SEQUENCE_INCREMENT + 1);
+            }
+            remaining--;
+            return next++;
+        }
+    }
+}
\ No newline at end of file
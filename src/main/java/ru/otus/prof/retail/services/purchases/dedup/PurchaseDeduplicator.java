@@ -0,0 +1,98 @@
+package ru.otus.prof.retail.services.purchases.dedup;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.entities.purchases.PurchaseKey;
+import ru.otus.prof.retail.entities.purchases.PurchaseKeyId;
+import ru.otus.prof.retail.repositories.purchases.PurchaseKeyRepository;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+//Отсев повторно переданных чеков по естественному ключу (магазин, касса, номер смены, номер чека).
+//Решение о записи принимает вставка ключа в purchase_key (ON CONFLICT DO NOTHING): записываются только чеки,
+//ключ которых вставлен в этой транзакции. Фильтр Блума недавних ключей отделяет вероятные повторы:
+//только их ключи сначала ищутся в purchase_key чтением, и подтвержденные повторы отбрасываются без попытки вставки.
+//Ключи, которых фильтр не видел, идут сразу на вставку без лишнего запроса - обычный путь загрузки не замедляется.
+//Ложное срабатывание фильтра стоит одного чтения и не теряет чек.
+//Ключ попадает в фильтр до фиксации: после отката транзакции он даст только лишнее чтение
+@Component
+public class PurchaseDeduplicator {
+
+    private static final Logger logger = LoggerFactory.getLogger(PurchaseDeduplicator.class);
+
+    private final PurchaseKeyRepository purchaseKeyRepository;
+    private final RecentKeyFilter filter;
+    private final LongAdder filterHits = new LongAdder();
+    private final LongAdder falsePositives = new LongAdder();
+
+    public PurchaseDeduplicator(PurchaseKeyRepository purchaseKeyRepository,
+                                @Value("${retail.ingest.dedup.filter-capacity:1000000}") int filterCapacity,
+                                @Value("${retail.ingest.dedup.filter-fpp:0.01}") double filterFpp) {
+        this.purchaseKeyRepository = purchaseKeyRepository;
+        this.filter = new RecentKeyFilter(filterCapacity, filterFpp);
+    }
+
+    //чеки порции без повторов, в исходном порядке; чеки без номера проходят всегда
+    public List<Purchase> dedupe(List<Purchase> chunk) {
+        //повтор внутри самой порции отсекается сразу, первым остается первый чек с ключом
+        Map<PurchaseKeyId, Purchase> keyed = new LinkedHashMap<>();
+        Set<PurchaseKeyId> suspects = new HashSet<>();
+        for (Purchase purchase : chunk) {
+            PurchaseKeyId id = PurchaseKeyId.of(purchase);
+            if (id == null || keyed.putIfAbsent(id, purchase) != null) {
+                continue;
+            }
+            if (filter.mightContain(hash(id))) {
+                suspects.add(id);
+            }
+        }
+        if (keyed.isEmpty()) {
+            return chunk;
+        }
+
+        Set<PurchaseKeyId> existing = suspects.isEmpty() ? Set.of() : purchaseKeyRepository.findExisting(suspects);
+        filterHits.add(suspects.size());
+        falsePositives.add(suspects.size() - existing.size());
+
+        List<PurchaseKey> candidates = new ArrayList<>(keyed.size());
+        keyed.forEach((id, purchase) -> {
+            if (!existing.contains(id)) {
+                candidates.add(new PurchaseKey(id, purchase.getPurchaseDate()));
+            }
+        });
+        Set<PurchaseKeyId> claimed = purchaseKeyRepository.claim(candidates);
+        keyed.keySet().forEach(id -> filter.add(hash(id)));
+
+        List<Purchase> accepted = new ArrayList<>(chunk.size());
+        for (Purchase purchase : chunk) {
+            PurchaseKeyId id = PurchaseKeyId.of(purchase);
+            if (id == null || (claimed.contains(id) && keyed.get(id) == purchase)) {
+                accepted.add(purchase);
+            }
+        }
+        if (accepted.size() < chunk.size()) {
+            logger.info("Пропущено повторно переданных чеков: {} из {}", chunk.size() - accepted.size(), chunk.size());
+        }
+        return accepted;
+    }
+
+    //вероятные повторы по фильтру и те из них, что не подтвердились в БД
+    public long getFilterHits() {
+        return filterHits.sum();
+    }
+
+    public long getFalsePositives() {
+        return falsePositives.sum();
+    }
+
+    private static long hash(PurchaseKeyId id) {
+        long hash = RecentKeyFilter.mix(id.getShopNumber());
+        hash = RecentKeyFilter.mix(hash ^ id.getCashNumber());
+        hash = RecentKeyFilter.mix(hash ^ id.getShiftNumber());
+        return RecentKeyFilter.mix(hash ^ id.getReceiptNumber());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,90 @@
+package ru.otus.prof.retail.services.purchases.dedup;
+
+import java.util.Arrays;
+
+//Фильтр Блума по 64-битным хешам недавно встреченных ключей: "нет" - ключ точно не встречался,
+//"возможно" - встречался или ложное срабатывание (доля не выше заданной при заполнении до capacity).
+//Два поколения: после capacity ключей текущее поколение становится предыдущим, самое старое забывается,
+//поэтому память постоянна, а фильтр помнит от capacity до 2 * capacity последних ключей.
+//Потокобезопасен
+public final class RecentKeyFilter {
+
+    private final int capacity;
+    private final int hashes;
+    private final int mask;
+    private long[] current;
+    private long[] previous;
+    private int added;
+
+    public RecentKeyFilter(int capacity, double falsePositiveRate) {
+        if (capacity <= 0 || falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("Неверные параметры фильтра: capacity " + capacity +
+                    ", falsePositiveRate " + falsePositiveRate);
+        }
+        //m = -n ln p / (ln 2)^2, k = m / n ln 2; m округляется вверх до степени двойки
+        double bitsPerKey = -Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        long bits = Long.highestOneBit((long) Math.ceil(capacity * bitsPerKey) - 1) << 1;
+        bits = Math.max(64, Math.min(bits, 1L << 31));
+        this.capacity = capacity;
+        this.hashes = (int) Math.max(1, Math.min(16, Math.round(bitsPerKey * Math.log(2))));
+        this.mask = (int) (bits - 1);
+        this.current = new long[(int) (bits >>> 6)];
+        this.previous = new long[current.length];
+    }
+
+    public synchronized boolean mightContain(long hash) {
+        return contains(current, hash) || contains(previous, hash);
+    }
+
+    public synchronized void add(long hash) {
+        if (added == capacity) {
+            long[] recycled = previous;
+            Arrays.fill(recycled, 0L);
+            previous = current;
+            current = recycled;
+            added = 0;
+        }
+        //двойное хеширование: h1 + i * h2, h2 нечетный - индексы не зацикливаются раньше времени
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            current[bit >>> 6] |= 1L << bit;
+        }
+        added++;
+    }
+
+    public synchronized void clear() {
+        Arrays.fill(current, 0L);
+        Arrays.fill(previous, 0L);
+        added = 0;
+    }
+
+    public int getHashes() {
+        return hashes;
+    }
+
+    public long getBits() {
+        return (long) mask + 1;
+    }
+
+    //перемешивание splitmix64: соседние номера чеков дают независимые хеши
+    public static long mix(long value) {
+        long z = value + 0x9E3779B97F4A7C15L;
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    private boolean contains(long[] words, long hash) {
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32) | 1;
+        for (int i = 0; i < hashes; i++) {
+            int bit = (h1 + i * h2) & mask;
+            if ((words[bit >>> 6] & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
\ No newline at end of file
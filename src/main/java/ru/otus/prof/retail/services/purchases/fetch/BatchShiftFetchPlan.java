@@ -0,0 +1,89 @@
+package ru.otus.prof.retail.services.purchases.fetch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.entities.purchases.Position;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.entities.purchases.Shift;
+import ru.otus.prof.retail.mappers.purchases.PurchaseMapper;
+import ru.otus.prof.retail.mappers.purchases.ShiftMapper;
+import ru.otus.prof.retail.repositories.purchases.PositionRepository;
+import ru.otus.prof.retail.repositories.purchases.PurchaseRepository;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+//Загрузка по уровням: чеки по ID смен, затем позиции по ID чеков. Каждая строка приходит один раз,
+//число запросов - по одному на уровень и порцию ID, а не на смену или чек
+@Component
+public class BatchShiftFetchPlan implements ShiftFetchPlan {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchShiftFetchPlan.class);
+
+    private final PurchaseRepository purchaseRepository;
+    private final PositionRepository positionRepository;
+    private final ShiftMapper shiftMapper;
+    private final PurchaseMapper purchaseMapper;
+
+    public BatchShiftFetchPlan(PurchaseRepository purchaseRepository, PositionRepository positionRepository,
+                               ShiftMapper shiftMapper, PurchaseMapper purchaseMapper) {
+        this.purchaseRepository = purchaseRepository;
+        this.positionRepository = positionRepository;
+        this.shiftMapper = shiftMapper;
+        this.purchaseMapper = purchaseMapper;
+    }
+
+    @Override
+    public String getName() {
+        return "batch";
+    }
+
+    @Override
+    public List<ShiftDTO> withPurchases(List<Shift> shifts) {
+        List<Long> shiftIds = shifts.stream().map(Shift::getId).toList();
+        Map<Long, List<Purchase>> purchasesByShift = groupByParent(shiftIds,
+                purchaseRepository::findByShift_IdIn, purchase -> purchase.getShift().getId());
+
+        List<Long> purchaseIds = purchasesByShift.values().stream()
+                .flatMap(List::stream)
+                .map(Purchase::getId)
+                .toList();
+        Map<Long, List<Position>> positionsByPurchase = groupByParent(purchaseIds,
+                positionRepository::findByPurchase_IdIn, position -> position.getPurchase().getId());
+        logger.debug("Для {} смен загружено {} чеков и позиции {} чеков",
+                shiftIds.size(), purchaseIds.size(), positionsByPurchase.size());
+
+        return shifts.stream()
+                .map(shift -> {
+                    Set<PurchaseDTO> purchases = purchasesByShift.getOrDefault(shift.getId(), List.of()).stream()
+                            .map(purchase -> purchaseMapper.toDTO(purchase,
+                                    positionsByPurchase.get(purchase.getId())))
+                            .collect(Collectors.toSet());
+                    return shiftMapper.toDTO(shift, purchases);
+                })
+                .toList();
+    }
+
+    //ID родителя берется из прокси ленивой связи и не вызывает ее загрузку
+    private <T> Map<Long, List<T>> groupByParent(List<Long> parentIds,
+                                                 Function<Collection<Long>, List<T>> loader,
+                                                 Function<T, Long> parentId) {
+        Map<Long, List<T>> result = new HashMap<>();
+        for (int from = 0; from < parentIds.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = parentIds.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, parentIds.size()));
+            for (T child : loader.apply(chunk)) {
+                result.computeIfAbsent(parentId.apply(child), id -> new ArrayList<>()).add(child);
+            }
+        }
+        return result;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,49 @@
+package ru.otus.prof.retail.services.purchases.fetch;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.entities.purchases.Shift;
+import ru.otus.prof.retail.mappers.purchases.ShiftMapper;
+import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+//Один запрос shift JOIN purchase JOIN position: поля смены и чека повторяются в каждой строке позиции,
+//объем выборки растет как смены x чеки x позиции. Оставлен для сравнения и небольших смен
+@Component
+public class JoinShiftFetchPlan implements ShiftFetchPlan {
+
+    private static final Logger logger = LoggerFactory.getLogger(JoinShiftFetchPlan.class);
+
+    private final ShiftRepository shiftRepository;
+    private final ShiftMapper shiftMapper;
+
+    public JoinShiftFetchPlan(ShiftRepository shiftRepository, ShiftMapper shiftMapper) {
+        this.shiftRepository = shiftRepository;
+        this.shiftMapper = shiftMapper;
+    }
+
+    @Override
+    public String getName() {
+        return "join";
+    }
+
+    @Override
+    public List<ShiftDTO> withPurchases(List<Shift> shifts) {
+        List<Long> ids = shifts.stream().map(Shift::getId).toList();
+        Map<Long, Shift> loaded = new HashMap<>();
+        for (int from = 0; from < ids.size(); from += IN_CLAUSE_CHUNK_SIZE) {
+            List<Long> chunk = ids.subList(from, Math.min(from + IN_CLAUSE_CHUNK_SIZE, ids.size()));
+            shiftRepository.findWithPurchasesByIds(chunk).forEach(shift -> loaded.put(shift.getId(), shift));
+        }
+        logger.debug("Загружено {} смен с чеками одним запросом на порцию", loaded.size());
+
+        return ids.stream()
+                .map(id -> shiftMapper.toDTO(loaded.get(id), true))
+                .toList();
+    }
+}
\ No newline at end of file
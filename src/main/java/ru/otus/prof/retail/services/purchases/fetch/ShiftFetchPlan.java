@@ -0,0 +1,19 @@
+package ru.otus.prof.retail.services.purchases.fetch;
+
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.entities.purchases.Shift;
+
+import java.util.List;
+
+//Способ дозагрузки чеков и позиций для уже выбранных смен. Выбирается свойством retail.shifts.fetch-plan.
+//Вызывается внутри транзакции
+public interface ShiftFetchPlan {
+
+    //порция ID в одном IN-запросе дозагрузки
+    int IN_CLAUSE_CHUNK_SIZE = 1000;
+
+    String getName();
+
+    //порядок смен в результате совпадает с порядком на входе
+    List<ShiftDTO> withPurchases(List<Shift> shifts);
+}
\ No newline at end of file
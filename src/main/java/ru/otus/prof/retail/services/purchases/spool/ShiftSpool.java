@@ -0,0 +1,377 @@
+package ru.otus.prof.retail.services.purchases.spool;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+//Локальный журнал принятых смен только на дозапись: сегменты segment-<номер>.log в каталоге спула,
+//запись - [длина int][CRC32C int][содержимое]. Позиция вычитанного записывается в файл checkpoint,
+//полностью вычитанные сегменты удаляются.
+//Групповая фиксация: append возвращает управление после fsync, но fsync выполняет только один поток -
+//записи, пришедшие за время его fsync, фиксируются следующим одним fsync на всех. fsync идет без writeLock,
+//дозапись не ждет диска; переход на новый сегмент и закрытие согласуются через syncLock и не закрывают
+//канал под идущим fsync. Порядок захвата - syncLock, затем writeLock.
+//При открытии недописанный хвост последнего сегмента (сбой посреди записи, подтверждения не было) обрезается.
+//Читатель один: читаются только зафиксированные записи
+public final class ShiftSpool implements Closeable {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShiftSpool.class);
+
+    static final int HEADER_BYTES = 8;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final String CHECKPOINT = "checkpoint";
+
+    private final Path directory;
+    private final long segmentBytes;
+    private final ReentrantLock writeLock = new ReentrantLock();
+    //очередь на fsync: пока один поток фиксирует, остальные ждут здесь и часто находят свою запись уже зафиксированной
+    private final ReentrantLock syncLock = new ReentrantLock();
+    private final Condition durableAdvanced = writeLock.newCondition();
+    private final AtomicLong backlogBytes = new AtomicLong();
+    private final AtomicLong syncs = new AtomicLong();
+
+    private FileChannel writer;
+    private long writerSegment;
+    private long writerOffset;
+    private volatile SpoolPosition durable;
+    private volatile SpoolPosition checkpoint;
+
+    private FileChannel reader;
+    private long readerSegment = -1;
+
+    private ShiftSpool(Path directory, long segmentBytes) {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+    }
+
+    public static ShiftSpool open(Path directory, long segmentBytes) throws IOException {
+        Files.createDirectories(directory);
+        ShiftSpool spool = new ShiftSpool(directory, segmentBytes);
+        spool.recover();
+        return spool;
+    }
+
+    //возвращает позицию записи после ее fsync
+    public SpoolPosition append(byte[] payload) throws IOException {
+        SpoolPosition start;
+        SpoolPosition end;
+        long size = HEADER_BYTES + payload.length;
+        writeLock.lock();
+        try {
+            if (writerOffset > 0 && writerOffset + size > segmentBytes) {
+                //порядок захвата: writeLock отпускается, чтобы дождаться идущего fsync под syncLock
+                writeLock.unlock();
+                syncLock.lock();
+                try {
+                    writeLock.lock();
+                    if (writerOffset > 0 && writerOffset + size > segmentBytes) {
+                        roll();
+                    }
+                } finally {
+                    syncLock.unlock();
+                }
+            }
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).putInt(payload.length).putInt((int) crc.getValue()).flip();
+            ByteBuffer body = ByteBuffer.wrap(payload);
+            while (header.hasRemaining() || body.hasRemaining()) {
+                writer.write(new ByteBuffer[]{header, body});
+            }
+            start = new SpoolPosition(writerSegment, writerOffset);
+            writerOffset += size;
+            end = new SpoolPosition(writerSegment, writerOffset);
+            backlogBytes.addAndGet(size);
+        } finally {
+            writeLock.unlock();
+        }
+        sync(end);
+        return start;
+    }
+
+    //следующая зафиксированная запись начиная с from, null - записей нет
+    public SpoolRecord read(SpoolPosition from) throws IOException {
+        SpoolPosition position = from;
+        while (true) {
+            SpoolPosition limit = durable;
+            if (position.compareTo(limit) >= 0) {
+                return null;
+            }
+            FileChannel channel = readerFor(position.segment());
+            long segmentEnd = position.segment() == limit.segment() ? limit.offset() : channel.size();
+            if (position.offset() >= segmentEnd) {
+                //сегмент вычитан и закрыт - следующая запись в начале следующего сегмента
+                position = new SpoolPosition(position.segment() + 1, 0);
+                continue;
+            }
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            readFully(channel, header, position.offset());
+            header.flip();
+            int length = header.getInt();
+            int checksum = header.getInt();
+            byte[] payload = new byte[length];
+            readFully(channel, ByteBuffer.wrap(payload), position.offset() + HEADER_BYTES);
+            CRC32C crc = new CRC32C();
+            crc.update(payload);
+            if ((int) crc.getValue() != checksum) {
+                throw new IOException("Повреждена запись спула в сегменте " + position.segment() +
+                        " по смещению " + position.offset());
+            }
+            return new SpoolRecord(position, new SpoolPosition(position.segment(), position.offset() + HEADER_BYTES + length),
+                    payload);
+        }
+    }
+
+    //ждет фиксации записи после from не дольше timeoutMs; true - есть что читать
+    public boolean awaitRecord(SpoolPosition from, long timeoutMs) throws InterruptedException {
+        writeLock.lock();
+        try {
+            long nanos = timeoutMs * 1_000_000;
+            while (from.compareTo(durable) >= 0 && nanos > 0) {
+                nanos = durableAdvanced.awaitNanos(nanos);
+            }
+            return from.compareTo(durable) < 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    //записи до next переданы в БД: позиция сохраняется, вычитанные сегменты удаляются
+    public void commit(SpoolPosition next, long consumedBytes) throws IOException {
+        Path temporary = directory.resolve(CHECKPOINT + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            channel.write(ByteBuffer.wrap((next.segment() + " " + next.offset()).getBytes(StandardCharsets.US_ASCII)));
+            channel.force(true);
+        }
+        Files.move(temporary, directory.resolve(CHECKPOINT), StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        syncDirectory();
+        checkpoint = next;
+        backlogBytes.addAndGet(-consumedBytes);
+
+        for (long segment : listSegments()) {
+            if (segment < next.segment()) {
+                if (segment == readerSegment) {
+                    closeReader();
+                }
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+    }
+
+    public SpoolPosition getCheckpoint() {
+        return checkpoint;
+    }
+
+    //байты принятых, но еще не переданных в БД записей
+    public long getBacklogBytes() {
+        return backlogBytes.get();
+    }
+
+    public int getSegmentCount() throws IOException {
+        return listSegments().size();
+    }
+
+    public long getSyncCount() {
+        return syncs.get();
+    }
+
+    @Override
+    public void close() throws IOException {
+        syncLock.lock();
+        writeLock.lock();
+        try {
+            writer.force(false);
+            writer.close();
+            closeReader();
+        } finally {
+            writeLock.unlock();
+            syncLock.unlock();
+        }
+    }
+
+    private void sync(SpoolPosition end) throws IOException {
+        syncLock.lock();
+        try {
+            if (durable.compareTo(end) >= 0) {
+                //запись зафиксирована чужим fsync
+                return;
+            }
+            FileChannel channel;
+            SpoolPosition target;
+            writeLock.lock();
+            try {
+                channel = writer;
+                target = new SpoolPosition(writerSegment, writerOffset);
+            } finally {
+                writeLock.unlock();
+            }
+            //записи, дописанные во время fsync, фиксируются следующим; канал не закрывается - roll ждет syncLock
+            channel.force(false);
+            syncs.incrementAndGet();
+            writeLock.lock();
+            try {
+                durable = target;
+                durableAdvanced.signalAll();
+            } finally {
+                writeLock.unlock();
+            }
+        } finally {
+            syncLock.unlock();
+        }
+    }
+
+    //вызывается под syncLock и writeLock: текущий сегмент фиксируется целиком до перехода на новый
+    private void roll() throws IOException {
+        writer.force(false);
+        syncs.incrementAndGet();
+        writer.close();
+        durable = new SpoolPosition(writerSegment, writerOffset);
+        durableAdvanced.signalAll();
+        openWriter(writerSegment + 1, 0);
+    }
+
+    private void recover() throws IOException {
+        List<Long> segments = listSegments();
+        checkpoint = readCheckpoint(segments);
+        for (long segment : segments) {
+            if (segment < checkpoint.segment()) {
+                Files.deleteIfExists(segmentPath(segment));
+            }
+        }
+
+        long last = segments.isEmpty() ? checkpoint.segment() : Math.max(checkpoint.segment(), segments.get(segments.size() - 1));
+        long validEnd = Files.exists(segmentPath(last)) ? scanValidEnd(segmentPath(last)) : 0;
+        openWriter(last, validEnd);
+        durable = new SpoolPosition(writerSegment, writerOffset);
+
+        long backlog = 0;
+        for (long segment : listSegments()) {
+            long size = Files.size(segmentPath(segment));
+            backlog += segment == checkpoint.segment() ? size - checkpoint.offset() : size;
+        }
+        backlogBytes.set(backlog);
+        logger.info("Спул {} открыт: позиция {}, конец {}, не передано {} байт", directory, checkpoint, durable, backlog);
+    }
+
+    private SpoolPosition readCheckpoint(List<Long> segments) throws IOException {
+        Path file = directory.resolve(CHECKPOINT);
+        if (Files.exists(file)) {
+            String[] parts = Files.readString(file, StandardCharsets.US_ASCII).trim().split(" ");
+            return new SpoolPosition(Long.parseLong(parts[0]), Long.parseLong(parts[1]));
+        }
+        return new SpoolPosition(segments.isEmpty() ? 1 : segments.get(0), 0);
+    }
+
+    //конец последней целой записи; недописанный хвост отрезается
+    private long scanValidEnd(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = channel.size();
+            long offset = 0;
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (offset + HEADER_BYTES <= size) {
+                header.clear();
+                readFully(channel, header, offset);
+                header.flip();
+                int length = header.getInt();
+                int checksum = header.getInt();
+                if (length < 0 || offset + HEADER_BYTES + length > size) {
+                    break;
+                }
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                readFully(channel, payload, offset + HEADER_BYTES);
+                CRC32C crc = new CRC32C();
+                crc.update(payload.flip());
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+                offset += HEADER_BYTES + length;
+            }
+            if (offset < size) {
+                logger.warn("Спул {}: обрезан недописанный хвост сегмента {}, {} байт", directory, segment.getFileName(),
+                        size - offset);
+                channel.truncate(offset);
+                channel.force(true);
+            }
+            return offset;
+        }
+    }
+
+    private void openWriter(long segment, long offset) throws IOException {
+        Path path = segmentPath(segment);
+        boolean created = !Files.exists(path);
+        writer = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        writer.position(offset);
+        writerSegment = segment;
+        writerOffset = offset;
+        if (created) {
+            syncDirectory();
+        }
+    }
+
+    private FileChannel readerFor(long segment) throws IOException {
+        if (segment != readerSegment) {
+            closeReader();
+            reader = FileChannel.open(segmentPath(segment), StandardOpenOption.READ);
+            readerSegment = segment;
+        }
+        return reader;
+    }
+
+    private void closeReader() throws IOException {
+        if (reader != null) {
+            reader.close();
+            reader = null;
+            readerSegment = -1;
+        }
+    }
+
+    private List<Long> listSegments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX))
+                    .map(name -> Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length())))
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long segment) {
+        return directory.resolve(String.format("%s%012d%s", SEGMENT_PREFIX, segment, SEGMENT_SUFFIX));
+    }
+
+    //новый файл и переименование переживают сбой питания только после fsync каталога
+    private void syncDirectory() {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException e) {
+            //не все ОС позволяют открыть каталог как файл
+            logger.debug("fsync каталога спула недоступен: {}", e.getMessage());
+        }
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException {
+        long offset = position;
+        while (buffer.hasRemaining()) {
+            int read = channel.read(buffer, offset);
+            if (read < 0) {
+                throw new IOException("Неожиданный конец сегмента спула");
+            }
+            offset += read;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,315 @@
+package ru.otus.prof.retail.services.purchases.spool;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ConstraintViolationException;
+import jakarta.validation.Validator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.InputShiftDTO;
+import ru.otus.prof.retail.dto.purchases.SpoolAcceptedDTO;
+import ru.otus.prof.retail.dto.purchases.SpoolStatsDTO;
+import ru.otus.prof.retail.exception.purchases.IngestSpoolUnavailableException;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.services.purchases.IngestErrors;
+import ru.otus.prof.retail.services.purchases.NdjsonReader;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
+import ru.otus.prof.retail.services.purchases.ShiftPeriods;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+//Отложенная запись смен: смена проверяется без обращения к БД, дописывается в локальный спул (ShiftSpool)
+//и подтверждается кассе после fsync - медленная БД (vacuum, переключение реплик) не держит потоки запросов.
+//Фоновый поток передает смены из спула в БД пачками по drain-batch-records смен в одной транзакции,
+//при ошибке БД повторяет с растущей паузой. Переполнение спула (max-backlog-bytes) - отказ 503, касса повторит позже.
+//После перезапуска передача продолжается с сохраненной позиции; смена, переданная до сбоя, но не отмеченная
+//в спуле, загружается повторно без дублей - чеки узнаются по номеру чека кассы
+@Service
+public class ShiftSpoolService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShiftSpoolService.class);
+
+    private static final long IDLE_WAIT_MS = 500;
+    private static final long RETRY_MIN_MS = 200;
+
+    private final ShiftIngestService shiftIngestService;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+    private final boolean enabled;
+    private final Path directory;
+    private final long segmentBytes;
+    private final int maxRecordBytes;
+    private final long maxBacklogBytes;
+    private final int drainBatchRecords;
+    private final long retryMaxMs;
+
+    private final AtomicLong accepted = new AtomicLong();
+    private final AtomicLong drained = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong refused = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private volatile String lastError;
+    private volatile LocalDateTime lastDrainTime;
+
+    private ShiftSpool spool;
+    private Thread drainer;
+    private volatile boolean running;
+
+    public ShiftSpoolService(ShiftIngestService shiftIngestService, ObjectMapper objectMapper, Validator validator,
+                             @Value("${retail.ingest.spool.enabled:false}") boolean enabled,
+                             @Value("${retail.ingest.spool.dir:${java.io.tmpdir}/retail-spool}") Path directory,
+                             @Value("${retail.ingest.spool.segment-bytes:67108864}") long segmentBytes,
+                             @Value("${retail.ingest.spool.max-record-bytes:67108864}") int maxRecordBytes,
+                             @Value("${retail.ingest.spool.max-backlog-bytes:1073741824}") long maxBacklogBytes,
+                             @Value("${retail.ingest.spool.drain-batch-records:16}") int drainBatchRecords,
+                             @Value("${retail.ingest.spool.retry-max-ms:30000}") long retryMaxMs) {
+        this.shiftIngestService = shiftIngestService;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+        this.enabled = enabled;
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        this.maxRecordBytes = maxRecordBytes;
+        this.maxBacklogBytes = maxBacklogBytes;
+        this.drainBatchRecords = drainBatchRecords;
+        this.retryMaxMs = retryMaxMs;
+    }
+
+    //спул открывается до приема запросов: касса может прислать смену раньше, чем стартует передача в БД
+    @PostConstruct
+    public void open() throws IOException {
+        if (enabled) {
+            spool = ShiftSpool.open(directory, segmentBytes);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (spool == null || running) {
+            return;
+        }
+        running = true;
+        drainer = new Thread(this::drain, "shift-spool-drainer");
+        drainer.setDaemon(true);
+        drainer.start();
+    }
+
+    //поток не прерывается: прерывание посреди транзакции закрыло бы соединение,
+    //он сам завершается после текущей пачки
+    @PreDestroy
+    public void stop() throws IOException, InterruptedException {
+        running = false;
+        if (drainer != null) {
+            drainer.join(retryMaxMs + IDLE_WAIT_MS);
+        }
+        if (spool != null) {
+            spool.close();
+        }
+    }
+
+    public SpoolAcceptedDTO accept(InputStream body) {
+        if (spool == null) {
+            throw new IngestSpoolUnavailableException("Спул загрузки смен выключен");
+        }
+        byte[] payload = readLimited(body);
+        check(payload);
+
+        long backlog = spool.getBacklogBytes();
+        if (backlog + payload.length > maxBacklogBytes) {
+            refused.incrementAndGet();
+            logger.warn("Спул загрузки переполнен: {} байт не передано в БД, смена не принята", backlog);
+            throw new IngestSpoolUnavailableException("Очередь загрузки смен переполнена, повторите передачу позже");
+        }
+        try {
+            SpoolPosition position = spool.append(payload);
+            accepted.incrementAndGet();
+            return new SpoolAcceptedDTO(position.segment(), position.offset(), payload.length, spool.getBacklogBytes());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи в спул загрузки: " + e.getMessage(), e);
+        }
+    }
+
+    public SpoolStatsDTO getStats() {
+        int segments = 0;
+        if (spool != null) {
+            try {
+                segments = spool.getSegmentCount();
+            } catch (IOException e) {
+                logger.warn("Не удалось прочитать каталог спула: {}", e.getMessage());
+            }
+        }
+        return new SpoolStatsDTO(spool != null, spool != null ? spool.getBacklogBytes() : 0, maxBacklogBytes, segments,
+                accepted.get(), drained.get(), rejected.get(), refused.get(), spool != null ? spool.getSyncCount() : 0,
+                failures.get(), lastError, lastDrainTime);
+    }
+
+    private void drain() {
+        logger.info("Передача смен из спула {} в БД запущена", directory);
+        long backoff = RETRY_MIN_MS;
+        while (running) {
+            try {
+                SpoolPosition position = spool.getCheckpoint();
+                List<SpoolRecord> batch = readBatch(position);
+                if (batch.isEmpty()) {
+                    spool.awaitRecord(position, IDLE_WAIT_MS);
+                    continue;
+                }
+                store(batch);
+                backoff = RETRY_MIN_MS;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                failures.incrementAndGet();
+                lastError = e.getMessage();
+                logger.error("Ошибка передачи смен из спула в БД, повтор через {} мс: {}", backoff, e.getMessage());
+                pause(backoff);
+                backoff = Math.min(backoff * 2, retryMaxMs);
+            }
+        }
+        logger.info("Передача смен из спула в БД остановлена");
+    }
+
+    private List<SpoolRecord> readBatch(SpoolPosition from) throws IOException {
+        List<SpoolRecord> batch = new ArrayList<>(drainBatchRecords);
+        SpoolPosition position = from;
+        SpoolRecord record;
+        while (batch.size() < drainBatchRecords && (record = spool.read(position)) != null) {
+            batch.add(record);
+            position = record.next();
+        }
+        return batch;
+    }
+
+    //пачка пишется одной транзакцией; если в ней есть смена, которую БД не примет, пачка разбирается
+    //по одной смене и отклоняется только она. Ошибки БД (недоступность, таймауты) уходят на повтор всей пачки
+    private void store(List<SpoolRecord> batch) throws IOException {
+        try {
+            shiftIngestService.ingestShifts(batch.stream().map(this::toStream).toList());
+            commit(batch);
+        } catch (RuntimeException e) {
+            if (!IngestErrors.isDataError(e)) {
+                throw e;
+            }
+            if (batch.size() > 1) {
+                logger.warn("Пачка из {} смен спула не записана ({}), запись по одной", batch.size(), e.getMessage());
+            }
+            for (SpoolRecord record : batch) {
+                try {
+                    shiftIngestService.ingestShifts(List.of(toStream(record)));
+                } catch (RuntimeException recordError) {
+                    if (!IngestErrors.isDataError(recordError)) {
+                        throw recordError;
+                    }
+                    reject(record, recordError);
+                }
+                commit(List.of(record));
+            }
+        }
+    }
+
+    private void commit(List<SpoolRecord> records) throws IOException {
+        long bytes = 0;
+        for (SpoolRecord record : records) {
+            bytes += record.size();
+        }
+        spool.commit(records.get(records.size() - 1).next(), bytes);
+        drained.addAndGet(records.size());
+        lastDrainTime = LocalDateTime.now();
+    }
+
+    //отклоненная смена сохраняется как есть для разбора и повторной загрузки через /ingest
+    private void reject(SpoolRecord record, RuntimeException e) throws IOException {
+        Path rejectedDir = directory.resolve("rejected");
+        Files.createDirectories(rejectedDir);
+        Path file = rejectedDir.resolve(String.format("shift-%012d-%d.ndjson", record.position().segment(),
+                record.position().offset()));
+        Files.write(file, record.payload());
+        rejected.incrementAndGet();
+        logger.error("Смена из спула не принята БД и сохранена в {}: {}", file, e.getMessage());
+    }
+
+    //все проверки, не требующие БД, выполняются до подтверждения: ошибка формата возвращается кассе, а не в rejected
+    private void check(byte[] payload) {
+        NdjsonReader reader = new NdjsonReader(new ByteArrayInputStream(payload), objectMapper);
+        if (!reader.hasNext()) {
+            throw new ShiftValidationException("Поток не содержит заголовка смены");
+        }
+        InputShiftDTO header = reader.read(InputShiftDTO.class);
+        Set<ConstraintViolation<InputShiftDTO>> headerViolations = validator.validate(header);
+        if (!headerViolations.isEmpty()) {
+            throw new ConstraintViolationException(headerViolations);
+        }
+        ShiftPeriods.validate(header.openTime(), header.closeTime());
+        while (reader.hasNext()) {
+            InputPurchaseDTO purchase = reader.read(InputPurchaseDTO.class);
+            //ID смены чекам назначается при записи в БД
+            Set<ConstraintViolation<InputPurchaseDTO>> violations = validator.validate(purchase)
+                    .stream()
+                    .filter(violation -> !"shiftId".equals(violation.getPropertyPath().toString()))
+                    .collect(Collectors.toSet());
+            if (!violations.isEmpty()) {
+                throw new ConstraintViolationException(violations);
+            }
+            //спул передает смену в БД как минимум один раз: после сбоя между записью и подтверждением пачка
+            //повторяется, и повтор отсеивается только по номеру чека
+            if (purchase.receiptNumber() == null) {
+                throw new ShiftValidationException("Чек без номера (receiptNumber) не может быть принят в очередь загрузки, " +
+                        "используйте прямую загрузку /api/v1/purchases/shift/ingest");
+            }
+        }
+    }
+
+    private byte[] readLimited(InputStream body) {
+        try {
+            ByteArrayOutputStream out = new ByteArrayOutputStream(1 << 16);
+            byte[] buffer = new byte[1 << 16];
+            int read;
+            while ((read = body.read(buffer)) != -1) {
+                if (out.size() + read > maxRecordBytes) {
+                    throw new ShiftValidationException("Смена больше " + maxRecordBytes +
+                            " байт, используйте прямую загрузку /api/v1/purchases/shift/ingest");
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка чтения потока", e);
+        }
+    }
+
+    private InputStream toStream(SpoolRecord record) {
+        return new ByteArrayInputStream(record.payload());
+    }
+
+    private void pause(long ms) {
+        long until = System.currentTimeMillis() + ms;
+        while (running && System.currentTimeMillis() < until) {
+            try {
+                Thread.sleep(Math.max(1, Math.min(IDLE_WAIT_MS, until - System.currentTimeMillis())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
\ No newline at end of file
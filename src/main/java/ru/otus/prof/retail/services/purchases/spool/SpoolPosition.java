@@ -0,0 +1,11 @@
+package ru.otus.prof.retail.services.purchases.spool;
+
+//Позиция в спуле: номер сегмента и смещение в нем
+public record SpoolPosition(long segment, long offset) implements Comparable<SpoolPosition> {
+
+    @Override
+    public int compareTo(SpoolPosition other) {
+        int bySegment = Long.compare(segment, other.segment);
+        return bySegment != 0 ? bySegment : Long.compare(offset, other.offset);
+    }
+}
\ No newline at end of file
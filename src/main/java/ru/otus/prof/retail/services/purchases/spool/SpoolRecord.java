@@ -0,0 +1,10 @@
+package ru.otus.prof.retail.services.purchases.spool;
+
+//Запись спула: позиция начала, позиция следующей записи и содержимое
+public record SpoolRecord(SpoolPosition position, SpoolPosition next, byte[] payload) {
+
+    //место записи в спуле вместе с заголовком
+    public long size() {
+        return ShiftSpool.HEADER_BYTES + payload.length;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,15 @@
+package ru.otus.prof.retail.services.purchases.validation;
+
+//Причина помещения позиции чека в карантин, в порядке проверки: у позиции фиксируется первая найденная
+public enum MismatchReason {
+    //штрих-кода нет в каталоге
+    UNKNOWN_BARCODE,
+    //штрих-код принадлежит другому товару
+    BARCODE_ARTICLE_MISMATCH,
+    //товара с артикулом позиции нет в каталоге
+    UNKNOWN_ARTICLE,
+    //цена позиции отличается от цены товара на момент чека (или цены на этот момент нет)
+    PRICE_MISMATCH,
+    //название позиции отличается от названия товара
+    NAME_MISMATCH
+}
\ No newline at end of file
@@ -0,0 +1,14 @@
+package ru.otus.prof.retail.services.purchases.validation;
+
+import java.time.LocalDateTime;
+
+//Позиция чека, не совпавшая с каталогом; expectedArticle / expectedPrice - значения по каталогу, если известны
+public record PositionMismatch(Long positionId, Long purchaseId, Long shiftId, LocalDateTime purchaseDate,
+                               String barcode, Long article, String positionName, Long price,
+                               MismatchReason reason, Long expectedArticle, Long expectedPrice) {
+
+    public PositionMismatch withReason(MismatchReason reason, Long expectedArticle, Long expectedPrice) {
+        return new PositionMismatch(positionId, purchaseId, shiftId, purchaseDate, barcode, article, positionName, price,
+                reason, expectedArticle, expectedPrice);
+    }
+}
\ No newline at end of file
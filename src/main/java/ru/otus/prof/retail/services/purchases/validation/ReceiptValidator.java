@@ -0,0 +1,138 @@
+package ru.otus.prof.retail.services.purchases.validation;
+
+import ru.otus.prof.retail.entities.purchases.Position;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.services.product.catalog.CatalogSnapshot;
+import ru.otus.prof.retail.services.product.pricing.PriceIntervalIndex;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.LongPredicate;
+
+//Проверка позиций чека по снимку каталога и индексу цен в памяти, без запросов к БД.
+//Чек разбирается в столбцы примитивных массивов, затем каждая проверка идет отдельным проходом по столбцу:
+//штрих-коды, товары, цены на момент чека (один для всех позиций), названия.
+//Массивы переиспользуются между чеками, объекты создаются только для несовпавших позиций.
+//Экземпляр не потокобезопасен - один на порцию загрузки
+public final class ReceiptValidator {
+
+    private final CatalogSnapshot snapshot;
+    private final PriceIntervalIndex priceIndex;
+    //товар изменен после сборки индекса цен - цену по индексу не проверяем
+    private final LongPredicate priceChanged;
+    private final boolean checkNames;
+
+    private long[] articles = new long[32];
+    private long[] prices = new long[32];
+    private long[] barcodeArticles = new long[32];
+    private int[] items = new int[32];
+    private long[] expectedPrices = new long[32];
+    private MismatchReason[] reasons = new MismatchReason[32];
+
+    private long priceUnchecked;
+
+    public ReceiptValidator(CatalogSnapshot snapshot, PriceIntervalIndex priceIndex, LongPredicate priceChanged,
+                            boolean checkNames) {
+        this.snapshot = snapshot;
+        this.priceIndex = priceIndex;
+        this.priceChanged = priceChanged;
+        this.checkNames = checkNames;
+    }
+
+    //несовпавшие позиции добавляются в mismatches, возвращается их количество
+    public int validate(Purchase purchase, List<PositionMismatch> mismatches) {
+        List<Position> positions = purchase.getPositions();
+        int count = positions == null ? 0 : positions.size();
+        if (count == 0) {
+            return 0;
+        }
+        ensureCapacity(count);
+
+        for (int i = 0; i < count; i++) {
+            Position position = positions.get(i);
+            articles[i] = position.getArticle();
+            prices[i] = position.getPrice();
+        }
+        Arrays.fill(reasons, 0, count, null);
+
+        //штрих-код -> артикул
+        for (int i = 0; i < count; i++) {
+            long article = snapshot.articleOf(positions.get(i).getBarcode());
+            barcodeArticles[i] = article;
+            if (article == CatalogSnapshot.NO_ARTICLE) {
+                reasons[i] = MismatchReason.UNKNOWN_BARCODE;
+            } else if (article != articles[i]) {
+                reasons[i] = MismatchReason.BARCODE_ARTICLE_MISMATCH;
+            }
+        }
+
+        //артикул -> товар снимка
+        for (int i = 0; i < count; i++) {
+            items[i] = snapshot.indexOfArticle(articles[i]);
+            if (reasons[i] == null && items[i] < 0) {
+                reasons[i] = MismatchReason.UNKNOWN_ARTICLE;
+            }
+        }
+
+        //цена на момент чека - по индексу интервалов, если он покрывает момент
+        boolean pricesIndexed = priceIndex.covers(purchase.getPurchaseDate());
+        long time = pricesIndexed ? PriceIntervalIndex.toMillis(purchase.getPurchaseDate()) : 0;
+        for (int i = 0; i < count; i++) {
+            expectedPrices[i] = CatalogSnapshot.NO_PRICE;
+            if (reasons[i] != null) {
+                continue;
+            }
+            if (!pricesIndexed || priceChanged.test(articles[i])) {
+                priceUnchecked++;
+                continue;
+            }
+            int interval = priceIndex.find(articles[i], time);
+            if (interval >= 0) {
+                expectedPrices[i] = priceIndex.getPrice(interval);
+            }
+            if (expectedPrices[i] != prices[i]) {
+                reasons[i] = MismatchReason.PRICE_MISMATCH;
+            }
+        }
+
+        if (checkNames) {
+            for (int i = 0; i < count; i++) {
+                if (reasons[i] == null && !snapshot.nameEquals(items[i], positions.get(i).getPositionName())) {
+                    reasons[i] = MismatchReason.NAME_MISMATCH;
+                }
+            }
+        }
+
+        int found = 0;
+        for (int i = 0; i < count; i++) {
+            if (reasons[i] != null) {
+                Position position = positions.get(i);
+                mismatches.add(new PositionMismatch(position.getId(), purchase.getId(), purchase.getShift().getId(),
+                        purchase.getPurchaseDate(), position.getBarcode(), position.getArticle(),
+                        position.getPositionName(), position.getPrice(), reasons[i],
+                        barcodeArticles[i] == CatalogSnapshot.NO_ARTICLE ? null : barcodeArticles[i],
+                        expectedPrices[i] == CatalogSnapshot.NO_PRICE ? null : expectedPrices[i]));
+                found++;
+            }
+        }
+        return found;
+    }
+
+    //позиции, цена которых не проверялась: момент вне индекса цен или товар изменен после сборки
+    public long getPriceUnchecked() {
+        return priceUnchecked;
+    }
+
+    private void ensureCapacity(int count) {
+        if (articles.length >= count) {
+            return;
+        }
+        int capacity = Math.max(count, articles.length * 2);
+        articles = new long[capacity];
+        prices = new long[capacity];
+        barcodeArticles = new long[capacity];
+        items = new int[capacity];
+        expectedPrices = new long[capacity];
+        reasons = new MismatchReason[capacity];
+    }
+}
\ No newline at end of file
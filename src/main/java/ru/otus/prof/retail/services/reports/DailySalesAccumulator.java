@@ -0,0 +1,44 @@
+package ru.otus.prof.retail.services.reports;
+
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.entities.purchases.Shift;
+import ru.otus.prof.retail.entities.reports.DailySalesRollup;
+import ru.otus.prof.retail.entities.reports.DailySalesRollupId;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+//Приращения дневной свертки по загружаемым чекам: сотни тысяч чеков смены сводятся к нескольким строкам
+public class DailySalesAccumulator {
+
+    private final Map<DailySalesRollupId, DailySalesRollup> deltas = new HashMap<>();
+
+    public void add(Shift shift, Purchase purchase) {
+        DailySalesRollupId key = new DailySalesRollupId(shift.getShopNumber(), shift.getCashNumber(),
+                purchase.getPurchaseDate().toLocalDate());
+        DailySalesRollup delta = deltas.computeIfAbsent(key, id -> {
+            DailySalesRollup rollup = new DailySalesRollup();
+            rollup.setId(id);
+            rollup.setReceipts(0L);
+            rollup.setRevenue(0L);
+            rollup.setItemsSold(0L);
+            return rollup;
+        });
+        delta.setReceipts(delta.getReceipts() + 1);
+        delta.setRevenue(delta.getRevenue() + purchase.getTotal());
+        delta.setItemsSold(delta.getItemsSold() + purchase.getPositions().size());
+    }
+
+    public void add(Purchase purchase) {
+        add(purchase.getShift(), purchase);
+    }
+
+    public boolean isEmpty() {
+        return deltas.isEmpty();
+    }
+
+    public Collection<DailySalesRollup> getDeltas() {
+        return deltas.values();
+    }
+}
\ No newline at end of file
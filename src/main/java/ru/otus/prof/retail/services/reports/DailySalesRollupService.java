@@ -0,0 +1,79 @@
+package ru.otus.prof.retail.services.reports;
+
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import ru.otus.prof.retail.dto.reports.DailySalesDTO;
+import ru.otus.prof.retail.dto.reports.RollupRebuildResultDTO;
+import ru.otus.prof.retail.entities.reports.DailySalesRollup;
+import ru.otus.prof.retail.exception.reports.ReportValidationException;
+import ru.otus.prof.retail.repositories.reports.DailySalesRollupRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Service
+public class DailySalesRollupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DailySalesRollupService.class);
+
+    private final DailySalesRollupRepository rollupRepository;
+
+    @Autowired
+    public DailySalesRollupService(DailySalesRollupRepository rollupRepository) {
+        this.rollupRepository = rollupRepository;
+    }
+
+    //вызывается из транзакции загрузки чеков: свертка фиксируется вместе с чеками
+    public void apply(DailySalesAccumulator accumulator) {
+        if (accumulator.isEmpty()) {
+            return;
+        }
+        rollupRepository.addDeltas(accumulator.getDeltas());
+        logger.debug("Обновлено строк дневной свертки: {}", accumulator.getDeltas().size());
+    }
+
+    public List<DailySalesDTO> getDailySales(Long shopNumber, Long cashNumber, LocalDate from, LocalDate to) {
+        logger.info("Запрос дневных продаж: магазин {}, касса {}, период {} - {}", shopNumber, cashNumber, from, to);
+        validateRange(from, to);
+
+        List<DailySalesRollup> rows = cashNumber == null
+                ? rollupRepository.findByShop(shopNumber, from, to)
+                : rollupRepository.findByShopAndCash(shopNumber, cashNumber, from, to);
+
+        logger.debug("Найдено {} строк свертки", rows.size());
+        return rows.stream()
+                .map(row -> new DailySalesDTO(
+                        row.getId().getShopNumber(),
+                        row.getId().getCashNumber(),
+                        row.getId().getDay(),
+                        row.getReceipts(),
+                        row.getRevenue(),
+                        row.getItemsSold()))
+                .toList();
+    }
+
+    //для загрузки истории через backfill, который пишет чеки в обход JPA и свертку не обновляет
+    @Transactional
+    public RollupRebuildResultDTO rebuild(LocalDate from, LocalDate to) {
+        logger.info("Пересчет дневной свертки за период {} - {}", from, to);
+        validateRange(from, to);
+
+        long start = System.nanoTime();
+        int rows = rollupRepository.rebuild(from, to);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        logger.info("Дневная свертка за {} - {} пересчитана: {} строк за {} мс", from, to, rows, elapsedMs);
+        return new RollupRebuildResultDTO(from, to, rows, elapsedMs);
+    }
+
+    private void validateRange(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            String errorMessage = String.format("Начальная дата (%s) позже конечной (%s)", from, to);
+            logger.error("Ошибка валидации диапазона дат: {}", errorMessage);
+            throw new ReportValidationException(errorMessage);
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,16 @@
+--liquibase formatted sql
+
+--changeset retail:0007-create-shift-position-indexes
+-- Поиск смен по магазину/кассе и дате закрытия, поиск смен только по дате закрытия
+CREATE INDEX idx_shift_shop_cash_close ON shift (shop_number, cash_number, close_date);
+CREATE INDEX idx_shift_close_date ON shift (close_date);
+-- Загрузка позиций по чекам (внешний ключ в PostgreSQL индекс не создает)
+CREATE INDEX idx_position_purchase_id ON position (purchase_id);
+
+--changeset retail:0007-create-purchase-index dbms:postgresql
+-- total в INCLUDE: суммы по смене за период считаются по одному индексу без обращения к таблице
+CREATE INDEX idx_purchase_shift_date ON purchase (shift_id, purchase_date) INCLUDE (total);
+
+--changeset retail:0007-create-purchase-index-h2 dbms:h2
+-- H2 не поддерживает INCLUDE
+CREATE INDEX idx_purchase_shift_date ON purchase (shift_id, purchase_date);
@@ -0,0 +1,24 @@
+--liquibase formatted sql
+
+--changeset retail:0011-create-catalog-change-log
+-- Журнал изменений каталога для инкрементальной синхронизации касс.
+-- Версия выдается из единственной строки catalog_version перед фиксацией транзакции: блокировка строки
+-- до фиксации гарантирует, что версии видны в порядке возрастания и касса не пропустит изменение
+CREATE TABLE catalog_version (
+    id INT NOT NULL,
+    version BIGINT NOT NULL,
+    CONSTRAINT pk_catalog_version PRIMARY KEY (id)
+);
+
+CREATE TABLE catalog_change (
+    version BIGINT NOT NULL,
+    article BIGINT NOT NULL,
+    change_time TIMESTAMP NOT NULL,
+    CONSTRAINT pk_catalog_change PRIMARY KEY (version, article)
+);
+
+--changeset retail:0011-fill-catalog-change-log
+-- Уже существующие товары попадают в журнал версией 1: касса с since=0 получает весь каталог
+INSERT INTO catalog_version (id, version) VALUES (1, 1);
+INSERT INTO catalog_change (version, article, change_time)
+SELECT 1, article, CURRENT_TIMESTAMP FROM items;
@@ -0,0 +1,8 @@
+--liquibase formatted sql
+
+--changeset retail:0012-create-catalog-lookup-indexes
+-- Текущая цена товара (последняя по id) и штрих-коды товара выбираются по артикулу:
+-- при сканировании, сборке снимка, журнале изменений и выгрузке каталога.
+-- Без индексов каждый такой запрос просматривает таблицу целиком
+CREATE INDEX idx_price_article_id ON price (article, id);
+CREATE INDEX idx_barcode_article ON barcode (article, barcode);
@@ -0,0 +1,22 @@
+--liquibase formatted sql
+
+--changeset retail:0014-create-position-quarantine
+-- Позиции чеков, не совпавшие с каталогом при загрузке. Сама позиция остается в position:
+-- карантин - журнал расхождений для разбора, поэтому внешних ключей нет и партиции position не затрагиваются
+CREATE TABLE position_quarantine (
+    id BIGSERIAL PRIMARY KEY,
+    position_id BIGINT NOT NULL,
+    purchase_id BIGINT NOT NULL,
+    shift_id BIGINT NOT NULL,
+    purchase_date TIMESTAMP NOT NULL,
+    barcode VARCHAR(255) NOT NULL,
+    article BIGINT NOT NULL,
+    position_name VARCHAR(255) NOT NULL,
+    price BIGINT NOT NULL,
+    reason VARCHAR(32) NOT NULL,
+    expected_article BIGINT,
+    expected_price BIGINT,
+    detected_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX idx_position_quarantine_shift ON position_quarantine (shift_id);
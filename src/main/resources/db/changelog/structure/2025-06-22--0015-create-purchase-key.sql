@@ -0,0 +1,19 @@
+--liquibase formatted sql
+
+--changeset retail:0015-add-purchase-receipt-number
+-- Номер чека в смене по данным кассы. У загруженных ранее чеков и касс без нумерации - пусто
+ALTER TABLE purchase ADD COLUMN receipt_number BIGINT;
+
+--changeset retail:0015-create-purchase-key
+-- Естественный ключ чека (магазин, касса, номер смены, номер чека) для идемпотентной загрузки.
+-- Уникальный индекс на секционированной purchase обязан включать purchase_date, а повтор чека не должен
+-- зависеть от партиции, поэтому ключи живут в отдельной несекционированной таблице.
+-- Чек записывается, только если его ключ удалось вставить (INSERT ... ON CONFLICT DO NOTHING)
+CREATE TABLE purchase_key (
+    shop_number BIGINT NOT NULL,
+    cash_number BIGINT NOT NULL,
+    shift_number BIGINT NOT NULL,
+    receipt_number BIGINT NOT NULL,
+    purchase_date TIMESTAMP NOT NULL,
+    CONSTRAINT pk_purchase_key PRIMARY KEY (shop_number, cash_number, shift_number, receipt_number)
+);
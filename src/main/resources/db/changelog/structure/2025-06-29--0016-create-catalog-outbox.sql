@@ -0,0 +1,12 @@
+--liquibase formatted sql
+
+--changeset retail:0016-create-catalog-outbox
+-- Исходящие события об изменении товаров, записанные в той же транзакции, что и изменение каталога.
+-- Ретранслятор забирает строки пачками по id, отправляет и удаляет; состояние товара в строке не хранится -
+-- оно читается на момент отправки, поэтому несколько изменений товара уходят одним событием
+CREATE TABLE catalog_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    article BIGINT NOT NULL,
+    version BIGINT NOT NULL,
+    created_at TIMESTAMP NOT NULL
+);
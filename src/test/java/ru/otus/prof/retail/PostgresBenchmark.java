@@ -0,0 +1,18 @@
+package ru.otus.prof.retail;
+
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.test.context.ContextConfiguration;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+//Вариант замера на PostgreSQL: подкласс замера на H2 с этой аннотацией запускается только при заданном
+//RETAIL_PG_URL и получает контекст на PostgreSQL (PostgresTestSupport.Initializer)
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@EnabledIfEnvironmentVariable(named = PostgresTestSupport.URL_VARIABLE, matches = ".+")
+@ContextConfiguration(initializers = PostgresTestSupport.Initializer.class)
+public @interface PostgresBenchmark {
+}
\ No newline at end of file
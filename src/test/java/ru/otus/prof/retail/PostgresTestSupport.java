@@ -0,0 +1,44 @@
+package ru.otus.prof.retail;
+
+import org.springframework.context.ApplicationContextInitializer;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.core.env.MapPropertySource;
+import org.springframework.test.context.DynamicPropertyRegistry;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+//Переключает тестовый контекст на реальный PostgreSQL из RETAIL_PG_URL: замеры - через @PostgresBenchmark,
+//прочие тесты с @EnabledIfEnvironmentVariable - через register из @DynamicPropertySource
+public final class PostgresTestSupport {
+
+    public static final String URL_VARIABLE = "RETAIL_PG_URL";
+
+    private PostgresTestSupport() {
+    }
+
+    public static void register(DynamicPropertyRegistry registry) {
+        properties().forEach((name, value) -> registry.add(name, () -> value));
+    }
+
+    static Map<String, Object> properties() {
+        Map<String, Object> properties = new LinkedHashMap<>();
+        properties.put("spring.datasource.url", System.getenv(URL_VARIABLE));
+        properties.put("spring.datasource.username", System.getenv().getOrDefault("RETAIL_PG_USER", "postgres"));
+        properties.put("spring.datasource.password", System.getenv().getOrDefault("RETAIL_PG_PASSWORD", "postgres"));
+        properties.put("spring.datasource.driver-class-name", "org.postgresql.Driver");
+        properties.put("spring.jpa.database-platform", "org.hibernate.dialect.PostgreSQLDialect");
+        properties.put("spring.liquibase.change-log", "classpath:db/changelog/db.changelog-master.yaml");
+        return properties;
+    }
+
+    //@DynamicPropertySource нельзя вынести в мета-аннотацию, инициализатор контекста - можно;
+    //свойства перекрывают профиль test так же, как зарегистрированные через register
+    public static class Initializer implements ApplicationContextInitializer<ConfigurableApplicationContext> {
+
+        @Override
+        public void initialize(ConfigurableApplicationContext context) {
+            context.getEnvironment().getPropertySources().addFirst(new MapPropertySource("postgres", properties()));
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,86 @@
+package ru.otus.prof.retail.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.product.BulkPriceUpdateResultDTO;
+import ru.otus.prof.retail.services.product.BulkPriceUpdateService;
+import ru.otus.prof.retail.services.product.pricing.PriceListFormat;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Переоценка всего каталога одним прайс-листом: retail.benchmark.prices товаров с текущей ценой,
+//у каждого второго цена в прайс-листе меняется. Цель - миллион строк быстрее минуты на PostgreSQL.
+//Запуск: ./gradlew benchmarkTest -Dretail.benchmark.prices=1000000
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class BulkPriceUpdateBenchmarkTest {
+
+    private static final long BASE_ARTICLE = 60_000_000L;
+
+    private final int prices = Integer.getInteger("retail.benchmark.prices", 200_000);
+
+    @Autowired
+    private BulkPriceUpdateService bulkPriceUpdateService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void loadItems() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> rows = LongStream.range(0, prices).map(i -> BASE_ARTICLE + i).boxed().toList();
+        jdbcTemplate.batchUpdate("INSERT INTO items (article, name, create_date, update_time) VALUES (?, ?, ?, ?)",
+                rows, 1000, (statement, article) -> {
+                    statement.setLong(1, article);
+                    statement.setString(2, "Item " + article);
+                    statement.setTimestamp(3, now);
+                    statement.setTimestamp(4, now);
+                });
+        jdbcTemplate.batchUpdate("INSERT INTO price (article, price) VALUES (?, ?)",
+                rows, 1000, (statement, article) -> {
+                    statement.setLong(1, article);
+                    statement.setLong(2, 1000);
+                });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM catalog_change WHERE article >= ?", BASE_ARTICLE);
+        jdbcTemplate.update("DELETE FROM price WHERE article >= ?", BASE_ARTICLE);
+        jdbcTemplate.update("DELETE FROM items WHERE article >= ?", BASE_ARTICLE);
+    }
+
+    @Test
+    void updateWholeCatalog() {
+        StringBuilder csv = new StringBuilder(prices * 16);
+        csv.append("article,price\n");
+        for (int i = 0; i < prices; i++) {
+            csv.append(BASE_ARTICLE + i).append(',').append(i % 2 == 0 ? 1000 : 900).append('\n');
+        }
+        byte[] body = csv.toString().getBytes(StandardCharsets.UTF_8);
+
+        BulkPriceUpdateResultDTO result = bulkPriceUpdateService.update(
+                new ByteArrayInputStream(body), PriceListFormat.CSV, false);
+
+        System.out.printf("Прайс-лист: %d строк, %d КБ, режим %s%n", result.received(), body.length / 1024, result.mode());
+        System.out.printf("Массовое обновление: %d мс, добавлено %d, без изменений %d%n",
+                result.elapsedMs(), result.inserted(), result.unchanged());
+
+        assertEquals(prices, result.received());
+        assertEquals(prices / 2, result.inserted());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,80 @@
+package ru.otus.prof.retail.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.prof.retail.repositories.product.CatalogOutboxRepository;
+import ru.otus.prof.retail.services.events.CatalogOutboxRelay;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Разбор catalog_outbox ретранслятором: строк в секунду и свертка повторных изменений артикулов.
+//Каждый артикул меняется retail.benchmark.versions раз, событий должно уйти по одному на артикул в пачке.
+//Запуск: ./gradlew benchmarkTest -Dretail.benchmark.articles=5000 -Dretail.benchmark.versions=10
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class CatalogOutboxBenchmarkTest {
+
+    private static final long BASE_ARTICLE = 950_000_000L;
+
+    private final int articles = Integer.getInteger("retail.benchmark.articles", 5000);
+    private final int versions = Integer.getInteger("retail.benchmark.versions", 10);
+
+    @Autowired
+    private CatalogOutboxRelay catalogOutboxRelay;
+
+    @Autowired
+    private CatalogOutboxRepository catalogOutboxRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM catalog_outbox WHERE article >= ?", BASE_ARTICLE);
+    }
+
+    @Test
+    void compareRowsAndEvents() {
+        while (catalogOutboxRelay.relayBatch().rows() > 0) {
+            //outbox до замера пуст
+        }
+        List<Long> changed = LongStream.range(BASE_ARTICLE, BASE_ARTICLE + articles).boxed().toList();
+        long writeStarted = System.nanoTime();
+        for (int version = 1; version <= versions; version++) {
+            long current = version;
+            transactionTemplate.executeWithoutResult(status -> catalogOutboxRepository.append(current, changed));
+        }
+        long writeNanos = System.nanoTime() - writeStarted;
+
+        long started = System.nanoTime();
+        long rows = 0;
+        long published = 0;
+        CatalogOutboxRelay.RelayBatch batch;
+        do {
+            batch = catalogOutboxRelay.relayBatch();
+            rows += batch.rows();
+            published += batch.published();
+        } while (batch.rows() > 0);
+        long relayNanos = System.nanoTime() - started;
+
+        System.out.printf("Outbox каталога: %d артикулов x %d изменений%n", articles, versions);
+        System.out.printf("  запись %.1f мс (%.1f мкс на строку), разбор %.1f мс: %.0f строк/с, событий %d%n",
+                writeNanos / 1e6, writeNanos / 1e3 / rows, relayNanos / 1e6, rows / (relayNanos / 1e9), published);
+
+        assertEquals((long) articles * versions, rows);
+        assertEquals(0L, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM catalog_outbox", Long.class));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,111 @@
+package ru.otus.prof.retail.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.services.events.EventRecord;
+import ru.otus.prof.retail.services.events.EventTransport;
+import ru.otus.prof.retail.services.events.TillEventConsumer;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Пропускная способность приема смен из событий касс через встроенный брокер и порядок записи смен магазина.
+//Смены магазина отправляются по возрастанию номера и должны получить возрастающие ID.
+//Запуск: ./gradlew benchmarkTest -Dretail.benchmark.shops=20 -Dretail.benchmark.shifts=10 -Dretail.benchmark.purchases=200
+@Tag("benchmark")
+@SpringBootTest(properties = {"retail.events.consumer.enabled=true", "retail.events.consumer.poll-timeout-ms=50"})
+@ActiveProfiles("test")
+public class EventBusBenchmarkTest {
+
+    private static final long BASE_SHOP = 9100L;
+    private static final String SHIFTS = "retail.till-shifts";
+    private static final String PURCHASE = "{\"purchaseDate\":\"%sT12:00:00\",\"total\":1000,\"positions\":[" +
+            "{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item 1\",\"price\":200}," +
+            "{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item 1\",\"price\":200}," +
+            "{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item 1\",\"price\":200}," +
+            "{\"barcode\":\"1002111111111\",\"article\":1002,\"positionName\":\"Item 2\",\"price\":200}," +
+            "{\"barcode\":\"1002111111111\",\"article\":1002,\"positionName\":\"Item 2\",\"price\":200}]";
+
+    private final int shops = Integer.getInteger("retail.benchmark.shops", 20);
+    private final int shiftsPerShop = Integer.getInteger("retail.benchmark.shifts", 10);
+    private final int purchasesPerShift = Integer.getInteger("retail.benchmark.purchases", 200);
+
+    @Autowired
+    private EventTransport eventTransport;
+
+    @Autowired
+    private TillEventConsumer tillEventConsumer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        for (int shop = 0; shop < shops; shop++) {
+            long shopNumber = BASE_SHOP + shop;
+            jdbcTemplate.update("DELETE FROM position_quarantine WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", shopNumber);
+            jdbcTemplate.update("DELETE FROM position WHERE purchase_id IN " +
+                    "(SELECT p.id FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?)", shopNumber);
+            jdbcTemplate.update("DELETE FROM purchase WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", shopNumber);
+            jdbcTemplate.update("DELETE FROM shift WHERE shop_number = ?", shopNumber);
+            jdbcTemplate.update("DELETE FROM purchase_key WHERE shop_number = ?", shopNumber);
+            jdbcTemplate.update("DELETE FROM daily_sales_rollup WHERE shop_number = ?", shopNumber);
+        }
+    }
+
+    @Test
+    void compareThroughputAndOrder() throws InterruptedException {
+        //магазины чередуются: события разных магазинов перемешаны, как при одновременной отправке касс
+        List<EventRecord> events = new ArrayList<>(shops * shiftsPerShop);
+        for (int shift = 1; shift <= shiftsPerShop; shift++) {
+            for (int shop = 0; shop < shops; shop++) {
+                events.add(new EventRecord(String.valueOf(BASE_SHOP + shop),
+                        shift(BASE_SHOP + shop, shift).getBytes(StandardCharsets.UTF_8)));
+            }
+        }
+        long expected = tillEventConsumer.getShifts() + tillEventConsumer.getRejected() + events.size();
+
+        long started = System.nanoTime();
+        eventTransport.send(SHIFTS, events);
+        long sentNanos = System.nanoTime() - started;
+        while (tillEventConsumer.getShifts() + tillEventConsumer.getRejected() < expected) {
+            Thread.sleep(10);
+        }
+        long elapsedNanos = System.nanoTime() - started;
+
+        long receipts = (long) events.size() * purchasesPerShift;
+        System.out.printf("События касс: %d смен, %d чеков, %d позиций%n", events.size(), receipts, receipts * 5);
+        System.out.printf("  отправка %.1f мс, запись в БД %.1f мс: %.0f смен/с, %.0f чеков/с%n",
+                sentNanos / 1e6, elapsedNanos / 1e6, events.size() / (elapsedNanos / 1e9), receipts / (elapsedNanos / 1e9));
+
+        for (int shop = 0; shop < shops; shop++) {
+            List<Long> order = jdbcTemplate.queryForList(
+                    "SELECT shift_number FROM shift WHERE shop_number = ? ORDER BY id", Long.class, BASE_SHOP + shop);
+            assertEquals(shiftsPerShop, order.size());
+            for (int i = 0; i < order.size(); i++) {
+                assertEquals(i + 1, order.get(i), "порядок смен магазина " + (BASE_SHOP + shop));
+            }
+        }
+        assertEquals(0, tillEventConsumer.getRejected());
+    }
+
+    private String shift(long shop, int shiftNumber) {
+        LocalDate day = LocalDate.of(2018, 7, 1).plusDays(shiftNumber - 1);
+        StringBuilder body = new StringBuilder("{\"shiftNumber\":" + shiftNumber + ",\"shopNumber\":" + shop +
+                ",\"cashNumber\":1,\"openTime\":\"" + day + "T08:00:00\",\"closeTime\":\"" + day + "T20:00:00\"}\n");
+        String purchase = String.format(PURCHASE, day);
+        for (int receipt = 1; receipt <= purchasesPerShift; receipt++) {
+            body.append(purchase).append(",\"receiptNumber\":").append(receipt).append("}\n");
+        }
+        return body.toString();
+    }
+}
\ No newline at end of file
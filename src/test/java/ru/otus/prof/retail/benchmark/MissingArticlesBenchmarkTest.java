@@ -0,0 +1,93 @@
+package ru.otus.prof.retail.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Проверка существования артикулов при пакетной загрузке цен/штрих-кодов: в каталоге retail.benchmark.articles
+//товаров, запрашивается столько же артикулов, половина из которых отсутствует.
+//Для сравнения - прежний способ: фильтр запрошенного набора через List.contains по списку существующих.
+//Запуск: ./gradlew benchmarkTest -Dretail.benchmark.articles=100000
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class MissingArticlesBenchmarkTest {
+
+    private static final long BASE_ARTICLE = 50_000_000L;
+
+    private final int articles = Integer.getInteger("retail.benchmark.articles", 100_000);
+    private final int iterations = Integer.getInteger("retail.benchmark.iterations", 5);
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void loadItems() {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Long> rows = LongStream.range(0, articles).map(i -> BASE_ARTICLE + i * 2).boxed().toList();
+        jdbcTemplate.batchUpdate("INSERT INTO items (article, name, create_date, update_time) VALUES (?, ?, ?, ?)",
+                rows, 1000, (statement, article) -> {
+                    statement.setLong(1, article);
+                    statement.setString(2, "Item " + article);
+                    statement.setTimestamp(3, now);
+                    statement.setTimestamp(4, now);
+                });
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM items WHERE article >= ?", BASE_ARTICLE);
+    }
+
+    @Test
+    void findMissingArticles() {
+        //каждый второй запрошенный артикул отсутствует
+        Set<Long> requested = new HashSet<>();
+        LongStream.range(0, articles).map(i -> BASE_ARTICLE + i).forEach(requested::add);
+
+        //прогрев
+        itemRepository.findMissingArticles(requested);
+        List<Long> times = new ArrayList<>();
+        List<Long> missing = List.of();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            missing = itemRepository.findMissingArticles(requested);
+            times.add((System.nanoTime() - start) / 1_000_000);
+        }
+        times.sort(null);
+
+        //прежний фильтр на тех же данных, без запроса к БД
+        long[] sorted = requested.stream().mapToLong(Long::longValue).sorted().toArray();
+        List<Long> existing = Arrays.stream(itemRepository.findExistingArticlesSorted(sorted)).boxed().toList();
+        long start = System.nanoTime();
+        long listContainsMissing = requested.stream().filter(article -> !existing.contains(article)).count();
+        long listContainsMs = (System.nanoTime() - start) / 1_000_000;
+
+        System.out.printf("Артикулов в запросе: %d, в каталоге из них: %d%n", requested.size(), existing.size());
+        System.out.printf("findMissingArticles: медиана %d мс%n", times.get(times.size() / 2));
+        System.out.printf("List.contains (только фильтр): %d мс%n", listContainsMs);
+
+        assertEquals(articles - articles / 2, missing.size());
+        assertEquals(listContainsMissing, missing.size());
+    }
+}
\ No newline at end of file
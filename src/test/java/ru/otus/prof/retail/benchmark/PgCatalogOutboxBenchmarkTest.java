@@ -0,0 +1,8 @@
+package ru.otus.prof.retail.benchmark;
+
+import ru.otus.prof.retail.PostgresBenchmark;
+
+//Тот же замер на PostgreSQL, где пачка забирается с SKIP LOCKED и удаляется по массиву id. Требует RETAIL_PG_URL
+@PostgresBenchmark
+public class PgCatalogOutboxBenchmarkTest extends CatalogOutboxBenchmarkTest {
+}
\ No newline at end of file
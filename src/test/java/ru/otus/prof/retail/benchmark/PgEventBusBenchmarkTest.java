@@ -0,0 +1,8 @@
+package ru.otus.prof.retail.benchmark;
+
+import ru.otus.prof.retail.PostgresBenchmark;
+
+//Тот же замер с записью в PostgreSQL. Требует RETAIL_PG_URL
+@PostgresBenchmark
+public class PgEventBusBenchmarkTest extends EventBusBenchmarkTest {
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package ru.otus.prof.retail.benchmark;
+
+import ru.otus.prof.retail.PostgresBenchmark;
+
+//Тот же замер на PostgreSQL (путь COPY). Требует RETAIL_PG_URL, например jdbc:postgresql://localhost:2345/retail
+@PostgresBenchmark
+public class PgSalesBackfillBenchmarkTest extends SalesBackfillBenchmarkTest {
+}
\ No newline at end of file
@@ -0,0 +1,8 @@
+package ru.otus.prof.retail.benchmark;
+
+import ru.otus.prof.retail.PostgresBenchmark;
+
+//Тот же замер на PostgreSQL, где объем выборки передается по сети. Требует RETAIL_PG_URL
+@PostgresBenchmark
+public class PgShiftFetchPlanBenchmarkTest extends ShiftFetchPlanBenchmarkTest {
+}
\ No newline at end of file
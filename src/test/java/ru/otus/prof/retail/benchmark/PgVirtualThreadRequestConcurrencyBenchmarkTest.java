@@ -0,0 +1,8 @@
+package ru.otus.prof.retail.benchmark;
+
+import ru.otus.prof.retail.PostgresBenchmark;
+
+//Тот же замер на виртуальных потоках с чтением из PostgreSQL. Требует RETAIL_PG_URL и Java 21
+@PostgresBenchmark
+public class PgVirtualThreadRequestConcurrencyBenchmarkTest extends VirtualThreadRequestConcurrencyBenchmarkTest {
+}
\ No newline at end of file
@@ -0,0 +1,94 @@
+package ru.otus.prof.retail.benchmark;
+
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.purchases.ReceiptValidationStatsDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftIngestResultDTO;
+import ru.otus.prof.retail.services.product.CatalogSnapshotService;
+import ru.otus.prof.retail.services.product.PriceLookupService;
+import ru.otus.prof.retail.services.purchases.ReceiptValidationService;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Накладные расходы проверки чеков по каталогу при потоковой загрузке смены: retail.benchmark.receipts чеков
+//по retail.benchmark.positions позиций, все позиции совпадают с каталогом.
+//Печатает время загрузки и долю времени проверки от времени записи при бюджете 10%.
+//Запуск: ./gradlew benchmarkTest -Dretail.benchmark.receipts=20000
+@Tag("benchmark")
+@SpringBootTest(properties = "retail.receipt-validation.max-overhead-percent=10")
+@ActiveProfiles("test")
+public class ReceiptValidationBenchmarkTest {
+
+    private final int receipts = Integer.getInteger("retail.benchmark.receipts", 20_000);
+    private final int positions = Integer.getInteger("retail.benchmark.positions", 10);
+
+    @Autowired
+    private ShiftIngestService shiftIngestService;
+
+    @Autowired
+    private ReceiptValidationService receiptValidationService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private PriceLookupService priceLookupService;
+
+    @BeforeEach
+    void buildCatalog() {
+        catalogSnapshotService.rebuild();
+        priceLookupService.rebuild();
+    }
+
+    @AfterEach
+    void resetIndex() {
+        priceLookupService.invalidateAll();
+    }
+
+    @Test
+    @Transactional
+    void ingestWithValidation() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        String position1 = "{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item 1\",\"price\":103}";
+        String position2 = "{\"barcode\":\"1002111111111\",\"article\":1002,\"positionName\":\"Item 2\",\"price\":200}";
+        StringBuilder purchase = new StringBuilder("{\"purchaseDate\":\"").append(now).append("\",\"total\":1,\"positions\":[");
+        for (int i = 0; i < positions; i++) {
+            purchase.append(i == 0 ? "" : ",").append(i % 2 == 0 ? position1 : position2);
+        }
+        purchase.append("]}\n");
+        StringBuilder body = new StringBuilder("{\"shiftNumber\":900,\"shopNumber\":1,\"cashNumber\":1,\"openTime\":\"")
+                .append(now.minusHours(1)).append("\",\"closeTime\":\"").append(now.plusHours(1))
+                .append("\",\"total\":null}\n");
+        for (int i = 0; i < receipts; i++) {
+            body.append(purchase);
+        }
+        ReceiptValidationStatsDTO before = receiptValidationService.getStats();
+
+        long start = System.nanoTime();
+        ShiftIngestResultDTO result = shiftIngestService.ingestShift(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        ReceiptValidationStatsDTO after = receiptValidationService.getStats();
+        System.out.printf("Чеков: %d, позиций: %d, загрузка: %d мс%n", result.purchases(), result.positions(), elapsedMs);
+        System.out.printf("Проверено чеков: %d, доля проверки от записи: %.1f%%, порций сверх бюджета: %d%n",
+                after.receipts() - before.receipts(), after.overheadPercent(),
+                after.overBudgetChunks() - before.overBudgetChunks());
+
+        assertEquals(receipts, result.purchases());
+        assertEquals(receipts, after.receipts() - before.receipts());
+        assertEquals(0, after.quarantined() - before.quarantined());
+    }
+}
\ No newline at end of file
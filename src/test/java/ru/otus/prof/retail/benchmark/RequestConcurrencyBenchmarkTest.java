@@ -0,0 +1,209 @@
+package ru.otus.prof.retail.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.otus.prof.retail.services.purchases.spool.ShiftSpoolService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Одновременные медленные выгрузки касс: каждая касса передает смену построчно с паузами через спул
+//(тело читается без соединения с БД), затем запрашивает смены магазина из БД.
+//На пуле потоков платформы Tomcat (здесь 50 потоков) выгрузки выстраиваются в очередь за потоками;
+//на виртуальных потоках (VirtualThreadRequestConcurrencyBenchmarkTest) идут одновременно,
+//а чтения из БД проходят через допуск retail.db-admission.
+//Запуск: ./gradlew benchmarkTest -Dretail.benchmark.tills=400 -Dretail.benchmark.lines=5 -Dretail.benchmark.pause-ms=100
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = {"retail.ingest.spool.enabled=true", "server.tomcat.threads.max=50"})
+@ActiveProfiles("test")
+public class RequestConcurrencyBenchmarkTest {
+
+    private static final long BASE_SHOP = 9300L;
+    private static final String PURCHASE = "{\"purchaseDate\":\"2024-03-01T12:00:00\",\"total\":303,\"positions\":[" +
+            "{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item 1\",\"price\":103}," +
+            "{\"barcode\":\"1002111111111\",\"article\":1002,\"positionName\":\"Item 2\",\"price\":200}]," +
+            "\"receiptNumber\":%d}";
+
+    private final int tills = Integer.getInteger("retail.benchmark.tills", 400);
+    private final int lines = Integer.getInteger("retail.benchmark.lines", 5);
+    private final long pauseMs = Long.getLong("retail.benchmark.pause-ms", 100L);
+
+    @TempDir
+    static Path spoolDir;
+
+    @DynamicPropertySource
+    static void spoolProperties(DynamicPropertyRegistry registry) {
+        registry.add("retail.ingest.spool.dir", () -> spoolDir.toString());
+    }
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private ShiftSpoolService shiftSpoolService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 60_000;
+        while (shiftSpoolService.getStats().backlogBytes() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(100);
+        }
+        jdbcTemplate.update("DELETE FROM position_quarantine WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", BASE_SHOP);
+        jdbcTemplate.update("DELETE FROM position WHERE purchase_id IN " +
+                "(SELECT p.id FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?)", BASE_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", BASE_SHOP);
+        jdbcTemplate.update("DELETE FROM shift WHERE shop_number = ?", BASE_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase_key WHERE shop_number = ?", BASE_SHOP);
+        jdbcTemplate.update("DELETE FROM daily_sales_rollup WHERE shop_number = ?", BASE_SHOP);
+    }
+
+    @Test
+    void compareConcurrentSlowUploads() {
+        //клиентские потоки заняты медленной отдачей тела, их должно хватать на все кассы
+        ExecutorService clientThreads = Executors.newFixedThreadPool(tills);
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .executor(clientThreads)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        AtomicInteger accepted = new AtomicInteger();
+        AtomicInteger uploadsRefused = new AtomicInteger();
+        AtomicInteger served = new AtomicInteger();
+        AtomicInteger readsRefused = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        try {
+            long started = System.nanoTime();
+            List<CompletableFuture<Void>> tillRuns = new ArrayList<>(tills);
+            for (int till = 1; till <= tills; till++) {
+                int shiftNumber = till;
+                tillRuns.add(client.sendAsync(upload(shiftNumber), HttpResponse.BodyHandlers.discarding())
+                        .thenCompose(response -> {
+                            count(response.statusCode(), 202, accepted, uploadsRefused, failed);
+                            return client.sendAsync(shifts(), HttpResponse.BodyHandlers.discarding());
+                        })
+                        .thenAccept(response -> count(response.statusCode(), 200, served, readsRefused, failed)));
+            }
+            CompletableFuture.allOf(tillRuns.toArray(CompletableFuture[]::new)).join();
+            long elapsedMs = (System.nanoTime() - started) / 1_000_000;
+
+            //одна касса без конкуренции тратит на выгрузку не меньше lines * pauseMs
+            long idealMs = lines * pauseMs;
+            System.out.printf("%s: %d касс x %d строк с паузой %d мс: %d мс, средняя одновременность %.0f; " +
+                            "выгрузок принято %d, отклонено %d; чтений выполнено %d, отклонено %d; ошибок %d%n",
+                    getClass().getSimpleName(), tills, lines, pauseMs, elapsedMs, (double) tills * idealMs / elapsedMs,
+                    accepted.get(), uploadsRefused.get(), served.get(), readsRefused.get(), failed.get());
+        } finally {
+            clientThreads.shutdownNow();
+        }
+        assertEquals(0, failed.get());
+        assertEquals(tills, accepted.get() + uploadsRefused.get());
+        assertEquals(tills, served.get() + readsRefused.get());
+    }
+
+    private HttpRequest upload(int shiftNumber) {
+        List<byte[]> chunks = new ArrayList<>(lines + 1);
+        chunks.add(("{\"shiftNumber\":" + shiftNumber + ",\"shopNumber\":" + BASE_SHOP + ",\"cashNumber\":1," +
+                "\"openTime\":\"2024-03-01T08:00:00\",\"closeTime\":\"2024-03-01T20:00:00\",\"total\":null}\n")
+                .getBytes(StandardCharsets.UTF_8));
+        for (int line = 1; line <= lines; line++) {
+            chunks.add((String.format(PURCHASE, line) + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/v1/purchases/shift/ingest/spool"))
+                .header("Content-Type", "application/x-ndjson")
+                .timeout(Duration.ofMinutes(5))
+                .POST(HttpRequest.BodyPublishers.ofInputStream(() -> new SlowBody(chunks, pauseMs)))
+                .build();
+    }
+
+    private HttpRequest shifts() {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port +
+                        "/api/v1/purchases/shift/shop/" + BASE_SHOP + "/date/2024-03-01"))
+                .timeout(Duration.ofMinutes(5))
+                .GET()
+                .build();
+    }
+
+    //503 - отказ очереди допуска к БД или переполненного спула, касса повторит позже
+    private static void count(int status, int expected, AtomicInteger ok, AtomicInteger unavailable, AtomicInteger failed) {
+        if (status == expected || status == 404) {
+            ok.incrementAndGet();
+        } else if (status == 503) {
+            unavailable.incrementAndGet();
+        } else {
+            failed.incrementAndGet();
+        }
+    }
+
+    //тело выгрузки кассы: строки отдаются по одной с паузой перед каждой следующей
+    private static final class SlowBody extends InputStream {
+
+        private final List<byte[]> chunks;
+        private final long pauseMs;
+        private int chunk;
+        private int offset;
+
+        private SlowBody(List<byte[]> chunks, long pauseMs) {
+            this.chunks = chunks;
+            this.pauseMs = pauseMs;
+        }
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+        }
+
+        @Override
+        public int read(byte[] buffer, int off, int len) throws IOException {
+            if (chunk == chunks.size()) {
+                return -1;
+            }
+            if (offset == 0 && chunk > 0) {
+                try {
+                    Thread.sleep(pauseMs);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new InterruptedIOException("Выгрузка прервана");
+                }
+            }
+            byte[] current = chunks.get(chunk);
+            int n = Math.min(len, current.length - offset);
+            System.arraycopy(current, offset, buffer, off, n);
+            offset += n;
+            if (offset == current.length) {
+                chunk++;
+                offset = 0;
+            }
+            return n;
+        }
+    }
+}
\ No newline at end of file
@@ -0,0 +1,137 @@
+package ru.otus.prof.retail.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.purchases.BackfillResultDTO;
+import ru.otus.prof.retail.dto.purchases.InputPositionDTO;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.InputShiftDTO;
+import ru.otus.prof.retail.dto.purchases.PositionDTO;
+import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
+import ru.otus.prof.retail.services.purchases.backfill.SalesBackfillService;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Сравнение backfill (COPY / пакетные INSERT) с загрузкой через JPA на одинаковом наборе смен.
+//Запуск: ./gradlew benchmarkTest -Dretail.benchmark.shifts=50 -Dretail.benchmark.purchases=1000
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class SalesBackfillBenchmarkTest {
+
+    private static final long JPA_SHOP = 9001L;
+    private static final long BACKFILL_SHOP = 9002L;
+    private static final int POSITIONS_PER_PURCHASE = 5;
+
+    private final int shifts = Integer.getInteger("retail.benchmark.shifts", 20);
+    private final int purchasesPerShift = Integer.getInteger("retail.benchmark.purchases", 500);
+
+    @Autowired
+    private SalesBackfillService salesBackfillService;
+
+    @Autowired
+    private ShiftIngestService shiftIngestService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        for (long shop : List.of(JPA_SHOP, BACKFILL_SHOP)) {
+            jdbcTemplate.update("DELETE FROM position WHERE purchase_id IN " +
+                    "(SELECT p.id FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?)", shop);
+            jdbcTemplate.update("DELETE FROM purchase WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", shop);
+            jdbcTemplate.update("DELETE FROM shift WHERE shop_number = ?", shop);
+        }
+    }
+
+    @Test
+    void compareBackfillWithJpa() throws IOException {
+        long rows = (long) shifts * purchasesPerShift * (POSITIONS_PER_PURCHASE + 1) + shifts;
+
+        long jpaStart = System.nanoTime();
+        for (int shift = 1; shift <= shifts; shift++) {
+            LocalDateTime open = openTime(shift);
+            InputShiftDTO header = new InputShiftDTO((long) shift, JPA_SHOP, 1L, open, open.plusHours(12), null);
+            List<InputPurchaseDTO> purchases = IntStream.range(0, purchasesPerShift)
+                    .mapToObj(i -> new InputPurchaseDTO(null, open.plusSeconds(i), purchaseTotal(), inputPositions()))
+                    .toList();
+            shiftIngestService.ingestShift(header, purchases.iterator());
+        }
+        long jpaMs = (System.nanoTime() - jpaStart) / 1_000_000;
+
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        for (int shift = 1; shift <= shifts; shift++) {
+            objectMapper.writeValue(body, backfillShift(shift));
+            body.write('\n');
+        }
+        long backfillStart = System.nanoTime();
+        BackfillResultDTO result = salesBackfillService.backfill(new ByteArrayInputStream(body.toByteArray()));
+        long backfillMs = (System.nanoTime() - backfillStart) / 1_000_000;
+
+        System.out.printf("Смен: %d, чеков на смену: %d, строк: %d%n", shifts, purchasesPerShift, rows);
+        System.out.printf("JPA: %d мс (%.0f строк/с)%n", jpaMs, rows * 1000.0 / Math.max(jpaMs, 1));
+        System.out.printf("Backfill (%s): %d мс (%.0f строк/с)%n", result.mode(), backfillMs,
+                rows * 1000.0 / Math.max(backfillMs, 1));
+
+        assertEquals((long) shifts * purchasesPerShift, result.purchases());
+        assertEquals(count(JPA_SHOP), count(BACKFILL_SHOP));
+    }
+
+    private ShiftDTO backfillShift(int shift) {
+        LocalDateTime open = openTime(shift);
+        Set<PurchaseDTO> purchases = new HashSet<>();
+        for (int i = 0; i < purchasesPerShift; i++) {
+            List<PositionDTO> positions = new ArrayList<>();
+            for (InputPositionDTO position : inputPositions()) {
+                positions.add(new PositionDTO(null, null, position.barcode(), position.article(),
+                        position.positionName(), position.price()));
+            }
+            purchases.add(new PurchaseDTO((long) i, null, open.plusSeconds(i), purchaseTotal(), positions));
+        }
+        return new ShiftDTO(null, (long) shift, BACKFILL_SHOP, 1L, open, open.plusHours(12),
+                (long) purchasesPerShift * purchaseTotal(), purchases);
+    }
+
+    private List<InputPositionDTO> inputPositions() {
+        List<InputPositionDTO> positions = new ArrayList<>(POSITIONS_PER_PURCHASE);
+        for (int i = 0; i < POSITIONS_PER_PURCHASE; i++) {
+            positions.add(new InputPositionDTO("100111111111" + i, 1001L + i, "Item " + i, 100L));
+        }
+        return positions;
+    }
+
+    private long purchaseTotal() {
+        return POSITIONS_PER_PURCHASE * 100L;
+    }
+
+    private LocalDateTime openTime(int shift) {
+        return LocalDateTime.of(2018, 1, 1, 8, 0).plusDays(shift);
+    }
+
+    private long count(long shop) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM position ps JOIN purchase p ON p.id = ps.purchase_id " +
+                "JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?", Long.class, shop);
+    }
+}
\ No newline at end of file
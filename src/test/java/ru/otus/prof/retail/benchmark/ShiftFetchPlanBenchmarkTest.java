@@ -0,0 +1,161 @@
+package ru.otus.prof.retail.benchmark;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.prof.retail.dto.purchases.InputPositionDTO;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.InputShiftDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
+import ru.otus.prof.retail.services.purchases.fetch.BatchShiftFetchPlan;
+import ru.otus.prof.retail.services.purchases.fetch.JoinShiftFetchPlan;
+import ru.otus.prof.retail.services.purchases.fetch.ShiftFetchPlan;
+
+import java.sql.ResultSetMetaData;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Сравнение планов загрузки чеков смен: join (один запрос shift x purchase x position) и batch (запрос на уровень).
+//Объем - сумма длин значений всех колонок результата тех же запросов, то есть полезная нагрузка без учета протокола.
+//Запуск: ./gradlew benchmarkTest -Dretail.benchmark.shifts=5 -Dretail.benchmark.purchases=2000
+@Tag("benchmark")
+@SpringBootTest
+@ActiveProfiles("test")
+public class ShiftFetchPlanBenchmarkTest {
+
+    private static final Logger logger = LoggerFactory.getLogger(ShiftFetchPlanBenchmarkTest.class);
+    private static final long SHOP = 9003L;
+    private static final int POSITIONS_PER_PURCHASE = 5;
+
+    private static final String JOIN_SQL = "SELECT s.*, p.*, ps.* FROM shift s " +
+            "LEFT JOIN purchase p ON p.shift_id = s.id LEFT JOIN position ps ON ps.purchase_id = p.id WHERE s.id IN (%s)";
+    private static final String SHIFT_SQL = "SELECT * FROM shift WHERE id IN (%s)";
+    private static final String PURCHASE_SQL = "SELECT * FROM purchase WHERE shift_id IN (%s)";
+    private static final String POSITION_SQL = "SELECT ps.* FROM position ps " +
+            "JOIN purchase p ON p.id = ps.purchase_id WHERE p.shift_id IN (%s)";
+
+    private final int shifts = Integer.getInteger("retail.benchmark.shifts", 5);
+    private final int purchasesPerShift = Integer.getInteger("retail.benchmark.purchases", 2000);
+    private final int iterations = Integer.getInteger("retail.benchmark.iterations", 5);
+
+    @Autowired
+    private ShiftIngestService shiftIngestService;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private JoinShiftFetchPlan joinPlan;
+
+    @Autowired
+    private BatchShiftFetchPlan batchPlan;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void loadShifts() {
+        for (int shift = 1; shift <= shifts; shift++) {
+            LocalDateTime open = LocalDateTime.of(2018, 6, 1, 8, 0).plusDays(shift);
+            InputShiftDTO header = new InputShiftDTO((long) shift, SHOP, 1L, open, open.plusHours(12), null);
+            List<InputPurchaseDTO> purchases = IntStream.range(0, purchasesPerShift)
+                    .mapToObj(i -> new InputPurchaseDTO(null, open.plusSeconds(i), POSITIONS_PER_PURCHASE * 100L, positions()))
+                    .toList();
+            shiftIngestService.ingestShift(header, purchases.iterator());
+        }
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM position WHERE purchase_id IN " +
+                "(SELECT p.id FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?)", SHOP);
+        jdbcTemplate.update("DELETE FROM purchase WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", SHOP);
+        jdbcTemplate.update("DELETE FROM shift WHERE shop_number = ?", SHOP);
+        jdbcTemplate.update("DELETE FROM daily_sales_rollup WHERE shop_number = ?", SHOP);
+    }
+
+    @Test
+    void compareFetchPlans() {
+        List<Long> ids = jdbcTemplate.queryForList("SELECT id FROM shift WHERE shop_number = ? ORDER BY id", Long.class, SHOP);
+        String in = ids.stream().map(String::valueOf).collect(Collectors.joining(","));
+
+        long[] join = payload(List.of(JOIN_SQL), in);
+        long[] batch = payload(List.of(SHIFT_SQL, PURCHASE_SQL, POSITION_SQL), in);
+
+        //прогрев
+        load(joinPlan, ids);
+        load(batchPlan, ids);
+        long joinMs = median(joinPlan, ids);
+        long batchMs = median(batchPlan, ids);
+
+        logger.info("Смен: {}, чеков на смену: {}, позиций в чеке: {}", shifts, purchasesPerShift, POSITIONS_PER_PURCHASE);
+        logger.info("join:  строк {}, объем {} КБ, медиана {} мс", join[0], join[1] / 1024, joinMs);
+        logger.info("batch: строк {}, объем {} КБ, медиана {} мс", batch[0], batch[1] / 1024, batchMs);
+
+        assertEquals(count(load(joinPlan, ids)), count(load(batchPlan, ids)));
+    }
+
+    private List<ShiftDTO> load(ShiftFetchPlan plan, List<Long> ids) {
+        return transactionTemplate.execute(status -> plan.withPurchases(shiftRepository.findAllById(ids)));
+    }
+
+    private long median(ShiftFetchPlan plan, List<Long> ids) {
+        List<Long> times = new ArrayList<>();
+        for (int i = 0; i < iterations; i++) {
+            long start = System.nanoTime();
+            load(plan, ids);
+            times.add((System.nanoTime() - start) / 1_000_000);
+        }
+        times.sort(null);
+        return times.get(times.size() / 2);
+    }
+
+    //строки и сумма длин значений всех колонок
+    private long[] payload(List<String> queries, String in) {
+        long[] total = new long[2];
+        for (String sql : queries) {
+            jdbcTemplate.query(String.format(sql, in), rs -> {
+                ResultSetMetaData meta = rs.getMetaData();
+                total[0]++;
+                for (int column = 1; column <= meta.getColumnCount(); column++) {
+                    String value = rs.getString(column);
+                    total[1] += value == null ? 0 : value.length();
+                }
+            });
+        }
+        return total;
+    }
+
+    private long count(List<ShiftDTO> result) {
+        return result.stream()
+                .flatMap(shift -> shift.purchases().stream())
+                .mapToLong(purchase -> purchase.positions().size())
+                .sum();
+    }
+
+    private List<InputPositionDTO> positions() {
+        List<InputPositionDTO> positions = new ArrayList<>(POSITIONS_PER_PURCHASE);
+        for (int i = 0; i < POSITIONS_PER_PURCHASE; i++) {
+            positions.add(new InputPositionDTO("100111111111" + i, 1001L + i, "Item " + i, 100L));
+        }
+        return positions;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,10 @@
+package ru.otus.prof.retail.benchmark;
+
+import org.junit.jupiter.api.condition.EnabledIf;
+import org.springframework.test.context.TestPropertySource;
+
+//Тот же замер на виртуальных потоках с допуском к БД через семафор. Требует Java 21
+@EnabledIf("ru.otus.prof.retail.config.VirtualThreads#isSupported")
+@TestPropertySource(properties = {"retail.virtual-threads.enabled=true", "retail.db-admission.enabled=true"})
+public class VirtualThreadRequestConcurrencyBenchmarkTest extends RequestConcurrencyBenchmarkTest {
+}
\ No newline at end of file
@@ -0,0 +1,117 @@
+package ru.otus.prof.retail.config;
+
+import org.junit.jupiter.api.Test;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class AdmissionControlledDataSourceTest {
+
+    @Test
+    void getConnection_shouldWaitForReleasedPermit() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        AdmissionControlledDataSource dataSource = new AdmissionControlledDataSource(target, 2, 10, 5000);
+
+        Connection first = dataSource.getConnection();
+        dataSource.getConnection();
+        assertThat(dataSource.getInUse()).isEqualTo(2);
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Connection> waiting = executor.submit(() -> dataSource.getConnection());
+            while (dataSource.getWaiting() == 0) {
+                Thread.sleep(1);
+            }
+            assertThat(waiting.isDone()).isFalse();
+
+            first.close();
+            assertThat(waiting.get(5, TimeUnit.SECONDS)).isNotNull();
+        } finally {
+            executor.shutdownNow();
+        }
+        assertThat(dataSource.getInUse()).isEqualTo(2);
+        assertThat(dataSource.getAdmitted()).isEqualTo(3);
+    }
+
+    @Test
+    void close_shouldReleasePermitOnce() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        Connection connection = mock(Connection.class);
+        when(target.getConnection()).thenReturn(connection);
+        AdmissionControlledDataSource dataSource = new AdmissionControlledDataSource(target, 2, 10, 5000);
+
+        Connection admitted = dataSource.getConnection();
+        dataSource.getConnection();
+        admitted.close();
+        admitted.close();
+
+        verify(connection, times(2)).close();
+        assertThat(dataSource.getInUse()).isEqualTo(1);
+    }
+
+    @Test
+    void getConnection_shouldTimeOutWhenPermitsBusy() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        AdmissionControlledDataSource dataSource = new AdmissionControlledDataSource(target, 1, 10, 50);
+
+        dataSource.getConnection();
+
+        assertThatThrownBy(dataSource::getConnection)
+                .isInstanceOf(SQLTransientConnectionException.class);
+        assertThat(dataSource.getTimedOut()).isEqualTo(1);
+    }
+
+    @Test
+    void getConnection_shouldRejectWhenQueueFull() throws Exception {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenAnswer(invocation -> mock(Connection.class));
+        AdmissionControlledDataSource dataSource = new AdmissionControlledDataSource(target, 1, 1, 5000);
+
+        Connection held = dataSource.getConnection();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<Connection> waiting = executor.submit(() -> dataSource.getConnection());
+            while (dataSource.getWaiting() == 0) {
+                Thread.sleep(1);
+            }
+
+            //второй ожидающий сверх очереди получает отказ сразу, без ожидания таймаута
+            long started = System.nanoTime();
+            assertThatThrownBy(dataSource::getConnection)
+                    .isInstanceOf(SQLTransientConnectionException.class);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started)).isLessThan(1000);
+            assertThat(dataSource.getRejected()).isEqualTo(1);
+
+            held.close();
+            assertThat(waiting.get(5, TimeUnit.SECONDS)).isNotNull();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void getConnection_shouldReleasePermitWhenTargetFails() throws SQLException {
+        DataSource target = mock(DataSource.class);
+        when(target.getConnection()).thenThrow(new SQLException("Нет соединения"));
+        AdmissionControlledDataSource dataSource = new AdmissionControlledDataSource(target, 1, 10, 50);
+
+        assertThatThrownBy(dataSource::getConnection).isInstanceOf(SQLException.class);
+        assertThatThrownBy(dataSource::getConnection).hasMessage("Нет соединения");
+        assertThat(dataSource.getInUse()).isZero();
+    }
+}
\ No newline at end of file
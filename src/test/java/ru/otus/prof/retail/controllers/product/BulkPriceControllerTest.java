@@ -0,0 +1,83 @@
+package ru.otus.prof.retail.controllers.product;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.product.BulkPriceUpdateResultDTO;
+import ru.otus.prof.retail.exception.product.ItemNotFoundException;
+import ru.otus.prof.retail.exception.product.PriceValidationException;
+import ru.otus.prof.retail.services.product.BulkPriceUpdateService;
+import ru.otus.prof.retail.services.product.pricing.PriceListFormat;
+
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BulkPriceController.class)
+public class BulkPriceControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BulkPriceUpdateService bulkPriceUpdateService;
+
+    private final String BASE_URL = "/api/v1/product/price/bulk";
+
+    @Test
+    void updateFromCsv_ShouldReturnResult() throws Exception {
+        when(bulkPriceUpdateService.update(any(InputStream.class), eq(PriceListFormat.CSV), eq(false)))
+                .thenReturn(new BulkPriceUpdateResultDTO(2, 1, 1, 0, "copy", 12));
+
+        mockMvc.perform(post(BASE_URL)
+                        .contentType("text/csv")
+                        .content("1001,103\n1002,250\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.received").value(2))
+                .andExpect(jsonPath("$.inserted").value(1))
+                .andExpect(jsonPath("$.mode").value("copy"));
+    }
+
+    @Test
+    void updateFromNdjson_WithReplace_ShouldReturnResult() throws Exception {
+        when(bulkPriceUpdateService.update(any(InputStream.class), eq(PriceListFormat.NDJSON), eq(true)))
+                .thenReturn(new BulkPriceUpdateResultDTO(1, 0, 1, 3, "jdbc-batch", 5));
+
+        mockMvc.perform(post(BASE_URL)
+                        .param("replace", "true")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"article\":1001,\"price\":150}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.deleted").value(3));
+    }
+
+    @Test
+    void updateFromCsv_InvalidLine_ShouldReturn400() throws Exception {
+        when(bulkPriceUpdateService.update(any(InputStream.class), eq(PriceListFormat.CSV), eq(false)))
+                .thenThrow(new PriceValidationException("Неверная строка прайс-листа 1: ожидается article,price"));
+
+        mockMvc.perform(post(BASE_URL)
+                        .contentType("text/csv")
+                        .content("broken\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Неверная строка прайс-листа 1: ожидается article,price"));
+    }
+
+    @Test
+    void updateFromCsv_UnknownArticle_ShouldReturn404() throws Exception {
+        when(bulkPriceUpdateService.update(any(InputStream.class), eq(PriceListFormat.CSV), eq(false)))
+                .thenThrow(new ItemNotFoundException("Товары с артикулами [999999] не найдены"));
+
+        mockMvc.perform(post(BASE_URL)
+                        .contentType("text/csv")
+                        .content("999999,100\n"))
+                .andExpect(status().isNotFound());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,62 @@
+package ru.otus.prof.retail.controllers.product;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.product.CatalogChangeDTO;
+import ru.otus.prof.retail.dto.product.CatalogChangesDTO;
+import ru.otus.prof.retail.services.product.CatalogChangeService;
+
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogChangeController.class)
+class CatalogChangeControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CatalogChangeService catalogChangeService;
+
+    private final String BASE_URL = "/api/v1/product/changes";
+
+    @Test
+    void getChanges_ShouldReturnPage() throws Exception {
+        CatalogChangesDTO page = new CatalogChangesDTO(12L, 11L, 1001L, true, List.of(
+                new CatalogChangeDTO(1001L, 11L, false, "Item 1", 103L, List.of("1001111111111"))));
+        when(catalogChangeService.getChanges(10L, null, 1)).thenReturn(page);
+
+        mockMvc.perform(get(BASE_URL).param("since", "10").param("limit", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasMore").value(true))
+                .andExpect(jsonPath("$.nextAfter").value(1001L))
+                .andExpect(jsonPath("$.changes[0].price").value(103L))
+                .andExpect(jsonPath("$.changes[0].barcodes[0]").value("1001111111111"));
+    }
+
+    @Test
+    void getChanges_WithDefaults_ShouldStartFromZero() throws Exception {
+        when(catalogChangeService.getChanges(0L, null, 1000)).thenReturn(new CatalogChangesDTO(1L, 1L, null, false, List.of()));
+
+        mockMvc.perform(get(BASE_URL))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes").isEmpty());
+
+        verify(catalogChangeService).getChanges(0L, null, 1000);
+    }
+
+    @Test
+    void getChanges_WithTooLargeLimit_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL).param("limit", "100000"))
+                .andExpect(status().isBadRequest());
+
+        verify(catalogChangeService, never()).getChanges(anyLong(), any(), anyInt());
+    }
+}
\ No newline at end of file
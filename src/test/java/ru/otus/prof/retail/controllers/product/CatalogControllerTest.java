@@ -0,0 +1,82 @@
+package ru.otus.prof.retail.controllers.product;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.product.CatalogItemDTO;
+import ru.otus.prof.retail.dto.product.CatalogSnapshotDTO;
+import ru.otus.prof.retail.dto.product.ScanItemDTO;
+import ru.otus.prof.retail.exception.product.ItemNotFoundException;
+import ru.otus.prof.retail.services.product.CatalogSnapshotService;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogController.class)
+class CatalogControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CatalogSnapshotService catalogSnapshotService;
+
+    private final String BASE_URL = "/api/v1/product/catalog";
+
+    @Test
+    void rebuild_ShouldReturnSnapshotInfo() throws Exception {
+        when(catalogSnapshotService.rebuild())
+                .thenReturn(new CatalogSnapshotDTO(2, 3, 1024L, LocalDateTime.of(2024, 1, 1, 2, 30), 15L));
+
+        mockMvc.perform(post(BASE_URL + "/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.items").value(2))
+                .andExpect(jsonPath("$.barcodes").value(3))
+                .andExpect(jsonPath("$.builtAt").value("2024-01-01T02:30:00"));
+
+        verify(catalogSnapshotService, times(1)).rebuild();
+    }
+
+    @Test
+    void findByBarcode_ShouldReturnItem() throws Exception {
+        when(catalogSnapshotService.findByBarcode("123456789012"))
+                .thenReturn(new ScanItemDTO("123456789012", 12345L, "Item", 990L));
+
+        mockMvc.perform(get(BASE_URL + "/barcode/123456789012"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.article").value(12345L))
+                .andExpect(jsonPath("$.price").value(990L));
+    }
+
+    @Test
+    void findByArticle_ShouldReturnItem() throws Exception {
+        when(catalogSnapshotService.findByArticle(12345L)).thenReturn(new CatalogItemDTO(12345L, "Item", null));
+
+        mockMvc.perform(get(BASE_URL + "/article/12345"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.name").value("Item"));
+    }
+
+    @Test
+    void findByArticle_WithNonExistentArticle_ShouldReturnNotFound() throws Exception {
+        when(catalogSnapshotService.findByArticle(999L))
+                .thenThrow(new ItemNotFoundException("Товар не найден с артикулом: 999"));
+
+        mockMvc.perform(get(BASE_URL + "/article/999"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void findByArticle_WithInvalidArticle_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/article/0"))
+                .andExpect(status().isBadRequest());
+
+        verify(catalogSnapshotService, never()).findByArticle(any());
+    }
+}
\ No newline at end of file
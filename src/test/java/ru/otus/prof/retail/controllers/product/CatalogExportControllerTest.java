@@ -0,0 +1,108 @@
+package ru.otus.prof.retail.controllers.product;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import ru.otus.prof.retail.exception.product.CatalogExportNotReadyException;
+import ru.otus.prof.retail.services.product.CatalogExportService;
+import ru.otus.prof.retail.services.product.export.CatalogExportFile;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(CatalogExportController.class)
+class CatalogExportControllerTest {
+
+    private static final String ETAG = "\"7-abc\"";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private CatalogExportService catalogExportService;
+
+    @TempDir
+    Path tempDir;
+
+    private final String BASE_URL = "/api/v1/product/catalog/export";
+
+    @BeforeEach
+    void setUp() throws Exception {
+        Path file = Files.writeString(tempDir.resolve("catalog.bin.gz"), "0123456789");
+        when(catalogExportService.getCurrent())
+                .thenReturn(new CatalogExportFile(file, 7L, 2, 10L, ETAG, LocalDateTime.now(), 5L));
+    }
+
+    @Test
+    void download_ShouldReturnWholeFile() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, ETAG))
+                .andExpect(header().string(HttpHeaders.ACCEPT_RANGES, "bytes"))
+                .andExpect(header().string("X-Catalog-Version", "7"))
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void download_WithRange_ShouldReturnPartialContent() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL).header(HttpHeaders.RANGE, "bytes=4-"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 4-9/10"))
+                .andExpect(content().string("456789"));
+    }
+
+    @Test
+    void download_WithStaleIfRange_ShouldReturnWholeFile() throws Exception {
+        MvcResult result = mockMvc.perform(get(BASE_URL)
+                        .header(HttpHeaders.RANGE, "bytes=4-")
+                        .header(HttpHeaders.IF_RANGE, "\"6-def\""))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string("0123456789"));
+    }
+
+    @Test
+    void download_WithMatchingEtag_ShouldReturnNotModified() throws Exception {
+        mockMvc.perform(get(BASE_URL).header(HttpHeaders.IF_NONE_MATCH, ETAG))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void download_WithRangeOutsideFile_ShouldReturn416() throws Exception {
+        mockMvc.perform(get(BASE_URL).header(HttpHeaders.RANGE, "bytes=20-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */10"));
+    }
+
+    @Test
+    void download_NotReady_ShouldReturn503() throws Exception {
+        when(catalogExportService.getCurrent())
+                .thenThrow(new CatalogExportNotReadyException("Выгрузка каталога еще не готова, повторите позже"));
+
+        mockMvc.perform(get(BASE_URL))
+                .andExpect(status().isServiceUnavailable());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,83 @@
+package ru.otus.prof.retail.controllers.product;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.product.ArticlePriceDTO;
+import ru.otus.prof.retail.dto.product.PriceIndexDTO;
+import ru.otus.prof.retail.services.product.PriceLookupService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(PriceLookupController.class)
+class PriceLookupControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private PriceLookupService priceLookupService;
+
+    private final String BASE_URL = "/api/v1/product/price";
+
+    @Test
+    void findPricesAt_ShouldReturnPrices() throws Exception {
+        LocalDateTime at = LocalDateTime.of(2025, 6, 9, 12, 0);
+        when(priceLookupService.findPricesAt(List.of(1001L, 1002L), at)).thenReturn(List.of(
+                new ArticlePriceDTO(1001L, 103L, LocalDateTime.of(1970, 1, 1, 0, 0), null),
+                new ArticlePriceDTO(1002L, 150L, LocalDateTime.of(2025, 6, 9, 0, 0), LocalDateTime.of(2025, 6, 16, 0, 0))));
+
+        mockMvc.perform(get(BASE_URL + "/at")
+                        .param("articles", "1001,1002")
+                        .param("at", "2025-06-09T12:00:00"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].price").value(103))
+                .andExpect(jsonPath("$[1].price").value(150))
+                .andExpect(jsonPath("$[1].effectiveTo").value("2025-06-16T00:00:00"));
+    }
+
+    @Test
+    void findPricesAt_WithoutMoment_ShouldUseCurrentTime() throws Exception {
+        when(priceLookupService.findPricesAt(eq(List.of(1001L)), any(LocalDateTime.class)))
+                .thenReturn(List.of(new ArticlePriceDTO(1001L, 103L, LocalDateTime.of(1970, 1, 1, 0, 0), null)));
+
+        mockMvc.perform(get(BASE_URL + "/at").param("articles", "1001"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].article").value(1001));
+    }
+
+    @Test
+    void findPricesAt_InvalidMoment_ShouldReturn400() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/at")
+                        .param("articles", "1001")
+                        .param("at", "yesterday"))
+                .andExpect(status().isBadRequest());
+
+        verifyNoInteractions(priceLookupService);
+    }
+
+    @Test
+    void rebuildIndex_ShouldReturnIndexInfo() throws Exception {
+        when(priceLookupService.rebuild()).thenReturn(new PriceIndexDTO(2, 4,
+                LocalDateTime.of(2025, 6, 9, 0, 0), LocalDateTime.of(2025, 6, 10, 0, 0),
+                0, LocalDateTime.of(2025, 6, 9, 0, 0, 5), 12L));
+
+        mockMvc.perform(post(BASE_URL + "/index/rebuild"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.articles").value(2))
+                .andExpect(jsonPath("$.intervals").value(4))
+                .andExpect(jsonPath("$.windowTo").value("2025-06-10T00:00:00"));
+    }
+}
\ No newline at end of file
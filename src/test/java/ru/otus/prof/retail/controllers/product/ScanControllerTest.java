@@ -0,0 +1,68 @@
+package ru.otus.prof.retail.controllers.product;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.product.ScanCacheStatsDTO;
+import ru.otus.prof.retail.dto.product.ScanItemDTO;
+import ru.otus.prof.retail.exception.product.BarcodeNotFoundException;
+import ru.otus.prof.retail.services.product.BarcodeLookupService;
+
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ScanController.class)
+class ScanControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BarcodeLookupService barcodeLookupService;
+
+    private final String BASE_URL = "/api/v1/product/scan";
+
+    @Test
+    void scan_ShouldReturnItem() throws Exception {
+        when(barcodeLookupService.lookup("123456789012"))
+                .thenReturn(new ScanItemDTO("123456789012", 12345L, "Item", 990L));
+
+        mockMvc.perform(get(BASE_URL + "/123456789012"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.article").value(12345L))
+                .andExpect(jsonPath("$.name").value("Item"))
+                .andExpect(jsonPath("$.price").value(990L));
+    }
+
+    @Test
+    void scan_WithNonExistentBarcode_ShouldReturnNotFound() throws Exception {
+        when(barcodeLookupService.lookup("999999999999"))
+                .thenThrow(new BarcodeNotFoundException("Штрих-код 999999999999 не найден"));
+
+        mockMvc.perform(get(BASE_URL + "/999999999999"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Штрих-код 999999999999 не найден"));
+    }
+
+    @Test
+    void scan_WithInvalidBarcode_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/short"))
+                .andExpect(status().isBadRequest());
+
+        verify(barcodeLookupService, never()).lookup(any());
+    }
+
+    @Test
+    void getStats_ShouldReturnStats() throws Exception {
+        when(barcodeLookupService.getStats())
+                .thenReturn(new ScanCacheStatsDTO(10L, 8L, 2L, 0.8, 2L, 1L, 0L));
+
+        mockMvc.perform(get(BASE_URL + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hits").value(8))
+                .andExpect(jsonPath("$.hitRate").value(0.8));
+    }
+}
\ No newline at end of file
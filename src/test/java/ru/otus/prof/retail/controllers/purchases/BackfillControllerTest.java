@@ -0,0 +1,56 @@
+package ru.otus.prof.retail.controllers.purchases;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.purchases.BackfillResultDTO;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.services.purchases.backfill.SalesBackfillService;
+
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BackfillController.class)
+public class BackfillControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private SalesBackfillService salesBackfillService;
+
+    private final String BASE_URL = "/api/v1/purchases/backfill";
+
+    @Test
+    void backfill_ShouldReturnResult() throws Exception {
+        when(salesBackfillService.backfill(any(InputStream.class)))
+                .thenReturn(new BackfillResultDTO(2, 10, 30, 1, "copy", 15));
+
+        mockMvc.perform(post(BASE_URL)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"shiftNumber\":1}\n{\"shiftNumber\":2}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shifts").value(2))
+                .andExpect(jsonPath("$.positions").value(30))
+                .andExpect(jsonPath("$.mode").value("copy"));
+    }
+
+    @Test
+    void backfill_InvalidRecord_ShouldReturn400() throws Exception {
+        when(salesBackfillService.backfill(any(InputStream.class)))
+                .thenThrow(new ShiftValidationException("Неверный формат записи в строке 1: broken"));
+
+        mockMvc.perform(post(BASE_URL)
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{broken\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Неверный формат записи в строке 1: broken"));
+    }
+}
\ No newline at end of file
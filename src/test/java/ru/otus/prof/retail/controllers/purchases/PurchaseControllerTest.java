@@ -7,6 +7,9 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.purchases.InputPositionDTO;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.PurchaseBatchResultDTO;
 import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
 import ru.otus.prof.retail.exception.purchases.ShiftNotFoundException;
 import ru.otus.prof.retail.services.purchases.PurchaseService;
@@ -194,4 +197,29 @@ public class PurchaseControllerTest {
                         .content(objectMapper.writeValueAsString(List.of(10L, 11L))))
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void createPurchases_shouldReturnBatchResult() throws Exception {
+        List<InputPurchaseDTO> purchases = List.of(new InputPurchaseDTO(10L, LocalDateTime.of(2024, 1, 1, 12, 0), 100L,
+                List.of(new InputPositionDTO("1001111111111", 1001L, "Item 1", 100L))));
+
+        when(purchaseService.createPurchases(anyList())).thenReturn(new PurchaseBatchResultDTO(1, 1, 5L, 0));
+
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(purchases)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.purchases").value(1))
+                .andExpect(jsonPath("$.positions").value(1));
+    }
+
+    @Test
+    void createPurchases_WithoutPositions_ShouldReturnBadRequest() throws Exception {
+        List<InputPurchaseDTO> purchases = List.of(new InputPurchaseDTO(10L, LocalDateTime.of(2024, 1, 1, 12, 0), 100L, List.of()));
+
+        mockMvc.perform(post(BASE_URL + "/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(purchases)))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
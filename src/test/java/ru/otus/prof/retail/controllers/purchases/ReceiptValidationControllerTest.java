@@ -0,0 +1,62 @@
+package ru.otus.prof.retail.controllers.purchases;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.purchases.QuarantinedPositionDTO;
+import ru.otus.prof.retail.dto.purchases.ReceiptValidationStatsDTO;
+import ru.otus.prof.retail.services.purchases.ReceiptValidationService;
+import ru.otus.prof.retail.services.purchases.validation.MismatchReason;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReceiptValidationController.class)
+class ReceiptValidationControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ReceiptValidationService receiptValidationService;
+
+    private final String BASE_URL = "/api/v1/purchases/validation";
+
+    @Test
+    void getStats_ShouldReturnCounters() throws Exception {
+        when(receiptValidationService.getStats()).thenReturn(new ReceiptValidationStatsDTO(true, 100, 0, 1200, 12, 10,
+                2, 1, 0, 6, 1, 30, 4.5, 0, 0));
+
+        mockMvc.perform(get(BASE_URL + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.receipts").value(100))
+                .andExpect(jsonPath("$.quarantined").value(10))
+                .andExpect(jsonPath("$.priceMismatch").value(6))
+                .andExpect(jsonPath("$.overBudgetChunks").value(0));
+    }
+
+    @Test
+    void getQuarantine_ShouldReturnPositionsOfShift() throws Exception {
+        when(receiptValidationService.findQuarantine(5L)).thenReturn(List.of(new QuarantinedPositionDTO(1L, 2L, 5L,
+                LocalDateTime.of(2025, 6, 9, 12, 0), "1001111111111", 1001L, "Item 1", 100L,
+                MismatchReason.PRICE_MISMATCH, 1001L, 103L, LocalDateTime.of(2025, 6, 9, 12, 5))));
+
+        mockMvc.perform(get(BASE_URL + "/quarantine").param("shiftId", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].reason").value("PRICE_MISMATCH"))
+                .andExpect(jsonPath("$[0].expectedPrice").value(103));
+    }
+
+    @Test
+    void getQuarantine_WithoutShift_ShouldReturnBadRequest() throws Exception {
+        mockMvc.perform(get(BASE_URL + "/quarantine"))
+                .andExpect(status().isBadRequest());
+    }
+}
\ No newline at end of file
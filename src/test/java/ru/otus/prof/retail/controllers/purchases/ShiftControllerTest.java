@@ -7,17 +7,25 @@ import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftIngestResultDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftPageDTO;
 import ru.otus.prof.retail.dto.purchases.ShiftSearchRequest;
 import ru.otus.prof.retail.exception.purchases.ShiftNotFoundException;
 import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
 import ru.otus.prof.retail.services.purchases.ShiftService;
 
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.List;
 
 import static org.hamcrest.Matchers.containsString;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -34,6 +42,9 @@ class ShiftControllerTest {
     @MockBean
     private ShiftService shiftService;
 
+    @MockBean
+    private ShiftIngestService shiftIngestService;
+
     private final String BASE_URL = "/api/v1/purchases/shift";
 
     @Test
@@ -198,4 +209,97 @@ class ShiftControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.message").value(containsString("must not be empty")));
     }
+
+    @Test
+    void ingestShift_ShouldReturnResult() throws Exception {
+        ShiftIngestResultDTO result = new ShiftIngestResultDTO(1001L, 2, 3, 1, 500L, 500L, true, 10, 0);
+
+        when(shiftIngestService.ingestShift(any(InputStream.class))).thenReturn(result);
+
+        mockMvc.perform(post(BASE_URL + "/ingest")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{\"shiftNumber\":1}\n{\"total\":500}\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shiftId").value(1001L))
+                .andExpect(jsonPath("$.purchases").value(2))
+                .andExpect(jsonPath("$.reconciled").value(true));
+    }
+
+    @Test
+    void ingestShift_InvalidRecord_ShouldReturn400() throws Exception {
+        when(shiftIngestService.ingestShift(any(InputStream.class)))
+                .thenThrow(new ShiftValidationException("Неверный формат записи в строке 2: broken"));
+
+        mockMvc.perform(post(BASE_URL + "/ingest")
+                        .contentType(MediaType.APPLICATION_NDJSON)
+                        .content("{}\n{broken\n"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Неверный формат записи в строке 2: broken"));
+    }
+
+    @Test
+    void searchShiftsPage_ShouldReturnPage() throws Exception {
+        ShiftSearchRequest request = new ShiftSearchRequest(1L, null, LocalDate.of(2024, 1, 1), null, null, false);
+        ShiftDTO shiftDTO = new ShiftDTO(1L, 1L, 1L, 1L,
+                LocalDate.of(2024, 1, 1).atTime(10, 0), LocalDate.of(2024, 1, 1).atTime(20, 0), 201L, null);
+
+        when(shiftService.searchShiftsPage(any(ShiftSearchRequest.class), eq("abc"), eq(50)))
+                .thenReturn(new ShiftPageDTO(List.of(shiftDTO), "next"));
+
+        mockMvc.perform(post(BASE_URL + "/search/page")
+                        .param("cursor", "abc")
+                        .param("limit", "50")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shifts[0].id").value(1L))
+                .andExpect(jsonPath("$.nextCursor").value("next"));
+    }
+
+    @Test
+    void searchShiftsPage_LimitTooLarge_ShouldReturn400() throws Exception {
+        ShiftSearchRequest request = new ShiftSearchRequest(1L, null, LocalDate.of(2024, 1, 1), null, null, false);
+
+        mockMvc.perform(post(BASE_URL + "/search/page")
+                        .param("limit", "5000")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void streamShifts_ShouldWriteNdjson() throws Exception {
+        ShiftSearchRequest request = new ShiftSearchRequest(1L, null, LocalDate.of(2024, 1, 1), null, null, false);
+
+        when(shiftService.streamShifts(any(ShiftSearchRequest.class), any(OutputStream.class))).thenAnswer(invocation -> {
+            OutputStream out = invocation.getArgument(1);
+            out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+            return 2L;
+        });
+
+        MvcResult result = mockMvc.perform(post(BASE_URL + "/search/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+    }
+
+    @Test
+    void streamShifts_InvalidRange_ShouldReturn400() throws Exception {
+        ShiftSearchRequest request = new ShiftSearchRequest(1L, null, null,
+                LocalDate.of(2024, 1, 2), LocalDate.of(2024, 1, 1), false);
+
+        doThrow(new ShiftValidationException("Начальная дата (2024-01-02) позже конечной (2024-01-01)"))
+                .when(shiftService).validateSearch(any(ShiftSearchRequest.class));
+
+        mockMvc.perform(post(BASE_URL + "/search/stream")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,68 @@
+package ru.otus.prof.retail.controllers.purchases;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.purchases.SpoolAcceptedDTO;
+import ru.otus.prof.retail.dto.purchases.SpoolStatsDTO;
+import ru.otus.prof.retail.exception.purchases.IngestSpoolUnavailableException;
+import ru.otus.prof.retail.services.purchases.spool.ShiftSpoolService;
+
+import java.io.InputStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ShiftSpoolController.class)
+class ShiftSpoolControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private ShiftSpoolService shiftSpoolService;
+
+    private final String BASE_URL = "/api/v1/purchases/shift/ingest/spool";
+
+    private final String BODY = "{\"shiftNumber\":10,\"shopNumber\":1,\"cashNumber\":1," +
+            "\"openTime\":\"2024-02-01T08:00:00\",\"closeTime\":\"2024-02-01T20:00:00\"}\n";
+
+    @Test
+    void acceptShift_ShouldReturnAccepted() throws Exception {
+        when(shiftSpoolService.accept(any(InputStream.class))).thenReturn(new SpoolAcceptedDTO(1, 128, 512, 640));
+
+        mockMvc.perform(post(BASE_URL).contentType(MediaType.APPLICATION_NDJSON).content(BODY))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.segment").value(1))
+                .andExpect(jsonPath("$.offset").value(128))
+                .andExpect(jsonPath("$.backlogBytes").value(640));
+    }
+
+    @Test
+    void acceptShift_WhenBacklogFull_ShouldReturnServiceUnavailable() throws Exception {
+        when(shiftSpoolService.accept(any(InputStream.class)))
+                .thenThrow(new IngestSpoolUnavailableException("Очередь загрузки смен переполнена, повторите передачу позже"));
+
+        mockMvc.perform(post(BASE_URL).contentType(MediaType.APPLICATION_NDJSON).content(BODY))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void getStats_ShouldReturnCounters() throws Exception {
+        when(shiftSpoolService.getStats()).thenReturn(new SpoolStatsDTO(true, 640, 1 << 30, 1, 10, 9, 1, 0, 4, 2,
+                "Connection refused", null));
+
+        mockMvc.perform(get(BASE_URL + "/stats"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.enabled").value(true))
+                .andExpect(jsonPath("$.drained").value(9))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.lastError").value("Connection refused"));
+    }
+}
\ No newline at end of file
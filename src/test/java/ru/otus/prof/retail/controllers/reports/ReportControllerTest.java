@@ -0,0 +1,74 @@
+package ru.otus.prof.retail.controllers.reports;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.reports.DailySalesDTO;
+import ru.otus.prof.retail.dto.reports.RollupRebuildResultDTO;
+import ru.otus.prof.retail.exception.reports.ReportValidationException;
+import ru.otus.prof.retail.services.reports.DailySalesRollupService;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(ReportController.class)
+public class ReportControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private DailySalesRollupService rollupService;
+
+    private final String BASE_URL = "/api/v1/reports";
+    private final LocalDate from = LocalDate.of(2024, 1, 1);
+    private final LocalDate to = LocalDate.of(2024, 1, 2);
+
+    @Test
+    void getDailySales_ShouldReturnRows() throws Exception {
+        when(rollupService.getDailySales(1L, null, from, to)).thenReturn(List.of(
+                new DailySalesDTO(1L, 1L, from, 10L, 5000L, 25L),
+                new DailySalesDTO(1L, 1L, to, 4L, 1200L, 6L)));
+
+        mockMvc.perform(get(BASE_URL + "/daily")
+                        .param("shopNumber", "1")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].day").value("2024-01-01"))
+                .andExpect(jsonPath("$[0].revenue").value(5000))
+                .andExpect(jsonPath("$[1].itemsSold").value(6));
+    }
+
+    @Test
+    void getDailySales_InvalidRange_ShouldReturn400() throws Exception {
+        when(rollupService.getDailySales(1L, null, to, from))
+                .thenThrow(new ReportValidationException("Начальная дата (2024-01-02) позже конечной (2024-01-01)"));
+
+        mockMvc.perform(get(BASE_URL + "/daily")
+                        .param("shopNumber", "1")
+                        .param("from", "2024-01-02")
+                        .param("to", "2024-01-01"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Начальная дата (2024-01-02) позже конечной (2024-01-01)"));
+    }
+
+    @Test
+    void rebuildDailySales_ShouldReturnResult() throws Exception {
+        when(rollupService.rebuild(from, to)).thenReturn(new RollupRebuildResultDTO(from, to, 62, 40));
+
+        mockMvc.perform(post(BASE_URL + "/daily/rebuild")
+                        .param("from", "2024-01-01")
+                        .param("to", "2024-01-02"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rows").value(62));
+    }
+}
\ No newline at end of file
@@ -9,11 +9,14 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.jdbc.CannotGetJdbcConnectionException;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import ru.otus.prof.retail.dto.error.ErrorResponse;
 import ru.otus.prof.retail.exception.shop.ShopNotFoundException;
 import ru.otus.prof.retail.exception.shop.ShopValidationException;
 
+import java.sql.SQLTransientConnectionException;
+
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.Mockito.when;
 
@@ -71,4 +74,14 @@ class GlobalExceptionHandlerUnitTest {
         assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
         assertEquals("Ошибка данных: Ошибка БД", response.getBody().getMessage());
     }
+
+    @Test
+    void handleCannotGetJdbcConnectionException_Returns503() {
+        CannotGetJdbcConnectionException ex = new CannotGetJdbcConnectionException("Failed to obtain JDBC Connection",
+                new SQLTransientConnectionException("Очередь ожидания соединения с БД заполнена: 1000"));
+        ResponseEntity<ErrorResponse> response = handler.handleDatabaseUnavailableException(ex, request);
+
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("База данных перегружена: Очередь ожидания соединения с БД заполнена: 1000", response.getBody().getMessage());
+    }
 }
\ No newline at end of file
@@ -146,7 +146,7 @@ class ItemMapperTest {
         assertNotNull(updatedItem);
         assertEquals("Updated Name", updatedItem.getName());
         assertEquals(2, updatedItem.getBarcodes().size());
-        assertEquals(2, updatedItem.getPrices().size());
+        assertEquals(1, updatedItem.getPrices().size());
     }
 
     @Test
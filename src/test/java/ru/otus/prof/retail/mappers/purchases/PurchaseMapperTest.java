@@ -5,6 +5,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import ru.otus.prof.retail.dto.purchases.InputPositionDTO;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
 import ru.otus.prof.retail.dto.purchases.PositionDTO;
 import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
 import ru.otus.prof.retail.entities.purchases.Position;
@@ -18,7 +20,10 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -140,4 +145,36 @@ class PurchaseMapperTest {
 
         assertThrows(MappingException.class, () -> purchaseMapper.toEntity(dto));
     }
+
+    @Test
+    void toEntity_FromInputDTO_ShouldLinkShiftAndPositionsWithoutRepositoryLookup() {
+        InputPositionDTO positionDTO = new InputPositionDTO("123456789012", 789012L, "Test Product", 10000L);
+        InputPurchaseDTO dto = new InputPurchaseDTO(1L, LocalDateTime.now(), 10000L, List.of(positionDTO));
+
+        Shift shift = new Shift();
+        shift.setId(1L);
+
+        Position position = new Position();
+        position.setArticle(789012L);
+
+        when(positionMapper.toEntity(eq(positionDTO), any(Purchase.class))).thenReturn(position);
+
+        Purchase purchase = purchaseMapper.toEntity(dto, shift);
+
+        assertNotNull(purchase);
+        assertNull(purchase.getId());
+        assertEquals(dto.purchaseDate(), purchase.getPurchaseDate());
+        assertEquals(dto.total(), purchase.getTotal());
+        assertSame(shift, purchase.getShift());
+        assertEquals(List.of(position), purchase.getPositions());
+        verifyNoInteractions(shiftRepository);
+    }
+
+    @Test
+    void toEntity_FromInputDTO_ShouldThrowExceptionWhenShiftIsNull() {
+        InputPositionDTO positionDTO = new InputPositionDTO("123456789012", 789012L, "Test Product", 10000L);
+        InputPurchaseDTO dto = new InputPurchaseDTO(1L, LocalDateTime.now(), 10000L, List.of(positionDTO));
+
+        assertThrows(MappingException.class, () -> purchaseMapper.toEntity(dto, null));
+    }
 }
\ No newline at end of file
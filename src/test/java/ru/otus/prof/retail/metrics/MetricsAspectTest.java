@@ -0,0 +1,118 @@
+package ru.otus.prof.retail.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.otus.prof.retail.dto.purchases.InputShiftDTO;
+import ru.otus.prof.retail.exception.product.ItemNotFoundException;
+import ru.otus.prof.retail.mappers.purchases.ShiftMapper;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+import ru.otus.prof.retail.services.product.ItemService;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureObservability
+@ActiveProfiles("test")
+class MetricsAspectTest {
+
+    @Autowired
+    private MeterRegistry registry;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private ShiftMapper shiftMapper;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void serviceMethods_shouldBeTimedWithExceptionTag() {
+        long before = count(MetricsAspect.SERVICE_TIMER, "ItemService", "getItem", "none");
+
+        itemService.getItem(1001L);
+        itemService.getItem(1002L);
+        assertThatThrownBy(() -> itemService.deleteItem(999_999L)).isInstanceOf(ItemNotFoundException.class);
+
+        assertThat(count(MetricsAspect.SERVICE_TIMER, "ItemService", "getItem", "none")).isEqualTo(before + 2);
+        assertThat(count(MetricsAspect.SERVICE_TIMER, "ItemService", "deleteItem", "ItemNotFoundException")).isPositive();
+    }
+
+    @Test
+    void repositoryQueries_shouldRecordReturnedRows() {
+        DistributionSummary summary = registry.find(MetricsAspect.REPOSITORY_ROWS)
+                .tags("repository", "ItemRepository", "method", "findExistingArticles").summary();
+        double rowsBefore = summary == null ? 0 : summary.totalAmount();
+
+        itemRepository.findExistingArticles(List.of(1001L, 1002L, 999_999L));
+
+        summary = registry.get(MetricsAspect.REPOSITORY_ROWS)
+                .tags("repository", "ItemRepository", "method", "findExistingArticles").summary();
+        assertThat(summary.totalAmount() - rowsBefore).isEqualTo(2);
+    }
+
+    @Test
+    void shiftMapper_shouldBeTimed() {
+        long before = count(MetricsAspect.MAPPER_TIMER, "ShiftMapper", "toEntity", "none");
+
+        shiftMapper.toEntity(new InputShiftDTO(1L, 1L, 1L, LocalDateTime.of(2024, 1, 1, 8, 0),
+                LocalDateTime.of(2024, 1, 1, 20, 0), null));
+
+        assertThat(count(MetricsAspect.MAPPER_TIMER, "ShiftMapper", "toEntity", "none")).isEqualTo(before + 1);
+    }
+
+    @Test
+    void rows_shouldCountResultShapes() {
+        assertThat(MetricsAspect.rows(null)).isZero();
+        assertThat(MetricsAspect.rows(List.of(1, 2, 3))).isEqualTo(3);
+        assertThat(MetricsAspect.rows(new PageImpl<>(List.of(1, 2)))).isEqualTo(2);
+        assertThat(MetricsAspect.rows(Optional.of(1))).isEqualTo(1);
+        assertThat(MetricsAspect.rows(Optional.empty())).isZero();
+        assertThat(MetricsAspect.rows(new long[4])).isEqualTo(4);
+        assertThat(MetricsAspect.rows(new Object())).isEqualTo(1);
+        //счетчики, признаки и потоки строками не считаются
+        assertThat(MetricsAspect.rows(5L)).isNegative();
+        assertThat(MetricsAspect.rows(Boolean.TRUE)).isNegative();
+        assertThat(MetricsAspect.rows(Stream.of(1))).isNegative();
+    }
+
+    @Test
+    void prometheusEndpoint_shouldExposeLatencyHistogramsAndPool() throws Exception {
+        itemService.getItem(1001L);
+
+        mockMvc.perform(get("/actuator/prometheus"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("retail_service_seconds_bucket")))
+                .andExpect(content().string(containsString("hikaricp_connections_max")))
+                .andExpect(content().string(containsString("retail_scan_cache_lookups_total")));
+    }
+
+    private long count(String name, String className, String method, String exception) {
+        Timer timer = registry.find(name).tags("class", className, "method", method, "exception", exception).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
\ No newline at end of file
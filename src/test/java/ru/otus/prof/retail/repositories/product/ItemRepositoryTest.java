@@ -0,0 +1,79 @@
+package ru.otus.prof.retail.repositories.product;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+import org.hibernate.Hibernate;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.entities.product.Item;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class ItemRepositoryTest {
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @BeforeEach
+    void clearContext() {
+        entityManager.clear();
+    }
+
+    @Test
+    void testFindById_shouldNotLoadCollections() {
+        Item item = itemRepository.findById(1001L).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(item.getPrices())).isFalse();
+        assertThat(Hibernate.isInitialized(item.getBarcodes())).isFalse();
+    }
+
+    @Test
+    void testFindFullByArticle_shouldLoadCollections() {
+        Item item = itemRepository.findFullByArticle(1001L).orElseThrow();
+
+        assertThat(Hibernate.isInitialized(item.getPrices())).isTrue();
+        assertThat(Hibernate.isInitialized(item.getBarcodes())).isTrue();
+        assertThat(item.getPrices()).hasSize(3);
+        assertThat(item.getBarcodes()).hasSize(2);
+    }
+
+    @Test
+    void testFindFullByArticle_shouldLoadCollectionsSeparately() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        Item item = itemRepository.findFullByArticle(1001L).orElseThrow();
+
+        //цены и штрих-коды своими запросами, без произведения 3 x 2 строк
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(item.getPrices()).hasSize(3);
+        assertThat(item.getBarcodes()).hasSize(2);
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void testFindMissingArticles_shouldReturnOnlyMissing() {
+        List<Long> missing = itemRepository.findMissingArticles(Set.of(1001L, 1002L, 9999L));
+
+        assertThat(missing).containsExactly(9999L);
+    }
+}
\ No newline at end of file
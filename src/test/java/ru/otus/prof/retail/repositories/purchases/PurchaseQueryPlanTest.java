@@ -0,0 +1,115 @@
+package ru.otus.prof.retail.repositories.purchases;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.prof.retail.PostgresTestSupport;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+//Проверяет по EXPLAIN, что поиск чеков и смен по магазину/кассе/дате идет по индексам из 0007
+//и затрагивает только нужные месячные партиции (0008).
+//Данные (несколько миллионов чеков) генерируются в транзакции теста и откатываются после него.
+//Запуск: RETAIL_PG_URL=jdbc:postgresql://localhost:2345/retail ./gradlew test --tests '*PurchaseQueryPlanTest'
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+@EnabledIfEnvironmentVariable(named = PostgresTestSupport.URL_VARIABLE, matches = ".+")
+public class PurchaseQueryPlanTest {
+
+    private static final int SHOPS = 50;
+    private static final int CASHES = 10;
+    private static final int DAYS = 365;
+    private static final int PURCHASES_PER_SHIFT = Integer.getInteger("retail.plan-test.purchases-per-shift", 20);
+    private static final long ID_OFFSET = 100_000_000L;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestSupport.register(registry);
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void generateData() {
+        jdbcTemplate.queryForObject("SELECT retail_ensure_sales_partitions(DATE '2023-01-01', DATE '2024-01-31')", Integer.class);
+        jdbcTemplate.update("INSERT INTO shift (id, shift_number, shop_number, cash_number, create_date, close_date, total) " +
+                "SELECT ? + g, g, 1000 + (g % ?), 1 + (g / ?) % ?, " +
+                "TIMESTAMP '2023-01-01 08:00' + ((g / (? * ?)) * INTERVAL '1 day'), " +
+                "TIMESTAMP '2023-01-01 20:00' + ((g / (? * ?)) * INTERVAL '1 day'), 0 " +
+                "FROM generate_series(0, ? - 1) g",
+                ID_OFFSET, SHOPS, SHOPS, CASHES, SHOPS, CASHES, SHOPS, CASHES, SHOPS * CASHES * DAYS);
+        jdbcTemplate.update("INSERT INTO purchase (id, shift_id, purchase_date, total) " +
+                "SELECT ? + (s.id - ?) * ? + n, s.id, s.create_date + n * INTERVAL '1 minute', 100 " +
+                "FROM shift s CROSS JOIN generate_series(0, ? - 1) n WHERE s.id >= ?",
+                ID_OFFSET, ID_OFFSET, PURCHASES_PER_SHIFT, PURCHASES_PER_SHIFT, ID_OFFSET);
+        jdbcTemplate.execute("ANALYZE shift");
+        jdbcTemplate.execute("ANALYZE purchase");
+    }
+
+    //запросы повторяют SQL, который Hibernate строит для PurchaseRepository и ShiftSpecification
+    @Test
+    void purchasesByShopAndDate_UseIndexesAndPrunePartitions() {
+        String plan = explain("SELECT p.* FROM purchase p JOIN shift s ON s.id = p.shift_id " +
+                "WHERE s.shop_number = 1007 " +
+                "AND (s.close_date IS NULL OR s.close_date >= TIMESTAMP '2023-06-01 00:00') " +
+                "AND s.create_date >= TIMESTAMP '2023-05-31 00:00' AND s.create_date < TIMESTAMP '2023-06-02 00:00' " +
+                "AND p.purchase_date >= TIMESTAMP '2023-06-01 00:00' AND p.purchase_date < TIMESTAMP '2023-06-02 00:00'");
+
+        assertIndexScans(plan);
+        assertTrue(plan.contains("purchase_p202306"), plan);
+        assertFalse(plan.contains("purchase_p202305") || plan.contains("purchase_default"), plan);
+        assertFalse(plan.contains("shift_p202304") || plan.contains("shift_p202307") || plan.contains("shift_default"), plan);
+    }
+
+    @Test
+    void purchasesByShopCashAndDate_UseIndexesAndPrunePartitions() {
+        String plan = explain("SELECT p.* FROM purchase p JOIN shift s ON s.id = p.shift_id " +
+                "WHERE s.shop_number = 1007 AND s.cash_number = 3 " +
+                "AND (s.close_date IS NULL OR s.close_date >= TIMESTAMP '2023-06-01 00:00') " +
+                "AND s.create_date >= TIMESTAMP '2023-05-31 00:00' AND s.create_date < TIMESTAMP '2023-06-02 00:00' " +
+                "AND p.purchase_date >= TIMESTAMP '2023-06-01 00:00' AND p.purchase_date < TIMESTAMP '2023-06-02 00:00'");
+
+        assertIndexScans(plan);
+        assertFalse(plan.contains("purchase_p202305") || plan.contains("purchase_default"), plan);
+    }
+
+    @Test
+    void shiftsByCloseDate_UseIndexAndPrunePartitions() {
+        String plan = explain("SELECT * FROM shift " +
+                "WHERE close_date >= TIMESTAMP '2023-06-01 00:00' AND close_date < TIMESTAMP '2023-06-02 00:00' " +
+                "AND create_date >= TIMESTAMP '2023-05-31 00:00' AND create_date < TIMESTAMP '2023-06-02 00:00'");
+
+        assertIndexScans(plan);
+        assertFalse(plan.contains("shift_p202304") || plan.contains("shift_p202307") || plan.contains("shift_default"), plan);
+    }
+
+    @Test
+    void shiftTotalsByPeriod_UseIndex() {
+        String plan = explain("SELECT SUM(total) FROM purchase WHERE shift_id = " + (ID_OFFSET + 12345) +
+                " AND purchase_date >= TIMESTAMP '2023-01-01 00:00' AND purchase_date < TIMESTAMP '2024-01-01 00:00'");
+
+        assertIndexScans(plan);
+    }
+
+    private void assertIndexScans(String plan) {
+        assertTrue(plan.contains("Index"), plan);
+        assertFalse(plan.contains("Seq Scan"), plan);
+    }
+
+    private String explain(String sql) {
+        List<String> lines = jdbcTemplate.queryForList("EXPLAIN " + sql, String.class);
+        return String.join("\n", lines);
+    }
+}
\ No newline at end of file
@@ -0,0 +1,110 @@
+package ru.otus.prof.retail.services.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.otus.prof.retail.dto.product.CatalogChangeDTO;
+import ru.otus.prof.retail.repositories.product.CatalogChangeRepository;
+import ru.otus.prof.retail.services.product.CatalogChangeService;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//изменения должны быть зафиксированы, поэтому тест без отката; записи журнала удаляются после теста
+@SpringBootTest
+@ActiveProfiles("test")
+public class CatalogOutboxRelayTest {
+
+    private static final String TOPIC = "retail.catalog-changes";
+
+    @Autowired
+    private CatalogOutboxRelay catalogOutboxRelay;
+
+    @Autowired
+    private EventTransport eventTransport;
+
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+
+    @Autowired
+    private CatalogChangeRepository catalogChangeRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private EventSubscription subscription;
+    private long versionBefore;
+
+    //outbox и топик разбираются до конца: остаются только события теста
+    @BeforeEach
+    void drain() {
+        while (catalogOutboxRelay.relayBatch().rows() > 0) {
+            //пачки до пустого outbox
+        }
+        subscription = eventTransport.subscribe(TOPIC, "test-" + System.nanoTime(), 1000);
+        while (!subscription.poll(Duration.ZERO).isEmpty()) {
+            subscription.commit();
+        }
+        versionBefore = catalogChangeRepository.currentVersion();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM catalog_outbox");
+        jdbcTemplate.update("DELETE FROM catalog_change WHERE version > ?", versionBefore);
+    }
+
+    @Test
+    void testRelay_CoalescesChangesOfArticle() throws IOException {
+        transactionTemplate.executeWithoutResult(status -> catalogChangeService.recordChange(1001L));
+        transactionTemplate.executeWithoutResult(status -> catalogChangeService.recordChanges(List.of(1001L, 1002L)));
+        assertEquals(3, outboxRows());
+
+        CatalogOutboxRelay.RelayBatch batch = catalogOutboxRelay.relayBatch();
+
+        assertEquals(3, batch.rows());
+        assertEquals(2, batch.published());
+        assertFalse(batch.full());
+        assertEquals(0, outboxRows());
+
+        List<ConsumedEvent> events = subscription.poll(Duration.ofSeconds(5));
+        assertEquals(2, events.size());
+        CatalogChangeDTO item = objectMapper.readValue(events.stream()
+                .filter(event -> event.key().equals("1001")).findFirst().orElseThrow().payload(), CatalogChangeDTO.class);
+        assertEquals(catalogChangeRepository.currentVersion(), item.version());
+        assertEquals("Item 1", item.name());
+        assertEquals(103L, item.price());
+        assertTrue(item.barcodes().contains("1001111111111"));
+    }
+
+    @Test
+    void testRolledBackChange_NotWrittenToOutbox() {
+        transactionTemplate.executeWithoutResult(status -> {
+            catalogChangeService.recordChange(1001L);
+            status.setRollbackOnly();
+        });
+
+        assertEquals(0, outboxRows());
+        assertEquals(0, catalogOutboxRelay.relayBatch().published());
+        assertTrue(subscription.poll(Duration.ofMillis(100)).isEmpty());
+    }
+
+    private long outboxRows() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM catalog_outbox", Long.class);
+    }
+}
\ No newline at end of file
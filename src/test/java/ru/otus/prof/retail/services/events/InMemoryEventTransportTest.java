@@ -0,0 +1,108 @@
+package ru.otus.prof.retail.services.events;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InMemoryEventTransportTest {
+
+    private static final String TOPIC = "test-topic";
+
+    @Test
+    void poll_shouldKeepSendOrderForEachKey() {
+        InMemoryEventTransport transport = new InMemoryEventTransport(4, 1000);
+        List<EventRecord> records = new ArrayList<>();
+        for (int i = 0; i < 100; i++) {
+            records.add(record("shop-" + (i % 7), String.valueOf(i)));
+        }
+        transport.send(TOPIC, records);
+
+        EventSubscription subscription = transport.subscribe(TOPIC, "group", 16);
+        Map<String, List<Integer>> received = new HashMap<>();
+        List<ConsumedEvent> events;
+        while (!(events = subscription.poll(Duration.ZERO)).isEmpty()) {
+            assertThat(events).hasSizeLessThanOrEqualTo(16);
+            for (ConsumedEvent event : events) {
+                assertThat(event.partition()).isEqualTo(transport.partitionFor(event.key()));
+                received.computeIfAbsent(event.key(), key -> new ArrayList<>()).add(Integer.valueOf(payload(event)));
+            }
+        }
+
+        assertThat(received).hasSize(7);
+        received.values().forEach(values -> assertThat(values).isSorted());
+        assertThat(received.values().stream().mapToInt(List::size).sum()).isEqualTo(100);
+    }
+
+    @Test
+    void rewind_shouldReturnUncommittedEvents() {
+        InMemoryEventTransport transport = new InMemoryEventTransport(2, 1000);
+        transport.send(TOPIC, List.of(record("a", "1"), record("a", "2")));
+        EventSubscription subscription = transport.subscribe(TOPIC, "group", 1);
+
+        assertThat(payload(subscription.poll(Duration.ZERO).get(0))).isEqualTo("1");
+        subscription.commit();
+        assertThat(payload(subscription.poll(Duration.ZERO).get(0))).isEqualTo("2");
+        subscription.rewind();
+
+        assertThat(payload(subscription.poll(Duration.ZERO).get(0))).isEqualTo("2");
+    }
+
+    @Test
+    void subscribe_shouldResumeGroupFromCommittedPosition() {
+        InMemoryEventTransport transport = new InMemoryEventTransport(1, 1000);
+        transport.send(TOPIC, List.of(record("a", "1"), record("a", "2"), record("a", "3")));
+        EventSubscription first = transport.subscribe(TOPIC, "group", 2);
+        first.poll(Duration.ZERO);
+        first.commit();
+        first.close();
+
+        assertThat(transport.subscribe(TOPIC, "group", 10).poll(Duration.ZERO))
+                .extracting(this::payload).containsExactly("3");
+        assertThat(transport.subscribe(TOPIC, "other", 10).poll(Duration.ZERO)).hasSize(3);
+    }
+
+    @Test
+    void poll_shouldSkipEventsRemovedByRetention() {
+        InMemoryEventTransport transport = new InMemoryEventTransport(1, 10);
+        EventSubscription subscription = transport.subscribe(TOPIC, "group", 100);
+        for (int i = 0; i < 25; i++) {
+            transport.send(TOPIC, List.of(record("a", String.valueOf(i))));
+        }
+
+        List<ConsumedEvent> events = subscription.poll(Duration.ZERO);
+
+        assertThat(events).hasSizeBetween(10, 19);
+        assertThat(payload(events.get(events.size() - 1))).isEqualTo("24");
+        assertThat(events.get(events.size() - 1).offset()).isEqualTo(24);
+    }
+
+    @Test
+    void poll_shouldWaitForEventsUntilTimeout() throws InterruptedException {
+        InMemoryEventTransport transport = new InMemoryEventTransport(1, 10);
+        EventSubscription subscription = transport.subscribe(TOPIC, "group", 10);
+
+        assertThat(subscription.poll(Duration.ofMillis(20))).isEmpty();
+
+        Thread producer = new Thread(() -> transport.send(TOPIC, List.of(record("a", "late"))));
+        producer.start();
+        List<ConsumedEvent> events = subscription.poll(Duration.ofSeconds(5));
+        producer.join();
+
+        assertThat(events).extracting(this::payload).containsExactly("late");
+    }
+
+    private EventRecord record(String key, String payload) {
+        return new EventRecord(key, payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String payload(ConsumedEvent event) {
+        return new String(event.payload(), StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
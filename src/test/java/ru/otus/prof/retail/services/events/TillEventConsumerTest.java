@@ -0,0 +1,139 @@
+package ru.otus.prof.retail.services.events;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//события пишутся потоками подписчика в собственных транзакциях, поэтому строки удаляются после каждого теста
+@SpringBootTest(properties = {"retail.events.consumer.enabled=true", "retail.events.consumer.poll-timeout-ms=50",
+        "retail.events.consumer.retry-max-ms=200"})
+@ActiveProfiles("test")
+public class TillEventConsumerTest {
+
+    private static final long EVENT_SHOP = 79L;
+    private static final String SHIFTS = "retail.till-shifts";
+    private static final String RECEIPTS = "retail.till-receipts";
+    private static final String PURCHASE = "{\"purchaseDate\":\"2024-04-01T12:00:00\",\"total\":300,\"positions\":[" +
+            "{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item 1\",\"price\":100}," +
+            "{\"barcode\":\"1002111111111\",\"article\":1002,\"positionName\":\"Item 2\",\"price\":200}]";
+
+    @Autowired
+    private EventTransport eventTransport;
+
+    @Autowired
+    private TillEventConsumer tillEventConsumer;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM position_quarantine WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", EVENT_SHOP);
+        jdbcTemplate.update("DELETE FROM position WHERE purchase_id IN " +
+                "(SELECT p.id FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?)", EVENT_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", EVENT_SHOP);
+        jdbcTemplate.update("DELETE FROM shift WHERE shop_number = ?", EVENT_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase_key WHERE shop_number = ?", EVENT_SHOP);
+        jdbcTemplate.update("DELETE FROM daily_sales_rollup WHERE shop_number = ?", EVENT_SHOP);
+    }
+
+    @Test
+    void testShiftEvents_StoredInSendOrder() throws InterruptedException {
+        long before = tillEventConsumer.getShifts();
+
+        eventTransport.send(SHIFTS, List.of(event(shift(1, 2)), event(shift(2, 3)), event(shift(3, 1))));
+
+        awaitEquals(before + 3, tillEventConsumer::getShifts);
+        assertEquals(List.of(1L, 2L, 3L), jdbcTemplate.queryForList(
+                "SELECT shift_number FROM shift WHERE shop_number = ? ORDER BY id", Long.class, EVENT_SHOP));
+        assertEquals(6, count("SELECT COUNT(*) FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+    }
+
+    @Test
+    void testReceiptEvents_AppendedToShift() throws InterruptedException {
+        long shiftsBefore = tillEventConsumer.getShifts();
+        eventTransport.send(SHIFTS, List.of(event(shift(4, 1))));
+        awaitEquals(shiftsBefore + 1, tillEventConsumer::getShifts);
+        Long shiftId = jdbcTemplate.queryForObject("SELECT id FROM shift WHERE shop_number = ?", Long.class, EVENT_SHOP);
+
+        long receiptsBefore = tillEventConsumer.getReceipts();
+        eventTransport.send(RECEIPTS, List.of(event("{\"shiftId\":" + shiftId + "," + PURCHASE.substring(1) +
+                ",\"receiptNumber\":2}")));
+
+        awaitEquals(receiptsBefore + 1, tillEventConsumer::getReceipts);
+        assertEquals(2, count("SELECT COUNT(*) FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+    }
+
+    @Test
+    void testInvalidEvent_MovedToRejectedTopic() throws InterruptedException {
+        EventSubscription rejected = eventTransport.subscribe(RECEIPTS + ".rejected", "test-rejected", 10);
+        rejected.poll(Duration.ZERO);
+        rejected.commit();
+        long before = tillEventConsumer.getRejected();
+
+        eventTransport.send(RECEIPTS, List.of(event("{broken")));
+
+        awaitEquals(before + 1, tillEventConsumer::getRejected);
+        List<ConsumedEvent> events = rejected.poll(Duration.ofSeconds(5));
+        assertEquals(1, events.size());
+        assertEquals("{broken", new String(events.get(0).payload(), StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testRedelivery_UnnumberedReceiptsRejectedNotDuplicated() throws InterruptedException {
+        EventSubscription rejectedShifts = eventTransport.subscribe(SHIFTS + ".rejected", "test-rejected-shifts", 10);
+        rejectedShifts.poll(Duration.ZERO);
+        rejectedShifts.commit();
+        long shiftsBefore = tillEventConsumer.getShifts();
+        eventTransport.send(SHIFTS, List.of(event(shift(5, 1))));
+        awaitEquals(shiftsBefore + 1, tillEventConsumer::getShifts);
+        Long shiftId = jdbcTemplate.queryForObject("SELECT id FROM shift WHERE shop_number = ?", Long.class, EVENT_SHOP);
+        long rejectedBefore = tillEventConsumer.getRejected();
+
+        //касса повторяет отправку: чек без номера и смена с таким чеком приходят дважды
+        String receipt = "{\"shiftId\":" + shiftId + "," + PURCHASE.substring(1) + "}";
+        String unnumberedShift = shift(6, 1) + PURCHASE + "}\n";
+        eventTransport.send(RECEIPTS, List.of(event(receipt), event(receipt)));
+        eventTransport.send(SHIFTS, List.of(event(unnumberedShift), event(unnumberedShift)));
+
+        awaitEquals(rejectedBefore + 4, tillEventConsumer::getRejected);
+        assertEquals(1, count("SELECT COUNT(*) FROM shift WHERE shop_number = ?"));
+        assertEquals(1, count("SELECT COUNT(*) FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+        assertEquals(2, rejectedShifts.poll(Duration.ofSeconds(5)).size());
+    }
+
+    private EventRecord event(String payload) {
+        return new EventRecord(String.valueOf(EVENT_SHOP), payload.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String shift(int shiftNumber, int purchases) {
+        StringBuilder body = new StringBuilder("{\"shiftNumber\":" + shiftNumber + ",\"shopNumber\":" + EVENT_SHOP +
+                ",\"cashNumber\":1,\"openTime\":\"2024-04-01T08:00:00\",\"closeTime\":\"2024-04-01T20:00:00\"}\n");
+        for (int receipt = 1; receipt <= purchases; receipt++) {
+            body.append(PURCHASE).append(",\"receiptNumber\":").append(receipt).append("}\n");
+        }
+        return body.toString();
+    }
+
+    private void awaitEquals(long expected, LongSupplier actual) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (actual.getAsLong() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, actual.getAsLong());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, EVENT_SHOP);
+    }
+}
\ No newline at end of file
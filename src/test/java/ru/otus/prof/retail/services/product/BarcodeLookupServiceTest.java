@@ -0,0 +1,104 @@
+package ru.otus.prof.retail.services.product;
+
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.product.ScanCacheStatsDTO;
+import ru.otus.prof.retail.dto.product.ScanItemDTO;
+import ru.otus.prof.retail.dto.product.UpdateItemDTO;
+import ru.otus.prof.retail.exception.product.BarcodeNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class BarcodeLookupServiceTest {
+
+    @Autowired
+    private BarcodeLookupService barcodeLookupService;
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private BarcodeService barcodeService;
+
+    @BeforeEach
+    void clearCache() {
+        barcodeLookupService.invalidateAll();
+    }
+
+    @Test
+    void testLookup_shouldReturnItemWithCurrentPrice() {
+        ScanItemDTO item = barcodeLookupService.lookup("1001111111111");
+
+        assertThat(item.article()).isEqualTo(1001L);
+        assertThat(item.name()).isEqualTo("Item 1");
+        assertThat(item.price()).isEqualTo(103L);
+    }
+
+    @Test
+    void testLookup_secondScanShouldHitCache() {
+        ScanCacheStatsDTO before = barcodeLookupService.getStats();
+
+        barcodeLookupService.lookup("1002111111111");
+        barcodeLookupService.lookup("1002111111111");
+
+        ScanCacheStatsDTO after = barcodeLookupService.getStats();
+        assertThat(after.misses() - before.misses()).isEqualTo(1);
+        assertThat(after.hits() - before.hits()).isEqualTo(1);
+    }
+
+    @Test
+    void testLookup_barcodesOfSameItemShareEntry() {
+        barcodeLookupService.lookup("1001111111111");
+        ScanCacheStatsDTO stats = barcodeLookupService.getStats();
+
+        assertThat(stats.barcodes()).isEqualTo(1);
+        assertThat(stats.articles()).isEqualTo(1);
+    }
+
+    @Test
+    @Rollback
+    void testLookup_shouldSeePriceChange() {
+        assertThat(barcodeLookupService.lookup("1002111111111").price()).isEqualTo(200L);
+
+        priceService.deleteAllPricesByItemArticle(1002L);
+
+        assertThat(barcodeLookupService.lookup("1002111111111").price()).isNull();
+    }
+
+    @Test
+    @Rollback
+    void testLookup_shouldSeeNameChange() {
+        barcodeLookupService.lookup("1001111111112");
+
+        itemService.updateItem(new UpdateItemDTO(1001L, "Item 1 renamed", null, null));
+
+        assertThat(barcodeLookupService.lookup("1001111111112").name()).isEqualTo("Item 1 renamed");
+    }
+
+    @Test
+    @Rollback
+    void testLookup_shouldThrowAfterBarcodeDeleted() {
+        barcodeLookupService.lookup("1001111111112");
+
+        barcodeService.deleteBarcode("1001111111112");
+
+        assertThrows(BarcodeNotFoundException.class, () -> barcodeLookupService.lookup("1001111111112"));
+    }
+
+    @Test
+    void testLookup_shouldThrowWhenBarcodeNotFound() {
+        assertThrows(BarcodeNotFoundException.class, () -> barcodeLookupService.lookup("9999999999999"));
+    }
+}
\ No newline at end of file
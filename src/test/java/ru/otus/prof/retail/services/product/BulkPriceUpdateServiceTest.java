@@ -0,0 +1,111 @@
+package ru.otus.prof.retail.services.product;
+
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.product.BulkPriceUpdateResultDTO;
+import ru.otus.prof.retail.entities.product.Price;
+import ru.otus.prof.retail.exception.product.ItemNotFoundException;
+import ru.otus.prof.retail.exception.product.PriceValidationException;
+import ru.otus.prof.retail.repositories.product.PriceRepository;
+import ru.otus.prof.retail.services.product.pricing.PriceListFormat;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Comparator;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class BulkPriceUpdateServiceTest {
+
+    @Autowired
+    private BulkPriceUpdateService bulkPriceUpdateService;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    @Test
+    void update_Csv_ShouldInsertOnlyChangedPrices() {
+        //текущая цена 1001 - 103, у 1002 - 200
+        BulkPriceUpdateResultDTO result = bulkPriceUpdateService.update(
+                stream("article,price\n1001,103\n1002;250\n"), PriceListFormat.CSV, false);
+
+        assertEquals(2, result.received());
+        assertEquals(1, result.unchanged());
+        assertEquals(1, result.inserted());
+        assertEquals(0, result.deleted());
+        assertEquals("jdbc-batch", result.mode());
+
+        assertEquals(3, priceRepository.findByItem_Article(1001L).size());
+        List<Price> prices = priceRepository.findByItem_Article(1002L);
+        assertEquals(2, prices.size());
+        assertEquals(250L, prices.stream().max(Comparator.comparing(Price::getId)).orElseThrow().getPrice());
+    }
+
+    @Test
+    void update_NdjsonWithReplace_ShouldDeletePreviousPrices() {
+        BulkPriceUpdateResultDTO result = bulkPriceUpdateService.update(
+                stream("{\"article\":1001,\"price\":150}\n\n{\"article\":1002,\"price\":200}\n"),
+                PriceListFormat.NDJSON, true);
+
+        assertEquals(2, result.received());
+        assertEquals(1, result.unchanged());
+        assertEquals(1, result.inserted());
+        assertEquals(3, result.deleted());
+
+        List<Price> prices = priceRepository.findByItem_Article(1001L);
+        assertEquals(1, prices.size());
+        assertEquals(150L, prices.get(0).getPrice());
+        assertEquals(1, priceRepository.findByItem_Article(1002L).size());
+    }
+
+    @Test
+    void update_RepeatedList_ShouldChangeNothing() {
+        bulkPriceUpdateService.update(stream("1001,500\n1002,600\n"), PriceListFormat.CSV, false);
+        BulkPriceUpdateResultDTO result = bulkPriceUpdateService.update(stream("1001,500\n1002,600\n"), PriceListFormat.CSV, false);
+
+        assertEquals(2, result.unchanged());
+        assertEquals(0, result.inserted());
+    }
+
+    @Test
+    void update_UnknownArticle_ShouldThrowException() {
+        ItemNotFoundException exception = assertThrows(ItemNotFoundException.class,
+                () -> bulkPriceUpdateService.update(stream("1001,100\n999999,100\n"), PriceListFormat.CSV, false));
+
+        assertTrue(exception.getMessage().contains("999999"));
+    }
+
+    @Test
+    void update_DuplicateArticle_ShouldThrowException() {
+        PriceValidationException exception = assertThrows(PriceValidationException.class,
+                () -> bulkPriceUpdateService.update(stream("1001,100\n1001,110\n"), PriceListFormat.CSV, false));
+
+        assertTrue(exception.getMessage().contains("1001"));
+    }
+
+    @Test
+    void update_InvalidLine_ShouldThrowException() {
+        PriceValidationException exception = assertThrows(PriceValidationException.class,
+                () -> bulkPriceUpdateService.update(stream("1001,100\n1002,-5\n"), PriceListFormat.CSV, false));
+
+        assertEquals("Неверная строка прайс-листа 2: цена не может быть отрицательной", exception.getMessage());
+    }
+
+    @Test
+    void update_EmptyList_ShouldThrowException() {
+        assertThrows(PriceValidationException.class,
+                () -> bulkPriceUpdateService.update(stream("article,price\n"), PriceListFormat.CSV, false));
+    }
+
+    private InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
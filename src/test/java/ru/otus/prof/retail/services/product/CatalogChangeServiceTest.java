@@ -0,0 +1,106 @@
+package ru.otus.prof.retail.services.product;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.product.*;
+import ru.otus.prof.retail.repositories.product.CatalogChangeRepository;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+//Журнал пишется перед фиксацией, поэтому тесты без @Transactional: товары удаляются после каждого теста
+@SpringBootTest
+@ActiveProfiles("test")
+public class CatalogChangeServiceTest {
+
+    @Autowired
+    private CatalogChangeService catalogChangeService;
+
+    @Autowired
+    private CatalogChangeRepository catalogChangeRepository;
+
+    @Autowired
+    private ItemService itemService;
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    @AfterEach
+    void cleanup() {
+        for (Long article : List.of(7001L, 7002L)) {
+            if (itemRepository.existsById(article)) {
+                itemService.deleteItem(article);
+            }
+        }
+    }
+
+    @Test
+    void testGetChanges_shouldReturnLatestStatePerArticle() {
+        long since = catalogChangeRepository.currentVersion();
+
+        itemService.createItem(new CreateItemDTO(7001L, "Item 7001",
+                Set.of(new InputPriceDTO(500L)), Set.of(new InputBarcodeDTO("7001000000001"))));
+        priceService.createPrice(new PriceDTO(null, 550L, 7001L));
+
+        CatalogChangesDTO result = catalogChangeService.getChanges(since, null, 100);
+
+        assertThat(result.changes()).hasSize(1);
+        CatalogChangeDTO change = result.changes().get(0);
+        assertThat(change.article()).isEqualTo(7001L);
+        assertThat(change.version()).isEqualTo(since + 2);
+        assertThat(change.deleted()).isFalse();
+        assertThat(change.name()).isEqualTo("Item 7001");
+        assertThat(change.price()).isEqualTo(550L);
+        assertThat(change.barcodes()).containsExactly("7001000000001");
+        assertThat(result.hasMore()).isFalse();
+        assertThat(result.currentVersion()).isEqualTo(since + 2);
+        assertThat(result.nextSince()).isEqualTo(since + 2);
+        assertThat(result.nextAfter()).isNull();
+    }
+
+    @Test
+    void testGetChanges_shouldReportDeletedItem() {
+        itemService.createItem(new CreateItemDTO(7001L, "Item 7001", null, null));
+        long since = catalogChangeRepository.currentVersion();
+
+        itemService.deleteItem(7001L);
+
+        CatalogChangesDTO result = catalogChangeService.getChanges(since, null, 100);
+        assertThat(result.changes()).hasSize(1);
+        assertThat(result.changes().get(0).deleted()).isTrue();
+        assertThat(result.changes().get(0).barcodes()).isEmpty();
+    }
+
+    @Test
+    void testGetChanges_shouldPageInsideOneVersion() {
+        itemService.createItem(new CreateItemDTO(7001L, "Item 7001", null, null));
+        itemService.createItem(new CreateItemDTO(7002L, "Item 7002", null, null));
+        long since = catalogChangeRepository.currentVersion();
+
+        //одна транзакция - одна версия для обоих товаров
+        priceService.createPrices(List.of(new PriceDTO(null, 10L, 7001L), new PriceDTO(null, 20L, 7002L)));
+
+        CatalogChangesDTO first = catalogChangeService.getChanges(since, null, 1);
+        assertThat(first.hasMore()).isTrue();
+        assertThat(first.changes()).extracting(CatalogChangeDTO::article).containsExactly(7001L);
+        assertThat(first.nextSince()).isEqualTo(since + 1);
+        assertThat(first.nextAfter()).isEqualTo(7001L);
+
+        CatalogChangesDTO second = catalogChangeService.getChanges(first.nextSince(), first.nextAfter(), 1);
+        assertThat(second.hasMore()).isFalse();
+        assertThat(second.changes()).extracting(CatalogChangeDTO::article).containsExactly(7002L);
+        assertThat(second.changes().get(0).price()).isEqualTo(20L);
+        assertThat(second.nextAfter()).isNull();
+
+        assertThat(catalogChangeService.getChanges(second.nextSince(), null, 1).changes()).isEmpty();
+    }
+}
\ No newline at end of file
@@ -0,0 +1,105 @@
+package ru.otus.prof.retail.services.product;
+
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.product.CatalogExportDTO;
+import ru.otus.prof.retail.services.product.export.CatalogExportFile;
+import ru.otus.prof.retail.services.product.export.CatalogExportWriter;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class CatalogExportServiceTest {
+
+    @Autowired
+    private CatalogExportService catalogExportService;
+
+    @Test
+    void testRegenerate_shouldWriteWholeCatalog() throws IOException {
+        CatalogExportDTO info = catalogExportService.regenerate();
+        CatalogExportFile export = catalogExportService.getCurrent();
+
+        assertThat(info.items()).isEqualTo(2);
+        assertThat(info.sizeBytes()).isEqualTo(Files.size(export.path()));
+        assertThat(info.etag()).startsWith("\"" + info.catalogVersion() + "-");
+
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(export.path())))) {
+            byte[] magic = new byte[4];
+            in.readFully(magic);
+            assertThat(magic).isEqualTo(CatalogExportWriter.MAGIC);
+            assertThat(in.readUnsignedByte()).isEqualTo(CatalogExportWriter.FORMAT_VERSION);
+            assertThat(readVarint(in)).isEqualTo(info.catalogVersion());
+
+            List<String> words = new ArrayList<>();
+            long wordCount = readVarint(in);
+            for (int i = 0; i < wordCount; i++) {
+                words.add(readString(in));
+            }
+            //"Item 1" и "Item 2" - три слова на два названия
+            assertThat(words).containsExactly("Item", "1", "2");
+            assertThat(readVarint(in)).isEqualTo(2);
+
+            long article = 0;
+            List<String> items = new ArrayList<>();
+            for (int i = 0; i < 2; i++) {
+                readVarint(in);
+                article += readVarint(in);
+                long price = readVarint(in) - 1;
+                List<String> name = new ArrayList<>();
+                long nameWords = readVarint(in);
+                for (int w = 0; w < nameWords; w++) {
+                    name.add(words.get((int) readVarint(in)));
+                }
+                List<String> barcodes = new ArrayList<>();
+                long barcodeCount = readVarint(in);
+                for (int b = 0; b < barcodeCount; b++) {
+                    barcodes.add(readString(in));
+                }
+                items.add(article + ":" + String.join(" ", name) + ":" + price + ":" + barcodes);
+            }
+            assertThat(items).containsExactly(
+                    "1001:Item 1:103:[1001111111111, 1001111111112]",
+                    "1002:Item 2:200:[1002111111111]");
+            assertThat(in.read()).isEqualTo(-1);
+        }
+    }
+
+    @Test
+    void testRegenerateIfChanged_shouldSkipSameVersion() {
+        catalogExportService.regenerate();
+
+        assertThat(catalogExportService.regenerateIfChanged()).isFalse();
+    }
+
+    private static long readVarint(InputStream in) throws IOException {
+        long value = 0;
+        int shift = 0;
+        int b;
+        do {
+            b = in.read();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[(int) readVarint(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
\ No newline at end of file
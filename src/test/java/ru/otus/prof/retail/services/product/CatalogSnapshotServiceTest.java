@@ -0,0 +1,81 @@
+package ru.otus.prof.retail.services.product;
+
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.Rollback;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.product.CatalogItemDTO;
+import ru.otus.prof.retail.dto.product.CatalogSnapshotDTO;
+import ru.otus.prof.retail.dto.product.ScanItemDTO;
+import ru.otus.prof.retail.exception.product.BarcodeNotFoundException;
+import ru.otus.prof.retail.exception.product.ItemNotFoundException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class CatalogSnapshotServiceTest {
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private PriceService priceService;
+
+    @Test
+    void testRebuild_shouldLoadWholeCatalog() {
+        CatalogSnapshotDTO info = catalogSnapshotService.rebuild();
+
+        assertThat(info.items()).isEqualTo(2);
+        assertThat(info.barcodes()).isEqualTo(3);
+        assertThat(info.offHeapBytes()).isPositive();
+        assertThat(info.builtAt()).isNotNull();
+        assertThat(catalogSnapshotService.getInfo()).isEqualTo(info);
+    }
+
+    @Test
+    void testFindByBarcode_shouldReturnItemWithCurrentPrice() {
+        catalogSnapshotService.rebuild();
+
+        ScanItemDTO item = catalogSnapshotService.findByBarcode("1001111111112");
+
+        assertThat(item.article()).isEqualTo(1001L);
+        assertThat(item.name()).isEqualTo("Item 1");
+        assertThat(item.price()).isEqualTo(103L);
+    }
+
+    @Test
+    void testFindByArticle_shouldReturnItem() {
+        catalogSnapshotService.rebuild();
+
+        CatalogItemDTO item = catalogSnapshotService.findByArticle(1002L);
+
+        assertThat(item.name()).isEqualTo("Item 2");
+        assertThat(item.price()).isEqualTo(200L);
+    }
+
+    @Test
+    @Rollback
+    void testSnapshot_shouldChangeOnlyAfterRebuild() {
+        catalogSnapshotService.rebuild();
+        priceService.deleteAllPricesByItemArticle(1002L);
+
+        assertThat(catalogSnapshotService.findByArticle(1002L).price()).isEqualTo(200L);
+
+        catalogSnapshotService.rebuild();
+
+        assertThat(catalogSnapshotService.findByArticle(1002L).price()).isNull();
+    }
+
+    @Test
+    void testFind_shouldThrowWhenMissing() {
+        catalogSnapshotService.rebuild();
+
+        assertThrows(BarcodeNotFoundException.class, () -> catalogSnapshotService.findByBarcode("9999999999999"));
+        assertThrows(ItemNotFoundException.class, () -> catalogSnapshotService.findByArticle(9999L));
+    }
+}
\ No newline at end of file
@@ -7,15 +7,21 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.Rollback;
 import org.springframework.test.context.ActiveProfiles;
 import ru.otus.prof.retail.dto.product.CreateItemDTO;
+import ru.otus.prof.retail.dto.product.InputPriceDTO;
 import ru.otus.prof.retail.dto.product.ItemDTO;
 import ru.otus.prof.retail.dto.product.UpdateItemDTO;
 import ru.otus.prof.retail.exception.product.ItemNotFoundException;
 import ru.otus.prof.retail.exception.product.ItemValidationException;
 import ru.otus.prof.retail.mappers.product.ItemMapper;
 import ru.otus.prof.retail.repositories.product.ItemRepository;
+import ru.otus.prof.retail.repositories.product.PriceInterval;
+import ru.otus.prof.retail.repositories.product.PriceRepository;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -33,6 +39,9 @@ public class ItemServiceTest {
     @Autowired
     private ItemMapper itemMapper;
 
+    @Autowired
+    private PriceRepository priceRepository;
+
     @Test
     @Rollback
     void testCreateItem() {
@@ -90,6 +99,31 @@ public class ItemServiceTest {
         assertNotNull(resultItemDTO.updateDate());
     }
 
+    @Test
+    @Rollback
+    void testUpdateItemPrice_ShouldRestorePreviousPrice() {
+        //у 1001 действует цена 103: A -> B -> A должен вернуть 103, а не отбросить ее как уже известную
+        itemService.updateItem(new UpdateItemDTO(1001L, null, Set.of(new InputPriceDTO(120L)), null));
+        itemService.updateItem(new UpdateItemDTO(1001L, null, Set.of(new InputPriceDTO(103L)), null));
+
+        List<PriceInterval> openIntervals = priceRepository.findEffectiveAt(List.of(1001L), LocalDateTime.now()).stream()
+                .filter(interval -> interval.effectiveTo() == null)
+                .toList();
+
+        assertEquals(1, openIntervals.size());
+        assertEquals(103L, openIntervals.get(0).price());
+    }
+
+    @Test
+    @Rollback
+    void testUpdateItemWithSamePrice_ShouldNotAddPrice() {
+        itemService.updateItem(new UpdateItemDTO(1001L, null, Set.of(new InputPriceDTO(103L)), null));
+
+        assertEquals(3, priceRepository.findAll().stream()
+                .filter(price -> price.getItem().getArticle().equals(1001L))
+                .count());
+    }
+
     @Test
     @Rollback
     void testUpdateNonExistentItem_ShouldThrowException() {
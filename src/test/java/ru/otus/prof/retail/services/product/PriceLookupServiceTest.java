@@ -0,0 +1,94 @@
+package ru.otus.prof.retail.services.product;
+
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.product.ArticlePriceDTO;
+import ru.otus.prof.retail.dto.product.PriceDTO;
+import ru.otus.prof.retail.dto.product.PriceIndexDTO;
+import ru.otus.prof.retail.exception.product.PriceValidationException;
+import ru.otus.prof.retail.repositories.product.PriceRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class PriceLookupServiceTest {
+
+    @Autowired
+    private PriceLookupService priceLookupService;
+
+    @Autowired
+    private PriceService priceService;
+
+    @Autowired
+    private PriceRepository priceRepository;
+
+    //индекс живет дольше откатываемой транзакции теста
+    @AfterEach
+    void resetIndex() {
+        priceLookupService.invalidateAll();
+    }
+
+    @Test
+    void findPricesAt_ShouldResolveCurrentPricesFromIndexAndDatabase() {
+        LocalDateTime now = LocalDateTime.now();
+        priceLookupService.invalidateAll();
+        List<ArticlePriceDTO> fromDatabase = priceLookupService.findPricesAt(List.of(1002L, 1001L, 999999L), now);
+
+        PriceIndexDTO info = priceLookupService.rebuild();
+        List<ArticlePriceDTO> fromIndex = priceLookupService.findPricesAt(List.of(1002L, 1001L, 999999L), now);
+
+        assertEquals(2, fromDatabase.size());
+        assertEquals(1001L, fromDatabase.get(0).article());
+        assertEquals(103L, fromDatabase.get(0).price());
+        assertEquals(200L, fromDatabase.get(1).price());
+        assertEquals(fromDatabase, fromIndex);
+        assertTrue(info.articles() >= 2);
+    }
+
+    @Test
+    void findPricesAt_ShouldApplyPromotionOverBasePrice() {
+        LocalDateTime now = LocalDateTime.now();
+        priceLookupService.rebuild();
+        priceService.createPrice(new PriceDTO(null, 150L, 1002L, now.minusHours(1), now.plusHours(1)));
+
+        assertEquals(150L, priceLookupService.findPriceAt(1002L, now).orElseThrow().price());
+        assertEquals(200L, priceLookupService.findPriceAt(1002L, now.plusHours(2)).orElseThrow().price());
+        assertEquals(200L, priceLookupService.findPriceAt(1002L, now.minusHours(2)).orElseThrow().price());
+        //акция не закрывает базовую цену
+        assertEquals(2, priceRepository.findEffectiveAt(List.of(1002L), now).size());
+    }
+
+    @Test
+    void createPrice_ShouldCloseOpenPriceAndKeepHistoryResolvable() {
+        LocalDateTime before = LocalDateTime.now().minusSeconds(1);
+        PriceDTO created = priceService.createPrice(new PriceDTO(null, 500L, 1001L));
+        LocalDateTime after = created.effectiveFrom().plusSeconds(1);
+
+        assertEquals(1, priceRepository.findEffectiveAt(List.of(1001L), after).size());
+        assertEquals(500L, priceLookupService.findPriceAt(1001L, after).orElseThrow().price());
+        assertEquals(103L, priceLookupService.findPriceAt(1001L, before).orElseThrow().price());
+
+        //тот же результат по индексу, собранному после изменения
+        priceLookupService.rebuild();
+        assertEquals(0, priceLookupService.getInfo().changedArticles());
+        assertEquals(500L, priceLookupService.findPriceAt(1001L, after).orElseThrow().price());
+        assertEquals(103L, priceLookupService.findPriceAt(1001L, before).orElseThrow().price());
+    }
+
+    @Test
+    void createPrice_InvalidInterval_ShouldThrowException() {
+        LocalDateTime now = LocalDateTime.now();
+
+        assertThrows(PriceValidationException.class,
+                () -> priceService.createPrice(new PriceDTO(null, 150L, 1002L, now, now.minusHours(1))));
+    }
+}
\ No newline at end of file
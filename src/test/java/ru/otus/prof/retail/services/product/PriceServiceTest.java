@@ -11,10 +11,13 @@ import ru.otus.prof.retail.dto.product.PriceDTO;
 import ru.otus.prof.retail.entities.product.Item;
 import ru.otus.prof.retail.exception.product.ItemNotFoundException;
 import ru.otus.prof.retail.exception.product.PriceNotFoundException;
+import ru.otus.prof.retail.exception.product.PriceValidationException;
 import ru.otus.prof.retail.mappers.product.PriceMapper;
 import ru.otus.prof.retail.repositories.product.ItemRepository;
+import ru.otus.prof.retail.repositories.product.PriceInterval;
 import ru.otus.prof.retail.repositories.product.PriceRepository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -60,7 +63,7 @@ public class PriceServiceTest {
     @Rollback
     void testCreatePrices() {
         PriceDTO priceDTO1 = new PriceDTO(null, 150L, item.getArticle());
-        PriceDTO priceDTO2 = new PriceDTO(null, 250L, item.getArticle());
+        PriceDTO priceDTO2 = new PriceDTO(null, 250L, 1002L);
 
         List<PriceDTO> createdPriceDTOs = priceService.createPrices(List.of(priceDTO1, priceDTO2));
 
@@ -68,7 +71,26 @@ public class PriceServiceTest {
         assertNotNull(createdPriceDTOs.get(0).id());
         assertNotNull(createdPriceDTOs.get(1).id());
         assertEquals(item.getArticle(), createdPriceDTOs.get(0).article());
-        assertEquals(item.getArticle(), createdPriceDTOs.get(1).article());
+        assertEquals(1002L, createdPriceDTOs.get(1).article());
+
+        List<PriceInterval> openIntervals = priceRepository.findEffectiveAt(List.of(item.getArticle(), 1002L), LocalDateTime.now()).stream()
+                .filter(interval -> interval.effectiveTo() == null)
+                .toList();
+        assertEquals(2, openIntervals.size());
+        assertTrue(openIntervals.stream().anyMatch(interval -> interval.price() == 150L));
+        assertTrue(openIntervals.stream().anyMatch(interval -> interval.price() == 250L));
+    }
+
+    @Test
+    @Rollback
+    void testCreatePricesWithSeveralOpenEndedPricesForArticle_ShouldThrowException() {
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        List<PriceDTO> priceDTOs = List.of(
+                new PriceDTO(null, 150L, item.getArticle()),
+                new PriceDTO(null, 140L, item.getArticle(), start, start.plusDays(7)),
+                new PriceDTO(null, 250L, item.getArticle()));
+
+        assertThrows(PriceValidationException.class, () -> priceService.createPrices(priceDTOs));
     }
 
     @Test
@@ -117,6 +139,17 @@ public class PriceServiceTest {
         assertTrue(prices.stream().anyMatch(p -> p.price() == 103L));
     }
 
+    @Test
+    @Rollback
+    void testPublishPriceBoundaries() {
+        LocalDateTime start = LocalDateTime.now().plusDays(30);
+        priceService.createPrice(new PriceDTO(null, 150L, item.getArticle(), start, start.plusDays(7)));
+
+        assertTrue(priceService.publishPriceBoundaries(start.minusMinutes(1), start).contains(item.getArticle()));
+        assertTrue(priceService.publishPriceBoundaries(start.plusDays(7).minusMinutes(1), start.plusDays(7)).contains(item.getArticle()));
+        assertFalse(priceService.publishPriceBoundaries(start, start.plusDays(1)).contains(item.getArticle()));
+    }
+
     @Test
     @Rollback
     void testGetPricesByNonExistentItemArticle() {
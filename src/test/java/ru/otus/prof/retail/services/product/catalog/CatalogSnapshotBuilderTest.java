@@ -0,0 +1,75 @@
+package ru.otus.prof.retail.services.product.catalog;
+
+import org.junit.jupiter.api.Test;
+import ru.otus.prof.retail.repositories.product.CatalogEntry;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class CatalogSnapshotBuilderTest {
+
+    @Test
+    void build_shouldResolveBarcodesAddedInAnyOrder() {
+        Random random = new Random(42);
+        CatalogSnapshotBuilder builder = new CatalogSnapshotBuilder();
+        for (long article = 1; article <= 1000; article++) {
+            builder.addItem(article, "Товар " + article, article % 10 == 0 ? null : article * 100);
+        }
+        Map<String, Long> barcodes = new HashMap<>();
+        while (barcodes.size() < 20000) {
+            String barcode = Long.toString(4_600_000_000_000L + random.nextInt(1_000_000_000));
+            long article = 1 + random.nextInt(1000);
+            if (barcodes.putIfAbsent(barcode, article) == null) {
+                builder.addBarcode(barcode, article);
+            }
+        }
+
+        CatalogSnapshot snapshot = builder.build();
+
+        assertThat(snapshot.getBarcodeCount()).isEqualTo(20000);
+        assertThat(snapshot.getItemCount()).isEqualTo(1000);
+        barcodes.forEach((barcode, article) -> {
+            CatalogEntry entry = snapshot.findByBarcode(barcode).orElseThrow();
+            assertThat(entry.article()).isEqualTo(article);
+            assertThat(entry.name()).isEqualTo("Товар " + article);
+            assertThat(entry.price()).isEqualTo(article % 10 == 0 ? null : article * 100);
+        });
+        assertThat(snapshot.findArticle("4599999999999")).isEmpty();
+        assertThat(snapshot.findEntry(1001L)).isEmpty();
+    }
+
+    @Test
+    void build_shouldOrderBarcodesOfDifferentLength() {
+        CatalogSnapshot snapshot = new CatalogSnapshotBuilder()
+                .addItem(1L, "A", 1L)
+                .addItem(2L, "B", 2L)
+                .addBarcode("12345678", 2L)
+                .addBarcode("1234567", 1L)
+                .addBarcode("123456789", 1L)
+                .build();
+
+        assertThat(snapshot.findArticle("1234567")).hasValue(1L);
+        assertThat(snapshot.findArticle("12345678")).hasValue(2L);
+        assertThat(snapshot.findArticle("123456789")).hasValue(1L);
+        assertThat(snapshot.findArticle("123456")).isEmpty();
+    }
+
+    @Test
+    void addItem_shouldRejectUnorderedArticles() {
+        CatalogSnapshotBuilder builder = new CatalogSnapshotBuilder().addItem(2L, "B", 2L);
+
+        assertThrows(IllegalArgumentException.class, () -> builder.addItem(1L, "A", 1L));
+    }
+
+    @Test
+    void empty_shouldFindNothing() {
+        CatalogSnapshot snapshot = CatalogSnapshot.empty();
+
+        assertThat(snapshot.findByBarcode("1234567890123")).isEmpty();
+        assertThat(snapshot.getBuiltAt()).isNull();
+    }
+}
\ No newline at end of file
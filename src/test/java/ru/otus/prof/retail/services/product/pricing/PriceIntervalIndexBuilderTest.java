@@ -0,0 +1,82 @@
+package ru.otus.prof.retail.services.product.pricing;
+
+import org.junit.jupiter.api.Test;
+import ru.otus.prof.retail.repositories.product.PriceInterval;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class PriceIntervalIndexBuilderTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 9);
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    @Test
+    void find_shouldPreferPromotionOverBasePrice() {
+        PriceIntervalIndex index = builder()
+                //акция с 10:00 до 18:00 поверх базовой цены
+                .add(new PriceInterval(1L, 5L, 80L, DAY.atTime(10, 0), DAY.atTime(18, 0)))
+                .add(new PriceInterval(1L, 2L, 100L, EPOCH, null))
+                .add(new PriceInterval(2L, 3L, 200L, EPOCH, DAY.atTime(12, 0)))
+                .build();
+
+        assertThat(index.getArticleCount()).isEqualTo(2);
+        assertThat(index.getIntervalCount()).isEqualTo(3);
+        assertThat(priceAt(index, 1L, DAY.atTime(9, 59))).isEqualTo(100L);
+        assertThat(priceAt(index, 1L, DAY.atTime(10, 0))).isEqualTo(80L);
+        assertThat(priceAt(index, 1L, DAY.atTime(17, 59, 59))).isEqualTo(80L);
+        assertThat(priceAt(index, 1L, DAY.atTime(18, 0))).isEqualTo(100L);
+        assertThat(priceAt(index, 2L, DAY.atTime(11, 0))).isEqualTo(200L);
+        assertThat(index.find(2L, DAY.atTime(12, 0))).isEqualTo(-1);
+        assertThat(index.find(3L, DAY.atTime(12, 0))).isEqualTo(-1);
+    }
+
+    @Test
+    void find_shouldPreferLastAddedPriceWithSameStart() {
+        PriceIntervalIndex index = builder()
+                .add(new PriceInterval(1L, 3L, 103L, EPOCH, null))
+                .add(new PriceInterval(1L, 2L, 101L, EPOCH, null))
+                .add(new PriceInterval(1L, 1L, 100L, EPOCH, null))
+                .build();
+
+        int position = index.find(1L, DAY.atTime(12, 0));
+        assertThat(index.getPrice(position)).isEqualTo(103L);
+        assertThat(index.getEffectiveFrom(position)).isEqualTo(EPOCH);
+        assertThat(index.getEffectiveTo(position)).isNull();
+    }
+
+    @Test
+    void covers_shouldMatchIndexWindow() {
+        PriceIntervalIndex index = builder().build();
+
+        assertThat(index.covers(DAY.atStartOfDay())).isTrue();
+        assertThat(index.covers(DAY.atTime(23, 59, 59))).isTrue();
+        assertThat(index.covers(DAY.plusDays(1).atStartOfDay())).isFalse();
+        assertThat(index.covers(DAY.minusDays(1).atTime(23, 59))).isFalse();
+        assertThat(PriceIntervalIndex.empty().covers(DAY.atStartOfDay())).isFalse();
+    }
+
+    @Test
+    void add_shouldRejectUnorderedIntervals() {
+        PriceIntervalIndexBuilder builder = builder()
+                .add(new PriceInterval(2L, 1L, 100L, EPOCH, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> builder.add(new PriceInterval(1L, 2L, 100L, EPOCH, null)));
+
+        PriceIntervalIndexBuilder sameArticle = builder()
+                .add(new PriceInterval(1L, 1L, 100L, EPOCH, null));
+        assertThrows(IllegalArgumentException.class,
+                () -> sameArticle.add(new PriceInterval(1L, 2L, 90L, DAY.atTime(10, 0), null)));
+    }
+
+    private static PriceIntervalIndexBuilder builder() {
+        return new PriceIntervalIndexBuilder(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay());
+    }
+
+    private static long priceAt(PriceIntervalIndex index, long article, LocalDateTime at) {
+        return index.getPrice(index.find(article, at));
+    }
+}
\ No newline at end of file
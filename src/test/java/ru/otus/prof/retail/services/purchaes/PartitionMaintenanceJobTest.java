@@ -0,0 +1,80 @@
+package ru.otus.prof.retail.services.purchaes;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Transactional;
+import ru.otus.prof.retail.PostgresTestSupport;
+import ru.otus.prof.retail.services.purchases.PartitionMaintenanceJob;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Партиции существуют только в PostgreSQL; все изменения откатываются вместе с транзакцией теста
+@SpringBootTest(properties = "retail.partitions.enabled=true")
+@ActiveProfiles("test")
+@Transactional
+@EnabledIfEnvironmentVariable(named = PostgresTestSupport.URL_VARIABLE, matches = ".+")
+public class PartitionMaintenanceJobTest {
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestSupport.register(registry);
+    }
+
+    @Autowired
+    private PartitionMaintenanceJob partitionMaintenanceJob;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void testCreateFuturePartitions() {
+        int created = partitionMaintenanceJob.createFuturePartitions(LocalDate.of(2100, 1, 15));
+
+        //январь-апрель для трех таблиц
+        assertEquals(12, created);
+        assertEquals(0, partitionMaintenanceJob.createFuturePartitions(LocalDate.of(2100, 1, 15)));
+        assertEquals(1, partitionCount("purchase_p210004"));
+    }
+
+    @Test
+    void testPartitionTakesOverRowsFromDefault() {
+        jdbcTemplate.update("INSERT INTO purchase (shift_id, purchase_date, total) VALUES (1, '2101-05-10 12:00', 100)");
+        assertEquals(1, rowCount("purchase_default", "2101-05-01", "2101-06-01"));
+
+        partitionMaintenanceJob.createFuturePartitions(LocalDate.of(2101, 5, 1));
+
+        assertEquals(0, rowCount("purchase_default", "2101-05-01", "2101-06-01"));
+        assertEquals(1, rowCount("purchase_p210105", "2101-05-01", "2101-06-01"));
+    }
+
+    @Test
+    void testArchiveOldPartitions() {
+        jdbcTemplate.queryForObject("SELECT retail_ensure_sales_partitions(DATE '1990-01-01', DATE '1990-03-01')", Integer.class);
+
+        Integer archived = jdbcTemplate.queryForObject("SELECT retail_archive_sales_partitions(DATE '1990-03-01')", Integer.class);
+
+        assertEquals(6, archived);
+        assertEquals(0, partitionCount("shift_p199001"));
+        assertEquals(1, partitionCount("shift_p199003"));
+        assertEquals(1, jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM pg_tables WHERE schemaname = 'archive' AND tablename = 'shift_p199001'", Integer.class));
+    }
+
+    private int partitionCount(String partition) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid " +
+                "WHERE c.relname = ?", Integer.class, partition);
+    }
+
+    private int rowCount(String table, String from, String to) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM " + table +
+                " WHERE purchase_date >= ?::timestamp AND purchase_date < ?::timestamp", Integer.class, from, to);
+    }
+}
\ No newline at end of file
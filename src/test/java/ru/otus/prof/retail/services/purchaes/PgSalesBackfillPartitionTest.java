@@ -0,0 +1,71 @@
+package ru.otus.prof.retail.services.purchaes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.otus.prof.retail.PostgresTestSupport;
+import ru.otus.prof.retail.services.purchases.backfill.SalesBackfillService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+//Партиции существуют только в PostgreSQL. Backfill фиксирует порции сам, поэтому строки и созданные
+//для месяца загрузки партиции удаляются после теста
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfEnvironmentVariable(named = PostgresTestSupport.URL_VARIABLE, matches = ".+")
+public class PgSalesBackfillPartitionTest {
+
+    private static final long PARTITION_SHOP = 76L;
+
+    @DynamicPropertySource
+    static void postgres(DynamicPropertyRegistry registry) {
+        PostgresTestSupport.register(registry);
+    }
+
+    @Autowired
+    private SalesBackfillService salesBackfillService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM position WHERE purchase_id IN " +
+                "(SELECT p.id FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?)", PARTITION_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", PARTITION_SHOP);
+        jdbcTemplate.update("DELETE FROM shift WHERE shop_number = ?", PARTITION_SHOP);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS position_p199507, purchase_p199507, shift_p199507");
+    }
+
+    @Test
+    void testBackfill_MonthOutsideMigratedRangeGoesToNamedPartition() {
+        String body = "{\"shiftNumber\":1,\"shopNumber\":" + PARTITION_SHOP + ",\"cashNumber\":1," +
+                "\"openTime\":\"1995-07-03T08:00:00\",\"closeTime\":\"1995-07-03T20:00:00\",\"total\":100," +
+                "\"purchases\":[{\"purchaseDate\":\"1995-07-03T10:00:00\",\"total\":100,\"positions\":[" +
+                "{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item 1\",\"price\":100}]}]}\n";
+
+        salesBackfillService.backfill(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(List.of("shift_p199507"), partitions(
+                "SELECT tableoid::regclass::text FROM shift WHERE shop_number = ?"));
+        assertEquals(List.of("purchase_p199507"), partitions(
+                "SELECT p.tableoid::regclass::text FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+        assertEquals(List.of("position_p199507"), partitions(
+                "SELECT ps.tableoid::regclass::text FROM position ps JOIN purchase p ON p.id = ps.purchase_id " +
+                        "JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+    }
+
+    private List<String> partitions(String sql) {
+        return jdbcTemplate.queryForList(sql, String.class, PARTITION_SHOP);
+    }
+}
\ No newline at end of file
@@ -1,5 +1,8 @@
 package ru.otus.prof.retail.services.purchaes;
 
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -9,6 +12,8 @@ import ru.otus.prof.retail.exception.purchases.PurchaseNotFoundException;
 import ru.otus.prof.retail.services.purchases.PositionService;
 
 import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,6 +24,9 @@ public class PositionServiceTest {
     @Autowired
     private PositionService positionService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     void testGetPositionByPurchaseId() {
         Long purchaseId = 1L;
@@ -40,4 +48,20 @@ public class PositionServiceTest {
 
         assertThrows(PurchaseNotFoundException.class, () -> positionService.getPositionsByPurchaseId(purchaseId));
     }
+
+    @Test
+    void testGetPositionsByPurchaseIds() {
+        List<Long> purchaseIds = LongStream.rangeClosed(1, 1500).boxed().toList();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        Map<Long, List<PositionDTO>> result = positionService.getPositionsByPurchaseIds(purchaseIds);
+
+        assertEquals(2, result.size());
+        assertEquals(2, result.get(1L).size());
+        assertEquals(1, result.get(2L).size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        statistics.setStatisticsEnabled(false);
+    }
 }
\ No newline at end of file
@@ -1,16 +1,28 @@
 package ru.otus.prof.retail.services.purchaes;
 
+import jakarta.persistence.EntityManagerFactory;
 import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.purchases.InputPositionDTO;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.PurchaseBatchResultDTO;
 import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
 import ru.otus.prof.retail.exception.purchases.PurchaseNotFoundException;
+import ru.otus.prof.retail.exception.purchases.ShiftNotFoundException;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
 import ru.otus.prof.retail.services.purchases.PurchaseService;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -21,6 +33,9 @@ public class PurchaseServiceTest {
     @Autowired
     private PurchaseService purchaseService;
 
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
     @Test
     void testGetPurchaseByShiftId() {
         Long shiftId = 1L;
@@ -72,4 +87,93 @@ public class PurchaseServiceTest {
         assertNotNull(purchase.purchaseDate());
         assertNotNull(purchase.total());
     }
+
+    @Test
+    @Transactional
+    void testCreatePurchases() {
+        List<InputPurchaseDTO> batch = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            batch.add(new InputPurchaseDTO(1L, LocalDateTime.of(2024, 1, 1, 12, i), 300L, List.of(
+                    new InputPositionDTO("1001111111111", 1001L, "Item 1", 100L),
+                    new InputPositionDTO("1002111111111", 1002L, "Item 2", 200L)), (long) i + 1));
+        }
+
+        PurchaseBatchResultDTO result = purchaseService.createPurchases(batch);
+
+        assertEquals(30, result.purchases());
+        assertEquals(60, result.positions());
+        assertEquals(31, purchaseService.getPurchaseByShiftId(1L).size());
+    }
+
+    @Test
+    @Transactional
+    void testCreatePurchases_SkipsRetriedReceipts() {
+        List<InputPurchaseDTO> batch = new ArrayList<>();
+        for (long receipt = 1; receipt <= 5; receipt++) {
+            batch.add(new InputPurchaseDTO(1L, LocalDateTime.of(2024, 1, 1, 12, (int) receipt), 100L, List.of(
+                    new InputPositionDTO("1001111111111", 1001L, "Item 1", 100L)), receipt));
+        }
+        //повтор внутри того же пакета
+        batch.add(batch.get(0));
+
+        PurchaseBatchResultDTO first = purchaseService.createPurchases(batch);
+        PurchaseBatchResultDTO retry = purchaseService.createPurchases(batch.subList(2, 5));
+
+        assertEquals(5, first.purchases());
+        assertEquals(1, first.duplicates());
+        assertEquals(0, retry.purchases());
+        assertEquals(0, retry.positions());
+        assertEquals(3, retry.duplicates());
+        assertEquals(6, purchaseService.getPurchaseByShiftId(1L).size());
+    }
+
+    @Test
+    @Transactional
+    void testCreatePurchases_ShiftNotFound() {
+        List<InputPurchaseDTO> batch = List.of(new InputPurchaseDTO(999L, LocalDateTime.now(), 100L,
+                List.of(new InputPositionDTO("1001111111111", 1001L, "Item 1", 100L)), 1L));
+
+        Exception exception = assertThrows(ShiftNotFoundException.class, () -> purchaseService.createPurchases(batch));
+
+        assertEquals("Смены с ID [999] не найдены", exception.getMessage());
+    }
+
+    @Test
+    @Transactional
+    void testCreatePurchases_RejectsUnnumberedReceipts() {
+        List<InputPurchaseDTO> batch = List.of(
+                new InputPurchaseDTO(1L, LocalDateTime.of(2024, 1, 1, 12, 0), 100L,
+                        List.of(new InputPositionDTO("1001111111111", 1001L, "Item 1", 100L)), 1L),
+                new InputPurchaseDTO(1L, LocalDateTime.of(2024, 1, 1, 12, 1), 100L,
+                        List.of(new InputPositionDTO("1001111111111", 1001L, "Item 1", 100L))));
+
+        assertThrows(ShiftValidationException.class, () -> purchaseService.createPurchases(batch));
+        assertEquals(1, purchaseService.getPurchaseByShiftId(1L).size());
+    }
+
+    @Test
+    void testGetPurchasesByShiftIds() {
+        //1500 id -> две порции IN-списка, а не запрос на каждую смену
+        List<Long> shiftIds = LongStream.rangeClosed(1, 1500).boxed().toList();
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        Map<Long, List<PurchaseDTO>> result = purchaseService.getPurchasesByShiftIds(shiftIds);
+
+        assertEquals(2, result.size());
+        assertEquals(1, result.get(1L).size());
+        assertEquals(2, result.get(1L).get(0).positions().size());
+        assertEquals(1, result.get(2L).size());
+        assertEquals(2, statistics.getPrepareStatementCount());
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    void testGetPurchasesByShiftIds_NotFound() {
+        Exception exception = assertThrows(PurchaseNotFoundException.class,
+                () -> purchaseService.getPurchasesByShiftIds(List.of(998L, 999L)));
+
+        assertEquals("Не найдено чеков ни для одной из запрошенных смен", exception.getMessage());
+    }
 }
\ No newline at end of file
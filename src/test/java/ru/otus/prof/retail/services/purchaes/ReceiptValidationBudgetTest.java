@@ -0,0 +1,95 @@
+package ru.otus.prof.retail.services.purchaes;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.purchases.ReceiptValidationStatsDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftIngestResultDTO;
+import ru.otus.prof.retail.services.product.CatalogSnapshotService;
+import ru.otus.prof.retail.services.product.PriceLookupService;
+import ru.otus.prof.retail.services.purchases.ReceiptValidationService;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//бюджет 1%: сверка с БД уходит в отложенную очередь, но по снимку проверяется каждый чек.
+//Отложенные позиции ставятся в очередь после фиксации, поэтому загрузка фиксируется и строки удаляются после теста
+@SpringBootTest(properties = {"retail.receipt-validation.max-overhead-percent=1", "retail.ingest.batch-size=10",
+        "retail.receipt-validation.confirm-interval-ms=3600000"})
+@ActiveProfiles("test")
+public class ReceiptValidationBudgetTest {
+
+    private static final long BUDGET_SHOP = 80L;
+    private static final int RECEIPTS = 200;
+
+    @Autowired
+    private ReceiptValidationService receiptValidationService;
+
+    @Autowired
+    private ShiftIngestService shiftIngestService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private PriceLookupService priceLookupService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void buildCatalog() {
+        catalogSnapshotService.rebuild();
+        priceLookupService.rebuild();
+    }
+
+    @AfterEach
+    void cleanUp() {
+        priceLookupService.invalidateAll();
+        jdbcTemplate.update("DELETE FROM position_quarantine WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", BUDGET_SHOP);
+        jdbcTemplate.update("DELETE FROM position WHERE purchase_id IN " +
+                "(SELECT p.id FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?)", BUDGET_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", BUDGET_SHOP);
+        jdbcTemplate.update("DELETE FROM shift WHERE shop_number = ?", BUDGET_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase_key WHERE shop_number = ?", BUDGET_SHOP);
+        jdbcTemplate.update("DELETE FROM daily_sales_rollup WHERE shop_number = ?", BUDGET_SHOP);
+    }
+
+    @Test
+    void testIngest_OverBudgetStillChecksEveryReceipt() {
+        LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+        StringBuilder body = new StringBuilder("{\"shiftNumber\":12,\"shopNumber\":" + BUDGET_SHOP +
+                ",\"cashNumber\":1,\"openTime\":\"" + now.minusHours(1) + "\",\"closeTime\":\"" + now.plusHours(1) +
+                "\",\"total\":null}\n");
+        for (int i = 0; i < RECEIPTS; i++) {
+            //у каждого чека неверная цена - в карантин должна попасть каждая позиция
+            body.append("{\"receiptNumber\":").append(i + 1).append(",\"purchaseDate\":\"").append(now.minusSeconds(i))
+                    .append("\",\"total\":1,\"positions\":[{\"barcode\":\"1001111111111\",\"article\":1001,")
+                    .append("\"positionName\":\"Item 1\",\"price\":1}]}\n");
+        }
+        ReceiptValidationStatsDTO before = receiptValidationService.getStats();
+
+        ShiftIngestResultDTO result = shiftIngestService.ingestShift(
+                new ByteArrayInputStream(body.toString().getBytes(StandardCharsets.UTF_8)));
+        while (receiptValidationService.getDeferredSuspects() > 0) {
+            receiptValidationService.confirmDeferred(50);
+        }
+
+        ReceiptValidationStatsDTO after = receiptValidationService.getStats();
+        assertEquals(RECEIPTS, result.purchases());
+        assertEquals(RECEIPTS, after.receipts() - before.receipts());
+        assertEquals(0, after.skippedReceipts() - before.skippedReceipts());
+        assertEquals(RECEIPTS, after.suspects() - before.suspects());
+        assertEquals(RECEIPTS, after.quarantined() - before.quarantined());
+        assertEquals(RECEIPTS, receiptValidationService.findQuarantine(result.shiftId()).size());
+    }
+}
\ No newline at end of file
@@ -0,0 +1,139 @@
+package ru.otus.prof.retail.services.purchaes;
+
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.purchases.QuarantinedPositionDTO;
+import ru.otus.prof.retail.dto.purchases.ReceiptValidationStatsDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftIngestResultDTO;
+import ru.otus.prof.retail.entities.product.Barcode;
+import ru.otus.prof.retail.repositories.product.BarcodeRepository;
+import ru.otus.prof.retail.repositories.product.ItemRepository;
+import ru.otus.prof.retail.services.product.CatalogSnapshotService;
+import ru.otus.prof.retail.services.product.PriceLookupService;
+import ru.otus.prof.retail.services.purchases.ReceiptValidationService;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
+import ru.otus.prof.retail.services.purchases.validation.MismatchReason;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Transactional
+public class ReceiptValidationServiceTest {
+
+    @Autowired
+    private ReceiptValidationService receiptValidationService;
+
+    @Autowired
+    private ShiftIngestService shiftIngestService;
+
+    @Autowired
+    private CatalogSnapshotService catalogSnapshotService;
+
+    @Autowired
+    private PriceLookupService priceLookupService;
+
+    @Autowired
+    private BarcodeRepository barcodeRepository;
+
+    @Autowired
+    private ItemRepository itemRepository;
+
+    private final LocalDateTime now = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
+
+    @BeforeEach
+    void buildCatalog() {
+        catalogSnapshotService.rebuild();
+        priceLookupService.rebuild();
+    }
+
+    //индекс живет дольше откатываемой транзакции теста
+    @AfterEach
+    void resetIndex() {
+        priceLookupService.invalidateAll();
+    }
+
+    @Test
+    void testIngest_QuarantinesMismatches() {
+        ReceiptValidationStatsDTO before = receiptValidationService.getStats();
+
+        ShiftIngestResultDTO result = shiftIngestService.ingestShift(ndjson(
+                position("1001111111111", 1001, "Item 1", 103),
+                position("1001111111111", 1001, "Item 1", 100),
+                position("9999999999999", 1001, "Item 1", 103),
+                position("1002111111111", 1001, "Item 1", 103),
+                position("1002111111111", 1002, "Item X", 200)));
+
+        List<QuarantinedPositionDTO> quarantine = receiptValidationService.findQuarantine(result.shiftId());
+        assertEquals(5, result.positions());
+        assertEquals(List.of(MismatchReason.PRICE_MISMATCH, MismatchReason.UNKNOWN_BARCODE,
+                        MismatchReason.BARCODE_ARTICLE_MISMATCH, MismatchReason.NAME_MISMATCH),
+                quarantine.stream().map(QuarantinedPositionDTO::reason).toList());
+        assertEquals(103L, quarantine.get(0).expectedPrice());
+        assertNull(quarantine.get(1).expectedArticle());
+        assertEquals(1002L, quarantine.get(2).expectedArticle());
+        assertEquals(now, quarantine.get(0).purchaseDate());
+
+        ReceiptValidationStatsDTO after = receiptValidationService.getStats();
+        assertEquals(1, after.receipts() - before.receipts());
+        assertEquals(5, after.positions() - before.positions());
+        assertEquals(4, after.quarantined() - before.quarantined());
+        assertEquals(1, after.priceMismatch() - before.priceMismatch());
+        assertEquals(1, after.nameMismatch() - before.nameMismatch());
+    }
+
+    @Test
+    void testIngest_ConfirmsSuspectsAgainstDatabase() {
+        //штрих-код добавлен после сборки снимка: по снимку позиция подозрительна, по БД - нет
+        barcodeRepository.save(new Barcode("1001111111119", itemRepository.findById(1001L).orElseThrow()));
+        ReceiptValidationStatsDTO before = receiptValidationService.getStats();
+
+        ShiftIngestResultDTO result = shiftIngestService.ingestShift(ndjson(
+                position("1001111111119", 1001, "Item 1", 103)));
+
+        assertTrue(receiptValidationService.findQuarantine(result.shiftId()).isEmpty());
+        ReceiptValidationStatsDTO after = receiptValidationService.getStats();
+        assertEquals(1, after.suspects() - before.suspects());
+        assertEquals(0, after.quarantined() - before.quarantined());
+    }
+
+    @Test
+    void testIngest_PriceOutsideIndexIsNotChecked() {
+        ReceiptValidationStatsDTO before = receiptValidationService.getStats();
+
+        ShiftIngestResultDTO result = shiftIngestService.ingestShift(ndjson(now.minusDays(30),
+                position("1001111111111", 1001, "Item 1", 1)));
+
+        assertTrue(receiptValidationService.findQuarantine(result.shiftId()).isEmpty());
+        assertEquals(1, receiptValidationService.getStats().priceUnchecked() - before.priceUnchecked());
+    }
+
+    private String position(String barcode, long article, String name, long price) {
+        return "{\"barcode\":\"" + barcode + "\",\"article\":" + article + ",\"positionName\":\"" + name +
+                "\",\"price\":" + price + "}";
+    }
+
+    private InputStream ndjson(String... positions) {
+        return ndjson(now, positions);
+    }
+
+    private InputStream ndjson(LocalDateTime purchaseDate, String... positions) {
+        String header = "{\"shiftNumber\":11,\"shopNumber\":1,\"cashNumber\":1,\"openTime\":\"" +
+                purchaseDate.minusHours(1) + "\",\"closeTime\":\"" + purchaseDate.plusHours(1) + "\",\"total\":null}";
+        String purchase = "{\"purchaseDate\":\"" + purchaseDate + "\",\"total\":1,\"positions\":[" +
+                String.join(",", positions) + "]}";
+        return new ByteArrayInputStream((header + "\n" + purchase + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,126 @@
+package ru.otus.prof.retail.services.purchaes;
+
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.purchases.BackfillResultDTO;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.services.purchases.backfill.SalesBackfillService;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//backfill пишет собственными транзакциями, поэтому загруженные строки удаляются после каждого теста
+@SpringBootTest(properties = "retail.backfill.batch-rows=20")
+@ActiveProfiles("test")
+public class SalesBackfillServiceTest {
+
+    private static final long BACKFILL_SHOP = 77L;
+
+    @Autowired
+    private SalesBackfillService salesBackfillService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM position WHERE purchase_id IN " +
+                "(SELECT p.id FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?)", BACKFILL_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", BACKFILL_SHOP);
+        jdbcTemplate.update("DELETE FROM shift WHERE shop_number = ?", BACKFILL_SHOP);
+    }
+
+    @Test
+    void testBackfill() {
+        StringBuilder body = new StringBuilder();
+        for (int shift = 1; shift <= 3; shift++) {
+            body.append(shiftLine(shift, 4)).append('\n');
+        }
+
+        BackfillResultDTO result = salesBackfillService.backfill(stream(body.toString()));
+
+        assertEquals(3, result.shifts());
+        assertEquals(12, result.purchases());
+        assertEquals(24, result.positions());
+        assertEquals(2, result.batches());
+        assertEquals("jdbc-batch", result.mode());
+
+        assertEquals(3, count("SELECT COUNT(*) FROM shift WHERE shop_number = ?"));
+        assertEquals(12, count("SELECT COUNT(*) FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+        assertEquals(24, count("SELECT COUNT(*) FROM position ps JOIN purchase p ON p.id = ps.purchase_id " +
+                "JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+        assertEquals(1200L, count("SELECT SUM(p.total) FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+    }
+
+    @Test
+    void testBackfill_IdsDoNotCollideWithSequence() {
+        salesBackfillService.backfill(stream(shiftLine(1, 2) + "\n"));
+
+        List<Long> shiftIds = jdbcTemplate.queryForList("SELECT id FROM shift WHERE shop_number = ?", Long.class, BACKFILL_SHOP);
+        Long nextHi = jdbcTemplate.queryForObject("SELECT NEXT VALUE FOR shift_seq", Long.class);
+
+        assertEquals(1, shiftIds.size());
+        assertTrue(shiftIds.get(0) < nextHi - 49);
+    }
+
+    @Test
+    void testBackfill_PurchaseWithoutPositions() {
+        String body = "{\"shiftNumber\":1,\"shopNumber\":" + BACKFILL_SHOP + ",\"cashNumber\":1," +
+                "\"openTime\":\"2019-03-01T08:00:00\",\"closeTime\":\"2019-03-01T20:00:00\",\"total\":100," +
+                "\"purchases\":[{\"purchaseDate\":\"2019-03-01T10:00:00\",\"total\":100,\"positions\":[]}]}\n";
+
+        assertThrows(ShiftValidationException.class, () -> salesBackfillService.backfill(stream(body)));
+        assertEquals(0, count("SELECT COUNT(*) FROM shift WHERE shop_number = ?"));
+    }
+
+    @Test
+    void testBackfill_LongerThanMaxShift() {
+        String body = shiftLine(1, 1).replace("\"closeTime\":\"2019-03-01T20:00:00\"", "\"closeTime\":\"2019-03-02T20:00:00\"") + "\n";
+
+        assertThrows(ShiftValidationException.class, () -> salesBackfillService.backfill(stream(body)));
+        assertEquals(0, count("SELECT COUNT(*) FROM shift WHERE shop_number = ?"));
+    }
+
+    @Test
+    void testBackfill_InvalidShift() {
+        String body = "{\"shiftNumber\":1,\"shopNumber\":" + BACKFILL_SHOP + ",\"cashNumber\":1,\"purchases\":[]}\n";
+
+        assertThrows(ConstraintViolationException.class, () -> salesBackfillService.backfill(stream(body)));
+    }
+
+    private String shiftLine(int shiftNumber, int purchases) {
+        StringBuilder line = new StringBuilder("{\"shiftNumber\":").append(shiftNumber)
+                .append(",\"shopNumber\":").append(BACKFILL_SHOP)
+                .append(",\"cashNumber\":1,\"openTime\":\"2019-03-0").append(shiftNumber).append("T08:00:00\"")
+                .append(",\"closeTime\":\"2019-03-0").append(shiftNumber).append("T20:00:00\"")
+                .append(",\"total\":").append(purchases * 100L)
+                .append(",\"purchases\":[");
+        for (int i = 0; i < purchases; i++) {
+            if (i > 0) {
+                line.append(',');
+            }
+            line.append("{\"purchaseDate\":\"2019-03-0").append(shiftNumber).append("T1").append(i).append(":00:00\"")
+                    .append(",\"total\":100,\"positions\":[")
+                    .append("{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item \\\"1\\\"\",\"price\":40},")
+                    .append("{\"barcode\":\"1002111111111\",\"article\":1002,\"positionName\":\"Item 2\",\"price\":60}]}");
+        }
+        return line.append("]}").toString();
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, BACKFILL_SHOP);
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,84 @@
+package ru.otus.prof.retail.services.purchaes;
+
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.transaction.Transactional;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.purchases.PositionDTO;
+import ru.otus.prof.retail.dto.purchases.PurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.entities.purchases.Shift;
+import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
+import ru.otus.prof.retail.services.purchases.fetch.BatchShiftFetchPlan;
+import ru.otus.prof.retail.services.purchases.fetch.JoinShiftFetchPlan;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class ShiftFetchPlanTest {
+
+    private static final LocalDate CLOSE_DATE = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private JoinShiftFetchPlan joinPlan;
+
+    @Autowired
+    private BatchShiftFetchPlan batchPlan;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Test
+    @Transactional
+    void testPlansReturnSameShifts() {
+        List<Shift> shifts = shiftRepository.findShiftByCloseDate(CLOSE_DATE);
+
+        List<ShiftDTO> batch = batchPlan.withPurchases(shifts);
+        List<ShiftDTO> join = joinPlan.withPurchases(shifts);
+
+        assertEquals(2, batch.size());
+        assertEquals(shifts.stream().map(Shift::getId).toList(), batch.stream().map(ShiftDTO::id).toList());
+        assertEquals(positionsByPurchase(join), positionsByPurchase(batch));
+    }
+
+    @Test
+    @Transactional
+    void testBatchPlan_OneQueryPerLevel() {
+        List<Shift> shifts = shiftRepository.findShiftByCloseDate(CLOSE_DATE);
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+
+        List<ShiftDTO> result = batchPlan.withPurchases(shifts);
+
+        //чеки по ID смен и позиции по ID чеков
+        assertEquals(2, statistics.getPrepareStatementCount());
+        assertEquals(3, result.stream()
+                .flatMap(shift -> shift.purchases().stream())
+                .mapToInt(purchase -> purchase.positions().size())
+                .sum());
+        statistics.setStatisticsEnabled(false);
+    }
+
+    //порядок позиций внутри чека планы не гарантируют
+    private Map<Long, Set<PositionDTO>> positionsByPurchase(List<ShiftDTO> shifts) {
+        return shifts.stream()
+                .flatMap(shift -> shift.purchases().stream())
+                .collect(Collectors.toMap(PurchaseDTO::id, purchase -> new HashSet<>(purchase.positions())));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,165 @@
+package ru.otus.prof.retail.services.purchaes;
+
+import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.purchases.ShiftIngestResultDTO;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.repositories.purchases.PurchaseRepository;
+import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "retail.ingest.batch-size=10")
+@ActiveProfiles("test")
+public class ShiftIngestServiceTest {
+
+    private static final String PURCHASE_LINE = "{\"purchaseDate\":\"2024-02-01T12:00:00\",\"total\":300,\"positions\":[" +
+            "{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item 1\",\"price\":100}," +
+            "{\"barcode\":\"1002111111111\",\"article\":1002,\"positionName\":\"Item 2\",\"price\":200}]}";
+
+    @Autowired
+    private ShiftIngestService shiftIngestService;
+
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private PurchaseRepository purchaseRepository;
+
+    @Test
+    @Transactional
+    void testIngestShift() {
+        ShiftIngestResultDTO result = shiftIngestService.ingestShift(ndjson(header(7500L), 25));
+
+        assertEquals(25, result.purchases());
+        assertEquals(50, result.positions());
+        assertEquals(3, result.chunks());
+        assertEquals(7500L, result.actualTotal());
+        assertTrue(result.reconciled());
+
+        List<Purchase> purchases = purchaseRepository.findPurchaseByShiftId(result.shiftId());
+        assertEquals(25, purchases.size());
+        //ключ партиционирования position заполняется датой чека
+        purchases.forEach(purchase -> purchase.getPositions()
+                .forEach(position -> assertEquals(purchase.getPurchaseDate(), position.getPurchaseDate())));
+    }
+
+    @Test
+    @Transactional
+    void testIngestShift_TotalMismatch() {
+        ShiftIngestResultDTO result = shiftIngestService.ingestShift(ndjson(header(1000L), 5));
+
+        assertEquals(1000L, result.declaredTotal());
+        assertEquals(1500L, result.actualTotal());
+        assertFalse(result.reconciled());
+    }
+
+    @Test
+    @Transactional
+    void testIngestShift_TotalFromPurchases() {
+        ShiftIngestResultDTO result = shiftIngestService.ingestShift(ndjson(header(null), 4));
+
+        assertTrue(result.reconciled());
+        assertEquals(1200L, shiftRepository.findById(result.shiftId()).orElseThrow().getTotal());
+    }
+
+    @Test
+    @Transactional
+    void testIngestShift_RetryStoresReceiptsOnce() {
+        StringBuilder body = new StringBuilder(header(null)).append('\n');
+        for (int receipt = 1; receipt <= 25; receipt++) {
+            body.append(PURCHASE_LINE, 0, PURCHASE_LINE.length() - 1).append(",\"receiptNumber\":").append(receipt).append("}\n");
+        }
+
+        ShiftIngestResultDTO first = shiftIngestService.ingestShift(stream(body.toString()));
+        ShiftIngestResultDTO retry = shiftIngestService.ingestShift(stream(body.toString()));
+
+        assertEquals(25, first.purchases());
+        assertEquals(0, first.duplicates());
+        assertEquals(first.shiftId(), retry.shiftId());
+        assertEquals(0, retry.purchases());
+        assertEquals(25, retry.duplicates());
+        assertTrue(retry.reconciled());
+        assertEquals(25, purchaseRepository.findPurchaseByShiftId(first.shiftId()).size());
+        assertEquals(7500L, shiftRepository.findById(first.shiftId()).orElseThrow().getTotal());
+    }
+
+    @Test
+    @Transactional
+    void testIngestShift_RetryRejectsUnnumberedReceipts() {
+        ShiftIngestResultDTO first = shiftIngestService.ingestShift(ndjson(header(null), 5));
+
+        Exception exception = assertThrows(ShiftValidationException.class,
+                () -> shiftIngestService.ingestShift(ndjson(header(null), 5)));
+
+        assertTrue(exception.getMessage().startsWith("Чек без номера (receiptNumber)"));
+        assertEquals(5, purchaseRepository.findPurchaseByShiftId(first.shiftId()).size());
+    }
+
+    @Test
+    @Transactional
+    void testIngestShift_EmptyBody() {
+        Exception exception = assertThrows(ShiftValidationException.class,
+                () -> shiftIngestService.ingestShift(new ByteArrayInputStream(new byte[0])));
+
+        assertEquals("Поток не содержит заголовка смены", exception.getMessage());
+    }
+
+    @Test
+    @Transactional
+    void testIngestShift_MalformedRecord() {
+        String body = header(300L) + "\n" + PURCHASE_LINE + "\n{broken\n";
+
+        Exception exception = assertThrows(ShiftValidationException.class,
+                () -> shiftIngestService.ingestShift(stream(body)));
+
+        assertTrue(exception.getMessage().startsWith("Неверный формат записи в строке 3"));
+    }
+
+    @Test
+    @Transactional
+    void testIngestShift_InvalidPurchase() {
+        String body = header(300L) + "\n{\"purchaseDate\":\"2024-02-01T12:00:00\",\"total\":300,\"positions\":[]}\n";
+
+        assertThrows(ConstraintViolationException.class, () -> shiftIngestService.ingestShift(stream(body)));
+    }
+
+    @Test
+    void testIngestShift_LongerThanMaxShift() {
+        String body = "{\"shiftNumber\":10,\"shopNumber\":1,\"cashNumber\":1," +
+                "\"openTime\":\"2024-02-01T08:00:00\",\"closeTime\":\"2024-02-02T08:00:01\",\"total\":null}\n" +
+                PURCHASE_LINE + "\n";
+
+        Exception exception = assertThrows(ShiftValidationException.class, () -> shiftIngestService.ingestShift(stream(body)));
+
+        assertTrue(exception.getMessage().startsWith("Смена не может длиться дольше 24 ч"));
+    }
+
+    private String header(Long total) {
+        return "{\"shiftNumber\":10,\"shopNumber\":1,\"cashNumber\":1," +
+                "\"openTime\":\"2024-02-01T08:00:00\",\"closeTime\":\"2024-02-01T20:00:00\",\"total\":" + total + "}";
+    }
+
+    private InputStream ndjson(String header, int purchases) {
+        StringBuilder body = new StringBuilder(header).append('\n');
+        for (int i = 0; i < purchases; i++) {
+            body.append(PURCHASE_LINE).append('\n');
+        }
+        return stream(body.toString());
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -1,16 +1,24 @@
 package ru.otus.prof.retail.services.purchaes;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.transaction.Transactional;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.ActiveProfiles;
 import ru.otus.prof.retail.dto.purchases.ShiftDTO;
+import ru.otus.prof.retail.dto.purchases.ShiftPageDTO;
 import ru.otus.prof.retail.dto.purchases.ShiftSearchRequest;
+import ru.otus.prof.retail.entities.purchases.Shift;
 import ru.otus.prof.retail.exception.purchases.ShiftNotFoundException;
 import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.repositories.purchases.ShiftRepository;
 import ru.otus.prof.retail.services.purchases.ShiftService;
 
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -22,6 +30,12 @@ public class ShiftServiceTest {
     @Autowired
     private ShiftService shiftService;
 
+    @Autowired
+    private ShiftRepository shiftRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
     @Test
     public void testGetAllShiftsByCloseDate() {
         LocalDate closeDate = LocalDate.of(2024, 1, 1);
@@ -192,4 +206,69 @@ public class ShiftServiceTest {
         LocalDate endDate = LocalDate.of(2024, 1, 1);
         assertThrows(ShiftValidationException.class, () ->shiftService.getAllShiftsByCloseDateRange(startDate, endDate, true));
     }
+
+    @Test
+    @Transactional
+    public void testGetAllShiftsByCloseDate_MidnightBelongsToNextDay() {
+        Shift shift = new Shift();
+        shift.setShiftNumber(3L);
+        shift.setShopNumber(1L);
+        shift.setCashNumber(1L);
+        shift.setOpenTime(LocalDateTime.of(2024, 1, 1, 12, 0));
+        shift.setCloseTime(LocalDateTime.of(2024, 1, 2, 0, 0));
+        shiftRepository.save(shift);
+
+        assertEquals(2, shiftService.getAllShiftsByCloseDate(LocalDate.of(2024, 1, 1), false).size());
+        assertEquals(1, shiftService.getAllShiftsByCloseDate(LocalDate.of(2024, 1, 2), false).size());
+    }
+
+    @Test
+    public void testSearchShiftsPage() {
+        ShiftSearchRequest request = new ShiftSearchRequest(null, null, LocalDate.of(2024, 1, 1), null, null, false);
+
+        ShiftPageDTO first = shiftService.searchShiftsPage(request, null, 1);
+        assertEquals(1, first.shifts().size());
+        assertNotNull(first.nextCursor());
+
+        ShiftPageDTO second = shiftService.searchShiftsPage(request, first.nextCursor(), 1);
+        assertEquals(1, second.shifts().size());
+        assertNull(second.nextCursor());
+        assertTrue(first.shifts().get(0).id() < second.shifts().get(0).id());
+    }
+
+    @Test
+    public void testSearchShiftsPage_WithPurchases() {
+        ShiftSearchRequest request = new ShiftSearchRequest(null, null, null,
+                LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), true);
+
+        ShiftPageDTO page = shiftService.searchShiftsPage(request, null, 10);
+
+        assertEquals(2, page.shifts().size());
+        assertNull(page.nextCursor());
+        page.shifts().forEach(shift -> assertEquals(1, shift.purchases().size()));
+    }
+
+    @Test
+    public void testSearchShiftsPage_InvalidCursor() {
+        ShiftSearchRequest request = new ShiftSearchRequest(null, null, LocalDate.of(2024, 1, 1), null, null, false);
+
+        Exception exception = assertThrows(ShiftValidationException.class, () ->
+                shiftService.searchShiftsPage(request, "broken", 10));
+
+        assertEquals("Неверный курсор страницы: broken", exception.getMessage());
+    }
+
+    @Test
+    public void testStreamShifts() throws Exception {
+        ShiftSearchRequest request = new ShiftSearchRequest(null, null, LocalDate.of(2024, 1, 1), null, null, true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        long written = shiftService.streamShifts(request, out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        ShiftDTO first = objectMapper.readValue(lines[0], ShiftDTO.class);
+        assertEquals(1, first.purchases().size());
+    }
 }
\ No newline at end of file
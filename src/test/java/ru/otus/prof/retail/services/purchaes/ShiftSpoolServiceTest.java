@@ -0,0 +1,169 @@
+package ru.otus.prof.retail.services.purchaes;
+
+import jakarta.validation.ConstraintViolationException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import ru.otus.prof.retail.dto.purchases.SpoolAcceptedDTO;
+import ru.otus.prof.retail.exception.purchases.IngestSpoolUnavailableException;
+import ru.otus.prof.retail.exception.purchases.ShiftValidationException;
+import ru.otus.prof.retail.services.purchases.spool.ShiftSpoolService;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.function.LongSupplier;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+//смены передаются в БД фоновым потоком в собственных транзакциях, поэтому строки удаляются после каждого теста
+@SpringBootTest(properties = {"retail.ingest.spool.enabled=true", "retail.ingest.spool.max-backlog-bytes=4096",
+        "retail.ingest.spool.drain-batch-records=4"})
+@ActiveProfiles("test")
+public class ShiftSpoolServiceTest {
+
+    private static final long SPOOL_SHOP = 78L;
+    private static final String PURCHASE_LINE = "{\"purchaseDate\":\"2024-03-01T12:00:00\",\"total\":300,\"positions\":[" +
+            "{\"barcode\":\"1001111111111\",\"article\":1001,\"positionName\":\"Item 1\",\"price\":100}," +
+            "{\"barcode\":\"1002111111111\",\"article\":1002,\"positionName\":\"Item 2\",\"price\":200}]";
+
+    @TempDir
+    static Path spoolDir;
+
+    @DynamicPropertySource
+    static void spoolProperties(DynamicPropertyRegistry registry) {
+        registry.add("retail.ingest.spool.dir", () -> spoolDir.toString());
+    }
+
+    @Autowired
+    private ShiftSpoolService shiftSpoolService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.update("DELETE FROM position_quarantine WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", SPOOL_SHOP);
+        jdbcTemplate.update("DELETE FROM position WHERE purchase_id IN " +
+                "(SELECT p.id FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?)", SPOOL_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase WHERE shift_id IN (SELECT id FROM shift WHERE shop_number = ?)", SPOOL_SHOP);
+        jdbcTemplate.update("DELETE FROM shift WHERE shop_number = ?", SPOOL_SHOP);
+        jdbcTemplate.update("DELETE FROM purchase_key WHERE shop_number = ?", SPOOL_SHOP);
+        jdbcTemplate.update("DELETE FROM daily_sales_rollup WHERE shop_number = ?", SPOOL_SHOP);
+    }
+
+    @Test
+    void testAccept_DrainsShiftsToDatabase() throws InterruptedException {
+        long drainedBefore = shiftSpoolService.getStats().drained();
+
+        SpoolAcceptedDTO first = shiftSpoolService.accept(stream(shift(1, 3)));
+        shiftSpoolService.accept(stream(shift(2, 2)));
+
+        assertTrue(first.bytes() > 0);
+        awaitEquals(drainedBefore + 2, () -> shiftSpoolService.getStats().drained());
+        assertEquals(2, count("SELECT COUNT(*) FROM shift WHERE shop_number = ?"));
+        assertEquals(5, count("SELECT COUNT(*) FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+        awaitEquals(0, () -> shiftSpoolService.getStats().backlogBytes());
+    }
+
+    @Test
+    void testAccept_RepeatedShiftStoredOnce() throws InterruptedException {
+        long drainedBefore = shiftSpoolService.getStats().drained();
+
+        shiftSpoolService.accept(stream(shift(3, 4)));
+        shiftSpoolService.accept(stream(shift(3, 4)));
+
+        awaitEquals(drainedBefore + 2, () -> shiftSpoolService.getStats().drained());
+        assertEquals(1, count("SELECT COUNT(*) FROM shift WHERE shop_number = ?"));
+        assertEquals(4, count("SELECT COUNT(*) FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+    }
+
+    @Test
+    void testAccept_InvalidShiftRejectedBeforeAck() throws IOException {
+        long acceptedBefore = shiftSpoolService.getStats().accepted();
+        String emptyPurchase = header(4) + "\n{\"purchaseDate\":\"2024-03-01T12:00:00\",\"total\":300,\"positions\":[]}\n";
+
+        assertThrows(ConstraintViolationException.class, () -> shiftSpoolService.accept(stream(emptyPurchase)));
+        assertThrows(ShiftValidationException.class, () -> shiftSpoolService.accept(stream(header(4) + "\n{broken\n")));
+        assertThrows(ShiftValidationException.class, () -> shiftSpoolService.accept(stream("")));
+        String longShift = header(4).replace("\"closeTime\":\"2024-03-01T20:00:00\"", "\"closeTime\":\"2024-03-03T20:00:00\"") +
+                "\n" + PURCHASE_LINE + ",\"receiptNumber\":1}\n";
+        assertThrows(ShiftValidationException.class, () -> shiftSpoolService.accept(stream(longShift)));
+        assertEquals(acceptedBefore, shiftSpoolService.getStats().accepted());
+        try (Stream<Path> files = Files.list(spoolDir)) {
+            assertTrue(files.noneMatch(path -> path.getFileName().toString().equals("rejected")));
+        }
+    }
+
+    @Test
+    void testAccept_UnnumberedReceiptRejectedOnReplay() throws InterruptedException {
+        long acceptedBefore = shiftSpoolService.getStats().accepted();
+        long drainedBefore = shiftSpoolService.getStats().drained();
+        String unnumbered = shift(6, 2) + PURCHASE_LINE + "}\n";
+
+        //касса повторяет передачу: ни первая, ни повторная попытка не попадают в спул
+        assertThrows(ShiftValidationException.class, () -> shiftSpoolService.accept(stream(unnumbered)));
+        assertThrows(ShiftValidationException.class, () -> shiftSpoolService.accept(stream(unnumbered)));
+        assertEquals(acceptedBefore, shiftSpoolService.getStats().accepted());
+
+        shiftSpoolService.accept(stream(shift(6, 2)));
+        shiftSpoolService.accept(stream(shift(6, 2)));
+
+        awaitEquals(drainedBefore + 2, () -> shiftSpoolService.getStats().drained());
+        assertEquals(1, count("SELECT COUNT(*) FROM shift WHERE shop_number = ?"));
+        assertEquals(2, count("SELECT COUNT(*) FROM purchase p JOIN shift s ON s.id = p.shift_id WHERE s.shop_number = ?"));
+    }
+
+    @Test
+    void testAccept_BacklogFull() {
+        StringBuilder body = new StringBuilder(header(5)).append('\n');
+        for (int receipt = 1; receipt <= 40; receipt++) {
+            body.append(PURCHASE_LINE).append(",\"receiptNumber\":").append(receipt).append("}\n");
+        }
+
+        Exception exception = assertThrows(IngestSpoolUnavailableException.class,
+                () -> shiftSpoolService.accept(stream(body.toString())));
+
+        assertEquals("Очередь загрузки смен переполнена, повторите передачу позже", exception.getMessage());
+        assertTrue(shiftSpoolService.getStats().refused() > 0);
+    }
+
+    private String shift(int shiftNumber, int purchases) {
+        StringBuilder body = new StringBuilder(header(shiftNumber)).append('\n');
+        for (int receipt = 1; receipt <= purchases; receipt++) {
+            body.append(PURCHASE_LINE).append(",\"receiptNumber\":").append(receipt).append("}\n");
+        }
+        return body.toString();
+    }
+
+    private String header(int shiftNumber) {
+        return "{\"shiftNumber\":" + shiftNumber + ",\"shopNumber\":" + SPOOL_SHOP + ",\"cashNumber\":1," +
+                "\"openTime\":\"2024-03-01T08:00:00\",\"closeTime\":\"2024-03-01T20:00:00\",\"total\":null}";
+    }
+
+    private void awaitEquals(long expected, LongSupplier actual) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (actual.getAsLong() != expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+        }
+        assertEquals(expected, actual.getAsLong());
+    }
+
+    private long count(String sql) {
+        return jdbcTemplate.queryForObject(sql, Long.class, SPOOL_SHOP);
+    }
+
+    private InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+}
\ No newline at end of file
@@ -0,0 +1,64 @@
+package ru.otus.prof.retail.services.purchases.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RecentKeyFilterTest {
+
+    @Test
+    void mightContain_shouldFindEveryAddedKey() {
+        RecentKeyFilter filter = new RecentKeyFilter(10_000, 0.01);
+        for (long key = 0; key < 10_000; key++) {
+            filter.add(RecentKeyFilter.mix(key));
+        }
+
+        for (long key = 0; key < 10_000; key++) {
+            assertThat(filter.mightContain(RecentKeyFilter.mix(key))).isTrue();
+        }
+    }
+
+    @Test
+    void mightContain_shouldKeepFalsePositivesNearConfiguredRate() {
+        RecentKeyFilter filter = new RecentKeyFilter(100_000, 0.01);
+        for (long key = 0; key < 100_000; key++) {
+            filter.add(RecentKeyFilter.mix(key));
+        }
+
+        int falsePositives = 0;
+        for (long key = 1_000_000; key < 1_100_000; key++) {
+            if (filter.mightContain(RecentKeyFilter.mix(key))) {
+                falsePositives++;
+            }
+        }
+        //размер округлен вверх до степени двойки, поэтому доля не выше заданной
+        assertThat(falsePositives).isLessThan(1_000);
+        assertThat(filter.getHashes()).isEqualTo(7);
+    }
+
+    @Test
+    void add_shouldForgetOldestGeneration() {
+        RecentKeyFilter filter = new RecentKeyFilter(1_000, 0.001);
+        for (long key = 0; key < 3_000; key++) {
+            filter.add(RecentKeyFilter.mix(key));
+        }
+
+        //ключи последних двух поколений помнятся, первое поколение забыто
+        for (long key = 1_000; key < 3_000; key++) {
+            assertThat(filter.mightContain(RecentKeyFilter.mix(key))).isTrue();
+        }
+        long remembered = LongStream.range(0, 1_000)
+                .filter(key -> filter.mightContain(RecentKeyFilter.mix(key)))
+                .count();
+        assertThat(remembered).isLessThan(50);
+    }
+
+    @Test
+    void constructor_shouldRejectInvalidRate() {
+        assertThrows(IllegalArgumentException.class, () -> new RecentKeyFilter(1_000, 1.0));
+        assertThrows(IllegalArgumentException.class, () -> new RecentKeyFilter(0, 0.01));
+    }
+}
\ No newline at end of file
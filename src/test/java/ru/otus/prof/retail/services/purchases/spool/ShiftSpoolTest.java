@@ -0,0 +1,152 @@
+package ru.otus.prof.retail.services.purchases.spool;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ShiftSpoolTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void read_shouldReturnRecordsInAppendOrderAcrossSegments() throws IOException {
+        try (ShiftSpool spool = ShiftSpool.open(directory, 100)) {
+            for (int i = 0; i < 20; i++) {
+                spool.append(("shift-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+
+            assertThat(spool.getSegmentCount()).isGreaterThan(1);
+            assertThat(readAll(spool)).containsExactlyElementsOf(
+                    Stream.iterate(0, i -> i + 1).limit(20).map(i -> "shift-" + i).toList());
+        }
+    }
+
+    @Test
+    void commit_shouldDeleteDrainedSegmentsAndReduceBacklog() throws IOException {
+        try (ShiftSpool spool = ShiftSpool.open(directory, 100)) {
+            for (int i = 0; i < 20; i++) {
+                spool.append(("shift-" + i).getBytes(StandardCharsets.UTF_8));
+            }
+            long backlog = spool.getBacklogBytes();
+            int segments = spool.getSegmentCount();
+
+            SpoolPosition position = spool.getCheckpoint();
+            long consumed = 0;
+            for (int i = 0; i < 15; i++) {
+                SpoolRecord record = spool.read(position);
+                consumed += record.size();
+                position = record.next();
+            }
+            spool.commit(position, consumed);
+
+            assertThat(spool.getBacklogBytes()).isEqualTo(backlog - consumed);
+            assertThat(spool.getSegmentCount()).isLessThan(segments);
+            assertThat(readAll(spool)).hasSize(5).first().isEqualTo("shift-15");
+        }
+    }
+
+    @Test
+    void open_shouldResumeFromCheckpointAfterRestart() throws IOException {
+        try (ShiftSpool spool = ShiftSpool.open(directory, 1 << 20)) {
+            spool.append("first".getBytes(StandardCharsets.UTF_8));
+            spool.append("second".getBytes(StandardCharsets.UTF_8));
+            SpoolRecord first = spool.read(spool.getCheckpoint());
+            spool.commit(first.next(), first.size());
+        }
+
+        try (ShiftSpool spool = ShiftSpool.open(directory, 1 << 20)) {
+            assertThat(readAll(spool)).containsExactly("second");
+            assertThat(spool.getBacklogBytes()).isEqualTo(ShiftSpool.HEADER_BYTES + "second".length());
+        }
+    }
+
+    @Test
+    void open_shouldTruncateTornTail() throws IOException {
+        try (ShiftSpool spool = ShiftSpool.open(directory, 1 << 20)) {
+            spool.append("complete".getBytes(StandardCharsets.UTF_8));
+        }
+        Path segment;
+        try (Stream<Path> files = Files.list(directory)) {
+            segment = files.filter(path -> path.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+        }
+        //сбой посреди записи: заголовок обещает 50 байт, записано 2
+        Files.write(segment, new byte[]{0, 0, 0, 50, 1, 2, 3, 4, 5, 6}, StandardOpenOption.APPEND);
+
+        try (ShiftSpool spool = ShiftSpool.open(directory, 1 << 20)) {
+            assertThat(readAll(spool)).containsExactly("complete");
+            spool.append("next".getBytes(StandardCharsets.UTF_8));
+            assertThat(readAll(spool)).containsExactly("complete", "next");
+        }
+    }
+
+    @Test
+    void append_shouldShareFsyncBetweenConcurrentWriters() throws Exception {
+        int records = 400;
+        try (ShiftSpool spool = ShiftSpool.open(directory, 1 << 20)) {
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            try {
+                List<Future<SpoolPosition>> futures = new ArrayList<>();
+                for (int i = 0; i < records; i++) {
+                    byte[] payload = ("shift-" + i).getBytes(StandardCharsets.UTF_8);
+                    futures.add(executor.submit(() -> spool.append(payload)));
+                }
+                for (Future<SpoolPosition> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            assertThat(readAll(spool)).hasSize(records);
+            assertThat(spool.getSyncCount()).isBetween(1L, (long) records);
+        }
+    }
+
+    @Test
+    void append_shouldRollSegmentsWhileOtherWritersSync() throws Exception {
+        int records = 400;
+        try (ShiftSpool spool = ShiftSpool.open(directory, 200)) {
+            ExecutorService executor = Executors.newFixedThreadPool(16);
+            try {
+                List<Future<SpoolPosition>> futures = new ArrayList<>();
+                for (int i = 0; i < records; i++) {
+                    byte[] payload = ("shift-" + i).getBytes(StandardCharsets.UTF_8);
+                    futures.add(executor.submit(() -> spool.append(payload)));
+                }
+                for (Future<SpoolPosition> future : futures) {
+                    future.get();
+                }
+            } finally {
+                executor.shutdown();
+            }
+
+            assertThat(spool.getSegmentCount()).isGreaterThan(1);
+            assertThat(readAll(spool)).hasSize(records).doesNotHaveDuplicates();
+        }
+    }
+
+    private List<String> readAll(ShiftSpool spool) throws IOException {
+        List<String> payloads = new ArrayList<>();
+        SpoolPosition position = spool.getCheckpoint();
+        SpoolRecord record;
+        while ((record = spool.read(position)) != null) {
+            payloads.add(new String(record.payload(), StandardCharsets.UTF_8));
+            position = record.next();
+        }
+        return payloads;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,130 @@
+package ru.otus.prof.retail.services.purchases.validation;
+
+import org.junit.jupiter.api.Test;
+import ru.otus.prof.retail.entities.purchases.Position;
+import ru.otus.prof.retail.entities.purchases.Purchase;
+import ru.otus.prof.retail.entities.purchases.Shift;
+import ru.otus.prof.retail.repositories.product.PriceInterval;
+import ru.otus.prof.retail.services.product.catalog.CatalogSnapshot;
+import ru.otus.prof.retail.services.product.catalog.CatalogSnapshotBuilder;
+import ru.otus.prof.retail.services.product.pricing.PriceIntervalIndex;
+import ru.otus.prof.retail.services.product.pricing.PriceIntervalIndexBuilder;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReceiptValidatorTest {
+
+    private static final LocalDate DAY = LocalDate.of(2025, 6, 9);
+    private static final LocalDateTime EPOCH = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    private final CatalogSnapshot snapshot = new CatalogSnapshotBuilder()
+            .addItem(1L, "Молоко", 100L)
+            .addItem(2L, "Хлеб", 50L)
+            .addBarcode("4600000000001", 1L)
+            .addBarcode("4600000000002", 2L)
+            .build();
+
+    private final PriceIntervalIndex priceIndex = new PriceIntervalIndexBuilder(DAY.atStartOfDay(), DAY.plusDays(1).atStartOfDay())
+            //акция на молоко с 10:00 до 18:00
+            .add(new PriceInterval(1L, 2L, 80L, DAY.atTime(10, 0), DAY.atTime(18, 0)))
+            .add(new PriceInterval(1L, 1L, 100L, EPOCH, null))
+            .add(new PriceInterval(2L, 3L, 50L, EPOCH, null))
+            .build();
+
+    @Test
+    void validate_shouldFlagFirstMismatchOfEachPosition() {
+        ReceiptValidator validator = new ReceiptValidator(snapshot, priceIndex, article -> false, true);
+        Purchase purchase = purchase(DAY.atTime(12, 0),
+                position("4600000000001", 1L, "Молоко", 80L),
+                position("4699999999999", 1L, "Молоко", 80L),
+                position("4600000000002", 1L, "Молоко", 80L),
+                position("4600000000001", 1L, "Молоко", 100L),
+                position("4600000000002", 2L, "Батон", 50L));
+        List<PositionMismatch> mismatches = new ArrayList<>();
+
+        int found = validator.validate(purchase, mismatches);
+
+        assertThat(found).isEqualTo(4);
+        assertThat(mismatches).extracting(PositionMismatch::positionId).containsExactly(2L, 3L, 4L, 5L);
+        assertThat(mismatches).extracting(PositionMismatch::reason).containsExactly(
+                MismatchReason.UNKNOWN_BARCODE,
+                MismatchReason.BARCODE_ARTICLE_MISMATCH,
+                MismatchReason.PRICE_MISMATCH,
+                MismatchReason.NAME_MISMATCH);
+        assertThat(mismatches.get(1).expectedArticle()).isEqualTo(2L);
+        assertThat(mismatches.get(2).expectedPrice()).isEqualTo(80L);
+        assertThat(mismatches.get(0).shiftId()).isEqualTo(7L);
+    }
+
+    @Test
+    void validate_shouldFlagUnknownArticle() {
+        CatalogSnapshot stale = new CatalogSnapshotBuilder()
+                .addItem(1L, "Молоко", 100L)
+                .addBarcode("4600000000003", 3L)
+                .build();
+        ReceiptValidator validator = new ReceiptValidator(stale, priceIndex, article -> false, true);
+        List<PositionMismatch> mismatches = new ArrayList<>();
+
+        validator.validate(purchase(DAY.atTime(12, 0), position("4600000000003", 3L, "Кефир", 70L)), mismatches);
+
+        assertThat(mismatches).extracting(PositionMismatch::reason).containsExactly(MismatchReason.UNKNOWN_ARTICLE);
+    }
+
+    @Test
+    void validate_shouldSkipPriceOutsideIndexAndForChangedArticles() {
+        ReceiptValidator validator = new ReceiptValidator(snapshot, priceIndex, article -> article == 2L, false);
+        List<PositionMismatch> mismatches = new ArrayList<>();
+
+        validator.validate(purchase(DAY.minusDays(1).atTime(12, 0),
+                position("4600000000001", 1L, "Молоко", 1L)), mismatches);
+        validator.validate(purchase(DAY.atTime(12, 0),
+                position("4600000000002", 2L, "Батон", 1L)), mismatches);
+
+        assertThat(mismatches).isEmpty();
+        assertThat(validator.getPriceUnchecked()).isEqualTo(2);
+    }
+
+    @Test
+    void validate_shouldReuseBuffersForLargerReceipts() {
+        ReceiptValidator validator = new ReceiptValidator(snapshot, priceIndex, article -> false, true);
+        List<PositionMismatch> mismatches = new ArrayList<>();
+        Position[] positions = new Position[100];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = position("4600000000002", 2L, "Хлеб", i == 99 ? 49L : 50L);
+        }
+
+        validator.validate(purchase(DAY.atTime(9, 0), position("4600000000001", 1L, "Молоко", 100L)), mismatches);
+        validator.validate(purchase(DAY.atTime(9, 0), positions), mismatches);
+
+        assertThat(mismatches).extracting(PositionMismatch::positionId).containsExactly(100L);
+    }
+
+    private static Purchase purchase(LocalDateTime date, Position... positions) {
+        Shift shift = new Shift();
+        shift.setId(7L);
+        Purchase purchase = new Purchase();
+        purchase.setId(1L);
+        purchase.setShift(shift);
+        purchase.setPurchaseDate(date);
+        for (int i = 0; i < positions.length; i++) {
+            positions[i].setId(i + 1L);
+            positions[i].setPurchase(purchase);
+        }
+        purchase.setPositions(List.of(positions));
+        return purchase;
+    }
+
+    private static Position position(String barcode, Long article, String name, Long price) {
+        Position position = new Position();
+        position.setBarcode(barcode);
+        position.setArticle(article);
+        position.setPositionName(name);
+        position.setPrice(price);
+        return position;
+    }
+}
\ No newline at end of file
@@ -0,0 +1,98 @@
+package ru.otus.prof.retail.services.reports;
+
+import jakarta.transaction.Transactional;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import ru.otus.prof.retail.dto.purchases.InputPositionDTO;
+import ru.otus.prof.retail.dto.purchases.InputPurchaseDTO;
+import ru.otus.prof.retail.dto.purchases.InputShiftDTO;
+import ru.otus.prof.retail.dto.reports.DailySalesDTO;
+import ru.otus.prof.retail.dto.reports.RollupRebuildResultDTO;
+import ru.otus.prof.retail.exception.reports.ReportValidationException;
+import ru.otus.prof.retail.services.purchases.PurchaseService;
+import ru.otus.prof.retail.services.purchases.ShiftIngestService;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+public class DailySalesRollupServiceTest {
+
+    private static final LocalDate DAY = LocalDate.of(2024, 1, 1);
+
+    @Autowired
+    private DailySalesRollupService rollupService;
+
+    @Autowired
+    private PurchaseService purchaseService;
+
+    @Autowired
+    private ShiftIngestService shiftIngestService;
+
+    @Test
+    @Transactional
+    void testRebuild() {
+        RollupRebuildResultDTO result = rollupService.rebuild(DAY, DAY);
+
+        assertEquals(2, result.rows());
+        List<DailySalesDTO> sales = rollupService.getDailySales(1L, null, DAY, DAY);
+        assertEquals(1, sales.size());
+        DailySalesDTO row = sales.get(0);
+        assertEquals(1L, row.cashNumber());
+        assertEquals(DAY, row.day());
+        assertEquals(1L, row.receipts());
+        assertEquals(201L, row.revenue());
+        assertEquals(2L, row.itemsSold());
+    }
+
+    @Test
+    @Transactional
+    void testCreatePurchases_ShouldUpdateRollup() {
+        rollupService.rebuild(DAY, DAY.plusDays(1));
+
+        purchaseService.createPurchases(List.of(
+                new InputPurchaseDTO(1L, DAY.atTime(12, 0), 50L, List.of(
+                        new InputPositionDTO("1001111111111", 1001L, "Item 1", 20L),
+                        new InputPositionDTO("1002111111111", 1002L, "Item 2", 30L)), 1L),
+                new InputPurchaseDTO(1L, DAY.plusDays(1).atTime(0, 5), 100L, List.of(
+                        new InputPositionDTO("1001111111111", 1001L, "Item 1", 100L)), 2L)));
+
+        List<DailySalesDTO> sales = rollupService.getDailySales(1L, 1L, DAY, DAY.plusDays(1));
+
+        assertEquals(2, sales.size());
+        assertEquals(new DailySalesDTO(1L, 1L, DAY, 2L, 251L, 4L), sales.get(0));
+        assertEquals(new DailySalesDTO(1L, 1L, DAY.plusDays(1), 1L, 100L, 1L), sales.get(1));
+    }
+
+    @Test
+    @Transactional
+    void testIngestShift_ShouldUpdateRollup() {
+        LocalDateTime open = LocalDateTime.of(2024, 2, 1, 9, 0);
+        InputShiftDTO header = new InputShiftDTO(1L, 88L, 3L, open, open.plusHours(10), null);
+        List<InputPurchaseDTO> purchases = List.of(
+                new InputPurchaseDTO(null, open.plusHours(1), 10L, List.of(
+                        new InputPositionDTO("1001111111111", 1001L, "Item 1", 10L))),
+                new InputPurchaseDTO(null, open.plusHours(2), 30L, List.of(
+                        new InputPositionDTO("1001111111111", 1001L, "Item 1", 10L),
+                        new InputPositionDTO("1002111111111", 1002L, "Item 2", 20L))));
+
+        shiftIngestService.ingestShift(header, purchases.iterator());
+
+        List<DailySalesDTO> sales = rollupService.getDailySales(88L, null, open.toLocalDate(), open.toLocalDate());
+        assertEquals(List.of(new DailySalesDTO(88L, 3L, open.toLocalDate(), 2L, 40L, 3L)), sales);
+    }
+
+    @Test
+    void testGetDailySales_InvalidRange() {
+        Exception exception = assertThrows(ReportValidationException.class, () ->
+                rollupService.getDailySales(1L, null, DAY.plusDays(1), DAY));
+
+        assertEquals("Начальная дата (2024-01-02) позже конечной (2024-01-01)", exception.getMessage());
+    }
+}
\ No newline at end of file
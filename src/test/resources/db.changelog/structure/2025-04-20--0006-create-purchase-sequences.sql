@@ -0,0 +1,25 @@
+--liquibase formatted sql
+
+--changeset retail:0006-create-purchase-sequences
+-- Последовательности с шагом 50 под пуловое выделение id в Hibernate (allocationSize = 50).
+-- С IDENTITY Hibernate вынужден выполнять каждую вставку отдельно, и JDBC batching не работает
+CREATE SEQUENCE shift_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE purchase_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE position_seq START WITH 1 INCREMENT BY 50;
+
+--changeset retail:0006-bind-purchase-sequences dbms:postgresql
+-- Продолжаем нумерацию после уже загруженных строк и переводим DEFAULT колонок на новые последовательности,
+-- чтобы вставки в обход Hibernate не пересекались с выделенными им диапазонами
+SELECT setval('shift_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM shift));
+SELECT setval('purchase_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM purchase));
+SELECT setval('position_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM position));
+ALTER TABLE shift ALTER COLUMN id SET DEFAULT nextval('shift_seq');
+ALTER TABLE purchase ALTER COLUMN id SET DEFAULT nextval('purchase_seq');
+ALTER TABLE position ALTER COLUMN id SET DEFAULT nextval('position_seq');
+
+--changeset retail:0006-shift-purchase-sequences-h2 dbms:h2
+-- В H2 SERIAL-колонки используют собственный identity, а тестовые данные вставляются после структуры:
+-- уводим последовательности выше, чтобы выделяемые Hibernate id не пересекались с ними
+ALTER SEQUENCE shift_seq RESTART WITH 1001;
+ALTER SEQUENCE purchase_seq RESTART WITH 1001;
+ALTER SEQUENCE position_seq RESTART WITH 1001;
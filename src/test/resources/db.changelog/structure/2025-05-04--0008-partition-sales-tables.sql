@@ -0,0 +1,152 @@
+--liquibase formatted sql
+
+--changeset retail:0008-add-position-purchase-date
+-- Дата чека дублируется в позиции: это ключ партиционирования position
+ALTER TABLE position ADD COLUMN purchase_date TIMESTAMP;
+UPDATE position SET purchase_date = (SELECT p.purchase_date FROM purchase p WHERE p.id = position.purchase_id);
+
+--changeset retail:0008-create-archive-schema dbms:postgresql
+-- Сюда переносятся отсоединенные старые партиции
+CREATE SCHEMA IF NOT EXISTS archive;
+
+--changeset retail:0008-create-month-partition-function dbms:postgresql splitStatements:false
+-- Создает месячную партицию <parent>_pYYYYMM. Строки этого месяца, уже попавшие в DEFAULT-партицию,
+-- переносятся в новую партицию перед ATTACH, иначе PostgreSQL не даст ее подключить
+CREATE OR REPLACE FUNCTION retail_create_month_partition(p_parent TEXT, p_column TEXT, p_month DATE)
+RETURNS BOOLEAN AS $$
+DECLARE
+    v_from DATE := date_trunc('month', p_month)::DATE;
+    v_to DATE := (date_trunc('month', p_month) + INTERVAL '1 month')::DATE;
+    v_partition TEXT := p_parent || '_p' || to_char(p_month, 'YYYYMM');
+BEGIN
+    IF to_regclass(v_partition) IS NOT NULL OR to_regclass('archive.' || v_partition) IS NOT NULL THEN
+        RETURN FALSE;
+    END IF;
+
+    EXECUTE format('CREATE TABLE %I (LIKE %I INCLUDING DEFAULTS)', v_partition, p_parent);
+    EXECUTE format('WITH moved AS (DELETE FROM %I WHERE %I >= %L AND %I < %L RETURNING *) INSERT INTO %I SELECT * FROM moved',
+                   p_parent || '_default', p_column, v_from, p_column, v_to, v_partition);
+    EXECUTE format('ALTER TABLE %I ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                   p_parent, v_partition, v_from, v_to);
+    RETURN TRUE;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset retail:0008-create-ensure-partitions-function dbms:postgresql splitStatements:false
+-- Создает недостающие месячные партиции shift/purchase/position для месяцев [p_from, p_to], возвращает число созданных
+CREATE OR REPLACE FUNCTION retail_ensure_sales_partitions(p_from DATE, p_to DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    v_month DATE := date_trunc('month', p_from)::DATE;
+    v_created INTEGER := 0;
+BEGIN
+    WHILE v_month <= p_to LOOP
+        IF retail_create_month_partition('shift', 'create_date', v_month) THEN
+            v_created := v_created + 1;
+        END IF;
+        IF retail_create_month_partition('purchase', 'purchase_date', v_month) THEN
+            v_created := v_created + 1;
+        END IF;
+        IF retail_create_month_partition('position', 'purchase_date', v_month) THEN
+            v_created := v_created + 1;
+        END IF;
+        v_month := (v_month + INTERVAL '1 month')::DATE;
+    END LOOP;
+    RETURN v_created;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset retail:0008-create-archive-partitions-function dbms:postgresql splitStatements:false
+-- Отсоединяет партиции месяцев, закончившихся до p_before, и переносит их в схему archive.
+-- Данные остаются доступны для выгрузки, но не участвуют в запросах и автовакууме основных таблиц
+CREATE OR REPLACE FUNCTION retail_archive_sales_partitions(p_before DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    v_partition RECORD;
+    v_archived INTEGER := 0;
+BEGIN
+    FOR v_partition IN
+        SELECT parent.relname AS parent_name, child.relname AS child_name
+        FROM pg_inherits i
+        JOIN pg_class parent ON parent.oid = i.inhparent
+        JOIN pg_class child ON child.oid = i.inhrelid
+        JOIN pg_namespace ns ON ns.oid = child.relnamespace
+        WHERE parent.relname IN ('shift', 'purchase', 'position')
+          AND ns.nspname = current_schema()
+          AND child.relname ~ '_p[0-9]{6}$'
+          AND to_date(substring(child.relname from '([0-9]{6})$'), 'YYYYMM') + INTERVAL '1 month' <= p_before
+        ORDER BY child.relname
+    LOOP
+        EXECUTE format('ALTER TABLE %I DETACH PARTITION %I', v_partition.parent_name, v_partition.child_name);
+        EXECUTE format('ALTER TABLE %I SET SCHEMA archive', v_partition.child_name);
+        v_archived := v_archived + 1;
+    END LOOP;
+    RETURN v_archived;
+END;
+$$ LANGUAGE plpgsql;
+
+--changeset retail:0008-partition-sales-tables dbms:postgresql
+-- Таблицы пересоздаются секционированными по месяцам, данные переносятся из *_legacy.
+-- Первичный ключ секционированной таблицы обязан включать ключ партиционирования,
+-- поэтому внешние ключи purchase -> shift и position -> purchase не переносятся
+ALTER TABLE position RENAME TO position_legacy;
+ALTER TABLE purchase RENAME TO purchase_legacy;
+ALTER TABLE shift RENAME TO shift_legacy;
+
+CREATE TABLE shift (
+    id BIGINT NOT NULL DEFAULT nextval('shift_seq'),
+    shift_number BIGINT NOT NULL,
+    shop_number BIGINT NOT NULL,
+    cash_number BIGINT NOT NULL,
+    create_date TIMESTAMP NOT NULL,
+    close_date TIMESTAMP,
+    total BIGINT,
+    PRIMARY KEY (id, create_date)
+) PARTITION BY RANGE (create_date);
+
+CREATE TABLE purchase (
+    id BIGINT NOT NULL DEFAULT nextval('purchase_seq'),
+    shift_id BIGINT NOT NULL,
+    purchase_date TIMESTAMP NOT NULL,
+    total BIGINT NOT NULL,
+    PRIMARY KEY (id, purchase_date)
+) PARTITION BY RANGE (purchase_date);
+
+CREATE TABLE position (
+    id BIGINT NOT NULL DEFAULT nextval('position_seq'),
+    purchase_id BIGINT NOT NULL,
+    purchase_date TIMESTAMP NOT NULL,
+    barcode VARCHAR(255) NOT NULL,
+    article BIGINT NOT NULL,
+    price BIGINT NOT NULL,
+    position_name VARCHAR(255) NOT NULL,
+    PRIMARY KEY (id, purchase_date)
+) PARTITION BY RANGE (purchase_date);
+
+CREATE TABLE shift_default PARTITION OF shift DEFAULT;
+CREATE TABLE purchase_default PARTITION OF purchase DEFAULT;
+CREATE TABLE position_default PARTITION OF position DEFAULT;
+
+SELECT retail_ensure_sales_partitions(
+    COALESCE(LEAST((SELECT MIN(create_date) FROM shift_legacy), (SELECT MIN(purchase_date) FROM purchase_legacy)),
+             now())::DATE,
+    (now() + INTERVAL '3 months')::DATE);
+
+INSERT INTO shift (id, shift_number, shop_number, cash_number, create_date, close_date, total)
+SELECT id, shift_number, shop_number, cash_number, create_date, close_date, total FROM shift_legacy;
+
+INSERT INTO purchase (id, shift_id, purchase_date, total)
+SELECT id, shift_id, purchase_date, total FROM purchase_legacy;
+
+INSERT INTO position (id, purchase_id, purchase_date, barcode, article, price, position_name)
+SELECT id, purchase_id, purchase_date, barcode, article, price, position_name FROM position_legacy;
+
+DROP TABLE position_legacy;
+DROP TABLE purchase_legacy;
+DROP TABLE shift_legacy;
+
+-- Индексы из 0007 пересоздаются на секционированных таблицах и наследуются каждой партицией
+CREATE INDEX idx_shift_shop_cash_close ON shift (shop_number, cash_number, close_date);
+CREATE INDEX idx_shift_close_date ON shift (close_date);
+CREATE INDEX idx_purchase_shift_date ON purchase (shift_id, purchase_date) INCLUDE (total);
+CREATE INDEX idx_position_purchase_id ON position (purchase_id);
@@ -0,0 +1,24 @@
+--liquibase formatted sql
+
+--changeset retail:0009-create-daily-sales-rollup
+-- Дневная свертка продаж по кассам: отчеты читают по строке на кассу за день вместо суммирования чеков.
+-- Колонка дня названа sale_date: DAY - ключевое слово H2
+CREATE TABLE daily_sales_rollup (
+    shop_number BIGINT NOT NULL,
+    cash_number BIGINT NOT NULL,
+    sale_date DATE NOT NULL,
+    receipts BIGINT NOT NULL,
+    revenue BIGINT NOT NULL,
+    items_sold BIGINT NOT NULL,
+    CONSTRAINT pk_daily_sales_rollup PRIMARY KEY (shop_number, cash_number, sale_date)
+);
+
+--changeset retail:0009-fill-daily-sales-rollup
+-- Начальное заполнение по уже загруженным чекам, дальше свертка поддерживается при загрузке
+INSERT INTO daily_sales_rollup (shop_number, cash_number, sale_date, receipts, revenue, items_sold)
+SELECT s.shop_number, s.cash_number, CAST(p.purchase_date AS DATE), COUNT(*), SUM(p.total), SUM(p.items)
+FROM (SELECT pu.shift_id, pu.purchase_date, pu.total,
+             (SELECT COUNT(*) FROM position ps WHERE ps.purchase_id = pu.id) AS items
+      FROM purchase pu) p
+JOIN shift s ON s.id = p.shift_id
+GROUP BY s.shop_number, s.cash_number, CAST(p.purchase_date AS DATE);
@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset retail:0010-create-shift-keyset-index
+-- Постраничная выдача смен идет по ключу (close_date, id): индекс отдает строки сразу в нужном порядке.
+-- Заменяет индекс по close_date - поиск только по дате закрытия использует тот же префикс
+DROP INDEX idx_shift_close_date;
+CREATE INDEX idx_shift_close_date_id ON shift (close_date, id);
@@ -0,0 +1,17 @@
+--liquibase formatted sql
+
+--changeset retail:0013-add-price-effective-dates
+-- Цена действует в полуоткрытом интервале [effective_from, effective_to), effective_to IS NULL - бессрочно.
+-- Из нескольких цен, действующих в момент T, выбирается начавшая действовать позже (акция поверх базовой цены),
+-- при равенстве - добавленная последней. Существующие цены считаются действующими с начала эпохи,
+-- все кроме последней по id закрываются, чтобы поиск цены на момент не просматривал историю
+ALTER TABLE price ADD COLUMN effective_from TIMESTAMP NOT NULL DEFAULT TIMESTAMP '1970-01-01 00:00:00';
+ALTER TABLE price ADD COLUMN effective_to TIMESTAMP;
+
+UPDATE price SET effective_to = effective_from
+WHERE id < (SELECT MAX(p2.id) FROM price p2 WHERE p2.article = price.article);
+
+-- Поиск цены на момент по набору артикулов: диапазон по effective_from внутри артикула.
+-- Заменяет индекс (article, id), по которому выбиралась последняя цена
+DROP INDEX idx_price_article_id;
+CREATE INDEX idx_price_article_effective ON price (article, effective_from, id);
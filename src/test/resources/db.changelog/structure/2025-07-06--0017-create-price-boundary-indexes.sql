@@ -0,0 +1,7 @@
+--liquibase formatted sql
+
+--changeset retail:0017-create-price-boundary-indexes
+-- Обход границ интервалов цен: цены, начавшие или закончившие действовать с прошлого обхода,
+-- выбираются диапазонами по effective_from и effective_to по всем товарам
+CREATE INDEX idx_price_effective_from ON price (effective_from);
+CREATE INDEX idx_price_effective_to ON price (effective_to);